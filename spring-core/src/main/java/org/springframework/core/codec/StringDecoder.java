@@ -27,12 +27,12 @@ import java.util.stream.Collectors;
 
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.LimitedDataBufferList;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.MimeType;
@@ -55,8 +55,6 @@ import org.springframework.util.MimeTypeUtils;
  */
 public class StringDecoder extends AbstractDataBufferDecoder<String> {
 
-	private static final DataBuffer END_FRAME = new DefaultDataBufferFactory().wrap(new byte[0]);
-
 	/**
 	 * The default charset to use, i.e. "UTF-8".
 	 */
@@ -92,10 +90,13 @@ public class StringDecoder extends AbstractDataBufferDecoder<String> {
 
 		List<byte[]> delimiterBytes = getDelimiterBytes(mimeType);
 
-		Flux<DataBuffer> inputFlux = Flux.from(inputStream)
-				.flatMap(dataBuffer -> splitOnDelimiter(dataBuffer, delimiterBytes))
-				.bufferUntil(StringDecoder::isEndFrame)
-				.flatMap(StringDecoder::joinUntilEndFrame);
+		Flux<DataBuffer> inputFlux = Flux.defer(() -> {
+			LimitedDataBufferList chunks = new LimitedDataBufferList(getMaxInMemorySize());
+			return Flux.from(inputStream)
+					.concatMapIterable(buffer -> splitOnDelimiter(buffer, delimiterBytes, chunks))
+					.concatWith(Flux.defer(() -> chunks.isEmpty() ? Flux.empty() : Flux.just(joinAndClear(chunks))))
+					.doFinally(signalType -> chunks.releaseAndClear());
+		});
 		return super.decode(inputFlux, elementType, mimeType, hints);
 	}
 
@@ -107,45 +108,67 @@ public class StringDecoder extends AbstractDataBufferDecoder<String> {
 	}
 
 	/**
-	 * Splits the given data buffer on delimiter boundaries. The returned Flux contains a
-	 * {@link #END_FRAME} buffer after each delimiter.
+	 * Split the given data buffer on delimiter boundaries, returning a buffer
+	 * for each complete line. Partial lines are kept in the given list of
+	 * chunks, subject to its byte count limit, until a delimiter arrives.
 	 */
-	private Flux<DataBuffer> splitOnDelimiter(DataBuffer dataBuffer, List<byte[]> delimiterBytes) {
+	private List<DataBuffer> splitOnDelimiter(
+			DataBuffer dataBuffer, List<byte[]> delimiterBytes, LimitedDataBufferList chunks) {
+
 		List<DataBuffer> frames = new ArrayList<>();
-		do {
-			int length = Integer.MAX_VALUE;
-			byte[] matchingDelimiter = null;
-			for (byte[] delimiter : delimiterBytes) {
-				int idx = indexOf(dataBuffer, delimiter);
-				if (idx >= 0 && idx < length) {
-					length = idx;
-					matchingDelimiter = delimiter;
+		try {
+			do {
+				int length = Integer.MAX_VALUE;
+				byte[] matchingDelimiter = null;
+				for (byte[] delimiter : delimiterBytes) {
+					int idx = indexOf(dataBuffer, delimiter);
+					if (idx >= 0 && idx < length) {
+						length = idx;
+						matchingDelimiter = delimiter;
+					}
 				}
-			}
-			DataBuffer frame;
-			int readPosition = dataBuffer.readPosition();
-			if (matchingDelimiter != null) {
-				if (this.stripDelimiter) {
-					frame = dataBuffer.slice(readPosition, length);
+				DataBuffer frame;
+				int readPosition = dataBuffer.readPosition();
+				if (matchingDelimiter != null) {
+					if (this.stripDelimiter) {
+						frame = dataBuffer.slice(readPosition, length);
+					}
+					else {
+						frame = dataBuffer.slice(readPosition, length + matchingDelimiter.length);
+					}
+					dataBuffer.readPosition(readPosition + length + matchingDelimiter.length);
+
+					frame = DataBufferUtils.retain(frame);
+					if (chunks.isEmpty()) {
+						frames.add(frame);
+					}
+					else {
+						chunks.add(frame);
+						frames.add(joinAndClear(chunks));
+					}
 				}
 				else {
-					frame = dataBuffer.slice(readPosition, length + matchingDelimiter.length);
+					frame = dataBuffer.slice(readPosition, dataBuffer.readableByteCount());
+					dataBuffer.readPosition(readPosition + dataBuffer.readableByteCount());
+					chunks.add(DataBufferUtils.retain(frame));
 				}
-				dataBuffer.readPosition(readPosition + length + matchingDelimiter.length);
-
-				frames.add(DataBufferUtils.retain(frame));
-				frames.add(END_FRAME);
-			}
-			else {
-				frame = dataBuffer.slice(readPosition, dataBuffer.readableByteCount());
-				dataBuffer.readPosition(readPosition + dataBuffer.readableByteCount());
-				frames.add(DataBufferUtils.retain(frame));
 			}
+			while (dataBuffer.readableByteCount() > 0);
+		}
+		catch (DataBufferLimitException ex) {
+			frames.forEach(DataBufferUtils::release);
+			throw ex;
+		}
+		finally {
+			DataBufferUtils.release(dataBuffer);
 		}
-		while (dataBuffer.readableByteCount() > 0);
+		return frames;
+	}
 
-		DataBufferUtils.release(dataBuffer);
-		return Flux.fromIterable(frames);
+	private static DataBuffer joinAndClear(LimitedDataBufferList chunks) {
+		DataBuffer result = chunks.get(0).factory().join(chunks);
+		chunks.clear();
+		return result;
 	}
 
 	/**
@@ -177,27 +200,6 @@ public class StringDecoder extends AbstractDataBufferDecoder<String> {
 		return -1;
 	}
 
-	/**
-	 * Checks whether the given buffer is {@link #END_FRAME}.
-	 */
-	private static boolean isEndFrame(DataBuffer dataBuffer) {
-		return dataBuffer == END_FRAME;
-	}
-
-	/**
-	 * Joins the given list of buffers into a single buffer.
-	 */
-	private static Mono<DataBuffer> joinUntilEndFrame(List<DataBuffer> dataBuffers) {
-		if (!dataBuffers.isEmpty()) {
-			int lastIdx = dataBuffers.size() - 1;
-			if (isEndFrame(dataBuffers.get(lastIdx))) {
-				dataBuffers.remove(lastIdx);
-			}
-		}
-		Flux<DataBuffer> flux = Flux.fromIterable(dataBuffers);
-		return DataBufferUtils.join(flux);
-	}
-
 	@Override
 	protected String decodeDataBuffer(DataBuffer dataBuffer, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
@@ -0,0 +1,385 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Fans out items backed by a {@link DataBuffer} to any number of subscribers,
+ * so that an item that is encoded once can be sent to all of them.
+ *
+ * <p>Each subscriber receives its own shared copy of a broadcast item, e.g.
+ * a {@linkplain DataBufferUtils#retain retained} {@linkplain DataBuffer#slice
+ * slice} of the same buffer, and is responsible for releasing it, as is
+ * usual for data buffers written to a server response or WebSocket session.
+ * Shared copies that are never delivered, because they were dropped or the
+ * subscriber cancelled, are released by the broadcaster.
+ *
+ * <p>Subscribers that do not keep up are handled according to the configured
+ * {@link OverflowStrategy}, once the number of items buffered for them
+ * reaches the configured {@linkplain #setBufferSize buffer size}.
+ *
+ * <p>Items broadcast concurrently from different threads may be received in
+ * a different order by different subscribers.
+ *
+ * @since 5.0.16
+ * @param <T> the type of items broadcast
+ * @see #create()
+ */
+public class DataBufferBroadcaster<T> {
+
+	/**
+	 * Strategies for subscribers whose buffer is full.
+	 */
+	public enum OverflowStrategy {
+
+		/**
+		 * Drop new items until the subscriber catches up.
+		 */
+		DROP,
+
+		/**
+		 * Drop the oldest buffered items, so that the subscriber receives
+		 * the latest items once it catches up.
+		 */
+		LATEST,
+
+		/**
+		 * Terminate the subscriber with an overflow error, as created by
+		 * {@link Exceptions#failWithOverflow(String)}, e.g. to have a slow
+		 * client disconnected.
+		 */
+		ERROR
+	}
+
+
+	private final Function<T, T> shareFunction;
+
+	private final Consumer<T> releaseFunction;
+
+	private OverflowStrategy overflowStrategy = OverflowStrategy.DROP;
+
+	private int bufferSize = 256;
+
+	private final Set<BroadcastSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	private volatile boolean completed;
+
+
+	/**
+	 * Create a broadcaster for items of the given type.
+	 * @param shareFunction function that returns a copy of a broadcast item
+	 * for one subscriber, with its own retained reference to the underlying
+	 * data buffer, e.g. a retained slice
+	 * @param releaseFunction function that releases an item
+	 */
+	public DataBufferBroadcaster(Function<T, T> shareFunction, Consumer<T> releaseFunction) {
+		Assert.notNull(shareFunction, "Share function must not be null");
+		Assert.notNull(releaseFunction, "Release function must not be null");
+		this.shareFunction = shareFunction;
+		this.releaseFunction = releaseFunction;
+	}
+
+
+	/**
+	 * Create a broadcaster that sends each subscriber a retained slice of
+	 * the broadcast data buffer.
+	 */
+	public static DataBufferBroadcaster<DataBuffer> create() {
+		return new DataBufferBroadcaster<>(DataBufferBroadcaster::retainedSlice, DataBufferUtils::release);
+	}
+
+	/**
+	 * Return a retained slice of the readable bytes of the given buffer,
+	 * with its own read and write positions.
+	 * @param buffer the buffer to share
+	 * @return the retained slice
+	 */
+	public static DataBuffer retainedSlice(DataBuffer buffer) {
+		DataBuffer slice = buffer.slice(buffer.readPosition(), buffer.readableByteCount());
+		return DataBufferUtils.retain(slice);
+	}
+
+
+	/**
+	 * Set the strategy for subscribers whose buffer is full.
+	 * <p>By default this is {@link OverflowStrategy#DROP}.
+	 */
+	public void setOverflowStrategy(OverflowStrategy overflowStrategy) {
+		Assert.notNull(overflowStrategy, "OverflowStrategy must not be null");
+		this.overflowStrategy = overflowStrategy;
+	}
+
+	/**
+	 * Return the configured overflow strategy.
+	 */
+	public OverflowStrategy getOverflowStrategy() {
+		return this.overflowStrategy;
+	}
+
+	/**
+	 * Set the maximum number of items to buffer for a subscriber that has
+	 * not requested them yet.
+	 * <p>By default this is 256.
+	 */
+	public void setBufferSize(int bufferSize) {
+		Assert.isTrue(bufferSize > 0, "Buffer size must be greater than 0");
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Return the configured buffer size.
+	 */
+	public int getBufferSize() {
+		return this.bufferSize;
+	}
+
+	/**
+	 * Return the number of current subscribers.
+	 */
+	public int getSubscriberCount() {
+		return this.subscriptions.size();
+	}
+
+	/**
+	 * Return the number of items dropped for slow subscribers so far.
+	 */
+	public long getDroppedCount() {
+		return this.droppedCount.get();
+	}
+
+
+	/**
+	 * Return a {@code Flux} that receives every item broadcast after it has
+	 * been subscribed to, until {@link #complete()} is called.
+	 */
+	public Flux<T> connect() {
+		return Flux.from(subscriber -> {
+			BroadcastSubscription subscription = new BroadcastSubscription(subscriber);
+			this.subscriptions.add(subscription);
+			subscriber.onSubscribe(subscription);
+			if (this.completed) {
+				subscription.complete();
+			}
+		});
+	}
+
+	/**
+	 * Send the given item to all current subscribers, releasing it afterwards.
+	 * @param item the item to broadcast, for which the broadcaster takes over
+	 * the responsibility to release it
+	 * @return the number of subscribers the item was queued or delivered to
+	 */
+	public int broadcast(T item) {
+		Assert.notNull(item, "Item must not be null");
+		try {
+			if (this.completed) {
+				return 0;
+			}
+			int count = 0;
+			for (BroadcastSubscription subscription : this.subscriptions) {
+				if (subscription.offer(item)) {
+					count++;
+				}
+			}
+			return count;
+		}
+		finally {
+			this.releaseFunction.accept(item);
+		}
+	}
+
+	/**
+	 * Complete all current subscribers, once they have received the items
+	 * buffered for them, as well as subscribers that subscribe later.
+	 * Items broadcast afterwards are released without being sent.
+	 */
+	public void complete() {
+		this.completed = true;
+		for (BroadcastSubscription subscription : this.subscriptions) {
+			subscription.complete();
+		}
+	}
+
+
+	/**
+	 * The state of one subscriber, with the items buffered for it.
+	 * All state is guarded by the subscription itself, with signals
+	 * emitted outside of the lock by one thread at a time.
+	 */
+	private final class BroadcastSubscription implements Subscription {
+
+		private final Subscriber<? super T> subscriber;
+
+		private final ArrayDeque<T> queue = new ArrayDeque<>();
+
+		private long requested;
+
+		private boolean completing;
+
+		@Nullable
+		private Throwable error;
+
+		private boolean terminated;
+
+		private boolean emitting;
+
+		private boolean missed;
+
+		BroadcastSubscription(Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		boolean offer(T item) {
+			boolean accepted;
+			synchronized (this) {
+				if (this.terminated || this.completing || this.error != null) {
+					return false;
+				}
+				if (this.queue.size() >= bufferSize) {
+					droppedCount.incrementAndGet();
+					switch (overflowStrategy) {
+						case DROP:
+							return false;
+						case LATEST:
+							releaseFunction.accept(this.queue.poll());
+							break;
+						default:
+							this.error = Exceptions.failWithOverflow(
+									"Buffer of " + bufferSize + " items exceeded for slow subscriber");
+							releaseQueued();
+					}
+				}
+				accepted = (this.error == null);
+				if (accepted) {
+					this.queue.offer(shareFunction.apply(item));
+				}
+			}
+			drain();
+			return accepted;
+		}
+
+		void complete() {
+			synchronized (this) {
+				this.completing = true;
+			}
+			drain();
+		}
+
+		@Override
+		public void request(long n) {
+			synchronized (this) {
+				if (n <= 0) {
+					this.error = new IllegalArgumentException(
+							"Spec. Rule 3.9 - Cannot request a non strictly positive number: " + n);
+					releaseQueued();
+				}
+				else {
+					this.requested = (this.requested + n < 0 ? Long.MAX_VALUE : this.requested + n);
+				}
+			}
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			synchronized (this) {
+				this.terminated = true;
+				releaseQueued();
+			}
+			subscriptions.remove(this);
+		}
+
+		private void drain() {
+			synchronized (this) {
+				if (this.emitting) {
+					this.missed = true;
+					return;
+				}
+				this.emitting = true;
+			}
+			while (true) {
+				T item = null;
+				Throwable error = null;
+				boolean complete = false;
+				synchronized (this) {
+					if (this.terminated) {
+						this.emitting = false;
+						return;
+					}
+					if (this.error != null) {
+						error = this.error;
+						this.terminated = true;
+					}
+					else if (!this.queue.isEmpty() && this.requested > 0) {
+						item = this.queue.poll();
+						if (this.requested != Long.MAX_VALUE) {
+							this.requested--;
+						}
+					}
+					else if (this.queue.isEmpty() && this.completing) {
+						complete = true;
+						this.terminated = true;
+					}
+					else if (this.missed) {
+						this.missed = false;
+						continue;
+					}
+					else {
+						this.emitting = false;
+						return;
+					}
+				}
+				if (item != null) {
+					this.subscriber.onNext(item);
+				}
+				else {
+					subscriptions.remove(this);
+					if (error != null) {
+						this.subscriber.onError(error);
+					}
+					else if (complete) {
+						this.subscriber.onComplete();
+					}
+				}
+			}
+		}
+
+		private void releaseQueued() {
+			T item;
+			while ((item = this.queue.poll()) != null) {
+				releaseFunction.accept(item);
+			}
+		}
+	}
+
+}
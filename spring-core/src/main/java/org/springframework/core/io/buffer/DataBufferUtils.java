@@ -33,7 +33,6 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
-import java.util.function.IntPredicate;
 
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscription;
@@ -504,27 +503,39 @@ public abstract class DataBufferUtils {
 	 * @since 5.0.3
 	 */
 	public static Mono<DataBuffer> join(Publisher<DataBuffer> dataBuffers) {
+		return join(dataBuffers, -1);
+	}
+
+	/**
+	 * Variant of {@link #join(Publisher)} that behaves the same way up until
+	 * the specified max number of bytes to buffer. Once the limit is exceeded,
+	 * {@link DataBufferLimitException} is raised and all buffers consumed so
+	 * far are {@linkplain #release(DataBuffer) released}.
+	 * @param dataBuffers the data buffers that are to be composed
+	 * @param maxByteCount the max number of bytes to buffer, or -1 for unlimited
+	 * @return a buffer with the aggregated content, possibly an empty Mono if
+	 * the max number of bytes to buffer is exceeded.
+	 * @throws DataBufferLimitException if maxByteCount is exceeded
+	 * @since 5.0.16
+	 */
+	public static Mono<DataBuffer> join(Publisher<DataBuffer> dataBuffers, int maxByteCount) {
 		Assert.notNull(dataBuffers, "'dataBuffers' must not be null");
 
-		return Flux.from(dataBuffers)
-				.onErrorResume(DataBufferUtils::exceptionDataBuffer)
-				.collectList()
-				.filter(list -> !list.isEmpty())
-				.flatMap(list -> {
-					for (int i = 0; i < list.size(); i++) {
-						DataBuffer dataBuffer = list.get(i);
-						if (dataBuffer instanceof ExceptionDataBuffer) {
-							list.subList(0, i).forEach(DataBufferUtils::release);
-							return Mono.error(((ExceptionDataBuffer) dataBuffer).throwable());
+		return Mono.defer(() -> {
+			LimitedDataBufferList list = new LimitedDataBufferList(maxByteCount);
+			return Flux.from(dataBuffers)
+					.doOnNext(list::add)
+					.doOnError(ex -> list.releaseAndClear())
+					.doOnCancel(list::releaseAndClear)
+					.then(Mono.fromSupplier(() -> {
+						if (list.isEmpty()) {
+							return null;
 						}
-					}
-					DataBufferFactory bufferFactory = list.get(0).factory();
-					return Mono.just(bufferFactory.join(list));
-				});
-	}
-
-	private static Mono<DataBuffer> exceptionDataBuffer(Throwable throwable) {
-		return Mono.just(new ExceptionDataBuffer(throwable));
+						DataBuffer result = list.get(0).factory().join(list);
+						list.clear();
+						return result;
+					}));
+		});
 	}
 
 
@@ -713,154 +724,4 @@ public abstract class DataBufferUtils {
 		}
 	}
 
-
-	/**
-	 * DataBuffer implementation that holds a {@link Throwable}, used in {@link #join(Publisher)}.
-	 */
-	private static final class ExceptionDataBuffer implements DataBuffer {
-
-		private final Throwable throwable;
-
-
-		public ExceptionDataBuffer(Throwable throwable) {
-			this.throwable = throwable;
-		}
-
-		public Throwable throwable() {
-			return this.throwable;
-		}
-
-		// Unsupported
-
-		@Override
-		public DataBufferFactory factory() {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public int indexOf(IntPredicate predicate, int fromIndex) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public int lastIndexOf(IntPredicate predicate, int fromIndex) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public int readableByteCount() {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public int writableByteCount() {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public int capacity() {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public DataBuffer capacity(int capacity) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public int readPosition() {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public DataBuffer readPosition(int readPosition) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public int writePosition() {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public DataBuffer writePosition(int writePosition) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public byte getByte(int index) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public byte read() {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public DataBuffer read(byte[] destination) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public DataBuffer read(byte[] destination, int offset, int length) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public DataBuffer write(byte b) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public DataBuffer write(byte[] source) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public DataBuffer write(byte[] source, int offset, int length) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public DataBuffer write(DataBuffer... buffers) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public DataBuffer write(ByteBuffer... buffers) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public DataBuffer slice(int index, int length) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public ByteBuffer asByteBuffer() {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public ByteBuffer asByteBuffer(int index, int length) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public InputStream asInputStream() {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public InputStream asInputStream(boolean releaseOnClose) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public OutputStream asOutputStream() {
-			throw new UnsupportedOperationException();
-		}
-	}
-
 }
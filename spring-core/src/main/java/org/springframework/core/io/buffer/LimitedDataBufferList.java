@@ -0,0 +1,128 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Custom {@link java.util.List} to collect data buffers with and enforce a
+ * limit on the total number of bytes buffered. For use with "collect" or
+ * other buffering operators in declarative APIs, e.g. {@link reactor.core.publisher.Flux}.
+ *
+ * <p>Adding elements increases the byte count and if the limit is exceeded,
+ * all buffers in the list, including the one being added, are released and
+ * {@link DataBufferLimitException} is raised. The {@link #clear()} method
+ * resets the count. Remove and set are not supported.
+ *
+ * @since 5.0.16
+ */
+@SuppressWarnings("serial")
+public class LimitedDataBufferList extends ArrayList<DataBuffer> {
+
+	private final int maxByteCount;
+
+	private int byteCount;
+
+
+	/**
+	 * Create a list with the given limit.
+	 * @param maxByteCount the max number of bytes, or -1 for unlimited
+	 */
+	public LimitedDataBufferList(int maxByteCount) {
+		this.maxByteCount = maxByteCount;
+	}
+
+
+	@Override
+	public boolean add(DataBuffer buffer) {
+		updateCount(buffer);
+		return super.add(buffer);
+	}
+
+	@Override
+	public void add(int index, DataBuffer buffer) {
+		updateCount(buffer);
+		super.add(index, buffer);
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends DataBuffer> collection) {
+		for (DataBuffer buffer : collection) {
+			add(buffer);
+		}
+		return !collection.isEmpty();
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends DataBuffer> collection) {
+		throw new UnsupportedOperationException();
+	}
+
+	private void updateCount(DataBuffer buffer) {
+		int bytesToAdd = buffer.readableByteCount();
+		if (this.maxByteCount >= 0 && bytesToAdd > this.maxByteCount - this.byteCount) {
+			DataBufferUtils.release(buffer);
+			releaseAndClear();
+			throw new DataBufferLimitException("Exceeded limit on max bytes to buffer : " + this.maxByteCount);
+		}
+		this.byteCount += bytesToAdd;
+	}
+
+	@Override
+	public DataBuffer remove(int index) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public DataBuffer set(int index, DataBuffer element) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void clear() {
+		this.byteCount = 0;
+		super.clear();
+	}
+
+	/**
+	 * Return the number of bytes currently buffered.
+	 */
+	public int getByteCount() {
+		return this.byteCount;
+	}
+
+	/**
+	 * Shortcut to {@link DataBufferUtils#release release} all data buffers and
+	 * then {@link #clear()}.
+	 */
+	public void releaseAndClear() {
+		forEach(DataBufferUtils::release);
+		clear();
+	}
+
+}
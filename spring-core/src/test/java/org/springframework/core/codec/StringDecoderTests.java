@@ -29,6 +29,7 @@ import reactor.test.StepVerifier;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.util.MimeTypeUtils;
 
 import static org.junit.Assert.*;
@@ -117,6 +118,25 @@ public class StringDecoderTests extends AbstractDataBufferAllocatingTestCase {
 				.verify();
 	}
 
+	@Test
+	public void decodeNewLineWithLimit() {
+		Flux<DataBuffer> source = Flux.just(
+				stringBuffer("abc\n"),
+				stringBuffer("defg\n"),
+				stringBuffer("hij"),
+				stringBuffer("klmno\n")
+		);
+
+		this.decoder.setMaxInMemorySize(5);
+		Flux<String> output = this.decoder.decode(source, ResolvableType.forClass(String.class),
+				null, Collections.emptyMap());
+
+		StepVerifier.create(output)
+				.expectNext("abc")
+				.expectNext("defg")
+				.verifyError(DataBufferLimitException.class);
+	}
+
 	@Test
 	public void decodeNewLineIncludeDelimiters() {
 
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link DataBufferBroadcaster}.
+ */
+public class DataBufferBroadcasterTests extends AbstractDataBufferAllocatingTestCase {
+
+	private final DataBufferBroadcaster<DataBuffer> broadcaster = DataBufferBroadcaster.create();
+
+
+	@Test
+	public void broadcast() {
+		TestSubscriber first = subscribe(Long.MAX_VALUE);
+		TestSubscriber second = subscribe(Long.MAX_VALUE);
+		assertEquals(2, this.broadcaster.getSubscriberCount());
+
+		assertEquals(2, this.broadcaster.broadcast(stringBuffer("foo")));
+		assertEquals(2, this.broadcaster.broadcast(stringBuffer("bar")));
+		this.broadcaster.complete();
+
+		assertEquals(0, this.broadcaster.getSubscriberCount());
+		first.assertReceived("foo", "bar");
+		second.assertReceived("foo", "bar");
+		assertTrue(first.completed);
+		assertTrue(second.completed);
+	}
+
+	@Test
+	public void broadcastWithoutSubscribers() {
+		assertEquals(0, this.broadcaster.broadcast(stringBuffer("foo")));
+	}
+
+	@Test
+	public void dropWhenBufferFull() {
+		this.broadcaster.setBufferSize(2);
+		TestSubscriber subscriber = subscribe(0);
+
+		assertEquals(1, this.broadcaster.broadcast(stringBuffer("a")));
+		assertEquals(1, this.broadcaster.broadcast(stringBuffer("b")));
+		assertEquals(0, this.broadcaster.broadcast(stringBuffer("c")));
+		assertEquals(1, this.broadcaster.getDroppedCount());
+
+		subscriber.request(Long.MAX_VALUE);
+		subscriber.assertReceived("a", "b");
+		subscriber.cancel();
+	}
+
+	@Test
+	public void latestWhenBufferFull() {
+		this.broadcaster.setBufferSize(2);
+		this.broadcaster.setOverflowStrategy(DataBufferBroadcaster.OverflowStrategy.LATEST);
+		TestSubscriber subscriber = subscribe(0);
+
+		this.broadcaster.broadcast(stringBuffer("a"));
+		this.broadcaster.broadcast(stringBuffer("b"));
+		assertEquals(1, this.broadcaster.broadcast(stringBuffer("c")));
+		assertEquals(1, this.broadcaster.getDroppedCount());
+
+		subscriber.request(Long.MAX_VALUE);
+		subscriber.assertReceived("b", "c");
+		subscriber.cancel();
+	}
+
+	@Test
+	public void errorWhenBufferFull() {
+		this.broadcaster.setBufferSize(1);
+		this.broadcaster.setOverflowStrategy(DataBufferBroadcaster.OverflowStrategy.ERROR);
+		TestSubscriber slow = subscribe(0);
+		TestSubscriber fast = subscribe(Long.MAX_VALUE);
+
+		this.broadcaster.broadcast(stringBuffer("a"));
+		assertEquals(1, this.broadcaster.broadcast(stringBuffer("b")));
+
+		assertNotNull(slow.error);
+		assertEquals(1, this.broadcaster.getSubscriberCount());
+		fast.assertReceived("a", "b");
+		fast.cancel();
+	}
+
+	@Test
+	public void requestInBatches() {
+		TestSubscriber subscriber = subscribe(1);
+		this.broadcaster.broadcast(stringBuffer("a"));
+		this.broadcaster.broadcast(stringBuffer("b"));
+		this.broadcaster.broadcast(stringBuffer("c"));
+		subscriber.assertReceived("a");
+
+		subscriber.request(2);
+		subscriber.assertReceived("a", "b", "c");
+		subscriber.cancel();
+	}
+
+	@Test
+	public void cancelReleasesBufferedItems() {
+		TestSubscriber subscriber = subscribe(0);
+		this.broadcaster.broadcast(stringBuffer("a"));
+		this.broadcaster.broadcast(stringBuffer("b"));
+
+		subscriber.cancel();
+		assertEquals(0, this.broadcaster.getSubscriberCount());
+		assertEquals(0, this.broadcaster.broadcast(stringBuffer("c")));
+	}
+
+	@Test
+	public void completeAfterBufferedItems() {
+		TestSubscriber subscriber = subscribe(0);
+		this.broadcaster.broadcast(stringBuffer("a"));
+		this.broadcaster.complete();
+		assertFalse(subscriber.completed);
+		assertEquals(0, this.broadcaster.broadcast(stringBuffer("b")));
+
+		subscriber.request(1);
+		subscriber.assertReceived("a");
+		assertTrue(subscriber.completed);
+
+		TestSubscriber late = subscribe(1);
+		assertTrue(late.completed);
+	}
+
+
+	private TestSubscriber subscribe(long initialRequest) {
+		TestSubscriber subscriber = new TestSubscriber(initialRequest);
+		this.broadcaster.connect().subscribe(subscriber);
+		return subscriber;
+	}
+
+
+	private static class TestSubscriber extends BaseSubscriber<DataBuffer> {
+
+		private final long initialRequest;
+
+		private final List<String> received = new ArrayList<>();
+
+		private boolean completed;
+
+		private Throwable error;
+
+		TestSubscriber(long initialRequest) {
+			this.initialRequest = initialRequest;
+		}
+
+		@Override
+		protected void hookOnSubscribe(Subscription subscription) {
+			if (this.initialRequest > 0) {
+				request(this.initialRequest);
+			}
+		}
+
+		@Override
+		protected void hookOnNext(DataBuffer buffer) {
+			this.received.add(DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+			DataBufferUtils.release(buffer);
+		}
+
+		@Override
+		protected void hookOnComplete() {
+			this.completed = true;
+		}
+
+		@Override
+		protected void hookOnError(Throwable throwable) {
+			this.error = throwable;
+		}
+
+		void assertReceived(String... expected) {
+			assertEquals(String.join(",", expected), this.received.stream().collect(Collectors.joining(",")));
+		}
+	}
+
+}
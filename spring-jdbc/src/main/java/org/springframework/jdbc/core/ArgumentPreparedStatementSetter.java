@@ -32,6 +32,15 @@ public class ArgumentPreparedStatementSetter implements PreparedStatementSetter,
 	@Nullable
 	private final Object[] args;
 
+	@Nullable
+	private final String sql;
+
+	@Nullable
+	private final StatementMetaDataCache metaDataCache;
+
+	@Nullable
+	private StatementMetaDataCache.StatementMetaData metaData;
+
 
 	/**
 	 * Create a new ArgPreparedStatementSetter for the given arguments.
@@ -39,6 +48,24 @@ public class ArgumentPreparedStatementSetter implements PreparedStatementSetter,
 	 */
 	public ArgumentPreparedStatementSetter(@Nullable Object[] args) {
 		this.args = args;
+		this.sql = null;
+		this.metaDataCache = null;
+	}
+
+	/**
+	 * Create a new ArgPreparedStatementSetter for the given arguments,
+	 * reusing cached metadata for null values of unknown type.
+	 * <p>The cache is only consulted if one of the arguments is {@code null}.
+	 * @param args the arguments to set
+	 * @param sql the SQL statement that the arguments are set for
+	 * @param metaDataCache the cache of statement metadata
+	 * @since 5.0.16
+	 * @see StatementMetaDataCache#getStatementMetaData
+	 */
+	public ArgumentPreparedStatementSetter(@Nullable Object[] args, String sql, StatementMetaDataCache metaDataCache) {
+		this.args = args;
+		this.sql = sql;
+		this.metaDataCache = metaDataCache;
 	}
 
 
@@ -66,8 +93,17 @@ public class ArgumentPreparedStatementSetter implements PreparedStatementSetter,
 			StatementCreatorUtils.setParameterValue(ps, parameterPosition, paramValue, paramValue.getValue());
 		}
 		else {
-			StatementCreatorUtils.setParameterValue(ps, parameterPosition, SqlTypeValue.TYPE_UNKNOWN, argValue);
+			StatementCreatorUtils.setParameterValueWithMetaData(ps, parameterPosition, SqlTypeValue.TYPE_UNKNOWN,
+					argValue, (argValue == null ? getMetaData() : null));
+		}
+	}
+
+	@Nullable
+	private StatementMetaDataCache.StatementMetaData getMetaData() {
+		if (this.metaData == null && this.metaDataCache != null && this.sql != null) {
+			this.metaData = this.metaDataCache.getStatementMetaData(this.sql);
 		}
+		return this.metaData;
 	}
 
 	@Override
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.datasource.PoolingDataSource;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadCreator;
+
+/**
+ * Asynchronous facade for a {@link JdbcOperations} instance, running each
+ * operation on a dedicated, bounded executor instead of the calling thread.
+ * Results are exposed as {@link CompletableFuture} as well as Reactor
+ * {@link Mono} and {@link Flux}, making it safe to call JDBC code from
+ * event-loop threads such as in a WebFlux application.
+ *
+ * <p>By default, the executor has as many threads as the target
+ * {@link PoolingDataSource} has connections (or 10 for any other DataSource),
+ * with a bounded queue for pending operations. Operations that do not fit into
+ * the queue fail with a {@link TaskRejectedException}. Alternatively, an
+ * externally managed {@link Executor} may be specified.
+ *
+ * <p>Rows returned as {@link Flux} are read from an open {@code ResultSet} on
+ * demand, via {@link JdbcOperations#queryForStream}: each request from the
+ * subscriber pulls the corresponding number of rows on the executor, with the
+ * driver fetching in chunks of the JdbcTemplate's {@code fetchSize}. All reads
+ * for one subscriber run one after the other, never concurrently. The
+ * underlying Connection is released on completion, error or cancellation,
+ * once any read in progress has finished.
+ *
+ * <p><b>Transactions:</b> Spring-managed JDBC transactions are bound to a thread,
+ * so an operation started by this facade does not participate in a transaction
+ * of the calling thread. To run several statements in one transaction, specify
+ * {@link #setTransactionOperations TransactionOperations} and use
+ * {@link #submitInTransaction} or {@link #executeInTransaction}, which run the
+ * given callback together with its transaction on a single executor thread.
+ *
+ * <p>Requires Reactor for the {@code Mono} and {@code Flux} variants.
+ *
+ * @since 5.0.16
+ * @see JdbcTemplate
+ * @see JdbcOperations#queryForStream
+ */
+public class AsyncJdbcTemplate implements DisposableBean {
+
+	/**
+	 * Default number of executor threads if the number of connections
+	 * available for the target DataSource is unknown.
+	 */
+	public static final int DEFAULT_CONCURRENCY = 10;
+
+	/**
+	 * Default number of pending operations per executor thread.
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY_PER_THREAD = 100;
+
+
+	private final JdbcOperations jdbcOperations;
+
+	private final Executor executor;
+
+	private final Scheduler scheduler;
+
+	@Nullable
+	private final ThreadPoolExecutor ownedExecutor;
+
+	@Nullable
+	private TransactionOperations transactionOperations;
+
+
+	/**
+	 * Create a new AsyncJdbcTemplate for the given JdbcOperations, with a
+	 * dedicated executor sized to the connection pool of the target DataSource.
+	 * @param jdbcOperations the JdbcOperations to delegate to
+	 */
+	public AsyncJdbcTemplate(JdbcOperations jdbcOperations) {
+		this(jdbcOperations, determineConcurrency(jdbcOperations),
+				determineConcurrency(jdbcOperations) * DEFAULT_QUEUE_CAPACITY_PER_THREAD);
+	}
+
+	/**
+	 * Create a new AsyncJdbcTemplate for the given JdbcOperations, with a
+	 * dedicated executor of the given size.
+	 * @param jdbcOperations the JdbcOperations to delegate to
+	 * @param concurrency the number of executor threads, typically
+	 * matching the maximum number of connections of the target DataSource
+	 * @param queueCapacity the maximum number of pending operations
+	 */
+	public AsyncJdbcTemplate(JdbcOperations jdbcOperations, int concurrency, int queueCapacity) {
+		Assert.notNull(jdbcOperations, "JdbcOperations must not be null");
+		Assert.isTrue(concurrency > 0, "Concurrency must be greater than 0");
+		Assert.isTrue(queueCapacity > 0, "Queue capacity must be greater than 0");
+		CustomizableThreadCreator threadCreator = new CustomizableThreadCreator("AsyncJdbcTemplate-");
+		threadCreator.setDaemon(true);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(queueCapacity), threadCreator::createThread);
+		executor.allowCoreThreadTimeOut(true);
+		this.jdbcOperations = jdbcOperations;
+		this.executor = executor;
+		this.scheduler = Schedulers.fromExecutor(executor, true);
+		this.ownedExecutor = executor;
+	}
+
+	/**
+	 * Create a new AsyncJdbcTemplate for the given JdbcOperations,
+	 * running operations on the given externally managed Executor.
+	 * <p>The Executor should be bounded to the number of available connections.
+	 * @param jdbcOperations the JdbcOperations to delegate to
+	 * @param executor the Executor to run operations on
+	 */
+	public AsyncJdbcTemplate(JdbcOperations jdbcOperations, Executor executor) {
+		Assert.notNull(jdbcOperations, "JdbcOperations must not be null");
+		Assert.notNull(executor, "Executor must not be null");
+		this.jdbcOperations = jdbcOperations;
+		this.executor = executor;
+		this.scheduler = Schedulers.fromExecutor(executor, true);
+		this.ownedExecutor = null;
+	}
+
+	private static int determineConcurrency(JdbcOperations jdbcOperations) {
+		if (jdbcOperations instanceof JdbcTemplate) {
+			DataSource dataSource = ((JdbcTemplate) jdbcOperations).getDataSource();
+			if (dataSource instanceof PoolingDataSource) {
+				return ((PoolingDataSource) dataSource).getMaxPoolSize();
+			}
+		}
+		return DEFAULT_CONCURRENCY;
+	}
+
+
+	/**
+	 * Return the JdbcOperations that this facade delegates to.
+	 */
+	public JdbcOperations getJdbcOperations() {
+		return this.jdbcOperations;
+	}
+
+	/**
+	 * Set the TransactionOperations to use for {@link #submitInTransaction}
+	 * and {@link #executeInTransaction}, typically a
+	 * {@link org.springframework.transaction.support.TransactionTemplate}
+	 * for a {@link org.springframework.jdbc.datasource.DataSourceTransactionManager}
+	 * on the same DataSource as the JdbcOperations.
+	 */
+	public void setTransactionOperations(@Nullable TransactionOperations transactionOperations) {
+		this.transactionOperations = transactionOperations;
+	}
+
+	/**
+	 * Return the TransactionOperations to use for transactional callbacks, if any.
+	 */
+	@Nullable
+	public TransactionOperations getTransactionOperations() {
+		return this.transactionOperations;
+	}
+
+
+	/**
+	 * Run the given callback against the JdbcOperations on the executor.
+	 * @param action the callback to run
+	 * @return a CompletableFuture for the result of the callback
+	 */
+	public <T> CompletableFuture<T> submit(Function<JdbcOperations, T> action) {
+		try {
+			return CompletableFuture.supplyAsync(() -> action.apply(this.jdbcOperations), this.executor);
+		}
+		catch (RejectedExecutionException ex) {
+			CompletableFuture<T> future = new CompletableFuture<>();
+			future.completeExceptionally(taskRejected(ex));
+			return future;
+		}
+	}
+
+	/**
+	 * Run the given callback against the JdbcOperations within a transaction,
+	 * with the transaction and all statements of the callback on one executor thread.
+	 * @param action the callback to run
+	 * @return a CompletableFuture for the result of the callback
+	 * @throws IllegalStateException if no TransactionOperations have been specified
+	 * @see #setTransactionOperations
+	 */
+	public <T> CompletableFuture<T> submitInTransaction(Function<JdbcOperations, T> action) {
+		TransactionOperations transactionOperations = obtainTransactionOperations();
+		return submit(jdbcOperations -> transactionOperations.execute(status -> action.apply(jdbcOperations)));
+	}
+
+	/**
+	 * Run the given callback against the JdbcOperations on the executor,
+	 * once the returned Mono is subscribed to.
+	 * @param action the callback to run
+	 * @return a Mono for the result of the callback, empty for a {@code null} result
+	 */
+	public <T> Mono<T> execute(Function<JdbcOperations, T> action) {
+		return Mono.fromCallable(() -> action.apply(this.jdbcOperations))
+				.subscribeOn(this.scheduler)
+				.onErrorMap(RejectedExecutionException.class, this::taskRejected);
+	}
+
+	/**
+	 * Run the given callback against the JdbcOperations within a transaction,
+	 * once the returned Mono is subscribed to, with the transaction and all
+	 * statements of the callback on one executor thread.
+	 * @param action the callback to run
+	 * @return a Mono for the result of the callback, empty for a {@code null} result
+	 * @throws IllegalStateException if no TransactionOperations have been specified
+	 * @see #setTransactionOperations
+	 */
+	public <T> Mono<T> executeInTransaction(Function<JdbcOperations, T> action) {
+		TransactionOperations transactionOperations = obtainTransactionOperations();
+		return execute(jdbcOperations -> transactionOperations.execute(status -> action.apply(jdbcOperations)));
+	}
+
+	/**
+	 * Query for a single result object, asynchronously.
+	 * @see JdbcOperations#queryForObject(String, Class, Object...)
+	 */
+	public <T> Mono<T> queryForObject(String sql, Class<T> requiredType, @Nullable Object... args) {
+		return execute(jdbcOperations -> jdbcOperations.queryForObject(sql, requiredType, args));
+	}
+
+	/**
+	 * Query for a single row mapped to a result object, asynchronously.
+	 * @see JdbcOperations#queryForObject(String, RowMapper, Object...)
+	 */
+	public <T> Mono<T> queryForObject(String sql, RowMapper<T> rowMapper, @Nullable Object... args) {
+		return execute(jdbcOperations -> jdbcOperations.queryForObject(sql, rowMapper, args));
+	}
+
+	/**
+	 * Query for rows mapped to result objects, streaming them from the open
+	 * ResultSet as requested by the subscriber.
+	 * @see JdbcOperations#queryForStream(String, RowMapper, Object...)
+	 */
+	public <T> Flux<T> query(String sql, RowMapper<T> rowMapper, @Nullable Object... args) {
+		return Flux.defer(() -> {
+			// One worker per subscription, serializing all reads and the final close
+			Scheduler.Worker worker = this.scheduler.createWorker();
+			return Flux.using(() -> this.jdbcOperations.queryForStream(sql, rowMapper, args),
+					Flux::fromStream, stream -> closeOnWorker(stream, worker))
+					.subscribeOn(Schedulers.fromExecutor(worker::schedule), true)
+					.onErrorMap(RejectedExecutionException.class, this::taskRejected);
+		});
+	}
+
+	/**
+	 * Issue an update, asynchronously.
+	 * @return a Mono for the number of rows affected
+	 * @see JdbcOperations#update(String, Object...)
+	 */
+	public Mono<Integer> update(String sql, @Nullable Object... args) {
+		return execute(jdbcOperations -> jdbcOperations.update(sql, args));
+	}
+
+	/**
+	 * Close the given Stream on the given worker, after any read in progress,
+	 * since a cancellation may arrive on any thread.
+	 */
+	private static void closeOnWorker(Stream<?> stream, Scheduler.Worker worker) {
+		Runnable close = () -> {
+			try {
+				stream.close();
+			}
+			finally {
+				worker.dispose();
+			}
+		};
+		try {
+			worker.schedule(close);
+		}
+		catch (RejectedExecutionException ex) {
+			// An idle worker on a saturated or shut down executor: no read in progress
+			close.run();
+		}
+	}
+
+	private TaskRejectedException taskRejected(RejectedExecutionException ex) {
+		return new TaskRejectedException("Executor [" + this.executor + "] did not accept JDBC operation", ex);
+	}
+
+	private TransactionOperations obtainTransactionOperations() {
+		TransactionOperations transactionOperations = getTransactionOperations();
+		Assert.state(transactionOperations != null, "No TransactionOperations set");
+		return transactionOperations;
+	}
+
+
+	/**
+	 * Shut down the dedicated executor, if any. Operations that are already
+	 * queued are still completed.
+	 */
+	@Override
+	public void destroy() {
+		if (this.ownedExecutor != null) {
+			this.ownedExecutor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,619 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Bulk insert support that splits the given rows into chunks, and executes
+ * the chunks either sequentially on the current connection, or concurrently
+ * on several connections obtained from the {@link DataSource}.
+ *
+ * <p>Each chunk is sent as a JDBC batch of the given single-row
+ * {@code INSERT ... VALUES (?, ?)} statement by default. Alternatively, the
+ * statement can be rewritten to a multi-row {@code INSERT ... VALUES (?, ?),
+ * (?, ?)} statement per chunk, which many databases process considerably
+ * faster than a JDBC batch. Note that the chunk size then needs to stay within
+ * the database's limit for parameters per statement.
+ *
+ * <p>With a {@linkplain #setConcurrency concurrency} of 1, the default, chunks
+ * are executed in the calling thread, taking part in the current transaction
+ * if any. With a higher concurrency, chunks are executed by as many worker
+ * threads, each on its own connection and committed individually, independent
+ * of any transaction of the calling thread. The {@code DataSource} should then
+ * be a connection pool with at least as many connections.
+ *
+ * <p>Failures are reported per chunk in the returned {@link Result}, rather
+ * than thrown, so that the caller can retry or log the failed chunks. The
+ * exception is a chunk that takes part in a transaction of the calling thread:
+ * its failure is thrown right away, without executing the remaining chunks,
+ * so that the transaction is rolled back rather than committed partially.
+ *
+ * <p><b>NOTE: An instance of this class is thread-safe once configured.</b>
+ *
+ * @since 5.0.16
+ * @see JdbcTemplate#batchUpdate(String, List, int[])
+ * @see org.springframework.jdbc.core.simple.SimpleJdbcInsert#executeBatch(BatchInsertPipeline, org.springframework.jdbc.core.namedparam.SqlParameterSource...)
+ */
+public class BatchInsertPipeline {
+
+	/** Logger available to subclasses */
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final DataSource dataSource;
+
+	private int chunkSize = 1000;
+
+	private int concurrency = 1;
+
+	private boolean multiRowInsert = false;
+
+	@Nullable
+	private Executor executor;
+
+
+	/**
+	 * Create a new {@code BatchInsertPipeline} for the given DataSource.
+	 * @param dataSource the JDBC DataSource to obtain connections from
+	 */
+	public BatchInsertPipeline(DataSource dataSource) {
+		this(new JdbcTemplate(dataSource));
+	}
+
+	/**
+	 * Create a new {@code BatchInsertPipeline} for the given JdbcTemplate,
+	 * using its DataSource, query timeout and exception translator.
+	 * @param jdbcTemplate the JdbcTemplate to use
+	 */
+	public BatchInsertPipeline(JdbcTemplate jdbcTemplate) {
+		Assert.notNull(jdbcTemplate, "JdbcTemplate must not be null");
+		DataSource dataSource = jdbcTemplate.getDataSource();
+		Assert.notNull(dataSource, "JdbcTemplate must have a DataSource");
+		this.jdbcTemplate = jdbcTemplate;
+		this.dataSource = dataSource;
+	}
+
+
+	/**
+	 * Set the number of rows per chunk.
+	 * <p>Default is 1000.
+	 */
+	public void setChunkSize(int chunkSize) {
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Return the number of rows per chunk.
+	 */
+	public int getChunkSize() {
+		return this.chunkSize;
+	}
+
+	/**
+	 * Set the number of chunks to execute concurrently, each on its own
+	 * connection.
+	 * <p>Default is 1, executing all chunks in the calling thread.
+	 * @see #setExecutor
+	 */
+	public void setConcurrency(int concurrency) {
+		Assert.isTrue(concurrency > 0, "Concurrency must be greater than 0");
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Return the number of chunks to execute concurrently.
+	 */
+	public int getConcurrency() {
+		return this.concurrency;
+	}
+
+	/**
+	 * Set whether to rewrite the given single-row insert statement into a
+	 * multi-row insert statement per chunk, instead of executing it as a
+	 * JDBC batch.
+	 * <p>Default is {@code false}.
+	 */
+	public void setMultiRowInsert(boolean multiRowInsert) {
+		this.multiRowInsert = multiRowInsert;
+	}
+
+	/**
+	 * Return whether to rewrite the insert statement into a multi-row insert
+	 * statement per chunk.
+	 */
+	public boolean isMultiRowInsert() {
+		return this.multiRowInsert;
+	}
+
+	/**
+	 * Set the executor to run worker threads with, if the concurrency is
+	 * greater than 1.
+	 * <p>Default is a {@link SimpleAsyncTaskExecutor}, starting a new thread
+	 * per worker for each call to {@code execute}.
+	 */
+	public void setExecutor(@Nullable Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Return the executor to run worker threads with, if any.
+	 */
+	@Nullable
+	public Executor getExecutor() {
+		return this.executor;
+	}
+
+
+	/**
+	 * Execute the given insert statement for all given rows.
+	 * @param sql the single-row insert statement, with one {@code ?}
+	 * placeholder per column
+	 * @param batchArgs the rows to insert, each holding the values for the
+	 * placeholders; may also contain {@link SqlParameterValue} objects
+	 * @return the results per chunk
+	 */
+	public Result execute(String sql, List<Object[]> batchArgs) {
+		return execute(sql, batchArgs, null);
+	}
+
+	/**
+	 * Execute the given insert statement for all given rows.
+	 * @param sql the single-row insert statement, with one {@code ?}
+	 * placeholder per column
+	 * @param batchArgs the rows to insert, each holding the values for the
+	 * placeholders
+	 * @param argTypes the SQL types of the columns (constants from
+	 * {@code java.sql.Types}), or {@code null} to leave it to the
+	 * PreparedStatement to guess the corresponding SQL type
+	 * @return the results per chunk
+	 */
+	public Result execute(String sql, List<Object[]> batchArgs, @Nullable int[] argTypes) {
+		Assert.notNull(sql, "SQL must not be null");
+		Assert.notNull(batchArgs, "Batch arguments must not be null");
+		int chunkCount = (batchArgs.size() + this.chunkSize - 1) / this.chunkSize;
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing SQL batch insert [" + sql + "] with " + batchArgs.size() + " rows in " +
+					chunkCount + " chunks of " + this.chunkSize + (this.multiRowInsert ? " as multi-row inserts" : ""));
+		}
+
+		Pipeline pipeline = new Pipeline(sql, batchArgs, argTypes, chunkCount);
+		int workerCount = Math.min(this.concurrency, chunkCount);
+		if (workerCount <= 1) {
+			pipeline.run();
+		}
+		else {
+			pipeline.runConcurrently(workerCount,
+					(this.executor != null ? this.executor : new SimpleAsyncTaskExecutor("batch-insert-")));
+		}
+		return new Result(Arrays.asList(pipeline.results));
+	}
+
+
+	/**
+	 * Rewrite the given single-row insert statement into a statement that
+	 * inserts the given number of rows, repeating the parenthesized list that
+	 * follows the {@code VALUES} keyword.
+	 * @param sql the single-row insert statement
+	 * @param rows the number of rows
+	 * @return the multi-row insert statement
+	 * @throws InvalidDataAccessApiUsageException if the statement does not
+	 * contain a {@code VALUES} clause
+	 */
+	static String multiRowInsertSql(String sql, int rows) {
+		int start = -1;
+		int end = -1;
+		int depth = 0;
+		char quote = 0;
+		for (int i = 0; i < sql.length() && end == -1; i++) {
+			char c = sql.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			}
+			else if (c == '\'' || c == '"') {
+				quote = c;
+			}
+			else if (start == -1) {
+				if (sql.regionMatches(true, i, "values", 0, 6) && isKeywordBoundary(sql, i - 1) &&
+						isKeywordBoundary(sql, i + 6)) {
+					int open = i + 6;
+					while (open < sql.length() && Character.isWhitespace(sql.charAt(open))) {
+						open++;
+					}
+					if (open < sql.length() && sql.charAt(open) == '(') {
+						start = open;
+						i = open - 1;
+					}
+				}
+			}
+			else if (c == '(') {
+				depth++;
+			}
+			else if (c == ')' && --depth == 0) {
+				end = i + 1;
+			}
+		}
+		if (end == -1) {
+			throw new InvalidDataAccessApiUsageException(
+					"Cannot rewrite SQL statement into multi-row insert, no VALUES clause found: " + sql);
+		}
+		String row = sql.substring(start, end);
+		StringBuilder result = new StringBuilder(sql.length() + (row.length() + 2) * (rows - 1));
+		result.append(sql, 0, end);
+		for (int i = 1; i < rows; i++) {
+			result.append(", ").append(row);
+		}
+		result.append(sql, end, sql.length());
+		return result.toString();
+	}
+
+	private static boolean isKeywordBoundary(String sql, int index) {
+		return (index < 0 || index >= sql.length() || !Character.isJavaIdentifierPart(sql.charAt(index)));
+	}
+
+
+	/**
+	 * The execution of the chunks for one call to {@code execute}.
+	 */
+	private class Pipeline {
+
+		private final String sql;
+
+		private final List<Object[]> batchArgs;
+
+		@Nullable
+		private final int[] argTypes;
+
+		private final ChunkResult[] results;
+
+		private final AtomicInteger nextChunk = new AtomicInteger();
+
+		private final Map<Integer, String> multiRowSql = new ConcurrentHashMap<>(4);
+
+		Pipeline(String sql, List<Object[]> batchArgs, @Nullable int[] argTypes, int chunkCount) {
+			this.sql = sql;
+			this.batchArgs = batchArgs;
+			this.argTypes = argTypes;
+			this.results = new ChunkResult[chunkCount];
+		}
+
+		void runConcurrently(int workerCount, Executor executor) {
+			CountDownLatch latch = new CountDownLatch(workerCount);
+			AtomicReference<Throwable> workerError = new AtomicReference<>();
+			for (int i = 0; i < workerCount; i++) {
+				executor.execute(() -> {
+					try {
+						run();
+					}
+					catch (Throwable ex) {
+						workerError.compareAndSet(null, ex);
+					}
+					finally {
+						latch.countDown();
+					}
+				});
+			}
+			try {
+				latch.await();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new DataAccessResourceFailureException("Interrupted while waiting for batch insert chunks", ex);
+			}
+			Throwable error = workerError.get();
+			if (error instanceof Error) {
+				throw (Error) error;
+			}
+			else if (error != null) {
+				throw new IllegalStateException("Batch insert worker failed", error);
+			}
+		}
+
+		void run() {
+			int index;
+			while ((index = this.nextChunk.getAndIncrement()) < this.results.length) {
+				int offset = index * chunkSize;
+				List<Object[]> rows = this.batchArgs.subList(offset, Math.min(offset + chunkSize, this.batchArgs.size()));
+				this.results[index] = executeChunk(index, offset, rows);
+			}
+		}
+
+		private ChunkResult executeChunk(int index, int offset, List<Object[]> rows) {
+			String sqlToUse = (multiRowInsert ?
+					this.multiRowSql.computeIfAbsent(rows.size(), size -> multiRowInsertSql(this.sql, size)) : this.sql);
+			Connection con = null;
+			boolean transactional = false;
+			try {
+				con = DataSourceUtils.getConnection(dataSource);
+				transactional = DataSourceUtils.isConnectionTransactional(con, dataSource);
+				boolean commit = (!transactional && con.getAutoCommit());
+				if (commit) {
+					con.setAutoCommit(false);
+				}
+				try {
+					int[] updateCounts = executeStatement(con, dataSource, sqlToUse, rows);
+					if (commit) {
+						con.commit();
+					}
+					return new ChunkResult(index, offset, rows.size(), updateCounts, null);
+				}
+				catch (SQLException | RuntimeException | Error ex) {
+					if (commit) {
+						try {
+							con.rollback();
+						}
+						catch (SQLException | RuntimeException rollbackEx) {
+							ex.addSuppressed(rollbackEx);
+						}
+					}
+					throw ex;
+				}
+				finally {
+					if (commit) {
+						con.setAutoCommit(true);
+					}
+				}
+			}
+			catch (SQLException ex) {
+				DataAccessException dae = jdbcTemplate.getExceptionTranslator().translate(
+						"BatchInsertPipeline", sqlToUse, ex);
+				if (transactional) {
+					throw dae;
+				}
+				return new ChunkResult(index, offset, rows.size(), new int[0], dae);
+			}
+			catch (RuntimeException ex) {
+				if (transactional) {
+					throw ex;
+				}
+				return new ChunkResult(index, offset, rows.size(), new int[0], ex);
+			}
+			finally {
+				DataSourceUtils.releaseConnection(con, dataSource);
+			}
+		}
+
+		private int[] executeStatement(Connection con, DataSource dataSource, String sqlToUse, List<Object[]> rows)
+				throws SQLException {
+
+			PreparedStatement ps = con.prepareStatement(sqlToUse);
+			try {
+				DataSourceUtils.applyTimeout(ps, dataSource, jdbcTemplate.getQueryTimeout());
+				if (multiRowInsert) {
+					int parameterIndex = 0;
+					for (Object[] row : rows) {
+						parameterIndex = setValues(ps, row, parameterIndex);
+					}
+					return new int[] {ps.executeUpdate()};
+				}
+				for (Object[] row : rows) {
+					setValues(ps, row, 0);
+					ps.addBatch();
+				}
+				return ps.executeBatch();
+			}
+			finally {
+				for (Object[] row : rows) {
+					StatementCreatorUtils.cleanupParameters(row);
+				}
+				JdbcUtils.closeStatement(ps);
+			}
+		}
+
+		private int setValues(PreparedStatement ps, Object[] values, int parameterIndex) throws SQLException {
+			for (int i = 0; i < values.length; i++) {
+				Object value = values[i];
+				parameterIndex++;
+				if (value instanceof SqlParameterValue) {
+					SqlParameterValue paramValue = (SqlParameterValue) value;
+					StatementCreatorUtils.setParameterValue(ps, parameterIndex, paramValue, paramValue.getValue());
+				}
+				else {
+					int type = (this.argTypes != null && i < this.argTypes.length ?
+							this.argTypes[i] : SqlTypeValue.TYPE_UNKNOWN);
+					StatementCreatorUtils.setParameterValue(ps, parameterIndex, type, value);
+				}
+			}
+			return parameterIndex;
+		}
+	}
+
+
+	/**
+	 * The results of all chunks of a batch insert.
+	 */
+	public static final class Result {
+
+		private final List<ChunkResult> chunkResults;
+
+		Result(List<ChunkResult> chunkResults) {
+			this.chunkResults = Collections.unmodifiableList(chunkResults);
+		}
+
+		/**
+		 * Return the results of all chunks, in the order of the rows.
+		 */
+		public List<ChunkResult> getChunkResults() {
+			return this.chunkResults;
+		}
+
+		/**
+		 * Return the results of the chunks that failed.
+		 */
+		public List<ChunkResult> getFailedChunks() {
+			List<ChunkResult> failed = new ArrayList<>();
+			for (ChunkResult chunkResult : this.chunkResults) {
+				if (!chunkResult.isSuccessful()) {
+					failed.add(chunkResult);
+				}
+			}
+			return failed;
+		}
+
+		/**
+		 * Return whether any chunk failed.
+		 */
+		public boolean hasFailures() {
+			for (ChunkResult chunkResult : this.chunkResults) {
+				if (!chunkResult.isSuccessful()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Return the number of rows affected by all successful chunks, as far
+		 * as reported by the JDBC driver.
+		 */
+		public int getRowsAffected() {
+			int rows = 0;
+			for (ChunkResult chunkResult : this.chunkResults) {
+				rows += chunkResult.getRowsAffected();
+			}
+			return rows;
+		}
+
+		@Override
+		public String toString() {
+			return "BatchInsertPipeline.Result: " + this.chunkResults.size() + " chunks, " +
+					getFailedChunks().size() + " failed, " + getRowsAffected() + " rows affected";
+		}
+	}
+
+
+	/**
+	 * The result of one chunk of a batch insert.
+	 */
+	public static final class ChunkResult {
+
+		private final int index;
+
+		private final int offset;
+
+		private final int size;
+
+		private final int[] updateCounts;
+
+		@Nullable
+		private final RuntimeException failure;
+
+		ChunkResult(int index, int offset, int size, int[] updateCounts, @Nullable RuntimeException failure) {
+			this.index = index;
+			this.offset = offset;
+			this.size = size;
+			this.updateCounts = updateCounts;
+			this.failure = failure;
+		}
+
+		/**
+		 * Return the index of the chunk.
+		 */
+		public int getIndex() {
+			return this.index;
+		}
+
+		/**
+		 * Return the index of the first row of the chunk in the given rows.
+		 */
+		public int getOffset() {
+			return this.offset;
+		}
+
+		/**
+		 * Return the number of rows in the chunk.
+		 */
+		public int getSize() {
+			return this.size;
+		}
+
+		/**
+		 * Return the update counts as reported by the JDBC driver: one per row
+		 * for a JDBC batch, or a single count for a multi-row insert.
+		 * Empty if the chunk failed.
+		 */
+		public int[] getUpdateCounts() {
+			return this.updateCounts;
+		}
+
+		/**
+		 * Return the number of rows affected by the chunk, as far as reported
+		 * by the JDBC driver.
+		 */
+		public int getRowsAffected() {
+			int rows = 0;
+			for (int count : this.updateCounts) {
+				if (count > 0) {
+					rows += count;
+				}
+			}
+			return rows;
+		}
+
+		/**
+		 * Return whether the chunk was inserted successfully.
+		 */
+		public boolean isSuccessful() {
+			return (this.failure == null);
+		}
+
+		/**
+		 * Return the exception that the chunk failed with, typically a
+		 * {@link DataAccessException}, or {@code null} if successful.
+		 */
+		@Nullable
+		public RuntimeException getFailure() {
+			return this.failure;
+		}
+
+		@Override
+		public String toString() {
+			return "Chunk " + this.index + " [rows " + this.offset + ".." + (this.offset + this.size - 1) + "]: " +
+					(this.failure != null ? "failed with " + this.failure : getRowsAffected() + " rows affected");
+		}
+	}
+
+}
@@ -68,11 +68,13 @@ import org.springframework.util.StringUtils;
  * will have been set to the primitive's default value instead of null.
  *
  * <p>Please note that this class is designed to provide convenience rather than high performance.
- * For best performance, consider using a custom {@link RowMapper} implementation.
+ * For best performance, consider using a custom {@link RowMapper} implementation,
+ * or a {@link MethodHandleRowMapper} which resolves the column mapping once per result set.
  *
  * @author Thomas Risberg
  * @author Juergen Hoeller
  * @since 2.5
+ * @see MethodHandleRowMapper
  */
 public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 
@@ -35,6 +35,10 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.sql.DataSource;
 
 import org.springframework.dao.DataAccessException;
@@ -147,6 +151,13 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	 */
 	private boolean resultsMapCaseInsensitive = false;
 
+	/**
+	 * Optional cache of statement metadata, avoiding repeated metadata
+	 * round-trips for null arguments of unknown type.
+	 */
+	@Nullable
+	private StatementMetaDataCache statementMetaDataCache;
+
 
 	/**
 	 * Construct a new JdbcTemplate for bean usage.
@@ -311,6 +322,28 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return this.resultsMapCaseInsensitive;
 	}
 
+	/**
+	 * Set a cache of statement metadata for this template's DataSource.
+	 * <p>If set, argument-based statements resolve the SQL type of {@code null}
+	 * arguments via {@link java.sql.ParameterMetaData} only once per SQL String,
+	 * instead of on every execution. The cache may be shared with other
+	 * templates for the same DataSource. Default is none.
+	 * @since 5.0.16
+	 * @see #newArgPreparedStatementSetter(String, Object[])
+	 */
+	public void setStatementMetaDataCache(@Nullable StatementMetaDataCache statementMetaDataCache) {
+		this.statementMetaDataCache = statementMetaDataCache;
+	}
+
+	/**
+	 * Return the cache of statement metadata, if any.
+	 * @since 5.0.16
+	 */
+	@Nullable
+	public StatementMetaDataCache getStatementMetaDataCache() {
+		return this.statementMetaDataCache;
+	}
+
 
 	//-------------------------------------------------------------------------
 	// Methods dealing with a plain java.sql.Connection
@@ -366,6 +399,20 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	@Override
 	@Nullable
 	public <T> T execute(StatementCallback<T> action) throws DataAccessException {
+		return execute(action, true);
+	}
+
+	/**
+	 * Execute a JDBC data access operation, implemented as callback action
+	 * working on a JDBC Statement.
+	 * @param action the callback to execute
+	 * @param closeResources whether to close the Statement and release the
+	 * Connection after a successful action, as opposed to leaving that to
+	 * the returned result, which must be a {@code Stream} then
+	 * @return the result of the callback
+	 */
+	@Nullable
+	private <T> T execute(StatementCallback<T> action, boolean closeResources) throws DataAccessException {
 		Assert.notNull(action, "Callback object must not be null");
 
 		Connection con = DataSourceUtils.getConnection(obtainDataSource());
@@ -375,8 +422,18 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			applyStatementSettings(stmt);
 			T result = action.doInStatement(stmt);
 			handleWarnings(stmt);
+			if (!closeResources) {
+				result = closeOnStreamClose(result, stmt, con, null);
+			}
 			return result;
 		}
+		catch (RuntimeException | Error ex) {
+			if (!closeResources) {
+				JdbcUtils.closeStatement(stmt);
+				DataSourceUtils.releaseConnection(con, getDataSource());
+			}
+			throw ex;
+		}
 		catch (SQLException ex) {
 			// Release Connection early, to avoid potential connection pool deadlock
 			// in the case when the exception translator hasn't been initialized yet.
@@ -388,8 +445,10 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			throw translateException("StatementCallback", sql, ex);
 		}
 		finally {
-			JdbcUtils.closeStatement(stmt);
-			DataSourceUtils.releaseConnection(con, getDataSource());
+			if (closeResources) {
+				JdbcUtils.closeStatement(stmt);
+				DataSourceUtils.releaseConnection(con, getDataSource());
+			}
 		}
 	}
 
@@ -456,6 +515,29 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return result(query(sql, new RowMapperResultSetExtractor<>(rowMapper)));
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(final String sql, final RowMapper<T> rowMapper) throws DataAccessException {
+		Assert.notNull(sql, "SQL must not be null");
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing SQL query [" + sql + "]");
+		}
+
+		class StreamStatementCallback implements StatementCallback<Stream<T>>, SqlProvider {
+			@Override
+			public Stream<T> doInStatement(Statement stmt) throws SQLException {
+				ResultSet rs = stmt.executeQuery(sql);
+				return new ResultSetSpliterator<>(rs, rowMapper, sql).stream().onClose(() -> JdbcUtils.closeResultSet(rs));
+			}
+			@Override
+			public String getSql() {
+				return sql;
+			}
+		}
+
+		return result(execute(new StreamStatementCallback(), false));
+	}
+
 	@Override
 	public Map<String, Object> queryForMap(String sql) throws DataAccessException {
 		return result(queryForObject(sql, getColumnMapRowMapper()));
@@ -590,6 +672,23 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action)
 			throws DataAccessException {
 
+		return execute(psc, action, true);
+	}
+
+	/**
+	 * Execute a JDBC data access operation, implemented as callback action
+	 * working on a JDBC PreparedStatement.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param action a callback that specifies the action
+	 * @param closeResources whether to close the PreparedStatement and release
+	 * the Connection after a successful action, as opposed to leaving that to
+	 * the returned result, which must be a {@code Stream} then
+	 * @return the result of the callback
+	 */
+	@Nullable
+	private <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action, boolean closeResources)
+			throws DataAccessException {
+
 		Assert.notNull(psc, "PreparedStatementCreator must not be null");
 		Assert.notNull(action, "Callback object must not be null");
 		if (logger.isDebugEnabled()) {
@@ -604,8 +703,21 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			applyStatementSettings(ps);
 			T result = action.doInPreparedStatement(ps);
 			handleWarnings(ps);
+			if (!closeResources) {
+				result = closeOnStreamClose(result, ps, con, psc);
+			}
 			return result;
 		}
+		catch (RuntimeException | Error ex) {
+			if (!closeResources) {
+				if (psc instanceof ParameterDisposer) {
+					((ParameterDisposer) psc).cleanupParameters();
+				}
+				JdbcUtils.closeStatement(ps);
+				DataSourceUtils.releaseConnection(con, getDataSource());
+			}
+			throw ex;
+		}
 		catch (SQLException ex) {
 			// Release Connection early, to avoid potential connection pool deadlock
 			// in the case when the exception translator hasn't been initialized yet.
@@ -620,11 +732,13 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			throw translateException("PreparedStatementCallback", sql, ex);
 		}
 		finally {
-			if (psc instanceof ParameterDisposer) {
-				((ParameterDisposer) psc).cleanupParameters();
+			if (closeResources) {
+				if (psc instanceof ParameterDisposer) {
+					((ParameterDisposer) psc).cleanupParameters();
+				}
+				JdbcUtils.closeStatement(ps);
+				DataSourceUtils.releaseConnection(con, getDataSource());
 			}
-			JdbcUtils.closeStatement(ps);
-			DataSourceUtils.releaseConnection(con, getDataSource());
 		}
 	}
 
@@ -697,13 +811,13 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	@Override
 	@Nullable
 	public <T> T query(String sql, @Nullable Object[] args, ResultSetExtractor<T> rse) throws DataAccessException {
-		return query(sql, newArgPreparedStatementSetter(args), rse);
+		return query(sql, newArgPreparedStatementSetter(sql, args), rse);
 	}
 
 	@Override
 	@Nullable
 	public <T> T query(String sql, ResultSetExtractor<T> rse, @Nullable Object... args) throws DataAccessException {
-		return query(sql, newArgPreparedStatementSetter(args), rse);
+		return query(sql, newArgPreparedStatementSetter(sql, args), rse);
 	}
 
 	@Override
@@ -723,12 +837,12 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 
 	@Override
 	public void query(String sql, Object[] args, RowCallbackHandler rch) throws DataAccessException {
-		query(sql, newArgPreparedStatementSetter(args), rch);
+		query(sql, newArgPreparedStatementSetter(sql, args), rch);
 	}
 
 	@Override
 	public void query(String sql, RowCallbackHandler rch, @Nullable Object... args) throws DataAccessException {
-		query(sql, newArgPreparedStatementSetter(args), rch);
+		query(sql, newArgPreparedStatementSetter(sql, args), rch);
 	}
 
 	@Override
@@ -756,6 +870,55 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return result(query(sql, args, new RowMapperResultSetExtractor<>(rowMapper)));
 	}
 
+	/**
+	 * Query using a prepared statement, mapping each row to a result object
+	 * via a RowMapper, and turning it into an iterable and closeable Stream.
+	 * @param psc Callback handler that can create a PreparedStatement given a
+	 * Connection
+	 * @param pss object that knows how to set values on the prepared statement.
+	 * If this is null, the SQL will be assumed to contain no bind parameters.
+	 * @param rowMapper a callback that will map one object per row
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if the query fails
+	 * @since 5.0.16
+	 */
+	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, @Nullable final PreparedStatementSetter pss,
+			final RowMapper<T> rowMapper) throws DataAccessException {
+
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		logger.debug("Executing prepared SQL query");
+
+		return result(execute(psc, ps -> {
+			if (pss != null) {
+				pss.setValues(ps);
+			}
+			ResultSet rs = ps.executeQuery();
+			return new ResultSetSpliterator<>(rs, rowMapper, getSql(psc)).stream().onClose(() -> {
+				JdbcUtils.closeResultSet(rs);
+				if (pss instanceof ParameterDisposer) {
+					((ParameterDisposer) pss).cleanupParameters();
+				}
+			});
+		}, false));
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, RowMapper<T> rowMapper) throws DataAccessException {
+		return queryForStream(psc, null, rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, @Nullable PreparedStatementSetter pss, RowMapper<T> rowMapper) throws DataAccessException {
+		return queryForStream(new SimplePreparedStatementCreator(sql), pss, rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, @Nullable Object... args) throws DataAccessException {
+		return queryForStream(new SimplePreparedStatementCreator(sql),
+				newArgPreparedStatementSetter(sql, args), rowMapper);
+	}
+
 	@Override
 	@Nullable
 	public <T> T queryForObject(String sql, Object[] args, int[] argTypes, RowMapper<T> rowMapper)
@@ -912,7 +1075,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 
 	@Override
 	public int update(String sql, @Nullable Object... args) throws DataAccessException {
-		return update(sql, newArgPreparedStatementSetter(args));
+		return update(sql, newArgPreparedStatementSetter(sql, args));
 	}
 
 	@Override
@@ -1342,6 +1505,25 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return new ArgumentPreparedStatementSetter(args);
 	}
 
+	/**
+	 * Create a new arg-based PreparedStatementSetter for the given SQL statement.
+	 * <p>By default, we'll create an {@link ArgumentPreparedStatementSetter} that
+	 * looks up cached metadata for {@code null} arguments if a {@link #setStatementMetaDataCache
+	 * StatementMetaDataCache} has been set, else delegate to
+	 * {@link #newArgPreparedStatementSetter(Object[])}.
+	 * @param sql the SQL statement to execute
+	 * @param args object array with arguments
+	 * @return the new PreparedStatementSetter to use
+	 * @since 5.0.16
+	 */
+	protected PreparedStatementSetter newArgPreparedStatementSetter(String sql, @Nullable Object[] args) {
+		StatementMetaDataCache cache = getStatementMetaDataCache();
+		if (cache == null || args == null) {
+			return newArgPreparedStatementSetter(args);
+		}
+		return new ArgumentPreparedStatementSetter(args, sql, cache);
+	}
+
 	/**
 	 * Create a new arg-type-based PreparedStatementSetter using the args and types passed in.
 	 * <p>By default, we'll create an {@link ArgumentTypePreparedStatementSetter}.
@@ -1420,6 +1602,27 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		}
 	}
 
+	/**
+	 * Register the release of the given Statement and Connection, as obtained
+	 * by an {@code execute} method, to happen when the given Stream is closed.
+	 * @param result the Stream returned by the callback
+	 * @param stmt the Statement to close
+	 * @param con the Connection to release
+	 * @param psc the PreparedStatementCreator to clean up, if any
+	 * @return the Stream with the close handler registered
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T closeOnStreamClose(@Nullable T result, Statement stmt, Connection con, @Nullable Object psc) {
+		Assert.state(result instanceof Stream, "Stream result expected");
+		return (T) ((Stream<?>) result).onClose(() -> {
+			if (psc instanceof ParameterDisposer) {
+				((ParameterDisposer) psc).cleanupParameters();
+			}
+			JdbcUtils.closeStatement(stmt);
+			DataSourceUtils.releaseConnection(con, getDataSource());
+		});
+	}
+
 	private static <T> T result(@Nullable T result) {
 		Assert.state(result != null, "No result");
 		return result;
@@ -1546,6 +1749,64 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	}
 
 
+	/**
+	 * Spliterator for queryForStream adaptation of a ResultSet to a Stream,
+	 * reading one row at a time as the Stream is consumed.
+	 * @since 5.0.16
+	 */
+	private class ResultSetSpliterator<T> implements Spliterator<T> {
+
+		private final ResultSet rs;
+
+		private final RowMapper<T> rowMapper;
+
+		@Nullable
+		private final String sql;
+
+		private int rowNum = 0;
+
+		public ResultSetSpliterator(ResultSet rs, RowMapper<T> rowMapper, @Nullable String sql) {
+			this.rs = rs;
+			this.rowMapper = rowMapper;
+			this.sql = sql;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			try {
+				if (this.rs.next()) {
+					action.accept(this.rowMapper.mapRow(this.rs, this.rowNum++));
+					return true;
+				}
+				return false;
+			}
+			catch (SQLException ex) {
+				throw translateException("ResultSetSpliterator", this.sql, ex);
+			}
+		}
+
+		@Override
+		@Nullable
+		public Spliterator<T> trySplit() {
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED;
+		}
+
+		public Stream<T> stream() {
+			return StreamSupport.stream(this, false);
+		}
+	}
+
+
 	/**
 	 * Adapter to enable use of a RowCallbackHandler inside a ResultSetExtractor.
 	 * <p>Uses a regular ResultSet, so we have to be careful when using it:
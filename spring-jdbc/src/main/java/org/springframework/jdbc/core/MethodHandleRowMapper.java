@@ -0,0 +1,706 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.beans.ConstructorProperties;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link RowMapper} implementation that converts a row into a new instance
+ * of the specified mapped target class, as a faster alternative to
+ * {@link BeanPropertyRowMapper} for large result sets.
+ *
+ * <p>Columns are matched to properties by name in the same way as with
+ * {@code BeanPropertyRowMapper}, but only once for each set of columns:
+ * the resulting mapping plan is reused for all rows of a result set, and
+ * cached for later result sets with the same columns. Values are read with
+ * the {@code ResultSet} getter for the target type, e.g. {@code getInt} for an
+ * {@code int} property, and set through {@link MethodHandle method handles},
+ * without boxing of primitive values.
+ *
+ * <p>The mapped target class either has a no-arg constructor, or a single
+ * constructor (or Kotlin primary constructor) whose arguments are matched
+ * to columns by parameter name, as declared through
+ * {@link ConstructorProperties @ConstructorProperties} or as compiled with
+ * {@code -parameters} or debug information. Columns that do not match a
+ * constructor argument are mapped to public setters in either case.
+ *
+ * <p>Values that are not of the target type, e.g. a {@code Timestamp} for a
+ * {@code LocalDateTime} property, are converted with the configured
+ * {@link ConversionService}.
+ *
+ * <p>Instances are thread-safe, and should be reused across queries in order
+ * to benefit from the cached mapping plans.
+ *
+ * @since 5.0.16
+ * @param <T> the result type
+ * @see BeanPropertyRowMapper
+ */
+public class MethodHandleRowMapper<T> implements RowMapper<T> {
+
+	private static final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+
+	/** Logger available to subclasses */
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	/** The class we are mapping to */
+	private final Class<T> mappedClass;
+
+	/** The constructor of the mapped class, taking its arguments as an array */
+	private final MethodHandle constructor;
+
+	/** The arguments of the constructor */
+	private final MethodParameter[] constructorParameters;
+
+	/** The names of the arguments of the constructor */
+	private final String[] constructorParameterNames;
+
+	/** Map of the fields we provide mapping for through constructor arguments */
+	private final Map<String, Integer> mappedParameters = new HashMap<>();
+
+	/** Map of the fields we provide mapping for through setters */
+	private final Map<String, PropertyDescriptor> mappedFields = new HashMap<>();
+
+	/** Set of constructor arguments and bean properties we provide mapping for */
+	private final Set<String> mappedProperties = new LinkedHashSet<>();
+
+	/** Mapping plans by result set column names */
+	private final Map<List<String>, MappingPlan> mappingPlans = new ConcurrentReferenceHashMap<>(16);
+
+	/** The mapping plan for the result set mapped most recently */
+	@Nullable
+	private volatile ResultSetMappingPlan currentMappingPlan;
+
+	/** Whether we're strictly validating */
+	private boolean checkFullyPopulated = false;
+
+	/** Whether we're defaulting primitives when mapping a null value */
+	private boolean primitivesDefaultedForNullValue = false;
+
+	/** ConversionService for binding JDBC values to bean properties */
+	@Nullable
+	private ConversionService conversionService = DefaultConversionService.getSharedInstance();
+
+
+	/**
+	 * Create a new {@code MethodHandleRowMapper}, accepting unpopulated
+	 * properties in the target object.
+	 * @param mappedClass the class that each row should be mapped to
+	 */
+	public MethodHandleRowMapper(Class<T> mappedClass) {
+		Assert.notNull(mappedClass, "Mapped class must not be null");
+		this.mappedClass = mappedClass;
+		Constructor<T> ctor = determineConstructor(mappedClass);
+		this.constructorParameterNames = determineParameterNames(ctor);
+		this.constructorParameters = new MethodParameter[ctor.getParameterCount()];
+		for (int i = 0; i < this.constructorParameters.length; i++) {
+			String name = this.constructorParameterNames[i];
+			this.constructorParameters[i] = MethodParameter.forExecutable(ctor, i);
+			this.mappedParameters.put(lowerCaseName(name), i);
+			this.mappedParameters.put(underscoreName(name), i);
+			this.mappedProperties.add(name);
+		}
+		try {
+			ReflectionUtils.makeAccessible(ctor);
+			this.constructor = MethodHandles.lookup().unreflectConstructor(ctor)
+					.asSpreader(Object[].class, this.constructorParameters.length)
+					.asType(MethodType.methodType(Object.class, Object[].class));
+		}
+		catch (IllegalAccessException ex) {
+			throw new InvalidDataAccessApiUsageException("Cannot access constructor " + ctor, ex);
+		}
+		for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(mappedClass)) {
+			if (pd.getWriteMethod() != null && !this.mappedProperties.contains(pd.getName())) {
+				this.mappedFields.put(lowerCaseName(pd.getName()), pd);
+				this.mappedFields.put(underscoreName(pd.getName()), pd);
+				this.mappedProperties.add(pd.getName());
+			}
+		}
+	}
+
+	/**
+	 * Create a new {@code MethodHandleRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @param checkFullyPopulated whether we're strictly validating that
+	 * all constructor arguments and bean properties have been mapped from
+	 * corresponding database fields
+	 */
+	public MethodHandleRowMapper(Class<T> mappedClass, boolean checkFullyPopulated) {
+		this(mappedClass);
+		this.checkFullyPopulated = checkFullyPopulated;
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private static <T> Constructor<T> determineConstructor(Class<T> mappedClass) {
+		Constructor<T> ctor = BeanUtils.findPrimaryConstructor(mappedClass);
+		if (ctor != null) {
+			return ctor;
+		}
+		try {
+			return mappedClass.getDeclaredConstructor();
+		}
+		catch (NoSuchMethodException ex) {
+			Constructor<?>[] ctors = mappedClass.getConstructors();
+			if (ctors.length != 1) {
+				ctors = mappedClass.getDeclaredConstructors();
+			}
+			if (ctors.length != 1) {
+				throw new InvalidDataAccessApiUsageException("Mapped class [" + mappedClass.getName() +
+						"] must have a no-arg constructor or a single constructor");
+			}
+			return (Constructor<T>) ctors[0];
+		}
+	}
+
+	private static String[] determineParameterNames(Constructor<?> ctor) {
+		if (ctor.getParameterCount() == 0) {
+			return new String[0];
+		}
+		ConstructorProperties cp = ctor.getAnnotation(ConstructorProperties.class);
+		String[] names = (cp != null ? cp.value() : parameterNameDiscoverer.getParameterNames(ctor));
+		if (names == null || names.length != ctor.getParameterCount()) {
+			throw new InvalidDataAccessApiUsageException("Cannot resolve parameter names for constructor " +
+					ctor + ": compile with '-parameters' or declare @ConstructorProperties");
+		}
+		return names;
+	}
+
+
+	/**
+	 * Get the class that we are mapping to.
+	 */
+	public final Class<T> getMappedClass() {
+		return this.mappedClass;
+	}
+
+	/**
+	 * Set whether we're strictly validating that all constructor arguments and
+	 * bean properties have been mapped from corresponding database fields.
+	 * <p>Default is {@code false}, accepting unpopulated properties in the target
+	 * object, with {@code null} passed for unpopulated constructor arguments.
+	 */
+	public void setCheckFullyPopulated(boolean checkFullyPopulated) {
+		this.checkFullyPopulated = checkFullyPopulated;
+	}
+
+	/**
+	 * Return whether we're strictly validating that all constructor arguments
+	 * and bean properties have been mapped from corresponding database fields.
+	 */
+	public boolean isCheckFullyPopulated() {
+		return this.checkFullyPopulated;
+	}
+
+	/**
+	 * Set whether we're defaulting Java primitives in the case of mapping a null value
+	 * from corresponding database fields.
+	 * <p>Default is {@code false}, throwing an exception when nulls are mapped to Java primitives.
+	 */
+	public void setPrimitivesDefaultedForNullValue(boolean primitivesDefaultedForNullValue) {
+		this.primitivesDefaultedForNullValue = primitivesDefaultedForNullValue;
+	}
+
+	/**
+	 * Return whether we're defaulting Java primitives in the case of mapping a null value
+	 * from corresponding database fields.
+	 */
+	public boolean isPrimitivesDefaultedForNullValue() {
+		return this.primitivesDefaultedForNullValue;
+	}
+
+	/**
+	 * Set a {@link ConversionService} for converting JDBC values that are not
+	 * of the target type, or {@code null} for none.
+	 * <p>Default is a {@link DefaultConversionService}.
+	 */
+	public void setConversionService(@Nullable ConversionService conversionService) {
+		this.conversionService = conversionService;
+	}
+
+	/**
+	 * Return a {@link ConversionService} for converting JDBC values that are
+	 * not of the target type, or {@code null} if none.
+	 */
+	@Nullable
+	public ConversionService getConversionService() {
+		return this.conversionService;
+	}
+
+
+	/**
+	 * Convert a name in camelCase to an underscored name in lower case.
+	 * Any upper case letters are converted to lower case with a preceding underscore.
+	 * @param name the original name
+	 * @return the converted name
+	 * @see BeanPropertyRowMapper#underscoreName
+	 */
+	protected String underscoreName(String name) {
+		if (!StringUtils.hasLength(name)) {
+			return "";
+		}
+		StringBuilder result = new StringBuilder();
+		result.append(lowerCaseName(name.substring(0, 1)));
+		for (int i = 1; i < name.length(); i++) {
+			String s = name.substring(i, i + 1);
+			String slc = lowerCaseName(s);
+			if (!s.equals(slc)) {
+				result.append("_").append(slc);
+			}
+			else {
+				result.append(s);
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Convert the given name to lower case.
+	 * By default, conversions will happen within the US locale.
+	 * @param name the original name
+	 * @return the converted name
+	 */
+	protected String lowerCaseName(String name) {
+		return name.toLowerCase(Locale.US);
+	}
+
+
+	/**
+	 * Extract the values for all columns in the current row, following the
+	 * mapping plan for the columns of the given result set.
+	 */
+	@Override
+	public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
+		MappingPlan plan = getMappingPlan(rs);
+		if (this.checkFullyPopulated && !plan.unpopulatedProperties.isEmpty()) {
+			throw new InvalidDataAccessApiUsageException("Given ResultSet does not contain all fields " +
+					"necessary to populate object of class [" + this.mappedClass.getName() + "]: " +
+					plan.unpopulatedProperties);
+		}
+		return plan.mapRow(rs);
+	}
+
+	private MappingPlan getMappingPlan(ResultSet rs) throws SQLException {
+		ResultSetMappingPlan current = this.currentMappingPlan;
+		if (current != null && current.resultSet.get() == rs) {
+			return current.plan;
+		}
+		ResultSetMetaData rsmd = rs.getMetaData();
+		int columnCount = rsmd.getColumnCount();
+		List<String> columns = new ArrayList<>(columnCount);
+		for (int index = 1; index <= columnCount; index++) {
+			columns.add(JdbcUtils.lookupColumnName(rsmd, index));
+		}
+		MappingPlan plan = this.mappingPlans.get(columns);
+		if (plan == null) {
+			plan = createMappingPlan(columns);
+			this.mappingPlans.put(columns, plan);
+		}
+		this.currentMappingPlan = new ResultSetMappingPlan(rs, plan);
+		return plan;
+	}
+
+	private MappingPlan createMappingPlan(List<String> columns) {
+		ColumnMapping[] arguments = new ColumnMapping[this.constructorParameters.length];
+		List<ColumnMapping> properties = new ArrayList<>();
+		Set<String> populatedProperties = new HashSet<>();
+
+		for (int index = 1; index <= columns.size(); index++) {
+			String column = columns.get(index - 1);
+			String field = lowerCaseName(StringUtils.delete(column, " "));
+			Integer argumentIndex = this.mappedParameters.get(field);
+			PropertyDescriptor pd = this.mappedFields.get(field);
+			if (argumentIndex != null && arguments[argumentIndex] == null) {
+				String name = this.constructorParameterNames[argumentIndex];
+				arguments[argumentIndex] = new ColumnMapping(
+						this, index, column, name, this.constructorParameters[argumentIndex], null);
+				populatedProperties.add(name);
+			}
+			else if (pd != null && pd.getWriteMethod() != null) {
+				Method writeMethod = pd.getWriteMethod();
+				properties.add(new ColumnMapping(this, index, column, pd.getName(),
+						MethodParameter.forExecutable(writeMethod, 0), writeMethod));
+				populatedProperties.add(pd.getName());
+			}
+			else if (logger.isDebugEnabled()) {
+				logger.debug("No property found for column '" + column + "' mapped to field '" + field + "'");
+			}
+		}
+
+		Set<String> unpopulatedProperties = new LinkedHashSet<>(this.mappedProperties);
+		unpopulatedProperties.removeAll(populatedProperties);
+		return new MappingPlan(arguments, properties.toArray(new ColumnMapping[0]), unpopulatedProperties);
+	}
+
+	/**
+	 * Return the value to use for a column that is {@code null} in the
+	 * database, or for a constructor argument without column.
+	 */
+	@Nullable
+	private Object getNullValue(String name, Class<?> type) {
+		if (!type.isPrimitive()) {
+			return null;
+		}
+		if (!this.primitivesDefaultedForNullValue) {
+			throw new TypeMismatchException(new PropertyChangeEvent(this.mappedClass, name, null, null), type);
+		}
+		return Array.get(Array.newInstance(type, 1), 0);
+	}
+
+
+	/**
+	 * Static factory method to create a new {@code MethodHandleRowMapper}
+	 * (with the mapped class specified only once).
+	 * @param mappedClass the class that each row should be mapped to
+	 */
+	public static <T> MethodHandleRowMapper<T> newInstance(Class<T> mappedClass) {
+		return new MethodHandleRowMapper<>(mappedClass);
+	}
+
+
+	/**
+	 * How a value is read from the result set, and passed to a setter.
+	 */
+	private enum ValueType {
+
+		BOOLEAN, BYTE, SHORT, INT, LONG, FLOAT, DOUBLE, OBJECT;
+
+		static ValueType forType(Class<?> type) {
+			if (boolean.class == type) {
+				return BOOLEAN;
+			}
+			else if (byte.class == type) {
+				return BYTE;
+			}
+			else if (short.class == type) {
+				return SHORT;
+			}
+			else if (int.class == type) {
+				return INT;
+			}
+			else if (long.class == type) {
+				return LONG;
+			}
+			else if (float.class == type) {
+				return FLOAT;
+			}
+			else if (double.class == type) {
+				return DOUBLE;
+			}
+			return OBJECT;
+		}
+	}
+
+
+	/**
+	 * The mapping of the columns of a result set to constructor arguments
+	 * and setters of the mapped class.
+	 */
+	private class MappingPlan {
+
+		private final ColumnMapping[] arguments;
+
+		private final ColumnMapping[] properties;
+
+		private final Set<String> unpopulatedProperties;
+
+		MappingPlan(ColumnMapping[] arguments, ColumnMapping[] properties, Set<String> unpopulatedProperties) {
+			this.arguments = arguments;
+			this.properties = properties;
+			this.unpopulatedProperties = unpopulatedProperties;
+		}
+
+		@SuppressWarnings("unchecked")
+		T mapRow(ResultSet rs) throws SQLException {
+			Object[] args = new Object[this.arguments.length];
+			for (int i = 0; i < args.length; i++) {
+				ColumnMapping argument = this.arguments[i];
+				if (argument != null) {
+					args[i] = argument.getValue(rs);
+				}
+				else {
+					MethodParameter parameter = constructorParameters[i];
+					args[i] = getNullValue(constructorParameterNames[i], parameter.getParameterType());
+				}
+			}
+			Object mappedObject;
+			try {
+				mappedObject = (Object) constructor.invokeExact(args);
+			}
+			catch (RuntimeException | Error ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new DataRetrievalFailureException(
+						"Unable to instantiate mapped class [" + mappedClass.getName() + "]", ex);
+			}
+			for (ColumnMapping property : this.properties) {
+				property.setValue(rs, mappedObject);
+			}
+			return (T) mappedObject;
+		}
+	}
+
+
+	/**
+	 * The mapping of one column to a constructor argument or setter.
+	 */
+	private static class ColumnMapping {
+
+		private final MethodHandleRowMapper<?> mapper;
+
+		private final int index;
+
+		private final String column;
+
+		private final String name;
+
+		private final Class<?> type;
+
+		private final TypeDescriptor typeDescriptor;
+
+		private final ValueType valueType;
+
+		@Nullable
+		private final MethodHandle setter;
+
+		ColumnMapping(MethodHandleRowMapper<?> mapper, int index, String column, String name,
+				MethodParameter parameter, @Nullable Method writeMethod) {
+
+			this.mapper = mapper;
+			this.index = index;
+			this.column = column;
+			this.name = name;
+			this.type = parameter.getParameterType();
+			this.typeDescriptor = new TypeDescriptor(parameter);
+			this.valueType = ValueType.forType(this.type);
+			this.setter = (writeMethod != null ? createSetter(writeMethod) : null);
+			if (mapper.logger.isDebugEnabled()) {
+				mapper.logger.debug("Mapping column '" + column + "' to " + (writeMethod != null ? "property" : "argument") +
+						" '" + name + "' of type '" + ClassUtils.getQualifiedName(this.type) + "'");
+			}
+		}
+
+		private MethodHandle createSetter(Method writeMethod) {
+			try {
+				ReflectionUtils.makeAccessible(writeMethod);
+				Class<?> valueClass = (this.valueType != ValueType.OBJECT ? this.type : Object.class);
+				return MethodHandles.lookup().unreflect(writeMethod)
+						.asType(MethodType.methodType(void.class, Object.class, valueClass));
+			}
+			catch (IllegalAccessException ex) {
+				throw new InvalidDataAccessApiUsageException("Cannot access write method " + writeMethod, ex);
+			}
+		}
+
+		/**
+		 * Read the value of the column for a constructor argument.
+		 */
+		@Nullable
+		Object getValue(ResultSet rs) throws SQLException {
+			Object value;
+			switch (this.valueType) {
+				case BOOLEAN:
+					value = rs.getBoolean(this.index);
+					break;
+				case BYTE:
+					value = rs.getByte(this.index);
+					break;
+				case SHORT:
+					value = rs.getShort(this.index);
+					break;
+				case INT:
+					value = rs.getInt(this.index);
+					break;
+				case LONG:
+					value = rs.getLong(this.index);
+					break;
+				case FLOAT:
+					value = rs.getFloat(this.index);
+					break;
+				case DOUBLE:
+					value = rs.getDouble(this.index);
+					break;
+				default:
+					value = getObjectValue(rs);
+					return (value != null ? value : this.mapper.getNullValue(this.name, this.type));
+			}
+			return (rs.wasNull() ? this.mapper.getNullValue(this.name, this.type) : value);
+		}
+
+		/**
+		 * Read the value of the column, and pass it to the setter.
+		 * Null values for primitives are skipped if defaulted.
+		 */
+		void setValue(ResultSet rs, Object target) throws SQLException {
+			Assert.state(this.setter != null, "No setter");
+			try {
+				switch (this.valueType) {
+					case BOOLEAN: {
+						boolean value = rs.getBoolean(this.index);
+						if (value || !isNull(rs)) {
+							this.setter.invokeExact(target, value);
+						}
+						break;
+					}
+					case BYTE: {
+						byte value = rs.getByte(this.index);
+						if (value != 0 || !isNull(rs)) {
+							this.setter.invokeExact(target, value);
+						}
+						break;
+					}
+					case SHORT: {
+						short value = rs.getShort(this.index);
+						if (value != 0 || !isNull(rs)) {
+							this.setter.invokeExact(target, value);
+						}
+						break;
+					}
+					case INT: {
+						int value = rs.getInt(this.index);
+						if (value != 0 || !isNull(rs)) {
+							this.setter.invokeExact(target, value);
+						}
+						break;
+					}
+					case LONG: {
+						long value = rs.getLong(this.index);
+						if (value != 0 || !isNull(rs)) {
+							this.setter.invokeExact(target, value);
+						}
+						break;
+					}
+					case FLOAT: {
+						float value = rs.getFloat(this.index);
+						if (value != 0 || !isNull(rs)) {
+							this.setter.invokeExact(target, value);
+						}
+						break;
+					}
+					case DOUBLE: {
+						double value = rs.getDouble(this.index);
+						if (value != 0 || !isNull(rs)) {
+							this.setter.invokeExact(target, value);
+						}
+						break;
+					}
+					default: {
+						Object value = getObjectValue(rs);
+						if (value != null || !this.type.isPrimitive()) {
+							this.setter.invokeExact(target, value);
+						}
+						else {
+							this.mapper.getNullValue(this.name, this.type);
+						}
+					}
+				}
+			}
+			catch (SQLException | RuntimeException | Error ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new DataRetrievalFailureException(
+						"Unable to map column '" + this.column + "' to property '" + this.name + "'", ex);
+			}
+		}
+
+		/**
+		 * Check whether the primitive value just read was {@code null}, in
+		 * which case the setter is not called if defaulted.
+		 */
+		private boolean isNull(ResultSet rs) throws SQLException {
+			if (rs.wasNull()) {
+				this.mapper.getNullValue(this.name, this.type);
+				return true;
+			}
+			return false;
+		}
+
+		@Nullable
+		private Object getObjectValue(ResultSet rs) throws SQLException {
+			Object value = JdbcUtils.getResultSetValue(rs, this.index, this.type);
+			if (value == null || ClassUtils.isAssignableValue(this.type, value)) {
+				return value;
+			}
+			ConversionService cs = this.mapper.getConversionService();
+			TypeDescriptor sourceType = TypeDescriptor.forObject(value);
+			if (cs == null || !cs.canConvert(sourceType, this.typeDescriptor)) {
+				throw new TypeMismatchException(value, this.type);
+			}
+			return cs.convert(value, sourceType, this.typeDescriptor);
+		}
+	}
+
+
+	/**
+	 * The mapping plan used for a specific result set, held weakly.
+	 */
+	private final class ResultSetMappingPlan {
+
+		private final WeakReference<ResultSet> resultSet;
+
+		private final MappingPlan plan;
+
+		ResultSetMappingPlan(ResultSet resultSet, MappingPlan plan) {
+			this.resultSet = new WeakReference<>(resultSet);
+			this.plan = plan;
+		}
+	}
+
+}
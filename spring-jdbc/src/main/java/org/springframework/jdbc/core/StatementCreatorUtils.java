@@ -76,6 +76,13 @@ public abstract class StatementCreatorUtils {
 	public static final String IGNORE_GETPARAMETERTYPE_PROPERTY_NAME = "spring.jdbc.getParameterType.ignore";
 
 
+	/**
+	 * Fallback null type indicating that {@code setObject(index, null)} is to be used
+	 * instead of {@code setNull}.
+	 * @see #determineFallbackNullType
+	 */
+	static final int SET_OBJECT_NULL_TYPE = Integer.MIN_VALUE;
+
 	static boolean shouldIgnoreGetParameterType = SpringProperties.getFlag(IGNORE_GETPARAMETERTYPE_PROPERTY_NAME);
 
 	private static final Log logger = LogFactory.getLog(StatementCreatorUtils.class);
@@ -144,7 +151,8 @@ public abstract class StatementCreatorUtils {
 	public static void setParameterValue(PreparedStatement ps, int paramIndex, SqlParameter param,
 			@Nullable Object inValue) throws SQLException {
 
-		setParameterValueInternal(ps, paramIndex, param.getSqlType(), param.getTypeName(), param.getScale(), inValue);
+		setParameterValueInternal(ps, paramIndex, param.getSqlType(), param.getTypeName(), param.getScale(),
+				inValue, null);
 	}
 
 	/**
@@ -160,7 +168,7 @@ public abstract class StatementCreatorUtils {
 	public static void setParameterValue(PreparedStatement ps, int paramIndex, int sqlType,
 			@Nullable Object inValue) throws SQLException {
 
-		setParameterValueInternal(ps, paramIndex, sqlType, null, null, inValue);
+		setParameterValueInternal(ps, paramIndex, sqlType, null, null, inValue, null);
 	}
 
 	/**
@@ -178,7 +186,26 @@ public abstract class StatementCreatorUtils {
 	public static void setParameterValue(PreparedStatement ps, int paramIndex, int sqlType, String typeName,
 			@Nullable Object inValue) throws SQLException {
 
-		setParameterValueInternal(ps, paramIndex, sqlType, typeName, null, inValue);
+		setParameterValueInternal(ps, paramIndex, sqlType, typeName, null, inValue, null);
+	}
+
+	/**
+	 * Set the value for a parameter, using the given statement metadata
+	 * for resolving the SQL type of null values with unknown type.
+	 * @param ps the prepared statement or callable statement
+	 * @param paramIndex index of the parameter we are setting
+	 * @param sqlType the SQL type of the parameter
+	 * @param inValue the value to set (plain value or a SqlTypeValue)
+	 * @param metaData the cached metadata for the statement (may be {@code null})
+	 * @throws SQLException if thrown by PreparedStatement methods
+	 * @since 5.0.16
+	 * @see StatementMetaDataCache
+	 */
+	static void setParameterValueWithMetaData(PreparedStatement ps, int paramIndex, int sqlType,
+			@Nullable Object inValue, @Nullable StatementMetaDataCache.StatementMetaData metaData)
+			throws SQLException {
+
+		setParameterValueInternal(ps, paramIndex, sqlType, null, null, inValue, metaData);
 	}
 
 	/**
@@ -192,11 +219,13 @@ public abstract class StatementCreatorUtils {
 	 * @param scale the number of digits after the decimal point
 	 * (for DECIMAL and NUMERIC types)
 	 * @param inValue the value to set (plain value or a SqlTypeValue)
+	 * @param metaData the cached metadata for the statement (may be {@code null})
 	 * @throws SQLException if thrown by PreparedStatement methods
 	 * @see SqlTypeValue
 	 */
 	private static void setParameterValueInternal(PreparedStatement ps, int paramIndex, int sqlType,
-			@Nullable String typeName, @Nullable Integer scale, @Nullable Object inValue) throws SQLException {
+			@Nullable String typeName, @Nullable Integer scale, @Nullable Object inValue,
+			@Nullable StatementMetaDataCache.StatementMetaData metaData) throws SQLException {
 
 		String typeNameToUse = typeName;
 		int sqlTypeToUse = sqlType;
@@ -226,7 +255,7 @@ public abstract class StatementCreatorUtils {
 		}
 
 		if (inValueToUse == null) {
-			setNull(ps, paramIndex, sqlTypeToUse, typeNameToUse);
+			setNull(ps, paramIndex, sqlTypeToUse, typeNameToUse, metaData);
 		}
 		else {
 			setValue(ps, paramIndex, sqlTypeToUse, typeNameToUse, scale, inValueToUse);
@@ -237,41 +266,32 @@ public abstract class StatementCreatorUtils {
 	 * Set the specified PreparedStatement parameter to null,
 	 * respecting database-specific peculiarities.
 	 */
-	private static void setNull(PreparedStatement ps, int paramIndex, int sqlType, @Nullable String typeName)
-			throws SQLException {
+	private static void setNull(PreparedStatement ps, int paramIndex, int sqlType, @Nullable String typeName,
+			@Nullable StatementMetaDataCache.StatementMetaData metaData) throws SQLException {
 
 		if (sqlType == SqlTypeValue.TYPE_UNKNOWN || (sqlType == Types.OTHER && typeName == null)) {
-			boolean useSetObject = false;
 			Integer sqlTypeToUse = null;
 			if (!shouldIgnoreGetParameterType) {
-				try {
-					sqlTypeToUse = ps.getParameterMetaData().getParameterType(paramIndex);
+				if (metaData != null) {
+					sqlTypeToUse = metaData.getParameterType(ps, paramIndex);
 				}
-				catch (SQLException ex) {
-					if (logger.isDebugEnabled()) {
-						logger.debug("JDBC getParameterType call failed - using fallback method instead: " + ex);
+				else {
+					try {
+						sqlTypeToUse = ps.getParameterMetaData().getParameterType(paramIndex);
+					}
+					catch (SQLException ex) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("JDBC getParameterType call failed - using fallback method instead: " + ex);
+						}
 					}
 				}
 			}
 			if (sqlTypeToUse == null) {
 				// Proceed with database-specific checks
-				sqlTypeToUse = Types.NULL;
-				DatabaseMetaData dbmd = ps.getConnection().getMetaData();
-				String jdbcDriverName = dbmd.getDriverName();
-				String databaseProductName = dbmd.getDatabaseProductName();
-				if (databaseProductName.startsWith("Informix") ||
-						(jdbcDriverName.startsWith("Microsoft") && jdbcDriverName.contains("SQL Server"))) {
-						// "Microsoft SQL Server JDBC Driver 3.0" versus "Microsoft JDBC Driver 4.0 for SQL Server"
-					useSetObject = true;
-				}
-				else if (databaseProductName.startsWith("DB2") ||
-						jdbcDriverName.startsWith("jConnect") ||
-						jdbcDriverName.startsWith("SQLServer")||
-						jdbcDriverName.startsWith("Apache Derby")) {
-					sqlTypeToUse = Types.VARCHAR;
-				}
+				sqlTypeToUse = (metaData != null ? metaData.getFallbackNullType(ps) :
+						determineFallbackNullType(ps.getConnection().getMetaData()));
 			}
-			if (useSetObject) {
+			if (sqlTypeToUse == SET_OBJECT_NULL_TYPE) {
 				ps.setObject(paramIndex, null);
 			}
 			else {
@@ -286,6 +306,31 @@ public abstract class StatementCreatorUtils {
 		}
 	}
 
+	/**
+	 * Determine the SQL type to use for null values of unknown type,
+	 * based on well-known behavior of common databases.
+	 * @param dbmd the metadata of the target database
+	 * @return the SQL type, or {@link #SET_OBJECT_NULL_TYPE} for a
+	 * {@code setObject(index, null)} call
+	 * @throws SQLException if thrown by DatabaseMetaData methods
+	 */
+	static int determineFallbackNullType(DatabaseMetaData dbmd) throws SQLException {
+		String jdbcDriverName = dbmd.getDriverName();
+		String databaseProductName = dbmd.getDatabaseProductName();
+		if (databaseProductName.startsWith("Informix") ||
+				(jdbcDriverName.startsWith("Microsoft") && jdbcDriverName.contains("SQL Server"))) {
+				// "Microsoft SQL Server JDBC Driver 3.0" versus "Microsoft JDBC Driver 4.0 for SQL Server"
+			return SET_OBJECT_NULL_TYPE;
+		}
+		else if (databaseProductName.startsWith("DB2") ||
+				jdbcDriverName.startsWith("jConnect") ||
+				jdbcDriverName.startsWith("SQLServer")||
+				jdbcDriverName.startsWith("Apache Derby")) {
+			return Types.VARCHAR;
+		}
+		return Types.NULL;
+	}
+
 	private static void setValue(PreparedStatement ps, int paramIndex, int sqlType,
 			@Nullable String typeName, @Nullable Integer scale, Object inValue) throws SQLException {
 
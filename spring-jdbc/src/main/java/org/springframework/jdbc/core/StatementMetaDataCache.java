@@ -0,0 +1,240 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentLruCache;
+
+/**
+ * Bounded cache of statement metadata for a single {@link javax.sql.DataSource},
+ * keyed by SQL String. Avoids repeated {@link ParameterMetaData} and
+ * {@link java.sql.DatabaseMetaData} round-trips when binding SQL NULL values
+ * of unknown type via {@link StatementCreatorUtils}.
+ *
+ * <p>Metadata is only looked up when a statement binds a null value of unknown
+ * type. Parameter types are resolved the first time that happens, and are then
+ * reused for every further execution of the same SQL, unless the driver
+ * signals that it does not support parameter metadata at all. The
+ * database-specific null type fallback for drivers without a working
+ * {@link ParameterMetaData#getParameterType} is resolved once per cache.
+ *
+ * <p>A cache instance must not be shared across DataSources pointing to
+ * different databases. It may be shared across several {@link JdbcTemplate}
+ * instances for the same DataSource.
+ *
+ * @since 5.0.16
+ * @see JdbcTemplate#setStatementMetaDataCache
+ * @see ArgumentPreparedStatementSetter
+ */
+public class StatementMetaDataCache {
+
+	/** Default maximum number of SQL statements held in the cache: 256 */
+	public static final int DEFAULT_CACHE_LIMIT = 256;
+
+
+	private static final Log logger = LogFactory.getLog(StatementMetaDataCache.class);
+
+	private final int cacheLimit;
+
+	/** Cache of SQL String to StatementMetaData */
+	private final ConcurrentLruCache<String, StatementMetaData> cache;
+
+	@Nullable
+	private volatile Integer fallbackNullType;
+
+
+	/**
+	 * Create a new StatementMetaDataCache with the default cache limit.
+	 * @see #DEFAULT_CACHE_LIMIT
+	 */
+	public StatementMetaDataCache() {
+		this(DEFAULT_CACHE_LIMIT);
+	}
+
+	/**
+	 * Create a new StatementMetaDataCache.
+	 * @param cacheLimit the maximum number of SQL statements to hold metadata for
+	 */
+	public StatementMetaDataCache(int cacheLimit) {
+		this.cacheLimit = cacheLimit;
+		this.cache = new ConcurrentLruCache<>(Math.max(cacheLimit, 0), sql -> new StatementMetaData(this, sql));
+	}
+
+
+	/**
+	 * Return the maximum number of SQL statements held in this cache.
+	 */
+	public int getCacheLimit() {
+		return this.cacheLimit;
+	}
+
+	/**
+	 * Return the metadata holder for the given SQL statement,
+	 * creating a new (unresolved) one if none is cached yet.
+	 * @param sql the SQL statement as passed to the JDBC driver
+	 * @return the corresponding StatementMetaData (never {@code null})
+	 */
+	public StatementMetaData getStatementMetaData(String sql) {
+		return this.cache.get(sql);
+	}
+
+	/**
+	 * Return the number of SQL statements currently held in this cache.
+	 */
+	public int size() {
+		return this.cache.size();
+	}
+
+	/**
+	 * Return the number of lookups that found cached metadata.
+	 */
+	public long getHitCount() {
+		return this.cache.hitCount();
+	}
+
+	/**
+	 * Return the number of lookups that had to create new metadata.
+	 */
+	public long getMissCount() {
+		return this.cache.missCount();
+	}
+
+	/**
+	 * Remove all cached metadata, e.g. after a schema change.
+	 * Statistics are kept.
+	 */
+	public void clear() {
+		this.cache.clear();
+		this.fallbackNullType = null;
+	}
+
+	/**
+	 * Return the database-specific SQL type to use for binding null values
+	 * of unknown type, resolving it from the given statement's connection once.
+	 * @see StatementCreatorUtils#determineFallbackNullType
+	 */
+	int getFallbackNullType(PreparedStatement ps) throws SQLException {
+		Integer nullType = this.fallbackNullType;
+		if (nullType == null) {
+			nullType = StatementCreatorUtils.determineFallbackNullType(ps.getConnection().getMetaData());
+			this.fallbackNullType = nullType;
+		}
+		return nullType;
+	}
+
+	@Override
+	public String toString() {
+		return "StatementMetaDataCache: size=" + size() + ", hits=" + getHitCount() +
+				", misses=" + getMissCount();
+	}
+
+
+	/**
+	 * Metadata for a single SQL statement, resolved lazily from the first
+	 * {@link PreparedStatement} that needs it.
+	 */
+	public static class StatementMetaData {
+
+		private final StatementMetaDataCache cache;
+
+		private final String sql;
+
+		@Nullable
+		private volatile int[] parameterTypes;
+
+		private volatile boolean parameterTypesUnsupported;
+
+		StatementMetaData(StatementMetaDataCache cache, String sql) {
+			this.cache = cache;
+			this.sql = sql;
+		}
+
+		/**
+		 * Return the SQL statement that this metadata applies to.
+		 */
+		public String getSql() {
+			return this.sql;
+		}
+
+		/**
+		 * Return whether the parameter types have been resolved already.
+		 */
+		public boolean hasParameterTypes() {
+			return (this.parameterTypes != null);
+		}
+
+		/**
+		 * Return the SQL type of the given parameter, resolving the types of all
+		 * parameters via {@link PreparedStatement#getParameterMetaData()} on first access.
+		 * <p>If the driver throws a {@link SQLFeatureNotSupportedException}, parameter
+		 * types are not requested again for this statement; any other failure is
+		 * considered transient and leads to a retry on the next call.
+		 * @param ps the statement to resolve the parameter types from, if necessary
+		 * @param paramIndex the index of the parameter (starting at 1)
+		 * @return the SQL type, or {@code null} if the driver cannot provide it
+		 */
+		@Nullable
+		Integer getParameterType(PreparedStatement ps, int paramIndex) {
+			int[] types = this.parameterTypes;
+			if (types == null) {
+				if (this.parameterTypesUnsupported) {
+					return null;
+				}
+				try {
+					ParameterMetaData pmd = ps.getParameterMetaData();
+					types = new int[pmd.getParameterCount()];
+					for (int i = 0; i < types.length; i++) {
+						types[i] = pmd.getParameterType(i + 1);
+					}
+					this.parameterTypes = types;
+				}
+				catch (SQLFeatureNotSupportedException ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("JDBC getParameterType call not supported for SQL [" + this.sql +
+								"] - using fallback method from now on: " + ex);
+					}
+					this.parameterTypesUnsupported = true;
+					return null;
+				}
+				catch (SQLException ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("JDBC getParameterType call failed for SQL [" + this.sql +
+								"] - using fallback method instead: " + ex);
+					}
+					return null;
+				}
+			}
+			return (paramIndex > 0 && paramIndex <= types.length ? types[paramIndex - 1] : null);
+		}
+
+		/**
+		 * Return the database-specific SQL type for null values of unknown type.
+		 */
+		int getFallbackNullType(PreparedStatement ps) throws SQLException {
+			return this.cache.getFallbackNullType(ps);
+		}
+	}
+
+}
@@ -260,6 +260,9 @@ public abstract class NamedParameterUtils {
 	 * be used for a select list. Select lists should be limited to 100 or fewer elements.
 	 * A larger number of elements is not guaranteed to be supported by the database and
 	 * is strictly vendor-dependent.
+	 * <p>The resulting SQL statement is cached in the given {@code ParsedSql} per
+	 * combination of collection sizes, so repeated substitution with the same
+	 * number of placeholders does not rebuild the SQL String.
 	 * @param parsedSql the parsed representation of the SQL statement
 	 * @param paramSource the source for named parameters
 	 * @return the SQL statement with substituted parameters
@@ -271,6 +274,75 @@ public abstract class NamedParameterUtils {
 		if (paramNames.isEmpty()) {
 			return originalSql;
 		}
+		// Determine the number of placeholders per parameter, for reuse of the substituted SQL
+		int[] shape = new int[paramNames.size()];
+		for (int i = 0; i < paramNames.size(); i++) {
+			String paramName = paramNames.get(i);
+			shape[i] = -1;
+			if (paramSource != null && paramSource.hasValue(paramName)) {
+				Object value = paramSource.getValue(paramName);
+				if (value instanceof SqlParameterValue) {
+					value = ((SqlParameterValue) value).getValue();
+				}
+				if (value instanceof Collection) {
+					Collection<?> entries = (Collection<?>) value;
+					for (Object entryItem : entries) {
+						if (entryItem instanceof Object[]) {
+							// Expression lists: not worth caching
+							return expandNamedParameters(parsedSql, paramSource);
+						}
+					}
+					shape[i] = entries.size();
+				}
+			}
+		}
+		String substitutedSql = parsedSql.getSubstitutedSql(shape);
+		if (substitutedSql == null) {
+			substitutedSql = expandNamedParameters(parsedSql, shape);
+			parsedSql.putSubstitutedSql(shape, substitutedSql);
+		}
+		return substitutedSql;
+	}
+
+	/**
+	 * Substitute the named parameters according to the given placeholder counts.
+	 * @param parsedSql the parsed representation of the SQL statement
+	 * @param shape the number of placeholders per parameter position,
+	 * or -1 for a single placeholder
+	 */
+	private static String expandNamedParameters(ParsedSql parsedSql, int[] shape) {
+		String originalSql = parsedSql.getOriginalSql();
+		StringBuilder actualSql = new StringBuilder(originalSql.length());
+		int lastIndex = 0;
+		for (int i = 0; i < shape.length; i++) {
+			int[] indexes = parsedSql.getParameterIndexes(i);
+			actualSql.append(originalSql, lastIndex, indexes[0]);
+			if (shape[i] < 0) {
+				actualSql.append('?');
+			}
+			else {
+				for (int k = 0; k < shape[i]; k++) {
+					if (k > 0) {
+						actualSql.append(", ");
+					}
+					actualSql.append('?');
+				}
+			}
+			lastIndex = indexes[1];
+		}
+		actualSql.append(originalSql, lastIndex, originalSql.length());
+		return actualSql.toString();
+	}
+
+	/**
+	 * Substitute the named parameters, expanding collections and expression lists
+	 * based on the actual parameter values.
+	 * @param parsedSql the parsed representation of the SQL statement
+	 * @param paramSource the source for named parameters
+	 */
+	private static String expandNamedParameters(ParsedSql parsedSql, @Nullable SqlParameterSource paramSource) {
+		String originalSql = parsedSql.getOriginalSql();
+		List<String> paramNames = parsedSql.getParameterNames();
 		StringBuilder actualSql = new StringBuilder(originalSql.length());
 		int lastIndex = 0;
 		for (int i = 0; i < paramNames.size(); i++) {
@@ -17,7 +17,12 @@
 package org.springframework.jdbc.core.namedparam;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.lang.Nullable;
 
 /**
  * Holds information about a parsed SQL statement.
@@ -28,6 +33,10 @@ import java.util.List;
  */
 public class ParsedSql {
 
+	/** Maximum number of distinct collection expansions cached per statement */
+	private static final int SUBSTITUTED_SQL_CACHE_LIMIT = 64;
+
+
 	private String originalSql;
 
 	private List<String> parameterNames = new ArrayList<>();
@@ -40,6 +49,9 @@ public class ParsedSql {
 
 	private int totalParameterCount;
 
+	/** Substituted SQL Strings per expansion shape, see {@link #getSubstitutedSql} */
+	private final Map<ExpansionShape, String> substitutedSqlCache = new ConcurrentHashMap<>(4);
+
 
 	/**
 	 * Create a new instance of the {@link ParsedSql} class.
@@ -133,6 +145,27 @@ public class ParsedSql {
 		return this.totalParameterCount;
 	}
 
+	/**
+	 * Return the cached substituted SQL for the given expansion shape, if any.
+	 * @param shape the number of placeholders per parameter position,
+	 * or -1 for a single placeholder without parentheses
+	 * @see NamedParameterUtils#substituteNamedParameters(ParsedSql, SqlParameterSource)
+	 */
+	@Nullable
+	String getSubstitutedSql(int[] shape) {
+		return this.substitutedSqlCache.get(new ExpansionShape(shape));
+	}
+
+	/**
+	 * Cache the substituted SQL for the given expansion shape, unless the
+	 * limit for distinct shapes has been reached for this statement.
+	 */
+	void putSubstitutedSql(int[] shape, String substitutedSql) {
+		if (this.substitutedSqlCache.size() < SUBSTITUTED_SQL_CACHE_LIMIT) {
+			this.substitutedSqlCache.put(new ExpansionShape(shape), substitutedSql);
+		}
+	}
+
 
 	/**
 	 * Exposes the original SQL String.
@@ -142,4 +175,31 @@ public class ParsedSql {
 		return this.originalSql;
 	}
 
+
+	/**
+	 * Cache key for the placeholder counts of all parameter positions.
+	 */
+	private static final class ExpansionShape {
+
+		private final int[] shape;
+
+		private final int hashCode;
+
+		ExpansionShape(int[] shape) {
+			this.shape = shape;
+			this.hashCode = Arrays.hashCode(shape);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return (this == other || (other instanceof ExpansionShape &&
+					Arrays.equals(this.shape, ((ExpansionShape) other).shape)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
 }
@@ -35,6 +35,7 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.jdbc.core.BatchInsertPipeline;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -561,6 +562,26 @@ public abstract class AbstractJdbcInsert {
 		return executeBatchInternal(batchValues);
 	}
 
+	/**
+	 * Delegate method that executes a batch insert using the passed-in
+	 * {@link SqlParameterSource}s, split into chunks by the given pipeline.
+	 * @param pipeline the pipeline to execute the chunks with
+	 * @param batch array of SqlParameterSource with parameter names and values to be used in insert
+	 * @return the results per chunk
+	 * @since 5.0.16
+	 */
+	protected BatchInsertPipeline.Result doExecuteBatch(BatchInsertPipeline pipeline, SqlParameterSource... batch) {
+		checkCompiled();
+		List<Object[]> batchValues = new ArrayList<>(batch.length);
+		for (SqlParameterSource parameterSource : batch) {
+			batchValues.add(matchInParameterValuesWithInsertColumns(parameterSource).toArray());
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing statement " + getInsertString() + " with pipelined batch of size: " + batchValues.size());
+		}
+		return pipeline.execute(getInsertString(), batchValues, getInsertTypes());
+	}
+
 	/**
 	 * Delegate method to execute the batch insert.
 	 */
@@ -20,6 +20,7 @@ import java.util.Arrays;
 import java.util.Map;
 import javax.sql.DataSource;
 
+import org.springframework.jdbc.core.BatchInsertPipeline;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.KeyHolder;
@@ -152,4 +153,9 @@ public class SimpleJdbcInsert extends AbstractJdbcInsert implements SimpleJdbcIn
 		return doExecuteBatch(batch);
 	}
 
+	@Override
+	public BatchInsertPipeline.Result executeBatch(BatchInsertPipeline pipeline, SqlParameterSource... batch) {
+		return doExecuteBatch(pipeline, batch);
+	}
+
 }
@@ -18,6 +18,7 @@ package org.springframework.jdbc.core.simple;
 
 import java.util.Map;
 
+import org.springframework.jdbc.core.BatchInsertPipeline;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.KeyHolder;
 
@@ -150,4 +151,19 @@ public interface SimpleJdbcInsertOperations {
 	 */
 	int[] executeBatch(SqlParameterSource... batch);
 
+	/**
+	 * Execute a batch insert using the batch of values passed in, split into
+	 * chunks that are executed as configured on the given pipeline.
+	 * <p>The default implementation throws an {@link UnsupportedOperationException};
+	 * {@link SimpleJdbcInsert} overrides it.
+	 * @param pipeline the pipeline to execute the chunks with, e.g. concurrently
+	 * or as multi-row inserts
+	 * @param batch an array of SqlParameterSource containing values for the batch
+	 * @return the results per chunk, including the failed chunks
+	 * @since 5.0.16
+	 */
+	default BatchInsertPipeline.Result executeBatch(BatchInsertPipeline pipeline, SqlParameterSource... batch) {
+		throw new UnsupportedOperationException("Batch insert pipelines not supported by " + getClass().getName());
+	}
+
 }
@@ -0,0 +1,1022 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+import org.springframework.util.CustomizableThreadCreator;
+
+/**
+ * Lightweight connection pool on top of a target {@link DataSource}, typically a
+ * {@link SimpleDriverDataSource} or {@link DriverManagerDataSource} which would
+ * otherwise open a new physical Connection for every {@code getConnection()} call.
+ *
+ * <p>Idle connections are claimed without locking: a thread first tries the
+ * Connection it used last, then any idle Connection, then opens a new one if the
+ * {@link #setMaxPoolSize maximum pool size} has not been reached yet. Otherwise it
+ * waits for a Connection to be handed over by a returning thread, for at most the
+ * {@link #setConnectionTimeout connection timeout}.
+ *
+ * <p>Returned Connections are rolled back if not in auto-commit mode, and changed
+ * auto-commit, read-only and isolation settings are reset. Connections that failed
+ * with a connection-level SQL state ("08xxx"), failed validation after being idle,
+ * or exceeded their {@link #setMaxLifetime maximum lifetime} are closed instead of
+ * being reused. A background task periodically closes Connections beyond the
+ * {@link #setIdleTimeout idle timeout}, keeps the {@link #setMinIdle minimum number
+ * of idle Connections} and reports Connections held for longer than the
+ * {@link #setLeakDetectionThreshold leak detection threshold}.
+ *
+ * <p>If a {@link #setStatementCacheSize statement cache size} is specified,
+ * PreparedStatements for plain {@code prepareStatement(String)} calls are kept
+ * open per Connection and reused for the same SQL.
+ *
+ * <p>This pool has no dependencies beyond the JDK and is intended for tests and
+ * embedded deployments. Consider a full-featured pool such as HikariCP for
+ * production systems with demanding requirements.
+ *
+ * @since 5.0.16
+ * @see #setTargetDataSource
+ * @see #close()
+ */
+public class PoolingDataSource extends DelegatingDataSource implements DisposableBean, AutoCloseable {
+
+	/** Idle time after which a Connection gets validated before handing it out */
+	private static final long VALIDATION_BYPASS_WINDOW = 500;
+
+	/** Maximum time to wait for a hand-off before checking for free capacity again */
+	private static final long MAX_WAIT_SLICE = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private static final int NOT_IN_USE = 0;
+
+	private static final int IN_USE = 1;
+
+	private static final int REMOVED = -1;
+
+
+	private static final Log logger = LogFactory.getLog(PoolingDataSource.class);
+
+	private int maxPoolSize = 10;
+
+	private int minIdle = 0;
+
+	private long connectionTimeout = 30000;
+
+	private long idleTimeout = 600000;
+
+	private long maxLifetime = 1800000;
+
+	private int validationTimeout = 5;
+
+	private int statementCacheSize = 0;
+
+	private long leakDetectionThreshold = 0;
+
+	private long housekeepingInterval = 30000;
+
+	private final CopyOnWriteArrayList<PoolEntry> entries = new CopyOnWriteArrayList<>();
+
+	private final ThreadLocal<WeakReference<PoolEntry>> lastUsedEntry = new ThreadLocal<>();
+
+	private final SynchronousQueue<PoolEntry> handoffQueue = new SynchronousQueue<>(true);
+
+	/** Number of open Connections, including Connections being opened */
+	private final AtomicInteger totalConnections = new AtomicInteger();
+
+	private final AtomicInteger waiters = new AtomicInteger();
+
+	private final LongAdder borrowCount = new LongAdder();
+
+	private final LongAdder timeoutCount = new LongAdder();
+
+	private final LongAdder createdCount = new LongAdder();
+
+	private final LongAdder closedCount = new LongAdder();
+
+	private final LongAdder leakCount = new LongAdder();
+
+	private final LongAdder statementCacheHitCount = new LongAdder();
+
+	private final LongAdder statementCacheMissCount = new LongAdder();
+
+	@Nullable
+	private volatile ScheduledExecutorService housekeeper;
+
+	private volatile boolean closed;
+
+
+	/**
+	 * Create a new PoolingDataSource.
+	 * @see #setTargetDataSource
+	 */
+	public PoolingDataSource() {
+	}
+
+	/**
+	 * Create a new PoolingDataSource for the given target DataSource.
+	 * @param targetDataSource the target DataSource providing the physical Connections
+	 */
+	public PoolingDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+
+	/**
+	 * Set the maximum number of open Connections, both idle and in use.
+	 * Default is 10.
+	 */
+	public void setMaxPoolSize(int maxPoolSize) {
+		this.maxPoolSize = maxPoolSize;
+	}
+
+	/**
+	 * Return the maximum number of open Connections.
+	 */
+	public int getMaxPoolSize() {
+		return this.maxPoolSize;
+	}
+
+	/**
+	 * Set the minimum number of idle Connections to keep open.
+	 * Default is 0.
+	 */
+	public void setMinIdle(int minIdle) {
+		this.minIdle = minIdle;
+	}
+
+	/**
+	 * Set the maximum time in milliseconds to wait for a Connection
+	 * if the pool is exhausted. Default is 30000.
+	 */
+	public void setConnectionTimeout(long connectionTimeout) {
+		this.connectionTimeout = connectionTimeout;
+	}
+
+	/**
+	 * Set the time in milliseconds after which an idle Connection gets closed,
+	 * as long as more than {@link #setMinIdle minIdle} Connections are idle.
+	 * Default is 600000 (10 minutes); 0 indicates no idle eviction.
+	 */
+	public void setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * Set the maximum lifetime of a Connection in milliseconds, after which it
+	 * gets closed once it is not in use. Default is 1800000 (30 minutes);
+	 * 0 indicates no maximum lifetime.
+	 */
+	public void setMaxLifetime(long maxLifetime) {
+		this.maxLifetime = maxLifetime;
+	}
+
+	/**
+	 * Set the timeout in seconds for validating Connections which have been
+	 * idle for a while, via {@link Connection#isValid}. Default is 5.
+	 */
+	public void setValidationTimeout(int validationTimeout) {
+		this.validationTimeout = validationTimeout;
+	}
+
+	/**
+	 * Set the number of PreparedStatements to cache per Connection.
+	 * Default is 0, i.e. no statement caching.
+	 * <p>Only statements prepared via {@link Connection#prepareStatement(String)}
+	 * are cached. Statements with changed settings such as max rows or
+	 * query timeout are closed rather than cached. The cache size is applied
+	 * to newly created Connections only.
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	/**
+	 * Set the time in milliseconds after which a Connection that has not been
+	 * returned to the pool is reported as a potential leak, including the stack
+	 * trace of the code that obtained it. Default is 0, i.e. no leak detection.
+	 */
+	public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+		this.leakDetectionThreshold = leakDetectionThreshold;
+	}
+
+	/**
+	 * Set the interval in milliseconds for the background task performing idle
+	 * and lifetime eviction as well as leak detection. Default is 30000;
+	 * 0 indicates no background task.
+	 * @see #performHousekeeping()
+	 */
+	public void setHousekeepingInterval(long housekeepingInterval) {
+		this.housekeepingInterval = housekeepingInterval;
+	}
+
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (this.closed) {
+			throw new SQLException("PoolingDataSource has been closed");
+		}
+		startHousekeepingIfNecessary();
+		PoolEntry entry = borrow();
+		this.lastUsedEntry.set(entry.reference);
+		entry.borrowedAt = System.currentTimeMillis();
+		entry.borrowLocation = (this.leakDetectionThreshold > 0 ?
+				new Exception("Connection obtained at this location") : null);
+		entry.leakReported = false;
+		this.borrowCount.increment();
+		return (Connection) Proxy.newProxyInstance(
+				ConnectionProxy.class.getClassLoader(),
+				new Class<?>[] {ConnectionProxy.class},
+				new PooledConnectionInvocationHandler(entry));
+	}
+
+	/**
+	 * This implementation does not pool Connections for specific credentials:
+	 * it obtains a new Connection from the target DataSource for every call.
+	 */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return super.getConnection(username, password);
+	}
+
+	/**
+	 * Close all idle Connections and stop the background task.
+	 * Connections in use are closed when they get returned.
+	 */
+	@Override
+	public void close() {
+		this.closed = true;
+		ScheduledExecutorService housekeeper = this.housekeeper;
+		if (housekeeper != null) {
+			housekeeper.shutdownNow();
+			this.housekeeper = null;
+		}
+		for (PoolEntry entry : this.entries) {
+			if (entry.state.compareAndSet(NOT_IN_USE, IN_USE)) {
+				discard(entry);
+			}
+		}
+	}
+
+	/**
+	 * Close this pool on bean factory shutdown.
+	 * @see #close()
+	 */
+	@Override
+	public void destroy() {
+		close();
+	}
+
+	/**
+	 * Close Connections beyond their idle timeout or maximum lifetime, report
+	 * potential leaks, and open Connections up to the minimum number of idle ones.
+	 * <p>Called periodically according to the {@link #setHousekeepingInterval
+	 * housekeeping interval}, and may also be called manually.
+	 */
+	public void performHousekeeping() {
+		long now = System.currentTimeMillis();
+		int idle = getIdleConnections();
+		for (PoolEntry entry : this.entries) {
+			int state = entry.state.get();
+			if (state == NOT_IN_USE) {
+				boolean idleTimedOut = (this.idleTimeout > 0 && idle > this.minIdle &&
+						now - entry.lastReturnedAt > this.idleTimeout);
+				if ((idleTimedOut || isExpired(entry, now)) && entry.state.compareAndSet(NOT_IN_USE, IN_USE)) {
+					discard(entry);
+					idle--;
+				}
+			}
+			else if (state == IN_USE && this.leakDetectionThreshold > 0 && !entry.leakReported &&
+					now - entry.borrowedAt > this.leakDetectionThreshold) {
+				entry.leakReported = true;
+				this.leakCount.increment();
+				if (logger.isWarnEnabled()) {
+					logger.warn("Connection [" + entry.connection + "] has not been returned for " +
+							(now - entry.borrowedAt) + " ms - potential leak", entry.borrowLocation);
+				}
+			}
+		}
+		while (!this.closed && getIdleConnections() < this.minIdle) {
+			try {
+				PoolEntry entry = createEntryIfPossible();
+				if (entry == null) {
+					break;
+				}
+				release(entry);
+			}
+			catch (SQLException ex) {
+				logger.debug("Could not open Connection for minimum idle pool size", ex);
+				break;
+			}
+		}
+	}
+
+
+	//---------------------------------------------------------------------
+	// Pool metrics
+	//---------------------------------------------------------------------
+
+	/**
+	 * Return the number of Connections currently in use.
+	 */
+	public int getActiveConnections() {
+		return countEntries(IN_USE);
+	}
+
+	/**
+	 * Return the number of Connections currently idle in the pool.
+	 */
+	public int getIdleConnections() {
+		return countEntries(NOT_IN_USE);
+	}
+
+	/**
+	 * Return the number of open Connections, both idle and in use.
+	 */
+	public int getTotalConnections() {
+		return this.totalConnections.get();
+	}
+
+	/**
+	 * Return the number of threads currently waiting for a Connection.
+	 */
+	public int getThreadsAwaitingConnection() {
+		return this.waiters.get();
+	}
+
+	/**
+	 * Return the number of Connections handed out by this pool.
+	 */
+	public long getBorrowCount() {
+		return this.borrowCount.sum();
+	}
+
+	/**
+	 * Return the number of {@code getConnection()} calls that timed out.
+	 */
+	public long getTimeoutCount() {
+		return this.timeoutCount.sum();
+	}
+
+	/**
+	 * Return the number of physical Connections opened by this pool.
+	 */
+	public long getCreatedCount() {
+		return this.createdCount.sum();
+	}
+
+	/**
+	 * Return the number of physical Connections closed by this pool.
+	 */
+	public long getClosedCount() {
+		return this.closedCount.sum();
+	}
+
+	/**
+	 * Return the number of Connections reported as potential leaks.
+	 * @see #setLeakDetectionThreshold
+	 */
+	public long getLeakCount() {
+		return this.leakCount.sum();
+	}
+
+	/**
+	 * Return the number of PreparedStatements served from the statement cache.
+	 * @see #setStatementCacheSize
+	 */
+	public long getStatementCacheHitCount() {
+		return this.statementCacheHitCount.sum();
+	}
+
+	/**
+	 * Return the number of PreparedStatements that had to be prepared
+	 * despite the statement cache.
+	 * @see #setStatementCacheSize
+	 */
+	public long getStatementCacheMissCount() {
+		return this.statementCacheMissCount.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "PoolingDataSource: total=" + getTotalConnections() + ", active=" + getActiveConnections() +
+				", idle=" + getIdleConnections() + ", waiting=" + getThreadsAwaitingConnection();
+	}
+
+
+	//---------------------------------------------------------------------
+	// Pool internals
+	//---------------------------------------------------------------------
+
+	private void startHousekeepingIfNecessary() {
+		if (this.housekeeper == null && this.housekeepingInterval > 0) {
+			synchronized (this) {
+				if (this.housekeeper == null && !this.closed) {
+					CustomizableThreadCreator threadCreator = new CustomizableThreadCreator("PoolingDataSource-");
+					threadCreator.setDaemon(true);
+					ScheduledExecutorService housekeeper =
+							Executors.newSingleThreadScheduledExecutor(threadCreator::createThread);
+					housekeeper.scheduleWithFixedDelay(this::performHousekeeping,
+							this.housekeepingInterval, this.housekeepingInterval, TimeUnit.MILLISECONDS);
+					this.housekeeper = housekeeper;
+				}
+			}
+		}
+	}
+
+	private PoolEntry borrow() throws SQLException {
+		// Fast path: the Connection last used by this thread, then any idle Connection
+		WeakReference<PoolEntry> reference = this.lastUsedEntry.get();
+		PoolEntry entry = (reference != null ? reference.get() : null);
+		if (entry != null && entry.state.compareAndSet(NOT_IN_USE, IN_USE) && isUsable(entry)) {
+			return entry;
+		}
+		entry = claimIdleEntry();
+		if (entry != null) {
+			return entry;
+		}
+		entry = createEntryIfPossible();
+		if (entry != null) {
+			return entry;
+		}
+
+		// Pool exhausted: wait for a hand-off from a returning thread
+		long start = System.nanoTime();
+		long timeout = TimeUnit.MILLISECONDS.toNanos(this.connectionTimeout);
+		this.waiters.incrementAndGet();
+		try {
+			long remaining;
+			while ((remaining = timeout - (System.nanoTime() - start)) > 0) {
+				entry = claimIdleEntry();
+				if (entry == null) {
+					entry = createEntryIfPossible();
+				}
+				if (entry == null) {
+					entry = this.handoffQueue.poll(Math.min(remaining, MAX_WAIT_SLICE), TimeUnit.NANOSECONDS);
+					if (entry != null && !(entry.state.compareAndSet(NOT_IN_USE, IN_USE) && isUsable(entry))) {
+						entry = null;
+					}
+				}
+				if (entry != null) {
+					return entry;
+				}
+				if (this.closed) {
+					throw new SQLException("PoolingDataSource has been closed");
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a pooled Connection", ex);
+		}
+		finally {
+			this.waiters.decrementAndGet();
+		}
+		this.timeoutCount.increment();
+		throw new SQLTransientConnectionException("No pooled Connection available within " +
+				this.connectionTimeout + " ms (active=" + getActiveConnections() + ", max=" + this.maxPoolSize + ")");
+	}
+
+	@Nullable
+	private PoolEntry claimIdleEntry() {
+		for (PoolEntry entry : this.entries) {
+			if (entry.state.compareAndSet(NOT_IN_USE, IN_USE) && isUsable(entry)) {
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Check a freshly claimed entry, discarding it if expired or invalid.
+	 */
+	private boolean isUsable(PoolEntry entry) {
+		long now = System.currentTimeMillis();
+		if (isExpired(entry, now)) {
+			discard(entry);
+			return false;
+		}
+		if (now - entry.lastReturnedAt > VALIDATION_BYPASS_WINDOW) {
+			boolean valid;
+			try {
+				valid = entry.connection.isValid(this.validationTimeout);
+			}
+			catch (SQLException ex) {
+				valid = false;
+			}
+			if (!valid) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Discarding invalid pooled Connection [" + entry.connection + "]");
+				}
+				discard(entry);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isExpired(PoolEntry entry, long now) {
+		return (this.maxLifetime > 0 && now - entry.createdAt > this.maxLifetime);
+	}
+
+	/**
+	 * Open a new physical Connection, in use by the caller,
+	 * if the maximum pool size has not been reached yet.
+	 */
+	@Nullable
+	private PoolEntry createEntryIfPossible() throws SQLException {
+		int total;
+		do {
+			total = this.totalConnections.get();
+			if (total >= this.maxPoolSize) {
+				return null;
+			}
+		}
+		while (!this.totalConnections.compareAndSet(total, total + 1));
+
+		Connection con;
+		try {
+			con = obtainTargetDataSource().getConnection();
+		}
+		catch (SQLException | RuntimeException ex) {
+			this.totalConnections.decrementAndGet();
+			throw ex;
+		}
+		PoolEntry entry;
+		try {
+			entry = new PoolEntry(con, this.statementCacheSize);
+		}
+		catch (SQLException ex) {
+			this.totalConnections.decrementAndGet();
+			closeQuietly(con);
+			throw ex;
+		}
+		this.entries.add(entry);
+		this.createdCount.increment();
+		return entry;
+	}
+
+	/**
+	 * Return an entry in use to the pool, handing it over to a waiting thread if any.
+	 */
+	private void release(PoolEntry entry) {
+		if (this.closed || entry.broken || isExpired(entry, System.currentTimeMillis())) {
+			discard(entry);
+			return;
+		}
+		entry.lastReturnedAt = System.currentTimeMillis();
+		entry.state.set(NOT_IN_USE);
+		for (int i = 0; this.waiters.get() > 0; i++) {
+			if (entry.state.get() != NOT_IN_USE || this.handoffQueue.offer(entry)) {
+				return;
+			}
+			else if ((i & 0xff) == 0xff) {
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+			}
+			else {
+				Thread.yield();
+			}
+		}
+	}
+
+	/**
+	 * Remove an entry in use from the pool and close its physical Connection.
+	 */
+	private void discard(PoolEntry entry) {
+		if (entry.state.compareAndSet(IN_USE, REMOVED)) {
+			this.entries.remove(entry);
+			this.totalConnections.decrementAndGet();
+			this.closedCount.increment();
+			closeQuietly(entry.connection);
+		}
+	}
+
+	private int countEntries(int state) {
+		int count = 0;
+		for (PoolEntry entry : this.entries) {
+			if (entry.state.get() == state) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static void closeQuietly(AutoCloseable closeable) {
+		try {
+			closeable.close();
+		}
+		catch (Exception ex) {
+			logger.debug("Could not close pooled JDBC resource", ex);
+		}
+	}
+
+
+	/**
+	 * A physical Connection held by the pool, along with its state.
+	 */
+	private static final class PoolEntry {
+
+		final Connection connection;
+
+		final WeakReference<PoolEntry> reference = new WeakReference<>(this);
+
+		final AtomicInteger state = new AtomicInteger(IN_USE);
+
+		final long createdAt = System.currentTimeMillis();
+
+		volatile long lastReturnedAt = this.createdAt;
+
+		volatile long borrowedAt;
+
+		@Nullable
+		volatile Exception borrowLocation;
+
+		volatile boolean leakReported;
+
+		volatile boolean broken;
+
+		final boolean defaultAutoCommit;
+
+		final boolean defaultReadOnly;
+
+		final int defaultTransactionIsolation;
+
+		/** Only accessed by the thread holding the Connection */
+		@Nullable
+		final Map<String, PreparedStatement> statementCache;
+
+		@SuppressWarnings("serial")
+		PoolEntry(Connection connection, int statementCacheSize) throws SQLException {
+			this.connection = connection;
+			this.defaultAutoCommit = connection.getAutoCommit();
+			this.defaultReadOnly = connection.isReadOnly();
+			this.defaultTransactionIsolation = connection.getTransactionIsolation();
+			this.statementCache = (statementCacheSize <= 0 ? null :
+					new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+						@Override
+						protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+							if (size() > statementCacheSize) {
+								closeQuietly(eldest.getValue());
+								return true;
+							}
+							return false;
+						}
+					});
+		}
+	}
+
+
+	/**
+	 * Invocation handler that returns the Connection to the pool on close,
+	 * resetting its state, and serves PreparedStatements from the statement cache.
+	 */
+	private class PooledConnectionInvocationHandler implements InvocationHandler {
+
+		private final PoolEntry entry;
+
+		private boolean autoCommit;
+
+		private boolean readOnlyChanged;
+
+		private boolean transactionIsolationChanged;
+
+		private volatile boolean closed = false;
+
+		public PooledConnectionInvocationHandler(PoolEntry entry) {
+			this.entry = entry;
+			this.autoCommit = entry.defaultAutoCommit;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on ConnectionProxy interface coming in...
+
+			switch (method.getName()) {
+				case "equals":
+					// Only consider equal when proxies are identical.
+					return (proxy == args[0]);
+				case "hashCode":
+					// Use hashCode of Connection proxy.
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Pooled proxy for target Connection [" + this.entry.connection + "]";
+				case "unwrap":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return proxy;
+					}
+					break;
+				case "isWrapperFor":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return true;
+					}
+					break;
+				case "close":
+					// Handle close method: return Connection to the pool.
+					if (!this.closed) {
+						this.closed = true;
+						resetAndRelease();
+					}
+					return null;
+				case "isClosed":
+					if (this.closed) {
+						return true;
+					}
+					break;
+			}
+
+			if (this.closed) {
+				throw new SQLException("Connection handle already closed");
+			}
+			if (method.getName().equals("getTargetConnection")) {
+				// Handle getTargetConnection method: return underlying Connection.
+				return this.entry.connection;
+			}
+			if (method.getName().equals("prepareStatement") && args.length == 1 && this.entry.statementCache != null) {
+				return prepareCachedStatement(proxy, (String) args[0]);
+			}
+
+			// Invoke method on target Connection.
+			Object retVal;
+			try {
+				retVal = method.invoke(this.entry.connection, args);
+			}
+			catch (InvocationTargetException ex) {
+				checkBroken(ex.getTargetException());
+				throw ex.getTargetException();
+			}
+			switch (method.getName()) {
+				case "createStatement":
+				case "prepareStatement":
+				case "prepareCall":
+					// Expose this Connection handle from Statement.getConnection().
+					return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+							new Class<?>[] {method.getReturnType()},
+							new StatementInvocationHandler((Statement) retVal, proxy, this));
+				case "setAutoCommit":
+					this.autoCommit = (Boolean) args[0];
+					break;
+				case "setReadOnly":
+					this.readOnlyChanged = true;
+					break;
+				case "setTransactionIsolation":
+					this.transactionIsolationChanged = true;
+					break;
+			}
+			return retVal;
+		}
+
+		private Object prepareCachedStatement(Object connectionProxy, String sql) throws SQLException {
+			Map<String, PreparedStatement> statementCache = this.entry.statementCache;
+			PreparedStatement ps = (statementCache != null ? statementCache.remove(sql) : null);
+			if (ps != null) {
+				statementCacheHitCount.increment();
+			}
+			else {
+				statementCacheMissCount.increment();
+				try {
+					ps = this.entry.connection.prepareStatement(sql);
+				}
+				catch (SQLException ex) {
+					checkBroken(ex);
+					throw ex;
+				}
+			}
+			return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] {PreparedStatement.class},
+					new CachedStatementInvocationHandler(ps, sql, connectionProxy, this));
+		}
+
+		void checkBroken(Throwable ex) {
+			if (ex instanceof SQLException) {
+				String sqlState = ((SQLException) ex).getSQLState();
+				if (sqlState != null && sqlState.startsWith("08")) {
+					this.entry.broken = true;
+				}
+			}
+		}
+
+		boolean isClosed() {
+			return this.closed;
+		}
+
+		private void resetAndRelease() {
+			if (!this.entry.broken) {
+				Connection con = this.entry.connection;
+				try {
+					if (!this.autoCommit) {
+						con.rollback();
+					}
+					if (this.autoCommit != this.entry.defaultAutoCommit) {
+						con.setAutoCommit(this.entry.defaultAutoCommit);
+					}
+					if (this.readOnlyChanged) {
+						con.setReadOnly(this.entry.defaultReadOnly);
+					}
+					if (this.transactionIsolationChanged) {
+						con.setTransactionIsolation(this.entry.defaultTransactionIsolation);
+					}
+					con.clearWarnings();
+				}
+				catch (SQLException ex) {
+					logger.debug("Could not reset pooled Connection - discarding it", ex);
+					this.entry.broken = true;
+				}
+			}
+			release(this.entry);
+		}
+	}
+
+
+	/**
+	 * Invocation handler that exposes the Connection handle from
+	 * {@link Statement#getConnection()}, as required by the JDBC specification.
+	 */
+	private static class StatementInvocationHandler implements InvocationHandler {
+
+		private final Statement target;
+
+		private final Object connectionProxy;
+
+		private final PooledConnectionInvocationHandler connectionHandler;
+
+		public StatementInvocationHandler(Statement target, Object connectionProxy,
+				PooledConnectionInvocationHandler connectionHandler) {
+
+			this.target = target;
+			this.connectionProxy = connectionProxy;
+			this.connectionHandler = connectionHandler;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "equals":
+					return (proxy == args[0]);
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Pooled proxy for target Statement [" + this.target + "]";
+				case "getConnection":
+					return this.connectionProxy;
+				case "unwrap":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return proxy;
+					}
+					break;
+				case "isWrapperFor":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return true;
+					}
+					break;
+			}
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				this.connectionHandler.checkBroken(ex.getTargetException());
+				throw ex.getTargetException();
+			}
+		}
+	}
+
+
+	/**
+	 * Invocation handler that returns a PreparedStatement to the statement
+	 * cache of its Connection on close, unless its settings have been changed.
+	 */
+	private static class CachedStatementInvocationHandler implements InvocationHandler {
+
+		private final PreparedStatement target;
+
+		private final String sql;
+
+		private final Object connectionProxy;
+
+		private final PooledConnectionInvocationHandler connectionHandler;
+
+		private boolean reusable = true;
+
+		private boolean closed = false;
+
+		public CachedStatementInvocationHandler(PreparedStatement target, String sql, Object connectionProxy,
+				PooledConnectionInvocationHandler connectionHandler) {
+
+			this.target = target;
+			this.sql = sql;
+			this.connectionProxy = connectionProxy;
+			this.connectionHandler = connectionHandler;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			switch (name) {
+				case "equals":
+					return (proxy == args[0]);
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Cached proxy for target PreparedStatement [" + this.target + "]";
+				case "unwrap":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return proxy;
+					}
+					break;
+				case "isWrapperFor":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return true;
+					}
+					break;
+				case "close":
+					if (!this.closed) {
+						this.closed = true;
+						returnToCache();
+					}
+					return null;
+				case "isClosed":
+					if (this.closed) {
+						return true;
+					}
+					break;
+			}
+
+			if (this.closed) {
+				throw new SQLException("Statement already closed");
+			}
+			if (name.equals("getConnection")) {
+				return this.connectionProxy;
+			}
+			if (name.startsWith("set") && args != null && args.length == 1) {
+				// Statement-level settings such as setMaxRows, setFetchSize, setQueryTimeout
+				this.reusable = false;
+			}
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				this.connectionHandler.checkBroken(ex.getTargetException());
+				throw ex.getTargetException();
+			}
+		}
+
+		private void returnToCache() {
+			Map<String, PreparedStatement> statementCache = this.connectionHandler.entry.statementCache;
+			if (this.reusable && statementCache != null && !this.connectionHandler.isClosed()) {
+				try {
+					this.target.clearParameters();
+					this.target.clearWarnings();
+					PreparedStatement previous = statementCache.put(this.sql, this.target);
+					if (previous != null && previous != this.target) {
+						closeQuietly(previous);
+					}
+					return;
+				}
+				catch (SQLException ex) {
+					logger.debug("Could not reset cached PreparedStatement - closing it", ex);
+				}
+			}
+			closeQuietly(this.target);
+		}
+	}
+
+}
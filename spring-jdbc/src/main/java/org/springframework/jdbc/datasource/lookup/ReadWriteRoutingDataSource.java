@@ -0,0 +1,635 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadCreator;
+
+/**
+ * {@link javax.sql.DataSource} implementation that routes read-only work to a set of
+ * replica DataSources and everything else to a single write DataSource.
+ *
+ * <p>A connection is considered read-only if the current transaction has been marked as
+ * {@link TransactionSynchronizationManager#isCurrentTransactionReadOnly() read-only}.
+ * Since transaction managers such as
+ * {@link org.springframework.jdbc.datasource.DataSourceTransactionManager} obtain their
+ * Connection before exposing the read-only flag, this router should be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} which defers
+ * the actual connection retrieval until the first statement gets executed.
+ *
+ * <p>Read connections are balanced across all healthy replicas, either via weighted
+ * round-robin or by choosing the replica with the least outstanding connections, see
+ * {@link #setLoadBalancingStrategy}. A replica that fails to provide a connection is
+ * ejected for the {@link #setEjectionTime ejection time}, with the next replica (and
+ * eventually the write DataSource) being tried instead. Optionally, all replicas can be
+ * validated periodically through {@link Connection#isValid}, see
+ * {@link #setHealthCheckInterval}.
+ *
+ * <p>Connection acquisition times, failures and outstanding connections are recorded
+ * per target and available via {@link #getTargetStatistics()}.
+ *
+ * @since 5.0.16
+ * @see #setWriteDataSource
+ * @see #setReadDataSources
+ * @see AbstractRoutingDataSource
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements InitializingBean, DisposableBean {
+
+	/** Name of the write DataSource in the {@link #getTargetStatistics() statistics} */
+	public static final String WRITE_TARGET_NAME = "write";
+
+
+	/**
+	 * Strategies for choosing a replica for read-only connections.
+	 */
+	public enum LoadBalancingStrategy {
+
+		/**
+		 * Distribute connections across replicas in proportion to their weight.
+		 * @see #setReadDataSourceWeights
+		 */
+		ROUND_ROBIN,
+
+		/**
+		 * Choose the replica with the fewest connections currently in use.
+		 */
+		LEAST_OUTSTANDING
+	}
+
+
+	private static final Log logger = LogFactory.getLog(ReadWriteRoutingDataSource.class);
+
+	@Nullable
+	private DataSource writeDataSource;
+
+	private Map<String, DataSource> readDataSources = Collections.emptyMap();
+
+	private Map<String, Integer> readDataSourceWeights = Collections.emptyMap();
+
+	private LoadBalancingStrategy loadBalancingStrategy = LoadBalancingStrategy.ROUND_ROBIN;
+
+	private boolean fallbackToWriteDataSource = true;
+
+	private long ejectionTime = 30000;
+
+	private long healthCheckInterval = 0;
+
+	private int validationTimeout = 5;
+
+	@Nullable
+	private Target writeTarget;
+
+	private List<Target> readTargets = Collections.emptyList();
+
+	private final AtomicLong roundRobinCounter = new AtomicLong();
+
+	@Nullable
+	private ScheduledExecutorService healthCheckExecutor;
+
+
+	/**
+	 * Set the DataSource for all connections outside of read-only transactions.
+	 */
+	public void setWriteDataSource(DataSource writeDataSource) {
+		this.writeDataSource = writeDataSource;
+	}
+
+	/**
+	 * Set the replica DataSources for read-only connections, keyed by a unique
+	 * name used for logging and {@link #getTargetStatistics() statistics}.
+	 */
+	public void setReadDataSources(Map<String, DataSource> readDataSources) {
+		this.readDataSources = new LinkedHashMap<>(readDataSources);
+	}
+
+	/**
+	 * Set the round-robin weights of the replica DataSources, keyed by the names
+	 * specified in {@link #setReadDataSources}. Replicas without an entry have a
+	 * weight of 1.
+	 * @see LoadBalancingStrategy#ROUND_ROBIN
+	 */
+	public void setReadDataSourceWeights(Map<String, Integer> readDataSourceWeights) {
+		this.readDataSourceWeights = new LinkedHashMap<>(readDataSourceWeights);
+	}
+
+	/**
+	 * Set the strategy for choosing a replica for read-only connections.
+	 * Default is {@link LoadBalancingStrategy#ROUND_ROBIN}.
+	 */
+	public void setLoadBalancingStrategy(LoadBalancingStrategy loadBalancingStrategy) {
+		Assert.notNull(loadBalancingStrategy, "LoadBalancingStrategy must not be null");
+		this.loadBalancingStrategy = loadBalancingStrategy;
+	}
+
+	/**
+	 * Specify whether read-only connections should be obtained from the write
+	 * DataSource if no replica is available. Default is "true".
+	 * <p>Switch this flag to "false" to fail with an SQLException instead.
+	 */
+	public void setFallbackToWriteDataSource(boolean fallbackToWriteDataSource) {
+		this.fallbackToWriteDataSource = fallbackToWriteDataSource;
+	}
+
+	/**
+	 * Set the time in milliseconds for which a replica is skipped after a failed
+	 * connection attempt or health check. Default is 30000.
+	 * <p>The replica is tried again once that time has passed, or earlier if a
+	 * {@link #setHealthCheckInterval health check} succeeds for it.
+	 */
+	public void setEjectionTime(long ejectionTime) {
+		this.ejectionTime = ejectionTime;
+	}
+
+	/**
+	 * Set the interval in milliseconds for validating all replicas in the background.
+	 * Default is 0, i.e. no background health checks, relying on failed connection
+	 * attempts for ejecting replicas.
+	 * @see #setValidationTimeout
+	 */
+	public void setHealthCheckInterval(long healthCheckInterval) {
+		this.healthCheckInterval = healthCheckInterval;
+	}
+
+	/**
+	 * Set the timeout in seconds for {@link Connection#isValid} calls
+	 * during health checks. Default is 5.
+	 */
+	public void setValidationTimeout(int validationTimeout) {
+		this.validationTimeout = validationTimeout;
+	}
+
+
+	@Override
+	public void afterPropertiesSet() {
+		if (this.writeDataSource == null) {
+			throw new IllegalArgumentException("Property 'writeDataSource' is required");
+		}
+		this.writeTarget = new Target(WRITE_TARGET_NAME, this.writeDataSource, 1);
+		List<Target> readTargets = new ArrayList<>(this.readDataSources.size());
+		this.readDataSources.forEach((name, dataSource) -> {
+			Integer weight = this.readDataSourceWeights.get(name);
+			Assert.isTrue(weight == null || weight > 0, "Weight of read DataSource '" + name + "' must be positive");
+			readTargets.add(new Target(name, dataSource, (weight != null ? weight : 1)));
+		});
+		this.readTargets = Collections.unmodifiableList(readTargets);
+		if (this.healthCheckInterval > 0 && !readTargets.isEmpty()) {
+			CustomizableThreadCreator threadCreator = new CustomizableThreadCreator("ReadWriteRoutingDataSource-health-");
+			threadCreator.setDaemon(true);
+			this.healthCheckExecutor = Executors.newSingleThreadScheduledExecutor(threadCreator::createThread);
+			this.healthCheckExecutor.scheduleWithFixedDelay(this::checkHealth,
+					this.healthCheckInterval, this.healthCheckInterval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Override
+	public void destroy() {
+		if (this.healthCheckExecutor != null) {
+			this.healthCheckExecutor.shutdownNow();
+			this.healthCheckExecutor = null;
+		}
+	}
+
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return doGetConnection(null, null);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return doGetConnection(username, password);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return (T) this;
+		}
+		return obtainWriteTarget().dataSource.unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return (iface.isInstance(this) || obtainWriteTarget().dataSource.isWrapperFor(iface));
+	}
+
+	/**
+	 * Return a snapshot of the statistics for the write DataSource and all replicas,
+	 * in the order of the {@link #setReadDataSources read DataSources}.
+	 */
+	public List<TargetStatistics> getTargetStatistics() {
+		List<TargetStatistics> statistics = new ArrayList<>(this.readTargets.size() + 1);
+		statistics.add(new TargetStatistics(obtainWriteTarget()));
+		for (Target target : this.readTargets) {
+			statistics.add(new TargetStatistics(target));
+		}
+		return statistics;
+	}
+
+	/**
+	 * Determine whether the current connection request is for read-only work.
+	 * <p>The default implementation checks the current transaction's read-only flag.
+	 * @see TransactionSynchronizationManager#isCurrentTransactionReadOnly()
+	 */
+	protected boolean isCurrentReadOnly() {
+		return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	/**
+	 * Validate all replicas, ejecting the failed ones and re-admitting the valid ones.
+	 * <p>Called periodically if a {@link #setHealthCheckInterval health check interval}
+	 * has been specified.
+	 */
+	public void checkHealth() {
+		for (Target target : this.readTargets) {
+			try (Connection con = target.dataSource.getConnection()) {
+				if (con.isValid(this.validationTimeout)) {
+					if (!target.isHealthy() && logger.isInfoEnabled()) {
+						logger.info("Read DataSource '" + target.name + "' passed health check - re-admitting it");
+					}
+					target.ejectedUntil = 0;
+				}
+				else {
+					eject(target, null);
+				}
+			}
+			catch (SQLException ex) {
+				eject(target, ex);
+			}
+			catch (RuntimeException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Unexpected exception during health check of read DataSource '" +
+							target.name + "'", ex);
+				}
+				eject(target, null);
+			}
+		}
+	}
+
+
+	private Target obtainWriteTarget() {
+		Assert.state(this.writeTarget != null, "DataSource router not initialized");
+		return this.writeTarget;
+	}
+
+	private Connection doGetConnection(@Nullable String username, @Nullable String password) throws SQLException {
+		Target writeTarget = obtainWriteTarget();
+		if (this.readTargets.isEmpty() || !isCurrentReadOnly()) {
+			return writeTarget.getConnection(username, password);
+		}
+		SQLException lastFailure = null;
+		for (int attempt = 0; attempt < this.readTargets.size(); attempt++) {
+			Target target = chooseReadTarget();
+			if (target == null) {
+				break;
+			}
+			try {
+				return target.getConnection(username, password);
+			}
+			catch (SQLException ex) {
+				eject(target, ex);
+				lastFailure = ex;
+			}
+		}
+		if (this.fallbackToWriteDataSource) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("No read DataSource available - falling back to write DataSource");
+			}
+			return writeTarget.getConnection(username, password);
+		}
+		if (lastFailure != null) {
+			throw lastFailure;
+		}
+		throw new SQLException("No healthy read DataSource available");
+	}
+
+	@Nullable
+	private Target chooseReadTarget() {
+		List<Target> targets = this.readTargets;
+		if (targets.size() == 1) {
+			Target target = targets.get(0);
+			return (target.isHealthy() ? target : null);
+		}
+		if (this.loadBalancingStrategy == LoadBalancingStrategy.LEAST_OUTSTANDING) {
+			// Start at a rotating offset, spreading ties across replicas
+			int offset = (int) (this.roundRobinCounter.getAndIncrement() % targets.size());
+			Target selected = null;
+			for (int i = 0; i < targets.size(); i++) {
+				Target target = targets.get((offset + i) % targets.size());
+				if (target.isHealthy() &&
+						(selected == null || target.outstanding.get() < selected.outstanding.get())) {
+					selected = target;
+				}
+			}
+			return selected;
+		}
+		return chooseWeightedRoundRobin(targets);
+	}
+
+	/**
+	 * Smooth weighted round-robin: each healthy target gains its weight per turn,
+	 * and the target with the highest current weight is selected and reduced by
+	 * the total weight, interleaving targets rather than picking them in bursts.
+	 */
+	@Nullable
+	private Target chooseWeightedRoundRobin(List<Target> targets) {
+		synchronized (this.roundRobinCounter) {
+			Target selected = null;
+			int totalWeight = 0;
+			for (Target target : targets) {
+				if (target.isHealthy()) {
+					target.currentWeight += target.weight;
+					totalWeight += target.weight;
+					if (selected == null || target.currentWeight > selected.currentWeight) {
+						selected = target;
+					}
+				}
+			}
+			if (selected != null) {
+				selected.currentWeight -= totalWeight;
+			}
+			return selected;
+		}
+	}
+
+	private void eject(Target target, @Nullable SQLException ex) {
+		if (target.isHealthy() && logger.isWarnEnabled()) {
+			logger.warn("Ejecting read DataSource '" + target.name + "' for " + this.ejectionTime + " ms" +
+					(ex != null ? ": " + ex : ""));
+		}
+		target.ejectedUntil = System.currentTimeMillis() + this.ejectionTime;
+	}
+
+
+	/**
+	 * A routing target with its connection statistics.
+	 */
+	private static final class Target {
+
+		final String name;
+
+		final DataSource dataSource;
+
+		final int weight;
+
+		/** Guarded by the round-robin lock */
+		int currentWeight;
+
+		volatile long ejectedUntil;
+
+		final AtomicInteger outstanding = new AtomicInteger();
+
+		final LongAdder connectionCount = new LongAdder();
+
+		final LongAdder failureCount = new LongAdder();
+
+		final LongAdder totalAcquisitionNanos = new LongAdder();
+
+		final AtomicLong maxAcquisitionNanos = new AtomicLong();
+
+		Target(String name, DataSource dataSource, int weight) {
+			this.name = name;
+			this.dataSource = dataSource;
+			this.weight = weight;
+		}
+
+		boolean isHealthy() {
+			long ejectedUntil = this.ejectedUntil;
+			return (ejectedUntil == 0 || System.currentTimeMillis() >= ejectedUntil);
+		}
+
+		Connection getConnection(@Nullable String username, @Nullable String password) throws SQLException {
+			long start = System.nanoTime();
+			Connection con;
+			try {
+				con = (username != null ? this.dataSource.getConnection(username, password) :
+						this.dataSource.getConnection());
+			}
+			catch (SQLException | RuntimeException ex) {
+				this.failureCount.increment();
+				throw ex;
+			}
+			long elapsed = System.nanoTime() - start;
+			this.connectionCount.increment();
+			this.totalAcquisitionNanos.add(elapsed);
+			this.maxAcquisitionNanos.accumulateAndGet(elapsed, Math::max);
+			this.ejectedUntil = 0;
+			this.outstanding.incrementAndGet();
+			return (Connection) Proxy.newProxyInstance(
+					ConnectionProxy.class.getClassLoader(),
+					new Class<?>[] {ConnectionProxy.class},
+					new TrackingInvocationHandler(con, this));
+		}
+	}
+
+
+	/**
+	 * Invocation handler that decrements the outstanding connection count
+	 * of a target when the Connection gets closed.
+	 */
+	private static class TrackingInvocationHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		private final Target routingTarget;
+
+		private boolean closed = false;
+
+		public TrackingInvocationHandler(Connection target, Target routingTarget) {
+			this.target = target;
+			this.routingTarget = routingTarget;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on ConnectionProxy interface coming in...
+
+			if (method.getName().equals("equals")) {
+				// Only consider equal when proxies are identical.
+				return (proxy == args[0]);
+			}
+			else if (method.getName().equals("hashCode")) {
+				// Use hashCode of Connection proxy.
+				return System.identityHashCode(proxy);
+			}
+			else if (method.getName().equals("toString")) {
+				return "Routing proxy for target Connection [" + this.target + "] from '" +
+						this.routingTarget.name + "'";
+			}
+			else if (method.getName().equals("unwrap")) {
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return proxy;
+				}
+			}
+			else if (method.getName().equals("isWrapperFor")) {
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return true;
+				}
+			}
+			else if (method.getName().equals("getTargetConnection")) {
+				// Handle getTargetConnection method: return underlying Connection.
+				return this.target;
+			}
+			else if (method.getName().equals("close")) {
+				synchronized (this) {
+					if (!this.closed) {
+						this.closed = true;
+						this.routingTarget.outstanding.decrementAndGet();
+					}
+				}
+			}
+
+			// Invoke method on target Connection.
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+	}
+
+
+	/**
+	 * Snapshot of the connection statistics for a single target DataSource.
+	 * @see #getTargetStatistics()
+	 */
+	public static final class TargetStatistics {
+
+		private final String name;
+
+		private final boolean healthy;
+
+		private final int weight;
+
+		private final int outstandingConnections;
+
+		private final long connectionCount;
+
+		private final long failureCount;
+
+		private final long totalAcquisitionNanos;
+
+		private final long maxAcquisitionNanos;
+
+		TargetStatistics(Target target) {
+			this.name = target.name;
+			this.healthy = target.isHealthy();
+			this.weight = target.weight;
+			this.outstandingConnections = target.outstanding.get();
+			this.connectionCount = target.connectionCount.sum();
+			this.failureCount = target.failureCount.sum();
+			this.totalAcquisitionNanos = target.totalAcquisitionNanos.sum();
+			this.maxAcquisitionNanos = target.maxAcquisitionNanos.get();
+		}
+
+		/**
+		 * Return the name of the target, or {@link #WRITE_TARGET_NAME} for the
+		 * write DataSource.
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Return whether the target is currently eligible for new connections.
+		 */
+		public boolean isHealthy() {
+			return this.healthy;
+		}
+
+		/**
+		 * Return the round-robin weight of the target.
+		 */
+		public int getWeight() {
+			return this.weight;
+		}
+
+		/**
+		 * Return the number of connections obtained from the target but not closed yet.
+		 */
+		public int getOutstandingConnections() {
+			return this.outstandingConnections;
+		}
+
+		/**
+		 * Return the number of connections successfully obtained from the target.
+		 */
+		public long getConnectionCount() {
+			return this.connectionCount;
+		}
+
+		/**
+		 * Return the number of failed attempts to obtain a connection from the target.
+		 */
+		public long getFailureCount() {
+			return this.failureCount;
+		}
+
+		/**
+		 * Return the average time for obtaining a connection, in nanoseconds.
+		 */
+		public long getAverageAcquisitionTime() {
+			return (this.connectionCount > 0 ? this.totalAcquisitionNanos / this.connectionCount : 0);
+		}
+
+		/**
+		 * Return the maximum time for obtaining a connection, in nanoseconds.
+		 */
+		public long getMaxAcquisitionTime() {
+			return this.maxAcquisitionNanos;
+		}
+
+		@Override
+		public String toString() {
+			return "TargetStatistics '" + this.name + "': healthy=" + this.healthy +
+					", outstanding=" + this.outstandingConnections + ", connections=" + this.connectionCount +
+					", failures=" + this.failureCount + ", avgAcquisitionNanos=" + getAverageAcquisitionTime();
+		}
+	}
+
+}
@@ -66,6 +66,9 @@ public class SQLErrorCodes {
 	@Nullable
 	private SQLExceptionTranslator customSqlExceptionTranslator;
 
+	@Nullable
+	private volatile SQLErrorCodesIndex index;
+
 
 	/**
 	 * Set this property if the database name contains spaces,
@@ -108,6 +111,7 @@ public class SQLErrorCodes {
 
 	public void setBadSqlGrammarCodes(String... badSqlGrammarCodes) {
 		this.badSqlGrammarCodes = StringUtils.sortStringArray(badSqlGrammarCodes);
+		this.index = null;
 	}
 
 	public String[] getBadSqlGrammarCodes() {
@@ -116,6 +120,7 @@ public class SQLErrorCodes {
 
 	public void setInvalidResultSetAccessCodes(String... invalidResultSetAccessCodes) {
 		this.invalidResultSetAccessCodes = StringUtils.sortStringArray(invalidResultSetAccessCodes);
+		this.index = null;
 	}
 
 	public String[] getInvalidResultSetAccessCodes() {
@@ -128,10 +133,12 @@ public class SQLErrorCodes {
 
 	public void setDuplicateKeyCodes(String... duplicateKeyCodes) {
 		this.duplicateKeyCodes = duplicateKeyCodes;
+		this.index = null;
 	}
 
 	public void setDataIntegrityViolationCodes(String... dataIntegrityViolationCodes) {
 		this.dataIntegrityViolationCodes = StringUtils.sortStringArray(dataIntegrityViolationCodes);
+		this.index = null;
 	}
 
 	public String[] getDataIntegrityViolationCodes() {
@@ -140,6 +147,7 @@ public class SQLErrorCodes {
 
 	public void setPermissionDeniedCodes(String... permissionDeniedCodes) {
 		this.permissionDeniedCodes = StringUtils.sortStringArray(permissionDeniedCodes);
+		this.index = null;
 	}
 
 	public String[] getPermissionDeniedCodes() {
@@ -148,6 +156,7 @@ public class SQLErrorCodes {
 
 	public void setDataAccessResourceFailureCodes(String... dataAccessResourceFailureCodes) {
 		this.dataAccessResourceFailureCodes = StringUtils.sortStringArray(dataAccessResourceFailureCodes);
+		this.index = null;
 	}
 
 	public String[] getDataAccessResourceFailureCodes() {
@@ -156,6 +165,7 @@ public class SQLErrorCodes {
 
 	public void setTransientDataAccessResourceCodes(String... transientDataAccessResourceCodes) {
 		this.transientDataAccessResourceCodes = StringUtils.sortStringArray(transientDataAccessResourceCodes);
+		this.index = null;
 	}
 
 	public String[] getTransientDataAccessResourceCodes() {
@@ -164,6 +174,7 @@ public class SQLErrorCodes {
 
 	public void setCannotAcquireLockCodes(String... cannotAcquireLockCodes) {
 		this.cannotAcquireLockCodes = StringUtils.sortStringArray(cannotAcquireLockCodes);
+		this.index = null;
 	}
 
 	public String[] getCannotAcquireLockCodes() {
@@ -172,6 +183,7 @@ public class SQLErrorCodes {
 
 	public void setDeadlockLoserCodes(String... deadlockLoserCodes) {
 		this.deadlockLoserCodes = StringUtils.sortStringArray(deadlockLoserCodes);
+		this.index = null;
 	}
 
 	public String[] getDeadlockLoserCodes() {
@@ -180,14 +192,23 @@ public class SQLErrorCodes {
 
 	public void setCannotSerializeTransactionCodes(String... cannotSerializeTransactionCodes) {
 		this.cannotSerializeTransactionCodes = StringUtils.sortStringArray(cannotSerializeTransactionCodes);
+		this.index = null;
 	}
 
 	public String[] getCannotSerializeTransactionCodes() {
 		return this.cannotSerializeTransactionCodes;
 	}
 
+	/**
+	 * Set custom translations of specific error codes to exception classes.
+	 * <p>The given translations are expected to be fully configured: their error
+	 * codes and exception classes are captured in the {@link #getIndex() index}
+	 * on first use, so later changes to the translation objects themselves are
+	 * not picked up unless the translations are set again.
+	 */
 	public void setCustomTranslations(CustomSQLErrorCodesTranslation... customTranslations) {
 		this.customTranslations = customTranslations;
+		this.index = null;
 	}
 
 	@Nullable
@@ -219,4 +240,19 @@ public class SQLErrorCodes {
 		return this.customSqlExceptionTranslator;
 	}
 
+	/**
+	 * Return a hash index over the error codes defined here, built on first
+	 * access and rebuilt after any of the codes have been changed through
+	 * the setters of this class.
+	 * @since 5.0.16
+	 */
+	SQLErrorCodesIndex getIndex() {
+		SQLErrorCodesIndex index = this.index;
+		if (index == null) {
+			index = new SQLErrorCodesIndex(this);
+			this.index = index;
+		}
+		return index;
+	}
+
 }
@@ -124,6 +124,10 @@ public class SQLErrorCodesFactory {
 
 			// Check all beans of type SQLErrorCodes.
 			errorCodes = lbf.getBeansOfType(SQLErrorCodes.class, true, false);
+			// Precompute the error code index for each database upfront.
+			for (SQLErrorCodes sec : errorCodes.values()) {
+				sec.getIndex();
+			}
 			if (logger.isDebugEnabled()) {
 				logger.debug("SQLErrorCodes loaded: " + errorCodes.keySet());
 			}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Precomputed hash index over the codes of a {@link SQLErrorCodes} instance,
+ * mapping each error code (or SQL state) to the exception category it translates
+ * to, instead of searching every code array on each translation.
+ *
+ * <p>Where a code appears in several categories, the category checked first by
+ * {@link SQLErrorCodeSQLExceptionTranslator} wins.
+ *
+ * @since 5.0.16
+ * @see SQLErrorCodes#getIndex()
+ */
+final class SQLErrorCodesIndex {
+
+	/**
+	 * The grouped error code categories, in order of precedence.
+	 */
+	enum Category {
+
+		BAD_SQL_GRAMMAR,
+		INVALID_RESULT_SET_ACCESS,
+		DUPLICATE_KEY,
+		DATA_INTEGRITY_VIOLATION,
+		PERMISSION_DENIED,
+		DATA_ACCESS_RESOURCE_FAILURE,
+		TRANSIENT_DATA_ACCESS_RESOURCE,
+		CANNOT_ACQUIRE_LOCK,
+		DEADLOCK_LOSER,
+		CANNOT_SERIALIZE_TRANSACTION
+	}
+
+
+	private static final Class<?>[] NO_EXCEPTION_CLASSES = new Class<?>[0];
+
+
+	private final Map<String, Class<?>[]> customExceptionClasses;
+
+	private final Map<String, Category> categories = new HashMap<>(64);
+
+
+	SQLErrorCodesIndex(SQLErrorCodes sec) {
+		Map<String, List<Class<?>>> customExceptionClasses = new HashMap<>();
+		CustomSQLErrorCodesTranslation[] customTranslations = sec.getCustomTranslations();
+		if (customTranslations != null) {
+			for (CustomSQLErrorCodesTranslation customTranslation : customTranslations) {
+				Class<?> exceptionClass = customTranslation.getExceptionClass();
+				if (exceptionClass != null) {
+					for (String errorCode : customTranslation.getErrorCodes()) {
+						customExceptionClasses.computeIfAbsent(errorCode, key -> new ArrayList<>(1)).add(exceptionClass);
+					}
+				}
+			}
+		}
+		this.customExceptionClasses = new HashMap<>(customExceptionClasses.size());
+		customExceptionClasses.forEach((errorCode, exceptionClasses) ->
+				this.customExceptionClasses.put(errorCode, exceptionClasses.toArray(NO_EXCEPTION_CLASSES)));
+
+		addCategory(sec.getBadSqlGrammarCodes(), Category.BAD_SQL_GRAMMAR);
+		addCategory(sec.getInvalidResultSetAccessCodes(), Category.INVALID_RESULT_SET_ACCESS);
+		addCategory(sec.getDuplicateKeyCodes(), Category.DUPLICATE_KEY);
+		addCategory(sec.getDataIntegrityViolationCodes(), Category.DATA_INTEGRITY_VIOLATION);
+		addCategory(sec.getPermissionDeniedCodes(), Category.PERMISSION_DENIED);
+		addCategory(sec.getDataAccessResourceFailureCodes(), Category.DATA_ACCESS_RESOURCE_FAILURE);
+		addCategory(sec.getTransientDataAccessResourceCodes(), Category.TRANSIENT_DATA_ACCESS_RESOURCE);
+		addCategory(sec.getCannotAcquireLockCodes(), Category.CANNOT_ACQUIRE_LOCK);
+		addCategory(sec.getDeadlockLoserCodes(), Category.DEADLOCK_LOSER);
+		addCategory(sec.getCannotSerializeTransactionCodes(), Category.CANNOT_SERIALIZE_TRANSACTION);
+	}
+
+	private void addCategory(String[] errorCodes, Category category) {
+		for (String errorCode : errorCodes) {
+			this.categories.putIfAbsent(errorCode, category);
+		}
+	}
+
+
+	/**
+	 * Return the custom exception classes defined for the given error code,
+	 * in the order of the corresponding {@link CustomSQLErrorCodesTranslation}s.
+	 */
+	Class<?>[] getCustomExceptionClasses(String errorCode) {
+		return this.customExceptionClasses.getOrDefault(errorCode, NO_EXCEPTION_CLASSES);
+	}
+
+	/**
+	 * Return the category that the given error code belongs to, if any.
+	 */
+	@Nullable
+	Category getCategory(String errorCode) {
+		return this.categories.get(errorCode);
+	}
+
+}
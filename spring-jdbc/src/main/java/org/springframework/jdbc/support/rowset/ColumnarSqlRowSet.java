@@ -0,0 +1,1127 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support.rowset;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+
+import org.springframework.jdbc.InvalidResultSetAccessException;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.NumberUtils;
+
+/**
+ * A disconnected {@link SqlRowSet} implementation which stores its data column by
+ * column in primitive arrays, as a memory-efficient alternative to wrapping a
+ * {@code javax.sql.rowset.CachedRowSet} in a {@link ResultSetWrappingSqlRowSet}.
+ *
+ * <p>Numeric, boolean and date/time columns are kept in {@code int}, {@code long},
+ * {@code double} and {@code boolean} arrays without any per-cell objects, with
+ * {@code null} values tracked in a {@link BitSet} per column. String columns are
+ * dictionary-encoded: each distinct value is stored once, with an {@code int} code
+ * per row. Other column types (e.g. {@code BigDecimal} or LOBs) are kept as the
+ * objects returned by {@link ResultSet#getObject(int)}.
+ *
+ * <p>The storage format of each column is chosen once, based on the
+ * {@link ResultSetMetaData#getColumnClassName column class name} reported by the
+ * driver. The typed accessors of this class read primitive columns without boxing,
+ * which makes cursor scans over large row sets considerably cheaper as well.
+ *
+ * <p>Can be used as a {@link org.springframework.jdbc.core.ResultSetExtractor}
+ * through its constructor, for example:
+ *
+ * <pre class="code">
+ * SqlRowSet rowSet = jdbcTemplate.query("SELECT * FROM sales", ColumnarSqlRowSet::new);
+ * </pre>
+ *
+ * <p>Column labels are resolved like in {@link ResultSetWrappingSqlRowSet}, with a
+ * case-insensitive fallback in line with {@code CachedRowSet}.
+ *
+ * @since 5.0.16
+ * @see ResultSetWrappingSqlRowSet
+ * @see org.springframework.jdbc.core.SqlRowSetResultSetExtractor
+ */
+public class ColumnarSqlRowSet implements SqlRowSet {
+
+	private static final long serialVersionUID = 6257429816474137398L;
+
+
+	private final RowSetMetaDataImpl resultSetMetaData;
+
+	private final Column[] columns;
+
+	private final Map<String, Integer> columnLabelMap;
+
+	private final int rowCount;
+
+	private int cursor;
+
+	private boolean lastValueNull;
+
+	@Nullable
+	private transient SqlRowSetMetaData rowSetMetaData;
+
+
+	/**
+	 * Create a new ColumnarSqlRowSet, reading all remaining rows of the given ResultSet.
+	 * <p>The given ResultSet is not closed by this constructor.
+	 * @param resultSet the ResultSet to read (connected)
+	 * @throws SQLException if thrown by JDBC methods
+	 */
+	public ColumnarSqlRowSet(ResultSet resultSet) throws SQLException {
+		ResultSetMetaData rsmd = resultSet.getMetaData();
+		int columnCount = rsmd.getColumnCount();
+		this.resultSetMetaData = copyMetaData(rsmd);
+		this.columns = new Column[columnCount];
+		this.columnLabelMap = new HashMap<>(columnCount * 2);
+		for (int i = 1; i <= columnCount; i++) {
+			this.columns[i - 1] = createColumn(rsmd, i);
+			String label = rsmd.getColumnLabel(i);
+			if (label != null) {
+				// Make sure to preserve first matching column for any given name,
+				// as defined in ResultSet's type-level javadoc (lines 81 to 83).
+				this.columnLabelMap.putIfAbsent(label, i);
+			}
+		}
+		for (int i = 1; i <= columnCount; i++) {
+			String label = rsmd.getColumnLabel(i);
+			if (label != null) {
+				this.columnLabelMap.putIfAbsent(label.toLowerCase(Locale.ENGLISH), i);
+			}
+		}
+
+		int row = 0;
+		while (resultSet.next()) {
+			for (int i = 0; i < columnCount; i++) {
+				this.columns[i].load(resultSet, i + 1, row);
+			}
+			row++;
+		}
+		for (Column column : this.columns) {
+			column.complete(row);
+		}
+		this.rowCount = row;
+	}
+
+	private static RowSetMetaDataImpl copyMetaData(ResultSetMetaData rsmd) throws SQLException {
+		RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+		int columnCount = rsmd.getColumnCount();
+		metaData.setColumnCount(columnCount);
+		for (int i = 1; i <= columnCount; i++) {
+			metaData.setAutoIncrement(i, rsmd.isAutoIncrement(i));
+			metaData.setCaseSensitive(i, rsmd.isCaseSensitive(i));
+			metaData.setCurrency(i, rsmd.isCurrency(i));
+			metaData.setNullable(i, rsmd.isNullable(i));
+			metaData.setSigned(i, rsmd.isSigned(i));
+			metaData.setSearchable(i, rsmd.isSearchable(i));
+			metaData.setColumnDisplaySize(i, Math.max(rsmd.getColumnDisplaySize(i), 0));
+			metaData.setColumnLabel(i, rsmd.getColumnLabel(i));
+			metaData.setColumnName(i, rsmd.getColumnName(i));
+			metaData.setSchemaName(i, rsmd.getSchemaName(i));
+			metaData.setPrecision(i, Math.max(rsmd.getPrecision(i), 0));
+			metaData.setScale(i, Math.max(rsmd.getScale(i), 0));
+			metaData.setTableName(i, rsmd.getTableName(i));
+			metaData.setCatalogName(i, rsmd.getCatalogName(i));
+			metaData.setColumnType(i, rsmd.getColumnType(i));
+			metaData.setColumnTypeName(i, rsmd.getColumnTypeName(i));
+		}
+		return metaData;
+	}
+
+	/**
+	 * Choose the storage format for the given column.
+	 * @param rsmd the metadata of the ResultSet to read
+	 * @param columnIndex the column index
+	 * @return the column to populate
+	 * @throws SQLException if thrown by JDBC methods
+	 */
+	private static Column createColumn(ResultSetMetaData rsmd, int columnIndex) throws SQLException {
+		String className = rsmd.getColumnClassName(columnIndex);
+		if (className == null) {
+			return new ObjectColumn();
+		}
+		switch (className) {
+			case "java.lang.Integer":
+				return new IntColumn(Integer.class);
+			case "java.lang.Short":
+				return new IntColumn(Short.class);
+			case "java.lang.Byte":
+				return new IntColumn(Byte.class);
+			case "java.lang.Long":
+				return new LongColumn();
+			case "java.lang.Double":
+				return new DoubleColumn(false);
+			case "java.lang.Float":
+				return new DoubleColumn(true);
+			case "java.lang.Boolean":
+				return new BooleanColumn();
+			case "java.lang.String":
+				return new StringColumn();
+			case "java.sql.Timestamp":
+				return new TemporalColumn(Types.TIMESTAMP);
+			case "java.sql.Date":
+				return new TemporalColumn(Types.DATE);
+			case "java.sql.Time":
+				return new TemporalColumn(Types.TIME);
+			default:
+				return new ObjectColumn();
+		}
+	}
+
+
+	/**
+	 * Return the number of rows in this row set.
+	 */
+	public int getRowCount() {
+		return this.rowCount;
+	}
+
+	@Override
+	public SqlRowSetMetaData getMetaData() {
+		SqlRowSetMetaData metaData = this.rowSetMetaData;
+		if (metaData == null) {
+			metaData = new ResultSetWrappingSqlRowSetMetaData(this.resultSetMetaData);
+			this.rowSetMetaData = metaData;
+		}
+		return metaData;
+	}
+
+	@Override
+	public int findColumn(String columnLabel) throws InvalidResultSetAccessException {
+		Integer columnIndex = this.columnLabelMap.get(columnLabel);
+		if (columnIndex == null) {
+			columnIndex = this.columnLabelMap.get(columnLabel.toLowerCase(Locale.ENGLISH));
+			if (columnIndex == null) {
+				throw invalidAccess("Invalid column label: " + columnLabel);
+			}
+		}
+		return columnIndex;
+	}
+
+
+	// RowSet methods extracting data values
+
+	@Override
+	@Nullable
+	public BigDecimal getBigDecimal(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.lastValueNull ? null : column.getBigDecimal(this.cursor - 1));
+	}
+
+	@Override
+	@Nullable
+	public BigDecimal getBigDecimal(String columnLabel) throws InvalidResultSetAccessException {
+		return getBigDecimal(findColumn(columnLabel));
+	}
+
+	@Override
+	public boolean getBoolean(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (!this.lastValueNull && column.getBoolean(this.cursor - 1));
+	}
+
+	@Override
+	public boolean getBoolean(String columnLabel) throws InvalidResultSetAccessException {
+		return getBoolean(findColumn(columnLabel));
+	}
+
+	@Override
+	public byte getByte(int columnIndex) throws InvalidResultSetAccessException {
+		return (byte) getLong(columnIndex);
+	}
+
+	@Override
+	public byte getByte(String columnLabel) throws InvalidResultSetAccessException {
+		return getByte(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public Date getDate(int columnIndex) throws InvalidResultSetAccessException {
+		java.util.Date value = getDateTime(columnIndex);
+		return (value != null ? new Date(value.getTime()) : null);
+	}
+
+	@Override
+	@Nullable
+	public Date getDate(String columnLabel) throws InvalidResultSetAccessException {
+		return getDate(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public Date getDate(int columnIndex, Calendar cal) throws InvalidResultSetAccessException {
+		java.util.Date value = getDateTime(columnIndex);
+		return (value != null ? new Date(adjustToCalendar(value, cal)) : null);
+	}
+
+	@Override
+	@Nullable
+	public Date getDate(String columnLabel, Calendar cal) throws InvalidResultSetAccessException {
+		return getDate(findColumn(columnLabel), cal);
+	}
+
+	@Override
+	public double getDouble(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.lastValueNull ? 0 : column.getDouble(this.cursor - 1));
+	}
+
+	@Override
+	public double getDouble(String columnLabel) throws InvalidResultSetAccessException {
+		return getDouble(findColumn(columnLabel));
+	}
+
+	@Override
+	public float getFloat(int columnIndex) throws InvalidResultSetAccessException {
+		return (float) getDouble(columnIndex);
+	}
+
+	@Override
+	public float getFloat(String columnLabel) throws InvalidResultSetAccessException {
+		return getFloat(findColumn(columnLabel));
+	}
+
+	@Override
+	public int getInt(int columnIndex) throws InvalidResultSetAccessException {
+		return (int) getLong(columnIndex);
+	}
+
+	@Override
+	public int getInt(String columnLabel) throws InvalidResultSetAccessException {
+		return getInt(findColumn(columnLabel));
+	}
+
+	@Override
+	public long getLong(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.lastValueNull ? 0 : column.getLong(this.cursor - 1));
+	}
+
+	@Override
+	public long getLong(String columnLabel) throws InvalidResultSetAccessException {
+		return getLong(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public String getNString(int columnIndex) throws InvalidResultSetAccessException {
+		return getString(columnIndex);
+	}
+
+	@Override
+	@Nullable
+	public String getNString(String columnLabel) throws InvalidResultSetAccessException {
+		return getNString(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public Object getObject(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.lastValueNull ? null : column.getObject(this.cursor - 1));
+	}
+
+	@Override
+	@Nullable
+	public Object getObject(String columnLabel) throws InvalidResultSetAccessException {
+		return getObject(findColumn(columnLabel));
+	}
+
+	/**
+	 * This implementation ignores the given type map, returning the same
+	 * value as {@link #getObject(int)}.
+	 */
+	@Override
+	@Nullable
+	public Object getObject(int columnIndex, Map<String, Class<?>> map) throws InvalidResultSetAccessException {
+		return getObject(columnIndex);
+	}
+
+	/**
+	 * This implementation ignores the given type map, returning the same
+	 * value as {@link #getObject(String)}.
+	 */
+	@Override
+	@Nullable
+	public Object getObject(String columnLabel, Map<String, Class<?>> map) throws InvalidResultSetAccessException {
+		return getObject(findColumn(columnLabel), map);
+	}
+
+	@Override
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public <T> T getObject(int columnIndex, Class<T> type) throws InvalidResultSetAccessException {
+		Object value = getObject(columnIndex);
+		if (value == null) {
+			return null;
+		}
+		Class<?> targetType = ClassUtils.resolvePrimitiveIfNecessary(type);
+		if (targetType.isInstance(value)) {
+			return (T) value;
+		}
+		if (value instanceof Number && Number.class.isAssignableFrom(targetType)) {
+			return (T) NumberUtils.convertNumberToTargetClass((Number) value, (Class<Number>) targetType);
+		}
+		if (String.class == targetType) {
+			return (T) value.toString();
+		}
+		throw conversionFailure(value, targetType.getName());
+	}
+
+	@Override
+	@Nullable
+	public <T> T getObject(String columnLabel, Class<T> type) throws InvalidResultSetAccessException {
+		return getObject(findColumn(columnLabel), type);
+	}
+
+	@Override
+	public short getShort(int columnIndex) throws InvalidResultSetAccessException {
+		return (short) getLong(columnIndex);
+	}
+
+	@Override
+	public short getShort(String columnLabel) throws InvalidResultSetAccessException {
+		return getShort(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public String getString(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.lastValueNull ? null : column.getString(this.cursor - 1));
+	}
+
+	@Override
+	@Nullable
+	public String getString(String columnLabel) throws InvalidResultSetAccessException {
+		return getString(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public Time getTime(int columnIndex) throws InvalidResultSetAccessException {
+		java.util.Date value = getDateTime(columnIndex);
+		return (value != null ? new Time(value.getTime()) : null);
+	}
+
+	@Override
+	@Nullable
+	public Time getTime(String columnLabel) throws InvalidResultSetAccessException {
+		return getTime(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public Time getTime(int columnIndex, Calendar cal) throws InvalidResultSetAccessException {
+		java.util.Date value = getDateTime(columnIndex);
+		return (value != null ? new Time(adjustToCalendar(value, cal)) : null);
+	}
+
+	@Override
+	@Nullable
+	public Time getTime(String columnLabel, Calendar cal) throws InvalidResultSetAccessException {
+		return getTime(findColumn(columnLabel), cal);
+	}
+
+	@Override
+	@Nullable
+	public Timestamp getTimestamp(int columnIndex) throws InvalidResultSetAccessException {
+		java.util.Date value = getDateTime(columnIndex);
+		if (value == null || value instanceof Timestamp) {
+			return (Timestamp) value;
+		}
+		return new Timestamp(value.getTime());
+	}
+
+	@Override
+	@Nullable
+	public Timestamp getTimestamp(String columnLabel) throws InvalidResultSetAccessException {
+		return getTimestamp(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public Timestamp getTimestamp(int columnIndex, Calendar cal) throws InvalidResultSetAccessException {
+		Timestamp value = getTimestamp(columnIndex);
+		if (value == null) {
+			return null;
+		}
+		Timestamp adjusted = new Timestamp(adjustToCalendar(value, cal));
+		adjusted.setNanos(value.getNanos());
+		return adjusted;
+	}
+
+	@Override
+	@Nullable
+	public Timestamp getTimestamp(String columnLabel, Calendar cal) throws InvalidResultSetAccessException {
+		return getTimestamp(findColumn(columnLabel), cal);
+	}
+
+
+	// RowSet navigation methods
+
+	@Override
+	public boolean absolute(int row) throws InvalidResultSetAccessException {
+		if (row >= 0) {
+			this.cursor = Math.min(row, this.rowCount + 1);
+		}
+		else {
+			this.cursor = Math.max(this.rowCount + 1 + row, 0);
+		}
+		return isOnRow();
+	}
+
+	@Override
+	public void afterLast() throws InvalidResultSetAccessException {
+		this.cursor = this.rowCount + 1;
+	}
+
+	@Override
+	public void beforeFirst() throws InvalidResultSetAccessException {
+		this.cursor = 0;
+	}
+
+	@Override
+	public boolean first() throws InvalidResultSetAccessException {
+		return absolute(1);
+	}
+
+	@Override
+	public int getRow() throws InvalidResultSetAccessException {
+		return (isOnRow() ? this.cursor : 0);
+	}
+
+	@Override
+	public boolean isAfterLast() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor > this.rowCount);
+	}
+
+	@Override
+	public boolean isBeforeFirst() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor == 0);
+	}
+
+	@Override
+	public boolean isFirst() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor == 1);
+	}
+
+	@Override
+	public boolean isLast() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor == this.rowCount);
+	}
+
+	@Override
+	public boolean last() throws InvalidResultSetAccessException {
+		return absolute(-1);
+	}
+
+	@Override
+	public boolean next() throws InvalidResultSetAccessException {
+		if (this.cursor <= this.rowCount) {
+			this.cursor++;
+		}
+		return isOnRow();
+	}
+
+	@Override
+	public boolean previous() throws InvalidResultSetAccessException {
+		if (this.cursor > 0) {
+			this.cursor--;
+		}
+		return isOnRow();
+	}
+
+	@Override
+	public boolean relative(int rows) throws InvalidResultSetAccessException {
+		if (!isOnRow()) {
+			throw invalidAccess("Invalid cursor position");
+		}
+		long target = (long) this.cursor + rows;
+		this.cursor = (int) Math.max(Math.min(target, this.rowCount + 1), 0);
+		return isOnRow();
+	}
+
+	@Override
+	public boolean wasNull() throws InvalidResultSetAccessException {
+		return this.lastValueNull;
+	}
+
+
+	private boolean isOnRow() {
+		return (this.cursor >= 1 && this.cursor <= this.rowCount);
+	}
+
+	/**
+	 * Return the column for the given index, checking the current cursor
+	 * position and recording whether the current value is {@code null}.
+	 */
+	private Column getColumn(int columnIndex) throws InvalidResultSetAccessException {
+		if (!isOnRow()) {
+			throw invalidAccess("Invalid cursor position");
+		}
+		if (columnIndex < 1 || columnIndex > this.columns.length) {
+			throw invalidAccess("Invalid column index: " + columnIndex);
+		}
+		Column column = this.columns[columnIndex - 1];
+		this.lastValueNull = column.isNull(this.cursor - 1);
+		return column;
+	}
+
+	@Nullable
+	private java.util.Date getDateTime(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.lastValueNull ? null : column.getDateTime(this.cursor - 1));
+	}
+
+	/**
+	 * Reinterpret the local date and time fields of the given value in the
+	 * time zone of the given Calendar, in line with {@code CachedRowSet}.
+	 */
+	private static long adjustToCalendar(java.util.Date value, Calendar cal) {
+		Calendar defaultCalendar = Calendar.getInstance();
+		defaultCalendar.setTime(value);
+		Calendar target = (Calendar) cal.clone();
+		target.clear();
+		target.set(defaultCalendar.get(Calendar.YEAR), defaultCalendar.get(Calendar.MONTH),
+				defaultCalendar.get(Calendar.DAY_OF_MONTH), defaultCalendar.get(Calendar.HOUR_OF_DAY),
+				defaultCalendar.get(Calendar.MINUTE), defaultCalendar.get(Calendar.SECOND));
+		target.set(Calendar.MILLISECOND, defaultCalendar.get(Calendar.MILLISECOND));
+		return target.getTimeInMillis();
+	}
+
+	private static InvalidResultSetAccessException invalidAccess(String message) {
+		return new InvalidResultSetAccessException(new SQLException(message));
+	}
+
+	private static InvalidResultSetAccessException conversionFailure(Object value, String targetType) {
+		return invalidAccess("Cannot convert value [" + value + "] of type [" +
+				value.getClass().getName() + "] to " + targetType);
+	}
+
+
+	/**
+	 * Storage for the values of a single column, with conversions between
+	 * the column's native representation and the SqlRowSet accessor types.
+	 */
+	private abstract static class Column implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final BitSet nulls = new BitSet();
+
+		private int capacity;
+
+		final void load(ResultSet rs, int columnIndex, int row) throws SQLException {
+			if (row == this.capacity) {
+				this.capacity = Math.max(this.capacity + (this.capacity >> 1), 16);
+				resize(this.capacity);
+			}
+			if (!read(rs, columnIndex, row)) {
+				this.nulls.set(row);
+			}
+		}
+
+		void complete(int rowCount) {
+			if (rowCount != this.capacity) {
+				this.capacity = rowCount;
+				resize(rowCount);
+			}
+		}
+
+		final boolean isNull(int row) {
+			return this.nulls.get(row);
+		}
+
+		/**
+		 * Read the current value from the given ResultSet into the given row.
+		 * @return {@code false} if the value was SQL {@code NULL}
+		 */
+		abstract boolean read(ResultSet rs, int columnIndex, int row) throws SQLException;
+
+		abstract void resize(int capacity);
+
+		abstract Object getObject(int row);
+
+		long getLong(int row) {
+			Object value = getObject(row);
+			if (value instanceof Number) {
+				return ((Number) value).longValue();
+			}
+			if (value instanceof Boolean) {
+				return ((Boolean) value ? 1 : 0);
+			}
+			try {
+				return Long.parseLong(value.toString().trim());
+			}
+			catch (NumberFormatException ex) {
+				throw conversionFailure(value, "long");
+			}
+		}
+
+		double getDouble(int row) {
+			Object value = getObject(row);
+			if (value instanceof Number) {
+				return ((Number) value).doubleValue();
+			}
+			if (value instanceof Boolean) {
+				return ((Boolean) value ? 1 : 0);
+			}
+			try {
+				return Double.parseDouble(value.toString().trim());
+			}
+			catch (NumberFormatException ex) {
+				throw conversionFailure(value, "double");
+			}
+		}
+
+		boolean getBoolean(int row) {
+			Object value = getObject(row);
+			if (value instanceof Boolean) {
+				return (Boolean) value;
+			}
+			if (value instanceof Number) {
+				return (((Number) value).doubleValue() != 0);
+			}
+			String text = value.toString().trim();
+			return ("true".equalsIgnoreCase(text) || "1".equals(text));
+		}
+
+		BigDecimal getBigDecimal(int row) {
+			Object value = getObject(row);
+			if (value instanceof BigDecimal) {
+				return (BigDecimal) value;
+			}
+			try {
+				return new BigDecimal(value.toString().trim());
+			}
+			catch (NumberFormatException ex) {
+				throw conversionFailure(value, "BigDecimal");
+			}
+		}
+
+		String getString(int row) {
+			return getObject(row).toString();
+		}
+
+		java.util.Date getDateTime(int row) {
+			Object value = getObject(row);
+			if (value instanceof java.util.Date) {
+				return (java.util.Date) value;
+			}
+			throw conversionFailure(value, "java.util.Date");
+		}
+	}
+
+
+	/**
+	 * Column of {@code INTEGER}, {@code SMALLINT} or {@code TINYINT} values.
+	 */
+	private static final class IntColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Class<?> javaType;
+
+		private int[] values = new int[0];
+
+		IntColumn(Class<?> javaType) {
+			this.javaType = javaType;
+		}
+
+		@Override
+		boolean read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			this.values[row] = rs.getInt(columnIndex);
+			return !rs.wasNull();
+		}
+
+		@Override
+		void resize(int capacity) {
+			this.values = Arrays.copyOf(this.values, capacity);
+		}
+
+		@Override
+		Object getObject(int row) {
+			int value = this.values[row];
+			if (this.javaType == Short.class) {
+				return (short) value;
+			}
+			if (this.javaType == Byte.class) {
+				return (byte) value;
+			}
+			return value;
+		}
+
+		@Override
+		long getLong(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		boolean getBoolean(int row) {
+			return (this.values[row] != 0);
+		}
+
+		@Override
+		BigDecimal getBigDecimal(int row) {
+			return BigDecimal.valueOf(this.values[row]);
+		}
+
+		@Override
+		String getString(int row) {
+			return Integer.toString(this.values[row]);
+		}
+	}
+
+
+	/**
+	 * Column of {@code BIGINT} values.
+	 */
+	private static final class LongColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private long[] values = new long[0];
+
+		@Override
+		boolean read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			this.values[row] = rs.getLong(columnIndex);
+			return !rs.wasNull();
+		}
+
+		@Override
+		void resize(int capacity) {
+			this.values = Arrays.copyOf(this.values, capacity);
+		}
+
+		@Override
+		Object getObject(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		long getLong(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		boolean getBoolean(int row) {
+			return (this.values[row] != 0);
+		}
+
+		@Override
+		BigDecimal getBigDecimal(int row) {
+			return BigDecimal.valueOf(this.values[row]);
+		}
+
+		@Override
+		String getString(int row) {
+			return Long.toString(this.values[row]);
+		}
+	}
+
+
+	/**
+	 * Column of {@code DOUBLE}, {@code FLOAT} or {@code REAL} values.
+	 */
+	private static final class DoubleColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private final boolean singlePrecision;
+
+		private double[] values = new double[0];
+
+		DoubleColumn(boolean singlePrecision) {
+			this.singlePrecision = singlePrecision;
+		}
+
+		@Override
+		boolean read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			this.values[row] = (this.singlePrecision ? rs.getFloat(columnIndex) : rs.getDouble(columnIndex));
+			return !rs.wasNull();
+		}
+
+		@Override
+		void resize(int capacity) {
+			this.values = Arrays.copyOf(this.values, capacity);
+		}
+
+		@Override
+		Object getObject(int row) {
+			double value = this.values[row];
+			return (this.singlePrecision ? (Object) (float) value : (Object) value);
+		}
+
+		@Override
+		long getLong(int row) {
+			return (long) this.values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		boolean getBoolean(int row) {
+			return (this.values[row] != 0);
+		}
+
+		@Override
+		BigDecimal getBigDecimal(int row) {
+			return new BigDecimal(getObject(row).toString());
+		}
+	}
+
+
+	/**
+	 * Column of {@code BOOLEAN} or {@code BIT} values.
+	 */
+	private static final class BooleanColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private final BitSet values = new BitSet();
+
+		@Override
+		boolean read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			this.values.set(row, rs.getBoolean(columnIndex));
+			return !rs.wasNull();
+		}
+
+		@Override
+		void resize(int capacity) {
+		}
+
+		@Override
+		Object getObject(int row) {
+			return this.values.get(row);
+		}
+
+		@Override
+		long getLong(int row) {
+			return (this.values.get(row) ? 1 : 0);
+		}
+
+		@Override
+		double getDouble(int row) {
+			return (this.values.get(row) ? 1 : 0);
+		}
+
+		@Override
+		boolean getBoolean(int row) {
+			return this.values.get(row);
+		}
+	}
+
+
+	/**
+	 * Dictionary-encoded column of character values.
+	 */
+	private static final class StringColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private int[] codes = new int[0];
+
+		private String[] dictionary = new String[16];
+
+		private int dictionarySize;
+
+		@Nullable
+		private transient Map<String, Integer> dictionaryIndex = new HashMap<>();
+
+		@Override
+		boolean read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			String value = rs.getString(columnIndex);
+			if (value == null) {
+				return false;
+			}
+			Map<String, Integer> dictionaryIndex = this.dictionaryIndex;
+			Integer code = dictionaryIndex.get(value);
+			if (code == null) {
+				if (this.dictionarySize == this.dictionary.length) {
+					this.dictionary = Arrays.copyOf(this.dictionary, this.dictionarySize * 2);
+				}
+				code = this.dictionarySize++;
+				this.dictionary[code] = value;
+				dictionaryIndex.put(value, code);
+			}
+			this.codes[row] = code;
+			return true;
+		}
+
+		@Override
+		void resize(int capacity) {
+			this.codes = Arrays.copyOf(this.codes, capacity);
+		}
+
+		@Override
+		void complete(int rowCount) {
+			super.complete(rowCount);
+			this.dictionary = Arrays.copyOf(this.dictionary, this.dictionarySize);
+			this.dictionaryIndex = null;
+		}
+
+		@Override
+		Object getObject(int row) {
+			return this.dictionary[this.codes[row]];
+		}
+
+		@Override
+		String getString(int row) {
+			return this.dictionary[this.codes[row]];
+		}
+	}
+
+
+	/**
+	 * Column of {@code DATE}, {@code TIME} or {@code TIMESTAMP} values,
+	 * stored as epoch milliseconds plus nanoseconds for timestamps.
+	 */
+	private static final class TemporalColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int sqlType;
+
+		private long[] millis = new long[0];
+
+		@Nullable
+		private int[] nanos;
+
+		TemporalColumn(int sqlType) {
+			this.sqlType = sqlType;
+			if (sqlType == Types.TIMESTAMP) {
+				this.nanos = new int[0];
+			}
+		}
+
+		@Override
+		boolean read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			java.util.Date value;
+			if (this.sqlType == Types.TIMESTAMP) {
+				Timestamp timestamp = rs.getTimestamp(columnIndex);
+				if (timestamp != null) {
+					this.nanos[row] = timestamp.getNanos();
+				}
+				value = timestamp;
+			}
+			else if (this.sqlType == Types.DATE) {
+				value = rs.getDate(columnIndex);
+			}
+			else {
+				value = rs.getTime(columnIndex);
+			}
+			if (value == null) {
+				return false;
+			}
+			this.millis[row] = value.getTime();
+			return true;
+		}
+
+		@Override
+		void resize(int capacity) {
+			this.millis = Arrays.copyOf(this.millis, capacity);
+			if (this.nanos != null) {
+				this.nanos = Arrays.copyOf(this.nanos, capacity);
+			}
+		}
+
+		@Override
+		Object getObject(int row) {
+			return getDateTime(row);
+		}
+
+		@Override
+		java.util.Date getDateTime(int row) {
+			long millis = this.millis[row];
+			if (this.nanos != null) {
+				Timestamp timestamp = new Timestamp(millis);
+				timestamp.setNanos(this.nanos[row]);
+				return timestamp;
+			}
+			return (this.sqlType == Types.DATE ? new Date(millis) : new Time(millis));
+		}
+	}
+
+
+	/**
+	 * Column of values of any other type, as returned by {@link ResultSet#getObject(int)}.
+	 * LOB values are copied into their disconnected serial counterparts.
+	 */
+	private static final class ObjectColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private Object[] values = new Object[0];
+
+		@Override
+		boolean read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			Object value = rs.getObject(columnIndex);
+			if (value instanceof Clob) {
+				value = new SerialClob((Clob) value);
+			}
+			else if (value instanceof Blob) {
+				value = new SerialBlob((Blob) value);
+			}
+			this.values[row] = value;
+			return (value != null);
+		}
+
+		@Override
+		void resize(int capacity) {
+			this.values = Arrays.copyOf(this.values, capacity);
+		}
+
+		@Override
+		Object getObject(int row) {
+			return this.values[row];
+		}
+	}
+
+}
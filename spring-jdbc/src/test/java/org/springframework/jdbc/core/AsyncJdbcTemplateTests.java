@@ -0,0 +1,227 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.PoolingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link AsyncJdbcTemplate}, against an embedded H2 database.
+ */
+public class AsyncJdbcTemplateTests {
+
+	private EmbeddedDatabase database;
+
+	private PoolingDataSource dataSource;
+
+	private AsyncJdbcTemplate asyncJdbcTemplate;
+
+
+	@Before
+	public void setup() {
+		this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+				.setType(EmbeddedDatabaseType.H2).build();
+		this.dataSource = new PoolingDataSource(this.database);
+		this.dataSource.setMaxPoolSize(2);
+		this.dataSource.setHousekeepingInterval(0);
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(this.dataSource);
+		jdbcTemplate.setFetchSize(1);
+		jdbcTemplate.execute("CREATE TABLE person (id INTEGER PRIMARY KEY, name VARCHAR(50))");
+		for (int i = 1; i <= 5; i++) {
+			jdbcTemplate.update("INSERT INTO person VALUES (?, ?)", i, "name" + i);
+		}
+		this.asyncJdbcTemplate = new AsyncJdbcTemplate(jdbcTemplate);
+		this.asyncJdbcTemplate.setTransactionOperations(
+				new TransactionTemplate(new DataSourceTransactionManager(this.dataSource)));
+	}
+
+	@After
+	public void shutdown() {
+		this.asyncJdbcTemplate.destroy();
+		this.dataSource.close();
+		this.database.shutdown();
+	}
+
+
+	@Test
+	public void executeOnDedicatedThread() {
+		String caller = Thread.currentThread().getName();
+		StepVerifier.create(this.asyncJdbcTemplate.execute(jdbcOperations -> Thread.currentThread().getName()))
+				.assertNext(name -> {
+					assertNotEquals(caller, name);
+					assertTrue(name.startsWith("AsyncJdbcTemplate-"));
+				})
+				.verifyComplete();
+	}
+
+	@Test
+	public void queryForObjectAndUpdate() {
+		StepVerifier.create(this.asyncJdbcTemplate.update("UPDATE person SET name = ? WHERE id = ?", "Bubba", 1))
+				.expectNext(1)
+				.verifyComplete();
+		StepVerifier.create(this.asyncJdbcTemplate.queryForObject("SELECT name FROM person WHERE id = ?", String.class, 1))
+				.expectNext("Bubba")
+				.verifyComplete();
+	}
+
+	@Test
+	public void queryWithBackpressure() {
+		StepVerifier.create(this.asyncJdbcTemplate.query(
+						"SELECT name FROM person ORDER BY id", (rs, rowNum) -> rs.getString(1)), 0)
+				.expectSubscription()
+				.expectNoEvent(Duration.ofMillis(50))
+				.thenRequest(2)
+				.expectNext("name1", "name2")
+				.thenRequest(1)
+				.expectNext("name3")
+				.thenCancel()
+				.verify(Duration.ofSeconds(5));
+		assertEquals(0, this.dataSource.getActiveConnections());
+
+		StepVerifier.create(this.asyncJdbcTemplate.query(
+						"SELECT id FROM person WHERE id > ? ORDER BY id", (rs, rowNum) -> rs.getInt(1), 3))
+				.expectNext(4, 5)
+				.verifyComplete();
+		assertEquals(0, this.dataSource.getActiveConnections());
+	}
+
+	@Test
+	public void queryCancelledDuringRead() throws Exception {
+		CountDownLatch reading = new CountDownLatch(2);
+		AtomicBoolean closedDuringRead = new AtomicBoolean();
+		RowMapper<Integer> slowRowMapper = (rs, rowNum) -> {
+			reading.countDown();
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+			if (rs.isClosed()) {
+				closedDuringRead.set(true);
+			}
+			return rowNum + 1;
+		};
+		StepVerifier.create(this.asyncJdbcTemplate.query("SELECT id FROM person ORDER BY id", slowRowMapper), 1)
+				.expectNext(1)
+				.thenRequest(1)
+				.then(() -> {
+					try {
+						assertTrue(reading.await(5, TimeUnit.SECONDS));
+					}
+					catch (InterruptedException ex) {
+						throw new IllegalStateException(ex);
+					}
+				})
+				.thenCancel()
+				.verify(Duration.ofSeconds(5));
+		for (int i = 0; i < 500 && this.dataSource.getActiveConnections() > 0; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, this.dataSource.getActiveConnections());
+		assertFalse(closedDuringRead.get());
+	}
+
+	@Test
+	public void submit() throws Exception {
+		CompletableFuture<Integer> future = this.asyncJdbcTemplate.submit(jdbcOperations ->
+				jdbcOperations.queryForObject("SELECT COUNT(*) FROM person", Integer.class));
+		assertEquals(Integer.valueOf(5), future.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void executeInTransaction() {
+		StepVerifier.create(this.asyncJdbcTemplate.executeInTransaction(jdbcOperations -> {
+					jdbcOperations.update("DELETE FROM person");
+					throw new IllegalStateException("rollback");
+				}))
+				.expectError(IllegalStateException.class)
+				.verify(Duration.ofSeconds(5));
+		StepVerifier.create(this.asyncJdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Integer.class))
+				.expectNext(5)
+				.verifyComplete();
+	}
+
+	@Test
+	public void submitInTransaction() throws Exception {
+		CompletableFuture<Integer> future = this.asyncJdbcTemplate.submitInTransaction(jdbcOperations -> {
+			jdbcOperations.update("DELETE FROM person WHERE id = ?", 1);
+			return jdbcOperations.queryForObject("SELECT COUNT(*) FROM person", Integer.class);
+		});
+		assertEquals(Integer.valueOf(4), future.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void transactionalCallbackWithoutTransactionOperations() {
+		this.asyncJdbcTemplate.setTransactionOperations(null);
+		this.asyncJdbcTemplate.submitInTransaction(jdbcOperations -> null);
+	}
+
+	@Test
+	public void boundedQueue() throws Exception {
+		AsyncJdbcTemplate bounded = new AsyncJdbcTemplate(new JdbcTemplate(this.dataSource), 1, 1);
+		CountDownLatch latch = new CountDownLatch(1);
+		try {
+			bounded.submit(jdbcOperations -> {
+				try {
+					return latch.await(5, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException ex) {
+					throw new IllegalStateException(ex);
+				}
+			});
+			CompletableFuture<Integer> queued = bounded.submit(jdbcOperations ->
+					jdbcOperations.queryForObject("SELECT COUNT(*) FROM person", Integer.class));
+			CompletableFuture<Integer> rejected = bounded.submit(jdbcOperations -> 0);
+			try {
+				rejected.get();
+				fail("Should have thrown ExecutionException");
+			}
+			catch (ExecutionException ex) {
+				assertTrue(ex.getCause() instanceof TaskRejectedException);
+			}
+			StepVerifier.create(bounded.execute(jdbcOperations -> 0))
+					.expectError(TaskRejectedException.class)
+					.verify(Duration.ofSeconds(5));
+			StepVerifier.create(bounded.query("SELECT id FROM person", (rs, rowNum) -> rs.getInt(1)))
+					.expectError(TaskRejectedException.class)
+					.verify(Duration.ofSeconds(5));
+			latch.countDown();
+			assertEquals(Integer.valueOf(5), queued.get(5, TimeUnit.SECONDS));
+		}
+		finally {
+			latch.countDown();
+			bounded.destroy();
+		}
+	}
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link BatchInsertPipeline}, against an embedded H2 database.
+ */
+public class BatchInsertPipelineTests {
+
+	private static final String INSERT = "INSERT INTO person (id, name) VALUES (?, ?)";
+
+
+	private EmbeddedDatabase database;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private BatchInsertPipeline pipeline;
+
+
+	@Before
+	public void setup() {
+		this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+				.setType(EmbeddedDatabaseType.H2).build();
+		this.jdbcTemplate = new JdbcTemplate(this.database);
+		this.jdbcTemplate.execute("CREATE TABLE person (id INTEGER PRIMARY KEY, name VARCHAR(50))");
+		this.pipeline = new BatchInsertPipeline(this.jdbcTemplate);
+	}
+
+	@After
+	public void shutdown() {
+		this.database.shutdown();
+	}
+
+
+	@Test
+	public void executeInChunks() {
+		this.pipeline.setChunkSize(1000);
+		BatchInsertPipeline.Result result = this.pipeline.execute(INSERT, rows(0, 2500));
+
+		assertFalse(result.hasFailures());
+		assertEquals(3, result.getChunkResults().size());
+		assertEquals(500, result.getChunkResults().get(2).getSize());
+		assertEquals(2000, result.getChunkResults().get(2).getOffset());
+		assertEquals(2500, result.getRowsAffected());
+		assertEquals(2500, countRows());
+	}
+
+	@Test
+	public void executeConcurrently() {
+		this.pipeline.setChunkSize(100);
+		this.pipeline.setConcurrency(4);
+		BatchInsertPipeline.Result result = this.pipeline.execute(INSERT, rows(0, 1050));
+
+		assertFalse(result.hasFailures());
+		assertEquals(11, result.getChunkResults().size());
+		assertEquals(1050, result.getRowsAffected());
+		assertEquals(1050, countRows());
+	}
+
+	@Test
+	public void executeAsMultiRowInserts() {
+		this.pipeline.setChunkSize(100);
+		this.pipeline.setConcurrency(2);
+		this.pipeline.setMultiRowInsert(true);
+		BatchInsertPipeline.Result result = this.pipeline.execute(INSERT, rows(0, 250));
+
+		assertFalse(result.hasFailures());
+		assertArrayEquals(new int[] {50}, result.getChunkResults().get(2).getUpdateCounts());
+		assertEquals(250, result.getRowsAffected());
+		assertEquals(250, countRows());
+		assertEquals("name249", this.jdbcTemplate.queryForObject(
+				"SELECT name FROM person WHERE id = 249", String.class));
+	}
+
+	@Test
+	public void failedChunkIsRolledBack() {
+		this.jdbcTemplate.update(INSERT, 150, "existing");
+		this.pipeline.setChunkSize(100);
+		this.pipeline.setConcurrency(2);
+		BatchInsertPipeline.Result result = this.pipeline.execute(INSERT, rows(0, 300));
+
+		assertTrue(result.hasFailures());
+		List<BatchInsertPipeline.ChunkResult> failed = result.getFailedChunks();
+		assertEquals(1, failed.size());
+		assertEquals(1, failed.get(0).getIndex());
+		assertTrue(failed.get(0).getFailure() instanceof DataIntegrityViolationException);
+		assertEquals(200, result.getRowsAffected());
+		assertEquals(201, countRows());
+	}
+
+	@Test
+	public void failedChunkInTransactionIsThrown() {
+		this.jdbcTemplate.update(INSERT, 150, "existing");
+		this.pipeline.setChunkSize(100);
+		TransactionTemplate transactionTemplate =
+				new TransactionTemplate(new DataSourceTransactionManager(this.database));
+		try {
+			transactionTemplate.execute(status -> this.pipeline.execute(INSERT, rows(0, 300)));
+			fail("Should have thrown DataIntegrityViolationException");
+		}
+		catch (DataIntegrityViolationException ex) {
+			// expected
+		}
+		assertEquals(1, countRows());
+	}
+
+	@Test
+	public void executeWithSimpleJdbcInsert() {
+		SimpleJdbcInsert insert = new SimpleJdbcInsert(this.jdbcTemplate).withTableName("person");
+		SqlParameterSource[] batch = new SqlParameterSource[10];
+		for (int i = 0; i < batch.length; i++) {
+			batch[i] = new MapSqlParameterSource("id", i).addValue("name", "name" + i);
+		}
+		this.pipeline.setChunkSize(3);
+		BatchInsertPipeline.Result result = insert.executeBatch(this.pipeline, batch);
+
+		assertEquals(4, result.getChunkResults().size());
+		assertEquals(10, countRows());
+	}
+
+	@Test
+	public void multiRowInsertSql() {
+		assertEquals("INSERT INTO t (a, b) VALUES (?, ?), (?, ?), (?, ?)",
+				BatchInsertPipeline.multiRowInsertSql("INSERT INTO t (a, b) VALUES (?, ?)", 3));
+		assertEquals("insert into t values(?, lower(?)), (?, lower(?)) on duplicate key update b = 'x'",
+				BatchInsertPipeline.multiRowInsertSql(
+						"insert into t values(?, lower(?)) on duplicate key update b = 'x'", 2));
+		assertEquals("INSERT INTO values_table (a) VALUES (')values('), (')values(')",
+				BatchInsertPipeline.multiRowInsertSql("INSERT INTO values_table (a) VALUES (')values(')", 2));
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void multiRowInsertSqlWithoutValues() {
+		BatchInsertPipeline.multiRowInsertSql("INSERT INTO t SELECT * FROM s", 2);
+	}
+
+
+	private List<Object[]> rows(int start, int end) {
+		List<Object[]> rows = new ArrayList<>(end - start);
+		for (int i = start; i < end; i++) {
+			rows.add(new Object[] {i, "name" + i});
+		}
+		return rows;
+	}
+
+	private int countRows() {
+		return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Integer.class);
+	}
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Types;
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Unit tests for {@link StatementMetaDataCache}.
+ */
+public class StatementMetaDataCacheTests {
+
+	private static final String SQL = "UPDATE person SET name = ?, age = ? WHERE id = ?";
+
+
+	private Connection connection;
+
+	private PreparedStatement preparedStatement;
+
+	private ParameterMetaData parameterMetaData;
+
+
+	@Before
+	public void setup() throws SQLException {
+		this.connection = mock(Connection.class);
+		this.preparedStatement = mock(PreparedStatement.class);
+		this.parameterMetaData = mock(ParameterMetaData.class);
+		given(this.connection.prepareStatement(SQL)).willReturn(this.preparedStatement);
+		given(this.preparedStatement.getConnection()).willReturn(this.connection);
+		given(this.preparedStatement.getParameterMetaData()).willReturn(this.parameterMetaData);
+		given(this.parameterMetaData.getParameterCount()).willReturn(3);
+		given(this.parameterMetaData.getParameterType(1)).willReturn(Types.VARCHAR);
+		given(this.parameterMetaData.getParameterType(2)).willReturn(Types.INTEGER);
+		given(this.parameterMetaData.getParameterType(3)).willReturn(Types.BIGINT);
+	}
+
+
+	@Test
+	public void parameterTypesResolvedOnce() throws SQLException {
+		StatementMetaDataCache cache = new StatementMetaDataCache();
+		for (int i = 0; i < 3; i++) {
+			new ArgumentPreparedStatementSetter(new Object[] {null, null, 1L}, SQL, cache)
+					.setValues(this.preparedStatement);
+		}
+		verify(this.preparedStatement, times(1)).getParameterMetaData();
+		verify(this.preparedStatement, times(3)).setNull(1, Types.VARCHAR);
+		verify(this.preparedStatement, times(3)).setNull(2, Types.INTEGER);
+		assertTrue(cache.getStatementMetaData(SQL).hasParameterTypes());
+		assertEquals(3, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void fallbackNullTypeResolvedOnce() throws SQLException {
+		DatabaseMetaData dbmd = mock(DatabaseMetaData.class);
+		given(this.connection.getMetaData()).willReturn(dbmd);
+		given(dbmd.getDatabaseProductName()).willReturn("Apache Derby");
+		given(dbmd.getDriverName()).willReturn("Apache Derby Embedded Driver");
+		given(this.preparedStatement.getParameterMetaData()).willThrow(new SQLFeatureNotSupportedException());
+
+		StatementMetaDataCache cache = new StatementMetaDataCache();
+		for (int i = 0; i < 3; i++) {
+			new ArgumentPreparedStatementSetter(new Object[] {null, 1, 1L}, SQL, cache)
+					.setValues(this.preparedStatement);
+		}
+		verify(this.preparedStatement, times(1)).getParameterMetaData();
+		verify(dbmd, times(1)).getDriverName();
+		verify(this.preparedStatement, times(3)).setNull(1, Types.VARCHAR);
+		assertFalse(cache.getStatementMetaData(SQL).hasParameterTypes());
+	}
+
+	@Test
+	public void parameterTypesRetriedAfterTransientFailure() throws SQLException {
+		DatabaseMetaData dbmd = mock(DatabaseMetaData.class);
+		given(this.connection.getMetaData()).willReturn(dbmd);
+		given(dbmd.getDatabaseProductName()).willReturn("Apache Derby");
+		given(dbmd.getDriverName()).willReturn("Apache Derby Embedded Driver");
+		given(this.preparedStatement.getParameterMetaData())
+				.willThrow(new SQLException("connection reset")).willReturn(this.parameterMetaData);
+
+		StatementMetaDataCache cache = new StatementMetaDataCache();
+		for (int i = 0; i < 3; i++) {
+			new ArgumentPreparedStatementSetter(new Object[] {1, null, 1L}, SQL, cache)
+					.setValues(this.preparedStatement);
+		}
+		verify(this.preparedStatement, times(2)).getParameterMetaData();
+		verify(this.preparedStatement).setNull(2, Types.VARCHAR);
+		verify(this.preparedStatement, times(2)).setNull(2, Types.INTEGER);
+		assertTrue(cache.getStatementMetaData(SQL).hasParameterTypes());
+	}
+
+	@Test
+	public void cacheLimit() {
+		StatementMetaDataCache cache = new StatementMetaDataCache(2);
+		cache.getStatementMetaData("SELECT 1");
+		cache.getStatementMetaData("SELECT 2");
+		cache.getStatementMetaData("SELECT 1");
+		cache.getStatementMetaData("SELECT 3");
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getHitCount());
+
+		// "SELECT 2" was least recently used
+		cache.getStatementMetaData("SELECT 2");
+		assertEquals(4, cache.getMissCount());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void jdbcTemplateWithCache() throws SQLException {
+		DataSource dataSource = mock(DataSource.class);
+		given(dataSource.getConnection()).willReturn(this.connection);
+		given(this.preparedStatement.executeUpdate()).willReturn(1);
+
+		JdbcTemplate template = new JdbcTemplate(dataSource);
+		StatementMetaDataCache cache = new StatementMetaDataCache();
+		template.setStatementMetaDataCache(cache);
+		template.update(SQL, null, 22, 1L);
+		template.update(SQL, "Bubba", null, 2L);
+
+		verify(this.preparedStatement, times(1)).getParameterMetaData();
+		verify(this.preparedStatement).setNull(1, Types.VARCHAR);
+		verify(this.preparedStatement).setNull(2, Types.INTEGER);
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		// No lookup without null arguments
+		template.update(SQL, "Bubba", 22, 3L);
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.jdbc.core.namedparam;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -68,6 +69,27 @@ public class NamedParameterUtilsTests {
 				NamedParameterUtils.substituteNamedParameters("xxx :a :b :c xx :a :a", namedParams));
 	}
 
+	@Test
+	public void substituteNamedParametersWithCollectionsOfDifferentSizes() {
+		ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement("select * from t where a in (:ids) and b = :b");
+		MapSqlParameterSource namedParams = new MapSqlParameterSource("b", "b");
+
+		namedParams.addValue("ids", Arrays.asList(1, 2));
+		String first = NamedParameterUtils.substituteNamedParameters(parsedSql, namedParams);
+		assertEquals("select * from t where a in (?, ?) and b = ?", first);
+		namedParams.addValue("ids", Arrays.asList(3, 4));
+		assertSame(first, NamedParameterUtils.substituteNamedParameters(parsedSql, namedParams));
+
+		namedParams.addValue("ids", Arrays.asList(1, 2, 3));
+		assertEquals("select * from t where a in (?, ?, ?) and b = ?",
+				NamedParameterUtils.substituteNamedParameters(parsedSql, namedParams));
+		namedParams.addValue("ids", Collections.singleton(new Object[] {1, "x"}));
+		assertEquals("select * from t where a in ((?, ?)) and b = ?",
+				NamedParameterUtils.substituteNamedParameters(parsedSql, namedParams));
+		assertEquals("select * from t where a in (?) and b = ?",
+				NamedParameterUtils.substituteNamedParameters(parsedSql, null));
+	}
+
 	@Test
 	public void convertParamMapToArray() {
 		Map<String, String> paramMap = new HashMap<>();
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Unit tests for {@link PoolingDataSource}, against an embedded H2 database.
+ */
+public class PoolingDataSourceTests {
+
+	private EmbeddedDatabase database;
+
+	private PoolingDataSource pool;
+
+
+	@Before
+	public void setup() {
+		this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+				.setType(EmbeddedDatabaseType.H2).build();
+		this.pool = new PoolingDataSource(this.database);
+		this.pool.setHousekeepingInterval(0);
+		new JdbcTemplate(this.database).execute("CREATE TABLE person (id INTEGER PRIMARY KEY, name VARCHAR(50))");
+	}
+
+	@After
+	public void shutdown() {
+		this.pool.close();
+		this.database.shutdown();
+	}
+
+
+	@Test
+	public void connectionIsReused() throws SQLException {
+		Connection first = this.pool.getConnection();
+		Connection target = ((ConnectionProxy) first).getTargetConnection();
+		first.close();
+		assertTrue(first.isClosed());
+		assertFalse(target.isClosed());
+
+		Connection second = this.pool.getConnection();
+		assertSame(target, ((ConnectionProxy) second).getTargetConnection());
+		assertEquals(1, this.pool.getActiveConnections());
+		second.close();
+
+		assertEquals(1, this.pool.getCreatedCount());
+		assertEquals(2, this.pool.getBorrowCount());
+		assertEquals(1, this.pool.getIdleConnections());
+	}
+
+	@Test
+	public void poolExhausted() throws SQLException {
+		this.pool.setMaxPoolSize(1);
+		this.pool.setConnectionTimeout(50);
+		try (Connection con = this.pool.getConnection()) {
+			this.pool.getConnection();
+			fail("Should have thrown SQLTransientConnectionException");
+		}
+		catch (SQLTransientConnectionException ex) {
+			assertEquals(1, this.pool.getTimeoutCount());
+		}
+		assertEquals(1, this.pool.getTotalConnections());
+	}
+
+	@Test
+	public void connectionHandedOffToWaitingThread() throws Exception {
+		this.pool.setMaxPoolSize(1);
+		Connection con = this.pool.getConnection();
+		Connection target = ((ConnectionProxy) con).getTargetConnection();
+		CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+			try (Connection other = this.pool.getConnection()) {
+				return ((ConnectionProxy) other).getTargetConnection();
+			}
+			catch (SQLException ex) {
+				throw new IllegalStateException(ex);
+			}
+		});
+		while (this.pool.getThreadsAwaitingConnection() == 0) {
+			Thread.sleep(1);
+		}
+		con.close();
+		assertSame(target, waiting.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void concurrentUsage() throws Exception {
+		this.pool.setMaxPoolSize(3);
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(this.pool);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 400; i++) {
+				int id = i;
+				futures.add(executor.submit(() -> jdbcTemplate.update("INSERT INTO person VALUES (?, ?)", id, "name")));
+			}
+			for (Future<?> future : futures) {
+				future.get(10, TimeUnit.SECONDS);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertEquals(Integer.valueOf(400), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Integer.class));
+		assertTrue(this.pool.getCreatedCount() <= 3);
+		assertEquals(0, this.pool.getActiveConnections());
+	}
+
+	@Test
+	public void connectionStateResetOnReturn() throws SQLException {
+		try (Connection con = this.pool.getConnection()) {
+			con.setAutoCommit(false);
+			con.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+			con.createStatement().executeUpdate("INSERT INTO person VALUES (1, 'uncommitted')");
+		}
+		try (Connection con = this.pool.getConnection()) {
+			assertTrue(con.getAutoCommit());
+			assertEquals(Connection.TRANSACTION_READ_COMMITTED, con.getTransactionIsolation());
+		}
+		assertEquals(Integer.valueOf(0),
+				new JdbcTemplate(this.pool).queryForObject("SELECT COUNT(*) FROM person", Integer.class));
+		assertEquals(1, this.pool.getCreatedCount());
+	}
+
+	@Test
+	public void statementCache() {
+		this.pool.setStatementCacheSize(10);
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(this.pool);
+		for (int i = 0; i < 3; i++) {
+			jdbcTemplate.update("INSERT INTO person VALUES (?, ?)", i, "name" + i);
+		}
+		assertEquals(2, this.pool.getStatementCacheHitCount());
+		assertEquals(1, this.pool.getStatementCacheMissCount());
+
+		// Statements with changed settings are not cached
+		jdbcTemplate.setMaxRows(1);
+		assertEquals(1, jdbcTemplate.queryForList("SELECT name FROM person WHERE id >= ?", 0).size());
+		jdbcTemplate.setMaxRows(-1);
+		assertEquals(3, jdbcTemplate.queryForList("SELECT name FROM person WHERE id >= ?", 0).size());
+		assertEquals(2, this.pool.getStatementCacheHitCount());
+	}
+
+	@Test
+	public void statementsExposeConnectionHandle() throws SQLException {
+		try (Connection con = this.pool.getConnection()) {
+			assertSame(con, con.createStatement().getConnection());
+			assertSame(con, con.prepareStatement("SELECT id FROM person WHERE id = ?").getConnection());
+		}
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(this.pool);
+		jdbcTemplate.update("INSERT INTO person VALUES (?, ?)", 1, "name");
+		try (Stream<String> names = jdbcTemplate.queryForStream("SELECT name FROM person", (rs, rowNum) -> rs.getString(1))) {
+			assertEquals(1, names.count());
+		}
+		assertEquals(0, this.pool.getActiveConnections());
+		assertEquals(1, this.pool.getCreatedCount());
+	}
+
+	@Test
+	public void closeThroughStatementConnection() throws SQLException {
+		Connection con = this.pool.getConnection();
+		Connection target = ((ConnectionProxy) con).getTargetConnection();
+		Statement stmt = con.createStatement();
+		stmt.getConnection().close();
+		assertTrue(con.isClosed());
+		assertFalse(target.isClosed());
+		assertEquals(0, this.pool.getActiveConnections());
+		assertEquals(1, this.pool.getIdleConnections());
+
+		PreparedStatement ps = this.pool.getConnection().prepareStatement("SELECT id FROM person");
+		ps.getConnection().close();
+		assertEquals(0, this.pool.getActiveConnections());
+		assertEquals(1, this.pool.getCreatedCount());
+	}
+
+	@Test
+	public void idleConnectionsEvicted() throws Exception {
+		this.pool.setIdleTimeout(1);
+		Connection first = this.pool.getConnection();
+		Connection second = this.pool.getConnection();
+		first.close();
+		second.close();
+		Thread.sleep(10);
+
+		this.pool.setMinIdle(1);
+		this.pool.performHousekeeping();
+		assertEquals(1, this.pool.getIdleConnections());
+		assertEquals(1, this.pool.getClosedCount());
+	}
+
+	@Test
+	public void expiredConnectionDiscardedOnReturn() throws Exception {
+		this.pool.setMaxLifetime(1);
+		Connection con = this.pool.getConnection();
+		Connection target = ((ConnectionProxy) con).getTargetConnection();
+		Thread.sleep(10);
+		con.close();
+		assertEquals(0, this.pool.getTotalConnections());
+		assertTrue(target.isClosed());
+	}
+
+	@Test
+	public void leakDetection() throws Exception {
+		this.pool.setLeakDetectionThreshold(1);
+		try (Connection con = this.pool.getConnection()) {
+			Thread.sleep(10);
+			this.pool.performHousekeeping();
+			this.pool.performHousekeeping();
+		}
+		assertEquals(1, this.pool.getLeakCount());
+	}
+
+	@Test
+	public void brokenConnectionDiscarded() throws SQLException {
+		DataSource dataSource = mock(DataSource.class);
+		Connection target = mock(Connection.class);
+		given(dataSource.getConnection()).willReturn(target);
+		given(target.getAutoCommit()).willReturn(true);
+		given(target.createStatement()).willThrow(new SQLException("Communication failure", "08S01"));
+		PoolingDataSource pool = new PoolingDataSource(dataSource);
+		pool.setHousekeepingInterval(0);
+
+		Connection con = pool.getConnection();
+		try {
+			con.createStatement();
+			fail("Should have thrown SQLException");
+		}
+		catch (SQLException ex) {
+			assertEquals("08S01", ex.getSQLState());
+		}
+		con.close();
+		verify(target).close();
+		assertEquals(0, pool.getTotalConnections());
+	}
+
+	@Test
+	public void closedPool() throws SQLException {
+		Connection target = ((ConnectionProxy) this.pool.getConnection()).getTargetConnection();
+		this.pool.getConnection().close();
+		this.pool.close();
+		assertEquals(1, this.pool.getTotalConnections());
+		try {
+			this.pool.getConnection();
+			fail("Should have thrown SQLException");
+		}
+		catch (SQLException ex) {
+			// expected
+		}
+		assertFalse(target.isClosed());
+	}
+
+}
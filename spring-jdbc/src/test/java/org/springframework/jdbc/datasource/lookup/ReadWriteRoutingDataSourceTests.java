@@ -0,0 +1,248 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Unit tests for {@link ReadWriteRoutingDataSource}.
+ */
+public class ReadWriteRoutingDataSourceTests {
+
+	private final DataSource writeDataSource = mock(DataSource.class);
+
+	private final DataSource replica1 = mock(DataSource.class);
+
+	private final DataSource replica2 = mock(DataSource.class);
+
+	private final Connection writeConnection = mock(Connection.class);
+
+	private final Connection replica1Connection = mock(Connection.class);
+
+	private final Connection replica2Connection = mock(Connection.class);
+
+	private final ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource();
+
+
+	@Before
+	public void setup() throws SQLException {
+		given(this.writeDataSource.getConnection()).willReturn(this.writeConnection);
+		given(this.replica1.getConnection()).willReturn(this.replica1Connection);
+		given(this.replica2.getConnection()).willReturn(this.replica2Connection);
+		Map<String, DataSource> readDataSources = new LinkedHashMap<>();
+		readDataSources.put("replica1", this.replica1);
+		readDataSources.put("replica2", this.replica2);
+		this.routingDataSource.setWriteDataSource(this.writeDataSource);
+		this.routingDataSource.setReadDataSources(readDataSources);
+	}
+
+	@After
+	public void cleanup() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		this.routingDataSource.destroy();
+	}
+
+
+	@Test
+	public void writeConnectionOutsideOfReadOnlyTransaction() throws SQLException {
+		this.routingDataSource.afterPropertiesSet();
+		Connection con = this.routingDataSource.getConnection();
+		assertSame(this.writeConnection, targetOf(con));
+		con.close();
+		verify(this.writeConnection).close();
+		verifyZeroInteractions(this.replica1, this.replica2);
+	}
+
+	@Test
+	public void readConnectionsRoundRobin() throws SQLException {
+		this.routingDataSource.afterPropertiesSet();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		List<Connection> connections = obtainConnections(4);
+		assertSame(this.replica1Connection, targetOf(connections.get(0)));
+		assertSame(this.replica2Connection, targetOf(connections.get(1)));
+		assertSame(this.replica1Connection, targetOf(connections.get(2)));
+		assertSame(this.replica2Connection, targetOf(connections.get(3)));
+		assertEquals(2, statistics("replica1").getOutstandingConnections());
+
+		for (Connection con : connections) {
+			con.close();
+		}
+		ReadWriteRoutingDataSource.TargetStatistics statistics = statistics("replica1");
+		assertEquals(0, statistics.getOutstandingConnections());
+		assertEquals(2, statistics.getConnectionCount());
+		assertTrue(statistics.getMaxAcquisitionTime() >= statistics.getAverageAcquisitionTime());
+		assertEquals(0, statistics(ReadWriteRoutingDataSource.WRITE_TARGET_NAME).getConnectionCount());
+	}
+
+	@Test
+	public void readConnectionsWeightedRoundRobin() throws SQLException {
+		Map<String, Integer> weights = new LinkedHashMap<>();
+		weights.put("replica1", 2);
+		this.routingDataSource.setReadDataSourceWeights(weights);
+		this.routingDataSource.afterPropertiesSet();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		obtainConnections(6);
+		assertEquals(4, statistics("replica1").getConnectionCount());
+		assertEquals(2, statistics("replica2").getConnectionCount());
+	}
+
+	@Test
+	public void readConnectionsLeastOutstanding() throws SQLException {
+		this.routingDataSource.setLoadBalancingStrategy(
+				ReadWriteRoutingDataSource.LoadBalancingStrategy.LEAST_OUTSTANDING);
+		this.routingDataSource.afterPropertiesSet();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		Connection first = this.routingDataSource.getConnection();
+		Connection second = this.routingDataSource.getConnection();
+		assertNotSame(targetOf(first), targetOf(second));
+
+		first.close();
+		Connection third = this.routingDataSource.getConnection();
+		assertSame(targetOf(first), targetOf(third));
+	}
+
+	@Test
+	public void failingReplicaIsEjected() throws SQLException {
+		given(this.replica1.getConnection()).willThrow(new SQLException("down"));
+		this.routingDataSource.afterPropertiesSet();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		List<Connection> connections = obtainConnections(3);
+		for (Connection con : connections) {
+			assertSame(this.replica2Connection, targetOf(con));
+		}
+		verify(this.replica1, times(1)).getConnection();
+		assertFalse(statistics("replica1").isHealthy());
+		assertEquals(1, statistics("replica1").getFailureCount());
+	}
+
+	@Test
+	public void fallbackToWriteDataSource() throws SQLException {
+		given(this.replica1.getConnection()).willThrow(new SQLException("down"));
+		given(this.replica2.getConnection()).willThrow(new SQLException("down"));
+		this.routingDataSource.afterPropertiesSet();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertSame(this.writeConnection, targetOf(this.routingDataSource.getConnection()));
+	}
+
+	@Test(expected = SQLException.class)
+	public void noFallbackToWriteDataSource() throws SQLException {
+		given(this.replica1.getConnection()).willThrow(new SQLException("down"));
+		given(this.replica2.getConnection()).willThrow(new SQLException("down"));
+		this.routingDataSource.setFallbackToWriteDataSource(false);
+		this.routingDataSource.afterPropertiesSet();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		this.routingDataSource.getConnection();
+	}
+
+	@Test
+	public void healthCheckEjectsAndReadmits() throws SQLException {
+		given(this.replica1Connection.isValid(anyInt())).willReturn(false, true);
+		given(this.replica2Connection.isValid(anyInt())).willReturn(true);
+		this.routingDataSource.afterPropertiesSet();
+
+		this.routingDataSource.checkHealth();
+		assertFalse(statistics("replica1").isHealthy());
+		assertTrue(statistics("replica2").isHealthy());
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertSame(this.replica2Connection, targetOf(this.routingDataSource.getConnection()));
+
+		this.routingDataSource.checkHealth();
+		assertTrue(statistics("replica1").isHealthy());
+	}
+
+	@Test
+	public void readOnlyTransactionsWithEmbeddedDatabases() {
+		EmbeddedDatabase primary = createDatabase("primary");
+		EmbeddedDatabase replica = createDatabase("replica");
+		try {
+			ReadWriteRoutingDataSource router = new ReadWriteRoutingDataSource();
+			router.setWriteDataSource(primary);
+			router.setReadDataSources(Collections.singletonMap("replica", replica));
+			router.afterPropertiesSet();
+			DataSource dataSource = new LazyConnectionDataSourceProxy(router);
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+			TransactionTemplate transactionTemplate =
+					new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+			assertEquals("primary", transactionTemplate.execute(status ->
+					jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class)));
+			transactionTemplate.setReadOnly(true);
+			assertEquals("replica", transactionTemplate.execute(status ->
+					jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class)));
+		}
+		finally {
+			primary.shutdown();
+			replica.shutdown();
+		}
+	}
+
+
+	private List<Connection> obtainConnections(int count) throws SQLException {
+		List<Connection> connections = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			connections.add(this.routingDataSource.getConnection());
+		}
+		return connections;
+	}
+
+	private Connection targetOf(Connection con) {
+		return ((ConnectionProxy) con).getTargetConnection();
+	}
+
+	private ReadWriteRoutingDataSource.TargetStatistics statistics(String name) {
+		for (ReadWriteRoutingDataSource.TargetStatistics statistics : this.routingDataSource.getTargetStatistics()) {
+			if (statistics.getName().equals(name)) {
+				return statistics;
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+
+	private EmbeddedDatabase createDatabase(String name) {
+		EmbeddedDatabase database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+				.setType(EmbeddedDatabaseType.H2).build();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+		jdbcTemplate.execute("CREATE TABLE whoami (name VARCHAR(20))");
+		jdbcTemplate.update("INSERT INTO whoami VALUES (?)", name);
+		return database;
+	}
+
+}
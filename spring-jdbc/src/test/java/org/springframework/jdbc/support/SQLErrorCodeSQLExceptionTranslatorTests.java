@@ -181,4 +181,35 @@ public class SQLErrorCodeSQLExceptionTranslatorTests {
 		customTranslation.setExceptionClass(String.class);
 	}
 
+	@Test
+	public void unsortedDuplicateKeyCodes() {
+		SQLErrorCodes errorCodes = new SQLErrorCodes();
+		errorCodes.setDuplicateKeyCodes("23505", "1062", "2601");
+		SQLErrorCodeSQLExceptionTranslator sext = new SQLErrorCodeSQLExceptionTranslator(errorCodes);
+		checkTranslation(sext, 1062, DuplicateKeyException.class);
+		checkTranslation(sext, 2601, DuplicateKeyException.class);
+	}
+
+	@Test
+	public void firstMatchingCategoryWins() {
+		SQLErrorCodes errorCodes = new SQLErrorCodes();
+		errorCodes.setDeadlockLoserCodes("1");
+		errorCodes.setCannotAcquireLockCodes("1");
+		SQLErrorCodeSQLExceptionTranslator sext = new SQLErrorCodeSQLExceptionTranslator(errorCodes);
+		checkTranslation(sext, 1, CannotAcquireLockException.class);
+	}
+
+	@Test
+	public void changedErrorCodesAreReindexed() {
+		SQLErrorCodes errorCodes = new SQLErrorCodes();
+		errorCodes.setBadSqlGrammarCodes("1");
+		SQLErrorCodeSQLExceptionTranslator sext = new SQLErrorCodeSQLExceptionTranslator(errorCodes);
+		checkTranslation(sext, 1, BadSqlGrammarException.class);
+
+		errorCodes.setBadSqlGrammarCodes("2");
+		errorCodes.setDataIntegrityViolationCodes("1");
+		checkTranslation(sext, 1, DataIntegrityViolationException.class);
+		checkTranslation(sext, 2, BadSqlGrammarException.class);
+	}
+
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support.rowset;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Locale;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.jdbc.InvalidResultSetAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ColumnarSqlRowSet}, comparing it with a
+ * {@link ResultSetWrappingSqlRowSet} for the same query.
+ */
+public class ColumnarSqlRowSetTests {
+
+	private static final String QUERY = "SELECT * FROM sales ORDER BY id";
+
+
+	private EmbeddedDatabase database;
+
+	private JdbcTemplate jdbcTemplate;
+
+
+	@Before
+	public void setup() {
+		this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+				.setType(EmbeddedDatabaseType.H2).build();
+		this.jdbcTemplate = new JdbcTemplate(this.database);
+		this.jdbcTemplate.execute("CREATE TABLE sales (id BIGINT, quantity INTEGER, price DOUBLE, " +
+				"amount DECIMAL(10,2), region VARCHAR(20), shipped BOOLEAN, sold_at TIMESTAMP)");
+		String[] regions = {"north", "south", "east"};
+		for (int i = 0; i < 100; i++) {
+			this.jdbcTemplate.update("INSERT INTO sales VALUES (?, ?, ?, ?, ?, ?, ?)",
+					(long) i, (i % 10 == 0 ? null : i * 2), i / 4.0, new BigDecimal(i + ".25"),
+					(i % 7 == 0 ? null : regions[i % 3]), (i % 2 == 0),
+					new Timestamp(1546300800000L + i * 1000L));
+		}
+	}
+
+	@After
+	public void shutdown() {
+		this.database.shutdown();
+	}
+
+
+	@Test
+	public void sameValuesAsCachedRowSet() {
+		SqlRowSet expected = this.jdbcTemplate.queryForRowSet(QUERY);
+		SqlRowSet actual = this.jdbcTemplate.query(QUERY, ColumnarSqlRowSet::new);
+		int columnCount = expected.getMetaData().getColumnCount();
+		assertEquals(columnCount, actual.getMetaData().getColumnCount());
+		int rows = 0;
+		while (expected.next()) {
+			assertTrue(actual.next());
+			for (int i = 1; i <= columnCount; i++) {
+				assertEquals(expected.getObject(i), actual.getObject(i));
+				assertEquals(expected.wasNull(), actual.wasNull());
+				assertEquals(expected.getString(i), actual.getString(i));
+			}
+			assertEquals(expected.getLong("ID"), actual.getLong("ID"));
+			assertEquals(expected.getInt("QUANTITY"), actual.getInt("QUANTITY"));
+			assertEquals(expected.getDouble("PRICE"), actual.getDouble("PRICE"), 0);
+			assertEquals(expected.getBigDecimal("AMOUNT"), actual.getBigDecimal("AMOUNT"));
+			assertEquals(expected.getBoolean("SHIPPED"), actual.getBoolean("SHIPPED"));
+			assertEquals(expected.getTimestamp("SOLD_AT"), actual.getTimestamp("SOLD_AT"));
+			assertEquals(expected.getDate("SOLD_AT"), actual.getDate("SOLD_AT"));
+			rows++;
+		}
+		assertFalse(actual.next());
+		assertEquals(100, rows);
+		assertEquals(100, ((ColumnarSqlRowSet) actual).getRowCount());
+	}
+
+	@Test
+	public void nullValues() {
+		SqlRowSet rowSet = this.jdbcTemplate.query(QUERY, ColumnarSqlRowSet::new);
+		assertTrue(rowSet.first());
+		assertEquals(0, rowSet.getInt("quantity"));
+		assertTrue(rowSet.wasNull());
+		assertNull(rowSet.getObject("quantity"));
+		assertNull(rowSet.getString("region"));
+		assertTrue(rowSet.wasNull());
+		assertEquals(0L, rowSet.getLong("id"));
+		assertFalse(rowSet.wasNull());
+	}
+
+	@Test
+	public void conversions() {
+		SqlRowSet rowSet = this.jdbcTemplate.query(QUERY, ColumnarSqlRowSet::new);
+		assertTrue(rowSet.absolute(6));
+		assertEquals(Integer.valueOf(10), rowSet.getObject("quantity", Integer.class));
+		assertEquals(Long.valueOf(10), rowSet.getObject("quantity", Long.class));
+		assertEquals("10", rowSet.getObject("quantity", String.class));
+		assertEquals(new BigDecimal("10"), rowSet.getBigDecimal("quantity"));
+		assertEquals(5, rowSet.getInt("amount"));
+		assertEquals(1.25, rowSet.getDouble("price"), 0);
+		assertEquals("east", rowSet.getString("region"));
+		try {
+			rowSet.getInt("region");
+			fail("Should have thrown InvalidResultSetAccessException");
+		}
+		catch (InvalidResultSetAccessException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void navigation() {
+		SqlRowSet rowSet = this.jdbcTemplate.query(QUERY, ColumnarSqlRowSet::new);
+		assertTrue(rowSet.isBeforeFirst());
+		assertEquals(0, rowSet.getRow());
+		assertTrue(rowSet.last());
+		assertTrue(rowSet.isLast());
+		assertEquals(99L, rowSet.getLong(1));
+		assertFalse(rowSet.next());
+		assertTrue(rowSet.isAfterLast());
+		assertTrue(rowSet.previous());
+		assertEquals(100, rowSet.getRow());
+		assertTrue(rowSet.absolute(-2));
+		assertEquals(98L, rowSet.getLong(1));
+		assertTrue(rowSet.relative(-98));
+		assertTrue(rowSet.isFirst());
+		assertFalse(rowSet.relative(-1));
+		assertTrue(rowSet.isBeforeFirst());
+		rowSet.afterLast();
+		assertFalse(rowSet.next());
+		rowSet.beforeFirst();
+		assertTrue(rowSet.next());
+		assertEquals(0L, rowSet.getLong(1));
+	}
+
+	@Test(expected = InvalidResultSetAccessException.class)
+	public void invalidCursorPosition() {
+		SqlRowSet rowSet = this.jdbcTemplate.query(QUERY, ColumnarSqlRowSet::new);
+		rowSet.getLong(1);
+	}
+
+	@Test
+	public void columnLabels() {
+		SqlRowSet rowSet = this.jdbcTemplate.query(
+				"SELECT id AS sale_id, region, region AS area FROM sales WHERE id = 1", ColumnarSqlRowSet::new);
+		assertEquals(1, rowSet.findColumn("SALE_ID"));
+		assertEquals(1, rowSet.findColumn("sale_id"));
+		assertEquals(3, rowSet.findColumn("AREA"));
+		SqlRowSetMetaData metaData = rowSet.getMetaData();
+		assertEquals(3, metaData.getColumnCount());
+		assertEquals("SALE_ID", metaData.getColumnLabel(1));
+		assertEquals(Types.VARCHAR, metaData.getColumnType(2));
+		try {
+			rowSet.findColumn("unknown");
+			fail("Should have thrown InvalidResultSetAccessException");
+		}
+		catch (InvalidResultSetAccessException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void columnLabelsWithTurkishDefaultLocale() {
+		Locale defaultLocale = Locale.getDefault();
+		Locale.setDefault(new Locale("tr", "TR"));
+		try {
+			SqlRowSet rowSet = this.jdbcTemplate.query(
+					"SELECT id AS sale_id, region FROM sales WHERE id = 1", ColumnarSqlRowSet::new);
+			assertEquals(1, rowSet.findColumn("sale_id"));
+			assertEquals(1, rowSet.findColumn("SALE_ID"));
+		}
+		finally {
+			Locale.setDefault(defaultLocale);
+		}
+	}
+
+	@Test
+	public void serialization() throws Exception {
+		SqlRowSet rowSet = this.jdbcTemplate.query(QUERY, ColumnarSqlRowSet::new);
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+			oos.writeObject(rowSet);
+		}
+		SqlRowSet copy;
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+			copy = (SqlRowSet) ois.readObject();
+		}
+		assertTrue(copy.absolute(3));
+		assertEquals("east", copy.getString("region"));
+		assertEquals(new Timestamp(1546300802000L), copy.getTimestamp("sold_at"));
+		assertEquals("REGION", copy.getMetaData().getColumnName(5));
+	}
+
+}
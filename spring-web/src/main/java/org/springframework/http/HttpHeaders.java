@@ -44,6 +44,7 @@ import java.util.stream.Collectors;
 
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.LinkedCaseInsensitiveMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
@@ -399,7 +400,7 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 	};
 
 
-	private final Map<String, List<String>> headers;
+	final MultiValueMap<String, String> headers;
 
 	private final boolean readOnly;
 
@@ -412,16 +413,33 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 	}
 
 	/**
-	 * Private constructor that can create read-only {@code HttpHeader} instances.
+	 * Construct a new {@code HttpHeaders} instance backed by the given map,
+	 * without copying it. This allows adapting the native header structure
+	 * of a server or client, which is then expected to look up header names
+	 * case-insensitively.
+	 * @param headers the headers map to wrap
+	 * @since 5.0.16
 	 */
-	private HttpHeaders(Map<String, List<String>> headers, boolean readOnly) {
+	public HttpHeaders(MultiValueMap<String, String> headers) {
+		Assert.notNull(headers, "MultiValueMap must not be null");
+		this.headers = headers;
+		this.readOnly = false;
+	}
+
+	/**
+	 * Constructor that can create read-only {@code HttpHeader} instances.
+	 */
+	HttpHeaders(Map<String, List<String>> headers, boolean readOnly) {
 		if (readOnly) {
 			Map<String, List<String>> map = new LinkedCaseInsensitiveMap<>(headers.size(), Locale.ENGLISH);
 			headers.forEach((key, valueList) -> map.put(key, Collections.unmodifiableList(valueList)));
-			this.headers = Collections.unmodifiableMap(map);
+			this.headers = CollectionUtils.toMultiValueMap(Collections.unmodifiableMap(map));
+		}
+		else if (headers instanceof MultiValueMap) {
+			this.headers = (MultiValueMap<String, String>) headers;
 		}
 		else {
-			this.headers = headers;
+			this.headers = CollectionUtils.toMultiValueMap(headers);
 		}
 		this.readOnly = readOnly;
 	}
@@ -1427,19 +1445,17 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 	 */
 	@Override
 	public void add(String headerName, @Nullable String headerValue) {
-		List<String> headerValues = this.headers.computeIfAbsent(headerName, k -> new LinkedList<>());
-		headerValues.add(headerValue);
+		this.headers.add(headerName, headerValue);
 	}
 
 	@Override
 	public void addAll(String key, List<? extends String> values) {
-		List<String> currentValues = this.headers.computeIfAbsent(key, k -> new LinkedList<>());
-		currentValues.addAll(values);
+		this.headers.addAll(key, values);
 	}
 
 	@Override
 	public void addAll(MultiValueMap<String, String> values) {
-		values.forEach(this::addAll);
+		this.headers.addAll(values);
 	}
 
 	/**
@@ -1565,4 +1581,19 @@ public class HttpHeaders implements MultiValueMap<String, String>, Serializable
 		return (headers.readOnly ? headers : new HttpHeaders(headers, true));
 	}
 
+	/**
+	 * Return a {@code HttpHeaders} object that can only be read, not written to,
+	 * and that reflects the given headers rather than copying them as
+	 * {@link #readOnlyHttpHeaders(HttpHeaders)} does. The parsed
+	 * {@code Content-Type} and {@code Accept} headers are cached, so this is
+	 * meant for headers that no longer change, such as those of a request
+	 * received by a server or of a committed response.
+	 * @param headers the headers to expose
+	 * @since 5.0.16
+	 */
+	public static HttpHeaders readOnlyHttpHeadersView(HttpHeaders headers) {
+		Assert.notNull(headers, "HttpHeaders must not be null");
+		return (headers.readOnly || headers instanceof ReadOnlyHttpHeaders ? headers : new ReadOnlyHttpHeaders(headers));
+	}
+
 }
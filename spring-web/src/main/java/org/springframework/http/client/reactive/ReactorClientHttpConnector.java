@@ -51,6 +51,16 @@ public class ReactorClientHttpConnector implements ClientHttpConnector {
 				.build();
 	}
 
+	/**
+	 * Create a Reactor Netty {@link ClientHttpConnector} with the given
+	 * {@link ReactorConnectionPool} and HTTP compression support enabled.
+	 * @param connectionPool the pool to use for connections
+	 * @since 5.0.16
+	 */
+	public ReactorClientHttpConnector(ReactorConnectionPool connectionPool) {
+		this(options -> options.compression(true).poolResources(connectionPool));
+	}
+
 	/**
 	 * Create a Reactor Netty {@link ClientHttpConnector} with the given
 	 * {@code HttpClientOptions.Builder}
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import reactor.core.publisher.Mono;
+import reactor.ipc.netty.resources.PoolResources;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Reactor Netty {@link PoolResources} with Spring-level settings for
+ * connection pool sizing, acquire timeouts and eviction of idle or
+ * long-lived connections, as well as counters for open, active, idle and
+ * pending connections across all remote hosts.
+ *
+ * <p>Connections are pooled per remote address, so the
+ * {@link #setMaxConnections max connections} limit applies per host.
+ * Idle and life time eviction is applied lazily, when a connection is
+ * acquired from the pool.
+ *
+ * <p>Settings must be configured before the pool is first used. Typically
+ * passed to {@link ReactorClientHttpConnector#ReactorClientHttpConnector(ReactorConnectionPool)}
+ * which in turn is passed to {@code WebClient.Builder#clientConnector}.
+ *
+ * @since 5.0.16
+ */
+public class ReactorConnectionPool implements PoolResources {
+
+	private static final AttributeKey<Long> CREATED_AT = AttributeKey.valueOf("springPoolCreatedAt");
+
+	private static final AttributeKey<Long> RELEASED_AT = AttributeKey.valueOf("springPoolReleasedAt");
+
+
+	private final String name;
+
+	private int maxConnections = DEFAULT_POOL_MAX_CONNECTION;
+
+	private Duration acquireTimeout = Duration.ofMillis(DEFAULT_POOL_ACQUIRE_TIMEOUT);
+
+	@Nullable
+	private Duration maxIdleTime;
+
+	@Nullable
+	private Duration maxLifeTime;
+
+	@Nullable
+	private volatile PoolResources delegate;
+
+	private final AtomicInteger openConnections = new AtomicInteger();
+
+	private final AtomicInteger activeConnections = new AtomicInteger();
+
+	private final AtomicInteger pendingAcquires = new AtomicInteger();
+
+	private final AtomicLong evictedConnections = new AtomicLong();
+
+	private final Map<ChannelPool, MeteredChannelPool> meteredPools = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Create a connection pool with the given name, used for logging and
+	 * thread naming by Reactor Netty.
+	 */
+	public ReactorConnectionPool(String name) {
+		Assert.hasText(name, "Name must not be empty");
+		this.name = name;
+	}
+
+
+	/**
+	 * Set the maximum number of connections per remote host. A value of -1
+	 * creates an elastic pool without an upper bound.
+	 * <p>By default this is set to {@link PoolResources#DEFAULT_POOL_MAX_CONNECTION}.
+	 */
+	public void setMaxConnections(int maxConnections) {
+		assertNotStarted();
+		this.maxConnections = maxConnections;
+	}
+
+	/**
+	 * Return the configured maximum number of connections per remote host.
+	 */
+	public int getMaxConnections() {
+		return this.maxConnections;
+	}
+
+	/**
+	 * Set how long to wait for a connection when all connections for a host
+	 * are in use, before failing the request. Only applies to a pool with
+	 * {@link #setMaxConnections max connections} set.
+	 * <p>By default this is set to {@link PoolResources#DEFAULT_POOL_ACQUIRE_TIMEOUT}.
+	 */
+	public void setAcquireTimeout(Duration acquireTimeout) {
+		Assert.notNull(acquireTimeout, "Acquire timeout must not be null");
+		assertNotStarted();
+		this.acquireTimeout = acquireTimeout;
+	}
+
+	/**
+	 * Return the configured acquire timeout.
+	 */
+	public Duration getAcquireTimeout() {
+		return this.acquireTimeout;
+	}
+
+	/**
+	 * Set how long a connection may remain idle in the pool before it is
+	 * closed instead of being reused. This should be shorter than the
+	 * keep-alive timeout of the remote server.
+	 * <p>By default this is not set, and idle connections are kept open.
+	 */
+	public void setMaxIdleTime(@Nullable Duration maxIdleTime) {
+		assertNotStarted();
+		this.maxIdleTime = maxIdleTime;
+	}
+
+	/**
+	 * Return the configured max idle time, if any.
+	 */
+	@Nullable
+	public Duration getMaxIdleTime() {
+		return this.maxIdleTime;
+	}
+
+	/**
+	 * Set the maximum time a connection may be reused after it was opened,
+	 * e.g. to spread load again after a load balancer was scaled out.
+	 * <p>By default this is not set, and connections are reused indefinitely.
+	 */
+	public void setMaxLifeTime(@Nullable Duration maxLifeTime) {
+		assertNotStarted();
+		this.maxLifeTime = maxLifeTime;
+	}
+
+	/**
+	 * Return the configured max life time, if any.
+	 */
+	@Nullable
+	public Duration getMaxLifeTime() {
+		return this.maxLifeTime;
+	}
+
+	private void assertNotStarted() {
+		Assert.state(this.delegate == null, "Connection pool already in use");
+	}
+
+
+	/**
+	 * Return the number of connections currently open, active or idle.
+	 */
+	public int getOpenConnections() {
+		return this.openConnections.get();
+	}
+
+	/**
+	 * Return the number of connections currently acquired by a request.
+	 */
+	public int getActiveConnections() {
+		return this.activeConnections.get();
+	}
+
+	/**
+	 * Return the number of open connections currently idle in the pool.
+	 */
+	public int getIdleConnections() {
+		return Math.max(0, this.openConnections.get() - this.activeConnections.get());
+	}
+
+	/**
+	 * Return the number of requests currently waiting to acquire a connection.
+	 */
+	public int getPendingAcquires() {
+		return this.pendingAcquires.get();
+	}
+
+	/**
+	 * Return the total number of connections closed so far because they
+	 * exceeded the {@link #setMaxIdleTime max idle time} or
+	 * {@link #setMaxLifeTime max life time}.
+	 */
+	public long getEvictedConnections() {
+		return this.evictedConnections.get();
+	}
+
+
+	@Override
+	public ChannelPool selectOrCreate(SocketAddress address, Supplier<? extends Bootstrap> bootstrap,
+			Consumer<? super Channel> onChannelCreate, EventLoopGroup group) {
+
+		ChannelPool pool = getDelegate().selectOrCreate(address, bootstrap, channel -> {
+			channel.attr(CREATED_AT).set(System.nanoTime());
+			this.openConnections.incrementAndGet();
+			channel.closeFuture().addListener(future -> this.openConnections.decrementAndGet());
+			onChannelCreate.accept(channel);
+		}, group);
+		return this.meteredPools.computeIfAbsent(pool, key -> new MeteredChannelPool(key, group));
+	}
+
+	private PoolResources getDelegate() {
+		PoolResources delegate = this.delegate;
+		if (delegate == null) {
+			synchronized (this) {
+				delegate = this.delegate;
+				if (delegate == null) {
+					delegate = (this.maxConnections > 0 ?
+							PoolResources.fixed(this.name, this.maxConnections, this.acquireTimeout.toMillis()) :
+							PoolResources.elastic(this.name));
+					this.delegate = delegate;
+				}
+			}
+		}
+		return delegate;
+	}
+
+	@Override
+	public void dispose() {
+		PoolResources delegate = this.delegate;
+		if (delegate != null) {
+			delegate.dispose();
+		}
+		this.meteredPools.clear();
+	}
+
+	@Override
+	public Mono<Void> disposeLater() {
+		PoolResources delegate = this.delegate;
+		return (delegate != null ? delegate.disposeLater() : Mono.<Void>empty())
+				.doFinally(signal -> this.meteredPools.clear());
+	}
+
+	@Override
+	public boolean isDisposed() {
+		PoolResources delegate = this.delegate;
+		return (delegate != null && delegate.isDisposed());
+	}
+
+	private boolean isExpired(Channel channel) {
+		long now = System.nanoTime();
+		if (this.maxIdleTime != null) {
+			Long releasedAt = channel.attr(RELEASED_AT).get();
+			if (releasedAt != null && now - releasedAt > this.maxIdleTime.toNanos()) {
+				return true;
+			}
+		}
+		if (this.maxLifeTime != null) {
+			Long createdAt = channel.attr(CREATED_AT).get();
+			if (createdAt != null && now - createdAt > this.maxLifeTime.toNanos()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Decorate the pool for one remote address in order to keep track of
+	 * active and pending connections, and to evict expired connections.
+	 */
+	private class MeteredChannelPool implements ChannelPool {
+
+		private final ChannelPool delegate;
+
+		private final EventLoopGroup group;
+
+		MeteredChannelPool(ChannelPool delegate, EventLoopGroup group) {
+			this.delegate = delegate;
+			this.group = group;
+		}
+
+		@Override
+		public Future<Channel> acquire() {
+			return acquire(this.group.next().newPromise());
+		}
+
+		@Override
+		public Future<Channel> acquire(Promise<Channel> promise) {
+			pendingAcquires.incrementAndGet();
+			acquireInternal(promise);
+			return promise;
+		}
+
+		private void acquireInternal(Promise<Channel> promise) {
+			this.delegate.acquire().addListener((Future<Channel> future) -> {
+				if (!future.isSuccess()) {
+					pendingAcquires.decrementAndGet();
+					promise.tryFailure(future.cause());
+					return;
+				}
+				Channel channel = future.getNow();
+				if (isExpired(channel)) {
+					evictedConnections.incrementAndGet();
+					channel.close();
+					this.delegate.release(channel);
+					acquireInternal(promise);
+					return;
+				}
+				pendingAcquires.decrementAndGet();
+				activeConnections.incrementAndGet();
+				if (!promise.trySuccess(channel)) {
+					release(channel);
+				}
+			});
+		}
+
+		@Override
+		public Future<Void> release(Channel channel) {
+			EventExecutor executor = channel.eventLoop();
+			return release(channel, executor.newPromise());
+		}
+
+		@Override
+		public Future<Void> release(Channel channel, Promise<Void> promise) {
+			channel.attr(RELEASED_AT).set(System.nanoTime());
+			activeConnections.decrementAndGet();
+			return this.delegate.release(channel, promise);
+		}
+
+		@Override
+		public void close() {
+			this.delegate.close();
+		}
+	}
+
+}
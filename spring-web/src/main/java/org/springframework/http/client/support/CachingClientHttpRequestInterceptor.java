@@ -0,0 +1,234 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * {@link ClientHttpRequestInterceptor} that serves {@code GET} requests from
+ * an {@link HttpResponseCache} while the stored response is fresh, and
+ * revalidates stale responses with a conditional request.
+ *
+ * <p>Cacheable responses are read fully into memory before they are
+ * returned, unless their {@code Content-Length} exceeds the
+ * {@link HttpResponseCache#setMaxEntrySize max entry size}. A response
+ * without {@code Content-Length} is buffered up to the max entry size only:
+ * if it turns out to be larger, it is passed through without being cached.
+ * Successful {@code POST}, {@code PUT}, {@code PATCH} and {@code DELETE}
+ * requests invalidate the response stored for the same URI.
+ *
+ * @since 5.0.16
+ * @see HttpResponseCache
+ */
+public class CachingClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+	private final HttpResponseCache cache;
+
+
+	/**
+	 * Create a new interceptor using the given cache.
+	 */
+	public CachingClientHttpRequestInterceptor(HttpResponseCache cache) {
+		Assert.notNull(cache, "HttpResponseCache must not be null");
+		this.cache = cache;
+	}
+
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+			ClientHttpRequestExecution execution) throws IOException {
+
+		URI uri = request.getURI();
+		HttpHeaders requestHeaders = request.getHeaders();
+		if (!this.cache.isCacheableRequest(request.getMethod(), requestHeaders)) {
+			ClientHttpResponse response = execution.execute(request, body);
+			if (this.cache.isInvalidatingRequest(request.getMethod()) &&
+					response.getRawStatusCode() < 400) {
+				this.cache.invalidate(uri);
+			}
+			return response;
+		}
+
+		long requestTime = System.currentTimeMillis();
+		HttpResponseCache.CachedResponse cached = this.cache.get(uri, requestHeaders);
+		if (cached != null && cached.isFresh(requestHeaders, requestTime)) {
+			this.cache.hit();
+			return new CachedClientHttpResponse(cached);
+		}
+
+		boolean conditional = (cached != null && cached.isRevalidatable());
+		if (conditional) {
+			cached.applyConditionalHeaders(requestHeaders);
+		}
+		ClientHttpResponse response = execution.execute(request, body);
+		long responseTime = System.currentTimeMillis();
+		if (conditional) {
+			requestHeaders.remove(HttpHeaders.IF_NONE_MATCH);
+			requestHeaders.remove(HttpHeaders.IF_MODIFIED_SINCE);
+			if (response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+				HttpHeaders notModifiedHeaders = response.getHeaders();
+				response.close();
+				cached = this.cache.revalidated(
+						uri, requestHeaders, cached, notModifiedHeaders, requestTime, responseTime);
+				return new CachedClientHttpResponse(cached);
+			}
+		}
+
+		if (!this.cache.isCacheableResponse(response.getRawStatusCode(), response.getHeaders())) {
+			return response;
+		}
+		byte[] content;
+		try {
+			content = readBody(response.getBody(), this.cache.getMaxEntrySize());
+		}
+		catch (IOException | RuntimeException ex) {
+			response.close();
+			throw ex;
+		}
+		if (content.length > this.cache.getMaxEntrySize()) {
+			return new PartiallyReadClientHttpResponse(response, content);
+		}
+		try {
+			cached = this.cache.put(uri, requestHeaders, response.getRawStatusCode(), response.getHeaders(),
+					content, requestTime, responseTime);
+		}
+		finally {
+			response.close();
+		}
+		return new CachedClientHttpResponse(cached);
+	}
+
+	/**
+	 * Read the given body up to one byte more than the given limit,
+	 * which indicates that the body exceeds the limit.
+	 */
+	private static byte[] readBody(InputStream body, long limit) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+		long remaining = limit + 1;
+		int read;
+		while (remaining > 0 && (read = body.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+			out.write(buffer, 0, read);
+			remaining -= read;
+		}
+		return out.toByteArray();
+	}
+
+
+	/**
+	 * {@link ClientHttpResponse} for a response held by the cache.
+	 */
+	private static class CachedClientHttpResponse extends AbstractClientHttpResponse {
+
+		private final HttpResponseCache.CachedResponse response;
+
+		CachedClientHttpResponse(HttpResponseCache.CachedResponse response) {
+			this.response = response;
+		}
+
+		@Override
+		public int getRawStatusCode() {
+			return this.response.getStatusCode();
+		}
+
+		@Override
+		public String getStatusText() {
+			HttpStatus status = HttpStatus.resolve(this.response.getStatusCode());
+			return (status != null ? status.getReasonPhrase() : "");
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.response.getHeaders();
+		}
+
+		@Override
+		public InputStream getBody() {
+			return new ByteArrayInputStream(this.response.getBody());
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+
+	/**
+	 * {@link ClientHttpResponse} for a response that turned out to be too
+	 * large to cache, exposing the content read so far followed by the rest
+	 * of the original body.
+	 */
+	private static class PartiallyReadClientHttpResponse extends AbstractClientHttpResponse {
+
+		private final ClientHttpResponse response;
+
+		private final byte[] content;
+
+		@Nullable
+		private InputStream body;
+
+		PartiallyReadClientHttpResponse(ClientHttpResponse response, byte[] content) {
+			this.response = response;
+			this.content = content;
+		}
+
+		@Override
+		public int getRawStatusCode() throws IOException {
+			return this.response.getRawStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return this.response.getStatusText();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.response.getHeaders();
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+			if (this.body == null) {
+				this.body = new SequenceInputStream(new ByteArrayInputStream(this.content), this.response.getBody());
+			}
+			return this.body;
+		}
+
+		@Override
+		public void close() {
+			this.response.close();
+		}
+	}
+
+}
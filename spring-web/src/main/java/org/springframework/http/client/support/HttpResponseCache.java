@@ -0,0 +1,749 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Client-side HTTP response cache following the caching rules of RFC 7234
+ * for a private (single user) cache, shared by the
+ * {@link CachingClientHttpRequestInterceptor} for the {@code RestTemplate}
+ * and the equivalent {@code ExchangeFilterFunction} for the {@code WebClient}.
+ *
+ * <p>Responses to {@code GET} requests are stored in a bounded in-memory LRU
+ * store, and optionally also written to a {@link #setDirectory directory} so
+ * they survive restarts. A stored response is served without a network
+ * round trip while it is fresh according to {@code Cache-Control: max-age},
+ * {@code Expires} or, in their absence, a heuristic based on
+ * {@code Last-Modified}. Once stale it is revalidated with a conditional
+ * request based on its {@code ETag} or {@code Last-Modified} header.
+ * Responses are stored only for the request header values listed in their
+ * {@code Vary} header, keeping one variant per URL.
+ *
+ * @since 5.0.16
+ * @see CachingClientHttpRequestInterceptor
+ */
+public class HttpResponseCache {
+
+	private static final Set<Integer> CACHEABLE_STATUS_CODES =
+			new HashSet<>(Arrays.asList(200, 203, 300, 301, 410));
+
+	private static final long MAX_HEURISTIC_LIFETIME = 24 * 60 * 60 * 1000;
+
+	private static final int FILE_FORMAT_VERSION = 1;
+
+	private static final Log logger = LogFactory.getLog(HttpResponseCache.class);
+
+
+	private final long maxSize;
+
+	private long maxEntrySize;
+
+	@Nullable
+	private File directory;
+
+	private long maxDiskSize = Long.MAX_VALUE;
+
+	private final Map<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long size;
+
+	private final AtomicLong diskSize = new AtomicLong();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong revalidationCount = new AtomicLong();
+
+
+	/**
+	 * Create a new cache that keeps up to the given number of bytes of
+	 * response bodies and headers in memory.
+	 * @param maxSize the maximum size of the in-memory store in bytes
+	 */
+	public HttpResponseCache(long maxSize) {
+		Assert.isTrue(maxSize > 0, "Max size must be greater than 0");
+		this.maxSize = maxSize;
+		this.maxEntrySize = Math.max(1, maxSize / 8);
+	}
+
+
+	/**
+	 * Set the maximum size of a single response body that may be cached.
+	 * Responses with a larger {@code Content-Length} are not buffered and
+	 * passed through as is.
+	 * <p>By default this is set to one eighth of the in-memory store size.
+	 */
+	public void setMaxEntrySize(long maxEntrySize) {
+		Assert.isTrue(maxEntrySize > 0 && maxEntrySize <= this.maxSize,
+				"Max entry size must be greater than 0 and not greater than the max size");
+		this.maxEntrySize = maxEntrySize;
+	}
+
+	/**
+	 * Return the configured maximum size of a single response body.
+	 */
+	public long getMaxEntrySize() {
+		return this.maxEntrySize;
+	}
+
+	/**
+	 * Set a directory to write cached responses to, in addition to keeping
+	 * them in memory. Responses evicted from memory, or cached by a previous
+	 * run, are then read back from disk.
+	 * <p>By default this is not set, and responses are only kept in memory.
+	 */
+	public void setDirectory(@Nullable File directory) {
+		if (directory != null) {
+			Assert.isTrue(directory.isDirectory() || directory.mkdirs(),
+					() -> "Cannot create cache directory " + directory);
+			long size = 0;
+			for (File file : listFiles(directory)) {
+				size += file.length();
+			}
+			this.diskSize.set(size);
+		}
+		this.directory = directory;
+	}
+
+	/**
+	 * Return the configured cache directory, if any.
+	 */
+	@Nullable
+	public File getDirectory() {
+		return this.directory;
+	}
+
+	/**
+	 * Set the maximum number of bytes to keep in the
+	 * {@link #setDirectory cache directory}, removing the least recently
+	 * written responses beyond that.
+	 * <p>By default the size of the cache directory is not limited.
+	 */
+	public void setMaxDiskSize(long maxDiskSize) {
+		Assert.isTrue(maxDiskSize > 0, "Max disk size must be greater than 0");
+		this.maxDiskSize = maxDiskSize;
+	}
+
+	/**
+	 * Return the configured maximum size of the cache directory.
+	 */
+	public long getMaxDiskSize() {
+		return this.maxDiskSize;
+	}
+
+
+	/**
+	 * Return the number of bytes currently kept in memory.
+	 */
+	public synchronized long getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Return the number of requests served from the cache without a
+	 * network round trip.
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * Return the number of cacheable requests sent to the network because
+	 * no stored response was available.
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * Return the number of stored responses revalidated with the server,
+	 * and served from the cache after a "304 Not Modified" response.
+	 */
+	public long getRevalidationCount() {
+		return this.revalidationCount.get();
+	}
+
+
+	/**
+	 * Whether a request may be served from the cache, i.e. it is a
+	 * {@code GET} request without {@code Cache-Control: no-store}, and it is
+	 * not already made conditional by the application.
+	 * @param method the HTTP method
+	 * @param requestHeaders the request headers
+	 */
+	public boolean isCacheableRequest(@Nullable HttpMethod method, HttpHeaders requestHeaders) {
+		return (HttpMethod.GET == method &&
+				!requestHeaders.containsKey(HttpHeaders.IF_NONE_MATCH) &&
+				!requestHeaders.containsKey(HttpHeaders.IF_MODIFIED_SINCE) &&
+				!parseCacheControl(requestHeaders).containsKey("no-store"));
+	}
+
+	/**
+	 * Whether a response to a {@link #isCacheableRequest cacheable request}
+	 * may be stored.
+	 * @param statusCode the response status code
+	 * @param responseHeaders the response headers
+	 */
+	public boolean isCacheableResponse(int statusCode, HttpHeaders responseHeaders) {
+		if (!CACHEABLE_STATUS_CODES.contains(statusCode)) {
+			return false;
+		}
+		Map<String, String> cacheControl = parseCacheControl(responseHeaders);
+		if (cacheControl.containsKey("no-store") || responseHeaders.getVary().contains("*")) {
+			return false;
+		}
+		if (responseHeaders.getContentLength() > this.maxEntrySize) {
+			return false;
+		}
+		return (cacheControl.containsKey("max-age") || responseHeaders.containsKey(HttpHeaders.EXPIRES) ||
+				responseHeaders.containsKey(HttpHeaders.ETAG) ||
+				responseHeaders.containsKey(HttpHeaders.LAST_MODIFIED));
+	}
+
+	/**
+	 * Whether a request to an unsafe method invalidates the response stored
+	 * for its URI.
+	 * @param method the HTTP method
+	 */
+	public boolean isInvalidatingRequest(@Nullable HttpMethod method) {
+		return (method == HttpMethod.POST || method == HttpMethod.PUT ||
+				method == HttpMethod.PATCH || method == HttpMethod.DELETE);
+	}
+
+	/**
+	 * Look up the response stored for the given request, provided its
+	 * {@code Vary} request headers match.
+	 * @param uri the request URI
+	 * @param requestHeaders the request headers
+	 * @return the stored response, possibly stale, or {@code null}
+	 */
+	@Nullable
+	public CachedResponse get(URI uri, HttpHeaders requestHeaders) {
+		String key = uri.toString();
+		CachedResponse response;
+		synchronized (this) {
+			response = this.entries.get(key);
+		}
+		if (response == null && this.directory != null) {
+			response = readFromDisk(this.directory, key);
+			if (response != null) {
+				putInMemory(key, response);
+			}
+		}
+		if (response != null && !response.matchesVary(requestHeaders)) {
+			response = null;
+		}
+		if (response == null) {
+			this.missCount.incrementAndGet();
+		}
+		return response;
+	}
+
+	/**
+	 * Store a response received from the network.
+	 * @param uri the request URI
+	 * @param requestHeaders the request headers
+	 * @param statusCode the response status code
+	 * @param responseHeaders the response headers
+	 * @param body the response body
+	 * @param requestTime when the request was sent, in milliseconds
+	 * @param responseTime when the response was received, in milliseconds
+	 * @return the stored response
+	 */
+	public CachedResponse put(URI uri, HttpHeaders requestHeaders, int statusCode,
+			HttpHeaders responseHeaders, byte[] body, long requestTime, long responseTime) {
+
+		CachedResponse response = new CachedResponse(statusCode, responseHeaders, body,
+				varyHeaders(requestHeaders, responseHeaders), requestTime, responseTime);
+		if (body.length <= this.maxEntrySize) {
+			String key = uri.toString();
+			putInMemory(key, response);
+			if (this.directory != null) {
+				writeToDisk(this.directory, key, response);
+			}
+		}
+		return response;
+	}
+
+	/**
+	 * Update a stored response after the server confirmed it is still
+	 * valid with a "304 Not Modified" response.
+	 * @param uri the request URI
+	 * @param requestHeaders the request headers
+	 * @param response the stored response that was revalidated
+	 * @param notModifiedHeaders the headers of the 304 response
+	 * @param requestTime when the conditional request was sent, in milliseconds
+	 * @param responseTime when the 304 response was received, in milliseconds
+	 * @return the updated response
+	 */
+	public CachedResponse revalidated(URI uri, HttpHeaders requestHeaders, CachedResponse response,
+			HttpHeaders notModifiedHeaders, long requestTime, long responseTime) {
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(response.getHeaders());
+		notModifiedHeaders.forEach((name, values) -> {
+			if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) &&
+					!HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)) {
+				headers.put(name, values);
+			}
+		});
+		this.revalidationCount.incrementAndGet();
+		return put(uri, requestHeaders, response.getStatusCode(), headers, response.getBody(),
+				requestTime, responseTime);
+	}
+
+	/**
+	 * Record that a stored response was served without a network round trip.
+	 */
+	public void hit() {
+		this.hitCount.incrementAndGet();
+	}
+
+	/**
+	 * Remove the response stored for the given URI, if any.
+	 */
+	public void invalidate(URI uri) {
+		String key = uri.toString();
+		synchronized (this) {
+			CachedResponse removed = this.entries.remove(key);
+			if (removed != null) {
+				this.size -= removed.getSize();
+			}
+		}
+		if (this.directory != null) {
+			File file = new File(this.directory, fileName(key));
+			long length = file.length();
+			if (file.delete()) {
+				this.diskSize.addAndGet(-length);
+			}
+		}
+	}
+
+	/**
+	 * Remove all stored responses, in memory and on disk.
+	 */
+	public void clear() {
+		synchronized (this) {
+			this.entries.clear();
+			this.size = 0;
+		}
+		if (this.directory != null) {
+			for (File file : listFiles(this.directory)) {
+				file.delete();
+			}
+			this.diskSize.set(0);
+		}
+	}
+
+
+	private synchronized void putInMemory(String key, CachedResponse response) {
+		CachedResponse previous = this.entries.put(key, response);
+		if (previous != null) {
+			this.size -= previous.getSize();
+		}
+		this.size += response.getSize();
+		Iterator<CachedResponse> iterator = this.entries.values().iterator();
+		while (this.size > this.maxSize && iterator.hasNext()) {
+			this.size -= iterator.next().getSize();
+			iterator.remove();
+		}
+	}
+
+	@Nullable
+	private CachedResponse readFromDisk(File directory, String key) {
+		File file = new File(directory, fileName(key));
+		if (!file.isFile()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() == FILE_FORMAT_VERSION && key.equals(in.readUTF())) {
+				return readResponse(in, file.length());
+			}
+		}
+		catch (IOException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to read cached response for " + key + ": " + ex);
+			}
+		}
+		long length = file.length();
+		if (file.delete()) {
+			this.diskSize.addAndGet(-length);
+		}
+		return null;
+	}
+
+	private void writeToDisk(File directory, String key, CachedResponse response) {
+		File file = new File(directory, fileName(key));
+		File tempFile = new File(directory, file.getName() + ".tmp");
+		long previousLength = file.length();
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+				out.writeInt(FILE_FORMAT_VERSION);
+				out.writeUTF(key);
+				writeResponse(out, response);
+			}
+			if (!tempFile.renameTo(file) && !(file.delete() && tempFile.renameTo(file))) {
+				throw new IOException("Cannot rename " + tempFile + " to " + file);
+			}
+		}
+		catch (IOException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to write cached response for " + key + ": " + ex);
+			}
+			tempFile.delete();
+			return;
+		}
+		if (this.diskSize.addAndGet(file.length() - previousLength) > this.maxDiskSize) {
+			trimDisk(directory);
+		}
+	}
+
+	/**
+	 * Write a response in the cache file format: status code, request and
+	 * response time, the response headers and the {@code Vary} request
+	 * headers as name and values entries, and the body length and bytes.
+	 */
+	private static void writeResponse(DataOutputStream out, CachedResponse response) throws IOException {
+		out.writeInt(response.statusCode);
+		out.writeLong(response.requestTime);
+		out.writeLong(response.responseTime);
+		writeHeaders(out, response.headers);
+		writeHeaders(out, response.varyHeaders);
+		out.writeInt(response.body.length);
+		out.write(response.body);
+	}
+
+	private static void writeHeaders(DataOutputStream out, MultiValueMap<String, String> headers) throws IOException {
+		out.writeInt(headers.size());
+		for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeInt(entry.getValue().size());
+			for (String value : entry.getValue()) {
+				out.writeUTF(value);
+			}
+		}
+	}
+
+	private static CachedResponse readResponse(DataInputStream in, long maxBodyLength) throws IOException {
+		int statusCode = in.readInt();
+		long requestTime = in.readLong();
+		long responseTime = in.readLong();
+		HttpHeaders headers = new HttpHeaders();
+		readHeaders(in, headers);
+		MultiValueMap<String, String> varyHeaders = new LinkedMultiValueMap<>();
+		readHeaders(in, varyHeaders);
+		int length = in.readInt();
+		if (length < 0 || length > maxBodyLength) {
+			throw new IOException("Invalid body length " + length);
+		}
+		byte[] body = new byte[length];
+		in.readFully(body);
+		if (in.read() != -1) {
+			throw new IOException("Unexpected content after body");
+		}
+		return new CachedResponse(statusCode, headers, body, varyHeaders, requestTime, responseTime);
+	}
+
+	private static void readHeaders(DataInputStream in, MultiValueMap<String, String> headers) throws IOException {
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			String name = in.readUTF();
+			int valueCount = in.readInt();
+			List<String> values = new ArrayList<>();
+			for (int j = 0; j < valueCount; j++) {
+				values.add(in.readUTF());
+			}
+			headers.put(name, values);
+		}
+	}
+
+	private synchronized void trimDisk(File directory) {
+		File[] files = listFiles(directory);
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		long size = 0;
+		for (File file : files) {
+			size += file.length();
+		}
+		for (File file : files) {
+			if (size <= this.maxDiskSize) {
+				break;
+			}
+			long length = file.length();
+			if (file.delete()) {
+				size -= length;
+			}
+		}
+		this.diskSize.set(size);
+	}
+
+	private static File[] listFiles(File directory) {
+		File[] files = directory.listFiles(file -> file.isFile() && !file.getName().endsWith(".tmp"));
+		return (files != null ? files : new File[0]);
+	}
+
+	private static String fileName(String key) {
+		return DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static MultiValueMap<String, String> varyHeaders(HttpHeaders requestHeaders, HttpHeaders responseHeaders) {
+		List<String> vary = responseHeaders.getVary();
+		if (vary.isEmpty()) {
+			return new LinkedMultiValueMap<>(0);
+		}
+		MultiValueMap<String, String> result = new LinkedMultiValueMap<>(vary.size());
+		for (String name : vary) {
+			List<String> values = requestHeaders.get(name);
+			result.put(name.toLowerCase(Locale.ENGLISH), (values != null ? values : Collections.emptyList()));
+		}
+		return result;
+	}
+
+	/**
+	 * Parse the {@code Cache-Control} directives of the given headers into
+	 * a map of lower case directive names to values, or empty strings for
+	 * directives without a value.
+	 */
+	static Map<String, String> parseCacheControl(HttpHeaders headers) {
+		List<String> values = headers.get(HttpHeaders.CACHE_CONTROL);
+		if (values == null) {
+			return Collections.emptyMap();
+		}
+		Map<String, String> directives = new LinkedHashMap<>(4);
+		for (String value : values) {
+			for (String directive : StringUtils.tokenizeToStringArray(value, ",")) {
+				int index = directive.indexOf('=');
+				String name = (index != -1 ? directive.substring(0, index).trim() : directive);
+				String argument = (index != -1 ? directive.substring(index + 1).trim() : "");
+				if (argument.length() > 1 && argument.startsWith("\"") && argument.endsWith("\"")) {
+					argument = argument.substring(1, argument.length() - 1);
+				}
+				directives.put(name.toLowerCase(Locale.ENGLISH), argument);
+			}
+		}
+		return directives;
+	}
+
+	private static long parseSeconds(@Nullable String value) {
+		if (value == null) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(value);
+		}
+		catch (NumberFormatException ex) {
+			return -1;
+		}
+	}
+
+
+	/**
+	 * A response stored in the {@link HttpResponseCache}.
+	 */
+	public static final class CachedResponse {
+
+		private final int statusCode;
+
+		private final HttpHeaders headers;
+
+		private final byte[] body;
+
+		private final MultiValueMap<String, String> varyHeaders;
+
+		private final long requestTime;
+
+		private final long responseTime;
+
+		CachedResponse(int statusCode, HttpHeaders headers, byte[] body,
+				MultiValueMap<String, String> varyHeaders, long requestTime, long responseTime) {
+
+			this.statusCode = statusCode;
+			this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+			this.body = body;
+			this.varyHeaders = varyHeaders;
+			this.requestTime = requestTime;
+			this.responseTime = responseTime;
+		}
+
+		/**
+		 * Return the status code of the response.
+		 */
+		public int getStatusCode() {
+			return this.statusCode;
+		}
+
+		/**
+		 * Return the read-only headers of the response.
+		 */
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		/**
+		 * Return the body of the response. The returned array must not be modified.
+		 */
+		public byte[] getBody() {
+			return this.body;
+		}
+
+		long getSize() {
+			long size = this.body.length;
+			for (Map.Entry<String, List<String>> entry : this.headers.entrySet()) {
+				size += entry.getKey().length();
+				for (String value : entry.getValue()) {
+					size += value.length();
+				}
+			}
+			return size;
+		}
+
+		boolean matchesVary(HttpHeaders requestHeaders) {
+			for (Map.Entry<String, List<String>> entry : this.varyHeaders.entrySet()) {
+				List<String> values = requestHeaders.get(entry.getKey());
+				if (!ObjectUtils.nullSafeEquals(entry.getValue(),
+						(values != null ? values : Collections.emptyList()))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Whether the response may be served for the given request without
+		 * revalidating it with the server.
+		 * @param requestHeaders the headers of the request to serve
+		 * @param now the current time in milliseconds
+		 */
+		public boolean isFresh(HttpHeaders requestHeaders, long now) {
+			Map<String, String> responseCacheControl = parseCacheControl(this.headers);
+			if (responseCacheControl.containsKey("no-cache")) {
+				return false;
+			}
+			Map<String, String> requestCacheControl = parseCacheControl(requestHeaders);
+			if (requestCacheControl.containsKey("no-cache") ||
+					"no-cache".equals(requestHeaders.getPragma())) {
+				return false;
+			}
+			long age = getAge(now);
+			long maxAge = parseSeconds(requestCacheControl.get("max-age"));
+			if (maxAge >= 0 && age >= maxAge * 1000) {
+				return false;
+			}
+			return (age < getFreshnessLifetime(responseCacheControl));
+		}
+
+		/**
+		 * Whether the response can be revalidated with a conditional request.
+		 */
+		public boolean isRevalidatable() {
+			return (this.headers.getETag() != null || this.headers.getLastModified() != -1);
+		}
+
+		/**
+		 * Add the conditional headers for revalidating this response to the
+		 * given request headers.
+		 */
+		public void applyConditionalHeaders(HttpHeaders requestHeaders) {
+			String etag = this.headers.getETag();
+			if (etag != null) {
+				requestHeaders.setIfNoneMatch(etag);
+			}
+			long lastModified = this.headers.getLastModified();
+			if (lastModified != -1) {
+				requestHeaders.setIfModifiedSince(lastModified);
+			}
+		}
+
+		private long getAge(long now) {
+			long apparentAge = Math.max(0, this.responseTime - getDate());
+			long ageValue = Math.max(0, parseSeconds(this.headers.getFirst("Age"))) * 1000;
+			long correctedInitialAge = Math.max(apparentAge, ageValue) + (this.responseTime - this.requestTime);
+			return correctedInitialAge + (now - this.responseTime);
+		}
+
+		private long getDate() {
+			try {
+				long date = this.headers.getDate();
+				return (date != -1 ? date : this.responseTime);
+			}
+			catch (IllegalArgumentException ex) {
+				return this.responseTime;
+			}
+		}
+
+		private long getFreshnessLifetime(Map<String, String> cacheControl) {
+			long maxAge = parseSeconds(cacheControl.get("max-age"));
+			if (maxAge >= 0) {
+				return maxAge * 1000;
+			}
+			try {
+				long expires = this.headers.getExpires();
+				if (expires != -1) {
+					return expires - getDate();
+				}
+				if (this.headers.containsKey(HttpHeaders.EXPIRES)) {
+					// An invalid Expires value such as "0" means already expired
+					return 0;
+				}
+				long lastModified = this.headers.getLastModified();
+				if (lastModified != -1) {
+					return Math.min(MAX_HEURISTIC_LIFETIME, (getDate() - lastModified) / 10);
+				}
+			}
+			catch (IllegalArgumentException ex) {
+				// Unparseable date header: treat as stale
+			}
+			return 0;
+		}
+	}
+
+}
@@ -109,6 +109,23 @@ public interface CodecConfigurer {
 		 * @see org.springframework.http.codec.json.Jackson2JsonEncoder
 		 */
 		void jackson2JsonEncoder(Encoder<?> encoder);
+
+		/**
+		 * Configure a limit on the number of bytes that can be buffered whenever
+		 * the input stream needs to be aggregated. This can be a result of
+		 * decoding to a single {@code DataBuffer},
+		 * {@link java.nio.ByteBuffer ByteBuffer}, {@code byte[]},
+		 * {@link org.springframework.core.io.Resource Resource}, {@code String}, etc.
+		 * It can also occur when splitting the input stream, e.g. delimited text,
+		 * in which case the limit applies to data buffered between delimiters.
+		 * For multipart requests the limit is the amount of memory used per part
+		 * before its content is spilled over to a temporary file.
+		 * <p>By default this is not set, in which case individual codec defaults
+		 * apply. All codecs are unlimited by default, except for multipart parts.
+		 * @param byteCount the max number of bytes to buffer, or -1 for unlimited
+		 * @since 5.0.16
+		 */
+		void maxInMemorySize(int byteCount);
 	}
 
 
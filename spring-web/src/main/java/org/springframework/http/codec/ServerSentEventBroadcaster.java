@@ -0,0 +1,151 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferBroadcaster;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.util.Assert;
+
+/**
+ * Broadcasts Server-Sent Events to any number of {@code "text/event-stream"}
+ * responses, encoding each event once into a single data buffer that is
+ * shared by all responses with reference counting.
+ *
+ * <p>Responses are connected through {@link #connect(ReactiveHttpOutputMessage)},
+ * e.g. from a WebFlux controller method with a {@code ServerHttpResponse}
+ * argument, or from a {@code BodyInserter} in a functional endpoint.
+ * Events are encoded with the {@link ServerSentEventHttpMessageWriter} and
+ * {@link DataBufferFactory} given at construction, and written as UTF-8.
+ *
+ * <p>Responses that do not keep up are handled according to the
+ * {@linkplain #setOverflowStrategy overflow strategy}.
+ *
+ * @since 5.0.16
+ * @see DataBufferBroadcaster
+ */
+public class ServerSentEventBroadcaster {
+
+	private static final MediaType MEDIA_TYPE = new MediaType("text", "event-stream", StandardCharsets.UTF_8);
+
+
+	private final ServerSentEventHttpMessageWriter writer;
+
+	private final DataBufferFactory bufferFactory;
+
+	private final DataBufferBroadcaster<DataBuffer> broadcaster = DataBufferBroadcaster.create();
+
+
+	/**
+	 * Create a broadcaster for events with {@code String} data only.
+	 */
+	public ServerSentEventBroadcaster() {
+		this(new ServerSentEventHttpMessageWriter(), new DefaultDataBufferFactory());
+	}
+
+	/**
+	 * Create a broadcaster with the given writer, e.g. configured with a JSON
+	 * {@code Encoder} for event data, and buffer factory, e.g. for pooled
+	 * buffers.
+	 */
+	public ServerSentEventBroadcaster(ServerSentEventHttpMessageWriter writer, DataBufferFactory bufferFactory) {
+		Assert.notNull(writer, "ServerSentEventHttpMessageWriter must not be null");
+		Assert.notNull(bufferFactory, "DataBufferFactory must not be null");
+		this.writer = writer;
+		this.bufferFactory = bufferFactory;
+	}
+
+
+	/**
+	 * Set the strategy for responses that do not keep up.
+	 * @see DataBufferBroadcaster#setOverflowStrategy
+	 */
+	public void setOverflowStrategy(DataBufferBroadcaster.OverflowStrategy overflowStrategy) {
+		this.broadcaster.setOverflowStrategy(overflowStrategy);
+	}
+
+	/**
+	 * Set the maximum number of events to buffer for a response.
+	 * @see DataBufferBroadcaster#setBufferSize
+	 */
+	public void setBufferSize(int bufferSize) {
+		this.broadcaster.setBufferSize(bufferSize);
+	}
+
+	/**
+	 * Return the number of connected responses.
+	 */
+	public int getSubscriberCount() {
+		return this.broadcaster.getSubscriberCount();
+	}
+
+	/**
+	 * Return the number of events dropped for slow responses so far.
+	 */
+	public long getDroppedCount() {
+		return this.broadcaster.getDroppedCount();
+	}
+
+
+	/**
+	 * Write all events broadcast from now on to the given response, until
+	 * {@link #complete()} is called or the response is closed.
+	 * @param message the response to write to
+	 * @return completes when the response has been written
+	 */
+	public Mono<Void> connect(ReactiveHttpOutputMessage message) {
+		message.getHeaders().setContentType(MEDIA_TYPE);
+		return message.writeAndFlushWith(this.broadcaster.connect().map(Mono::just));
+	}
+
+	/**
+	 * Encode the given event once and send it to all connected responses.
+	 * @param event the event to broadcast
+	 * @return emits the number of responses the event was sent to
+	 */
+	public Mono<Integer> broadcast(ServerSentEvent<?> event) {
+		return Mono.defer(() -> {
+			if (this.broadcaster.getSubscriberCount() == 0) {
+				return Mono.just(0);
+			}
+			Object data = event.data();
+			ResolvableType valueType = (data != null ? ResolvableType.forInstance(data) : ResolvableType.NONE);
+			return DataBufferUtils.join(this.writer.encodeEvent(
+					event, valueType, MEDIA_TYPE, this.bufferFactory, Collections.emptyMap()))
+					.map(this.broadcaster::broadcast);
+		});
+	}
+
+	/**
+	 * Complete all connected responses, once the events buffered for them
+	 * have been written.
+	 */
+	public void complete() {
+		this.broadcaster.complete();
+	}
+
+}
@@ -31,6 +31,7 @@ import org.springframework.core.codec.Decoder;
 import org.springframework.core.codec.StringDecoder;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.MediaType;
 import org.springframework.http.ReactiveHttpInputMessage;
@@ -48,14 +49,14 @@ public class ServerSentEventHttpMessageReader implements HttpMessageReader<Objec
 
 	private static final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
 
-	private static final StringDecoder stringDecoder = StringDecoder.textPlainOnly();
-
 	private static final ResolvableType STRING_TYPE = ResolvableType.forClass(String.class);
 
 
 	@Nullable
 	private final Decoder<?> decoder;
 
+	private final StringDecoder lineDecoder = StringDecoder.textPlainOnly();
+
 
 	/**
 	 * Constructor without a {@code Decoder}. In this mode only {@code String}
@@ -82,6 +83,28 @@ public class ServerSentEventHttpMessageReader implements HttpMessageReader<Objec
 		return this.decoder;
 	}
 
+	/**
+	 * Configure a limit on the maximum number of bytes per SSE event which are
+	 * buffered before the event is parsed.
+	 * <p>Note that the {@link #getDecoder() data decoder}, if provided, must
+	 * also be customized accordingly to raise the limit if necessary in order
+	 * to be able to parse the data portion of the event.
+	 * <p>By default this is set to -1, i.e. unlimited.
+	 * @param byteCount the max number of bytes to buffer, or -1 for unlimited
+	 * @since 5.0.16
+	 */
+	public void setMaxInMemorySize(int byteCount) {
+		this.lineDecoder.setMaxInMemorySize(byteCount);
+	}
+
+	/**
+	 * Return the {@link #setMaxInMemorySize configured} byte count limit.
+	 * @since 5.0.16
+	 */
+	public int getMaxInMemorySize() {
+		return this.lineDecoder.getMaxInMemorySize();
+	}
+
 	@Override
 	public List<MediaType> getReadableMediaTypes() {
 		return Collections.singletonList(MediaType.TEXT_EVENT_STREAM);
@@ -105,9 +128,13 @@ public class ServerSentEventHttpMessageReader implements HttpMessageReader<Objec
 		boolean shouldWrap = isServerSentEvent(elementType);
 		ResolvableType valueType = (shouldWrap ? elementType.getGeneric() : elementType);
 
-		return stringDecoder.decode(message.getBody(), STRING_TYPE, null, Collections.emptyMap())
-				.bufferUntil(line -> line.equals(""))
-				.concatMap(lines -> buildEvent(lines, valueType, shouldWrap, hints));
+		return Flux.defer(() -> {
+			LimitTracker limitTracker = new LimitTracker();
+			return this.lineDecoder.decode(message.getBody(), STRING_TYPE, null, Collections.emptyMap())
+					.doOnNext(limitTracker::afterLineParsed)
+					.bufferUntil(line -> line.equals(""))
+					.concatMap(lines -> buildEvent(lines, valueType, shouldWrap, hints));
+		});
 	}
 
 	private Mono<?> buildEvent(List<String> lines, ResolvableType valueType, boolean shouldWrap,
@@ -178,11 +205,43 @@ public class ServerSentEventHttpMessageReader implements HttpMessageReader<Objec
 
 		if (String.class.equals(elementType.getRawClass())) {
 			Flux<DataBuffer> body = message.getBody();
-			return stringDecoder.decodeToMono(body, elementType, null, null).cast(Object.class);
+			return this.lineDecoder.decodeToMono(body, elementType, null, null).cast(Object.class);
 		}
 
 		return Mono.error(new UnsupportedOperationException(
 				"ServerSentEventHttpMessageReader only supports reading stream of events as a Flux"));
 	}
 
+
+	/**
+	 * Keeps track of the bytes buffered for the event currently being parsed.
+	 */
+	private class LimitTracker {
+
+		private int accumulated = 0;
+
+		public void afterLineParsed(String line) {
+			if (getMaxInMemorySize() < 0) {
+				return;
+			}
+			if (line.isEmpty()) {
+				this.accumulated = 0;
+			}
+			if (line.length() > Integer.MAX_VALUE - this.accumulated) {
+				raiseLimitException();
+			}
+			else {
+				this.accumulated += line.length();
+				if (this.accumulated > getMaxInMemorySize()) {
+					raiseLimitException();
+				}
+			}
+		}
+
+		private void raiseLimitException() {
+			throw new DataBufferLimitException(
+					"Exceeded limit on max bytes to buffer : " + getMaxInMemorySize());
+		}
+	}
+
 }
@@ -114,37 +114,44 @@ public class ServerSentEventHttpMessageWriter implements HttpMessageWriter<Objec
 		ResolvableType valueType = (elementClass != null && ServerSentEvent.class.isAssignableFrom(elementClass) ?
 				elementType.getGeneric() : elementType);
 
-		return Flux.from(input).map(element -> {
-
-			ServerSentEvent<?> sse = (element instanceof ServerSentEvent ?
-					(ServerSentEvent<?>) element : ServerSentEvent.builder().data(element).build());
-
-			StringBuilder sb = new StringBuilder();
-			String id = sse.id();
-			String event = sse.event();
-			Duration retry = sse.retry();
-			String comment = sse.comment();
-			Object data = sse.data();
-			if (id != null) {
-				writeField("id", id, sb);
-			}
-			if (event != null) {
-				writeField("event", event, sb);
-			}
-			if (retry != null) {
-				writeField("retry", retry.toMillis(), sb);
-			}
-			if (comment != null) {
-				sb.append(':').append(comment.replaceAll("\\n", "\n:")).append("\n");
-			}
-			if (data != null) {
-				sb.append("data:");
-			}
-
-			return Flux.concat(encodeText(sb, mediaType, factory),
-					encodeData(data, valueType, mediaType, factory, hints),
-					encodeText("\n", mediaType, factory));
-		});
+		return Flux.from(input).map(element -> encodeEvent(element, valueType, mediaType, factory, hints));
+	}
+
+	/**
+	 * Encode a single event, or the data of an event, into its fields.
+	 * @since 5.0.16
+	 */
+	Flux<DataBuffer> encodeEvent(Object element, ResolvableType valueType,
+			MediaType mediaType, DataBufferFactory factory, Map<String, Object> hints) {
+
+		ServerSentEvent<?> sse = (element instanceof ServerSentEvent ?
+				(ServerSentEvent<?>) element : ServerSentEvent.builder().data(element).build());
+
+		StringBuilder sb = new StringBuilder();
+		String id = sse.id();
+		String event = sse.event();
+		Duration retry = sse.retry();
+		String comment = sse.comment();
+		Object data = sse.data();
+		if (id != null) {
+			writeField("id", id, sb);
+		}
+		if (event != null) {
+			writeField("event", event, sb);
+		}
+		if (retry != null) {
+			writeField("retry", retry.toMillis(), sb);
+		}
+		if (comment != null) {
+			sb.append(':').append(comment.replaceAll("\\n", "\n:")).append("\n");
+		}
+		if (data != null) {
+			sb.append("data:");
+		}
+
+		return Flux.concat(encodeText(sb, mediaType, factory),
+				encodeData(data, valueType, mediaType, factory, hints),
+				encodeText("\n", mediaType, factory));
 	}
 
 	private void writeField(String fieldName, Object fieldValue, StringBuilder stringBuilder) {
@@ -18,6 +18,7 @@ package org.springframework.http.codec.json;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
 import java.util.List;
 import java.util.Map;
 
@@ -42,7 +43,9 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.MimeType;
+import org.springframework.util.ObjectUtils;
 
 /**
  * Abstract base class for Jackson 2.9 decoding, leveraging non-blocking parsing.
@@ -55,12 +58,21 @@ import org.springframework.util.MimeType;
  */
 public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport implements HttpMessageDecoder<Object> {
 
+	private static final int CACHE_LIMIT = 256;
+
 	/**
 	 * Until https://github.com/FasterXML/jackson-core/issues/476 is resolved,
 	 * we need to ensure buffer recycling is off.
 	 */
 	private final JsonFactory jsonFactory;
 
+	private final ConcurrentLruCache<ObjectReaderKey, ObjectReader> objectReaderCache =
+			new ConcurrentLruCache<>(CACHE_LIMIT, this::createObjectReader);
+
+	private int maxInMemorySize = -1;
+
+	private long maxTotalSize = -1;
+
 
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
@@ -72,6 +84,48 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 	}
 
 
+	/**
+	 * Set the max number of bytes that can be buffered in memory for a single
+	 * value, i.e. for each element when decoding a top-level JSON array to a
+	 * {@code Flux}, or for the whole JSON value when decoding to a {@code Mono}.
+	 * Input is consumed incrementally, so this bounds the memory held per
+	 * value rather than for the whole payload.
+	 * <p>By default this is set to -1, i.e. unlimited.
+	 * @param byteCount the max number of bytes to buffer, or -1 for unlimited
+	 * @since 5.0.16
+	 */
+	public void setMaxInMemorySize(int byteCount) {
+		this.maxInMemorySize = byteCount;
+	}
+
+	/**
+	 * Return the {@link #setMaxInMemorySize configured} byte count limit.
+	 * @since 5.0.16
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
+	/**
+	 * Set the max number of bytes to consume from the input overall, e.g.
+	 * to bound a bulk stream of elements.
+	 * <p>By default this is set to -1, i.e. unlimited.
+	 * @param byteCount the max number of bytes to consume, or -1 for unlimited
+	 * @since 5.0.16
+	 */
+	public void setMaxTotalSize(long byteCount) {
+		this.maxTotalSize = byteCount;
+	}
+
+	/**
+	 * Return the {@link #setMaxTotalSize configured} total byte count limit.
+	 * @since 5.0.16
+	 */
+	public long getMaxTotalSize() {
+		return this.maxTotalSize;
+	}
+
+
 	@Override
 	public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		JavaType javaType = getObjectMapper().getTypeFactory().constructType(elementType.getType());
@@ -84,7 +138,8 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 	public Flux<Object> decode(Publisher<DataBuffer> input, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
-		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(Flux.from(input), this.jsonFactory, true);
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(
+				Flux.from(input), this.jsonFactory, true, this.maxInMemorySize, this.maxTotalSize);
 		return decodeInternal(tokens, elementType, mimeType, hints);
 	}
 
@@ -92,7 +147,8 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 	public Mono<Object> decodeToMono(Publisher<DataBuffer> input, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
-		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(Flux.from(input), this.jsonFactory, false);
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(
+				Flux.from(input), this.jsonFactory, false, this.maxInMemorySize, this.maxTotalSize);
 		return decodeInternal(tokens, elementType, mimeType, hints).singleOrEmpty();
 	}
 
@@ -104,12 +160,9 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 
 		MethodParameter param = getParameter(elementType);
 		Class<?> contextClass = (param != null ? param.getContainingClass() : null);
-		JavaType javaType = getJavaType(elementType.getType(), contextClass);
 		Class<?> jsonView = (hints != null ? (Class<?>) hints.get(Jackson2CodecSupport.JSON_VIEW_HINT) : null);
-
-		ObjectReader reader = (jsonView != null ?
-				getObjectMapper().readerWithView(jsonView).forType(javaType) :
-				getObjectMapper().readerFor(javaType));
+		ObjectReader reader = this.objectReaderCache.get(
+				new ObjectReaderKey(elementType.getType(), contextClass, jsonView));
 
 		return tokens.map(tokenBuffer -> {
 			try {
@@ -128,6 +181,14 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 	}
 
 
+	private ObjectReader createObjectReader(ObjectReaderKey key) {
+		JavaType javaType = getJavaType(key.type, key.contextClass);
+		return (key.jsonView != null ?
+				getObjectMapper().readerWithView(key.jsonView).forType(javaType) :
+				getObjectMapper().readerFor(javaType));
+	}
+
+
 	// HttpMessageDecoder...
 
 	@Override
@@ -149,4 +210,46 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		return parameter.getParameterAnnotation(annotType);
 	}
 
+
+
+	/**
+	 * Cache key for {@link ObjectReader} instances.
+	 */
+	private static final class ObjectReaderKey {
+
+		private final Type type;
+
+		@Nullable
+		private final Class<?> contextClass;
+
+		@Nullable
+		private final Class<?> jsonView;
+
+		public ObjectReaderKey(Type type, @Nullable Class<?> contextClass, @Nullable Class<?> jsonView) {
+			this.type = type;
+			this.contextClass = contextClass;
+			this.jsonView = jsonView;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ObjectReaderKey)) {
+				return false;
+			}
+			ObjectReaderKey otherKey = (ObjectReaderKey) other;
+			return (this.type.equals(otherKey.type) &&
+					ObjectUtils.nullSafeEquals(this.contextClass, otherKey.contextClass) &&
+					ObjectUtils.nullSafeEquals(this.jsonView, otherKey.jsonView));
+		}
+
+		@Override
+		public int hashCode() {
+			return (this.type.hashCode() * 29 + ObjectUtils.nullSafeHashCode(this.contextClass)) * 29 +
+					ObjectUtils.nullSafeHashCode(this.jsonView);
+		}
+	}
+
 }
@@ -49,7 +49,9 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.MimeType;
+import org.springframework.util.ObjectUtils;
 
 /**
  * Base class providing support methods for Jackson 2.9 encoding. For non-streaming use
@@ -72,9 +74,16 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		STREAM_SEPARATORS.put(MediaType.parseMediaType("application/stream+x-jackson-smile"), new byte[0]);
 	}
 
+	private static final int CACHE_LIMIT = 256;
+
 
 	private final List<MediaType> streamingMediaTypes = new ArrayList<>(1);
 
+	private final ConcurrentLruCache<ObjectWriterKey, ObjectWriter> objectWriterCache =
+			new ConcurrentLruCache<>(CACHE_LIMIT, key ->
+					createObjectWriter(key.elementType, key.jsonView, key.mimeType,
+							(key.jsonView != null ? Collections.singletonMap(JSON_VIEW_HINT, key.jsonView) : null)));
+
 
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
@@ -115,15 +124,17 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		JsonEncoding encoding = getJsonEncoding(mimeType);
 
 		if (inputStream instanceof Mono) {
+			ObjectWriter writer = getObjectWriter(elementType, mimeType, hints);
 			return Flux.from(inputStream).map(value ->
-					encodeValue(value, mimeType, bufferFactory, elementType, hints, encoding));
+					encodeValue(value, bufferFactory, writer, encoding));
 		}
 
 		for (MediaType streamingMediaType : this.streamingMediaTypes) {
 			if (streamingMediaType.isCompatibleWith(mimeType)) {
 				byte[] separator = STREAM_SEPARATORS.getOrDefault(streamingMediaType, NEWLINE_SEPARATOR);
+				ObjectWriter writer = getObjectWriter(elementType, mimeType, hints);
 				return Flux.from(inputStream).map(value -> {
-					DataBuffer buffer = encodeValue(value, mimeType, bufferFactory, elementType, hints, encoding);
+					DataBuffer buffer = encodeValue(value, bufferFactory, writer, encoding);
 					if (separator != null) {
 						buffer.write(separator);
 					}
@@ -133,15 +144,26 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		}
 
 		ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+		ObjectWriter writer = getObjectWriter(listType, mimeType, hints);
 		return Flux.from(inputStream).collectList().map(list ->
-				encodeValue(list, mimeType, bufferFactory, listType, hints, encoding)).flux();
+				encodeValue(list, bufferFactory, writer, encoding)).flux();
 	}
 
-	private DataBuffer encodeValue(Object value, @Nullable MimeType mimeType, DataBufferFactory bufferFactory,
-			ResolvableType elementType, @Nullable Map<String, Object> hints, JsonEncoding encoding) {
+	private ObjectWriter getObjectWriter(ResolvableType elementType, @Nullable MimeType mimeType,
+			@Nullable Map<String, Object> hints) {
 
-		JavaType javaType = getJavaType(elementType.getType(), null);
 		Class<?> jsonView = (hints != null ? (Class<?>) hints.get(Jackson2CodecSupport.JSON_VIEW_HINT) : null);
+		if (hints == null || hints.size() <= (jsonView != null ? 1 : 0)) {
+			// Only the JSON view (if any) affects the writer: safe to cache
+			return this.objectWriterCache.get(new ObjectWriterKey(elementType, jsonView, mimeType));
+		}
+		return createObjectWriter(elementType, jsonView, mimeType, hints);
+	}
+
+	private ObjectWriter createObjectWriter(ResolvableType elementType, @Nullable Class<?> jsonView,
+			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+
+		JavaType javaType = getJavaType(elementType.getType(), null);
 		ObjectWriter writer = (jsonView != null ?
 				getObjectMapper().writerWithView(jsonView) : getObjectMapper().writer());
 
@@ -149,7 +171,11 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 			writer = writer.forType(javaType);
 		}
 
-		writer = customizeWriter(writer, mimeType, elementType, hints);
+		return customizeWriter(writer, mimeType, elementType, hints);
+	}
+
+	private DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ObjectWriter writer,
+			JsonEncoding encoding) {
 
 		DataBuffer buffer = bufferFactory.allocateBuffer();
 		OutputStream outputStream = buffer.asOutputStream();
@@ -170,7 +196,18 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 
 		return buffer;
 	}
-	
+
+	/**
+	 * Subclasses can use this method to customize the {@link ObjectWriter} used
+	 * for writing values.
+	 * <p>Writers customized for hints that consist of no more than the JSON view
+	 * are cached, so the outcome should depend on the given arguments only.
+	 * @param writer the writer instance to customize
+	 * @param mimeType the selected MIME type
+	 * @param elementType the type of element values to write
+	 * @param hints a map with serialization hints (may be {@code null})
+	 * @return the customized {@code ObjectWriter} to use
+	 */
 	protected ObjectWriter customizeWriter(ObjectWriter writer, @Nullable MimeType mimeType,
 			ResolvableType elementType, @Nullable Map<String, Object> hints) {
 
@@ -222,4 +259,46 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		return parameter.getMethodAnnotation(annotType);
 	}
 	
+
+
+	/**
+	 * Cache key for {@link ObjectWriter} instances.
+	 */
+	private static final class ObjectWriterKey {
+
+		private final ResolvableType elementType;
+
+		@Nullable
+		private final Class<?> jsonView;
+
+		@Nullable
+		private final MimeType mimeType;
+
+		public ObjectWriterKey(ResolvableType elementType, @Nullable Class<?> jsonView, @Nullable MimeType mimeType) {
+			this.elementType = elementType;
+			this.jsonView = jsonView;
+			this.mimeType = mimeType;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ObjectWriterKey)) {
+				return false;
+			}
+			ObjectWriterKey otherKey = (ObjectWriterKey) other;
+			return (this.elementType.getType().equals(otherKey.elementType.getType()) &&
+					ObjectUtils.nullSafeEquals(this.jsonView, otherKey.jsonView) &&
+					ObjectUtils.nullSafeEquals(this.mimeType, otherKey.mimeType));
+		}
+
+		@Override
+		public int hashCode() {
+			return (this.elementType.getType().hashCode() * 29 + ObjectUtils.nullSafeHashCode(this.jsonView)) * 29 +
+					ObjectUtils.nullSafeHashCode(this.mimeType);
+		}
+	}
+
 }
@@ -31,6 +31,7 @@ import reactor.core.publisher.Flux;
 
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.util.Assert;
 
@@ -48,8 +49,16 @@ class Jackson2Tokenizer {
 
 	private final boolean tokenizeArrayElements;
 
+	private final int maxInMemorySize;
+
+	private final long maxTotalSize;
+
 	private TokenBuffer tokenBuffer;
 
+	private long byteCount;
+
+	private long elementStart;
+
 	private int objectDepth;
 
 	private int arrayDepth;
@@ -58,11 +67,15 @@ class Jackson2Tokenizer {
 	private final ByteArrayFeeder inputFeeder;
 
 
-	private Jackson2Tokenizer(JsonParser parser, boolean tokenizeArrayElements) {
+	private Jackson2Tokenizer(JsonParser parser, boolean tokenizeArrayElements,
+			int maxInMemorySize, long maxTotalSize) {
+
 		Assert.notNull(parser, "'parser' must not be null");
 
 		this.parser = parser;
 		this.tokenizeArrayElements = tokenizeArrayElements;
+		this.maxInMemorySize = maxInMemorySize;
+		this.maxTotalSize = maxTotalSize;
 		this.tokenBuffer = new TokenBuffer(parser);
 		this.inputFeeder = (ByteArrayFeeder) this.parser.getNonBlockingInputFeeder();
 	}
@@ -79,49 +92,87 @@ class Jackson2Tokenizer {
 	public static Flux<TokenBuffer> tokenize(Flux<DataBuffer> dataBuffers, JsonFactory jsonFactory,
 			boolean tokenizeArrayElements) {
 
-		try {
-			JsonParser parser = jsonFactory.createNonBlockingByteArrayParser();
-			Jackson2Tokenizer tokenizer = new Jackson2Tokenizer(parser, tokenizeArrayElements);
-			return dataBuffers.flatMap(tokenizer::tokenize, Flux::error, tokenizer::endOfInput);
-		}
-		catch (IOException ex) {
-			return Flux.error(ex);
-		}
+		return tokenize(dataBuffers, jsonFactory, tokenizeArrayElements, -1, -1);
 	}
 
-	private Flux<TokenBuffer> tokenize(DataBuffer dataBuffer) {
+	/**
+	 * Tokenize the given {@code Flux<DataBuffer>} into {@code Flux<TokenBuffer>}.
+	 * <p>Data buffers are requested one at a time, so that no more input is
+	 * consumed than needed to produce the token buffers requested downstream.
+	 * @param dataBuffers the source data buffers
+	 * @param jsonFactory the factory to use
+	 * @param tokenizeArrayElements if {@code true} and the "top level" JSON
+	 * object is an array, each element is returned individually, immediately
+	 * after it is received.
+	 * @param maxInMemorySize the maximum number of bytes of input for a single
+	 * token buffer, i.e. an array element or the whole JSON value, or -1 for
+	 * no limit
+	 * @param maxTotalSize the maximum number of bytes of input overall,
+	 * or -1 for no limit
+	 * @return the result token buffers
+	 * @since 5.0.16
+	 */
+	public static Flux<TokenBuffer> tokenize(Flux<DataBuffer> dataBuffers, JsonFactory jsonFactory,
+			boolean tokenizeArrayElements, int maxInMemorySize, long maxTotalSize) {
+
+		return Flux.defer(() -> {
+			Jackson2Tokenizer tokenizer;
+			try {
+				JsonParser parser = jsonFactory.createNonBlockingByteArrayParser();
+				tokenizer = new Jackson2Tokenizer(parser, tokenizeArrayElements, maxInMemorySize, maxTotalSize);
+			}
+			catch (IOException ex) {
+				return Flux.error(ex);
+			}
+			return dataBuffers
+					.concatMapIterable(tokenizer::tokenize, 1)
+					.concatWith(Flux.defer(() -> Flux.fromIterable(tokenizer.endOfInput())));
+		});
+	}
+
+	private List<TokenBuffer> tokenize(DataBuffer dataBuffer) {
 		byte[] bytes = new byte[dataBuffer.readableByteCount()];
 		dataBuffer.read(bytes);
 		DataBufferUtils.release(dataBuffer);
 
+		this.byteCount += bytes.length;
+		if (this.maxTotalSize >= 0 && this.byteCount > this.maxTotalSize) {
+			throw new DataBufferLimitException("Exceeded limit on max bytes of JSON input: " + this.maxTotalSize);
+		}
 		try {
 			this.inputFeeder.feedInput(bytes, 0, bytes.length);
-			return parseTokenBufferFlux();
+			List<TokenBuffer> result = parseTokenBuffers();
+			checkInMemorySize(this.byteCount);
+			return result;
 		}
 		catch (JsonProcessingException ex) {
-			return Flux.error(new DecodingException(
-					"JSON decoding error: " + ex.getOriginalMessage(), ex));
+			throw new DecodingException("JSON decoding error: " + ex.getOriginalMessage(), ex);
 		}
 		catch (IOException ex) {
-			return Flux.error(ex);
+			throw new DecodingException("I/O error while parsing input stream", ex);
 		}
 	}
 
-	private Flux<TokenBuffer> endOfInput() {
+	private List<TokenBuffer> endOfInput() {
 		this.inputFeeder.endOfInput();
 		try {
-			return parseTokenBufferFlux();
+			return parseTokenBuffers();
 		}
 		catch (JsonProcessingException ex) {
-			return Flux.error(new DecodingException(
-					"JSON decoding error: " + ex.getOriginalMessage(), ex));
+			throw new DecodingException("JSON decoding error: " + ex.getOriginalMessage(), ex);
 		}
 		catch (IOException ex) {
-			return Flux.error(ex);
+			throw new DecodingException("I/O error while parsing input stream", ex);
+		}
+	}
+
+	private void checkInMemorySize(long offset) {
+		if (this.maxInMemorySize >= 0 && offset - this.elementStart > this.maxInMemorySize) {
+			throw new DataBufferLimitException("Exceeded limit on max bytes per JSON value: " + this.maxInMemorySize);
 		}
 	}
 
-	private Flux<TokenBuffer> parseTokenBufferFlux() throws IOException {
+	private List<TokenBuffer> parseTokenBuffers() throws IOException {
 		List<TokenBuffer> result = new ArrayList<>();
 
 		while (true) {
@@ -140,7 +191,7 @@ class Jackson2Tokenizer {
 				processTokenArray(token, result);
 			}
 		}
-		return Flux.fromIterable(result);
+		return result;
 	}
 
 	private void updateDepth(JsonToken token) {
@@ -165,10 +216,8 @@ class Jackson2Tokenizer {
 
 		if ((token.isStructEnd() || token.isScalarValue()) &&
 				this.objectDepth == 0 && this.arrayDepth == 0) {
-			result.add(this.tokenBuffer);
-			this.tokenBuffer = new TokenBuffer(this.parser);
+			addTokenBuffer(result);
 		}
-
 	}
 
 	private void processTokenArray(JsonToken token, List<TokenBuffer> result) throws IOException {
@@ -179,11 +228,18 @@ class Jackson2Tokenizer {
 		if (this.objectDepth == 0 &&
 				(this.arrayDepth == 0 || this.arrayDepth == 1) &&
 				(token == JsonToken.END_OBJECT || token.isScalarValue())) {
-			result.add(this.tokenBuffer);
-			this.tokenBuffer = new TokenBuffer(this.parser);
+			addTokenBuffer(result);
 		}
 	}
 
+	private void addTokenBuffer(List<TokenBuffer> result) {
+		long offset = this.parser.getCurrentLocation().getByteOffset();
+		checkInMemorySize(offset);
+		this.elementStart = offset;
+		result.add(this.tokenBuffer);
+		this.tokenBuffer = new TokenBuffer(this.parser);
+	}
+
 	private boolean isTopLevelArrayToken(JsonToken token) {
 		return this.objectDepth == 0 && ((token == JsonToken.START_ARRAY && this.arrayDepth == 1) ||
 				(token == JsonToken.END_ARRAY && this.arrayDepth == 0));
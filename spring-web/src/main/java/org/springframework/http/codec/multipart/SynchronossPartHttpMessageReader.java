@@ -74,7 +74,52 @@ public class SynchronossPartHttpMessageReader implements HttpMessageReader<Part>
 
 	private final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
 
-	private final PartBodyStreamStorageFactory streamStorageFactory = new DefaultPartBodyStreamStorageFactory();
+	private int maxInMemorySize = 10 * 1024;
+
+	@Nullable
+	private File fileStorageDirectory;
+
+
+	/**
+	 * Configure the maximum amount of memory allowed per part. When the limit
+	 * is exceeded, the part content is spilled over to a temporary file.
+	 * <p>By default this is set to 10K, the Synchronoss default threshold.
+	 * @param byteCount the in-memory limit in bytes; if set to -1 the entire
+	 * part content is kept in memory, in line with the other codecs
+	 * @since 5.0.16
+	 */
+	public void setMaxInMemorySize(int byteCount) {
+		this.maxInMemorySize = byteCount;
+	}
+
+	/**
+	 * Return the {@link #setMaxInMemorySize configured} in-memory limit per part.
+	 * @since 5.0.16
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
+	/**
+	 * Set the directory used to store parts larger than
+	 * {@link #setMaxInMemorySize maxInMemorySize}.
+	 * <p>By default this is the "nio-file-upload" directory under the
+	 * {@code java.io.tmpdir} system property.
+	 * @param fileStorageDirectory the directory for temporary files
+	 * @since 5.0.16
+	 */
+	public void setFileStorageDirectory(@Nullable File fileStorageDirectory) {
+		this.fileStorageDirectory = fileStorageDirectory;
+	}
+
+	/**
+	 * Return the {@link #setFileStorageDirectory configured} storage directory.
+	 * @since 5.0.16
+	 */
+	@Nullable
+	public File getFileStorageDirectory() {
+		return this.fileStorageDirectory;
+	}
 
 
 	@Override
@@ -91,7 +136,14 @@ public class SynchronossPartHttpMessageReader implements HttpMessageReader<Part>
 
 	@Override
 	public Flux<Part> read(ResolvableType elementType, ReactiveHttpInputMessage message, Map<String, Object> hints) {
-		return Flux.create(new SynchronossPartGenerator(message, this.bufferFactory, this.streamStorageFactory));
+		return Flux.create(new SynchronossPartGenerator(message, this.bufferFactory, createStreamStorageFactory()));
+	}
+
+	private PartBodyStreamStorageFactory createStreamStorageFactory() {
+		int threshold = (this.maxInMemorySize >= 0 ? this.maxInMemorySize : Integer.MAX_VALUE);
+		return (this.fileStorageDirectory != null ?
+				new DefaultPartBodyStreamStorageFactory(this.fileStorageDirectory.getAbsolutePath(), threshold) :
+				new DefaultPartBodyStreamStorageFactory(threshold));
 	}
 
 
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.springframework.core.codec.AbstractDataBufferDecoder;
 import org.springframework.core.codec.ByteArrayDecoder;
 import org.springframework.core.codec.ByteArrayEncoder;
 import org.springframework.core.codec.ByteBufferDecoder;
@@ -37,6 +38,7 @@ import org.springframework.http.codec.FormHttpMessageReader;
 import org.springframework.http.codec.HttpMessageReader;
 import org.springframework.http.codec.HttpMessageWriter;
 import org.springframework.http.codec.ResourceHttpMessageWriter;
+import org.springframework.http.codec.json.AbstractJackson2Decoder;
 import org.springframework.http.codec.json.Jackson2JsonDecoder;
 import org.springframework.http.codec.json.Jackson2JsonEncoder;
 import org.springframework.http.codec.json.Jackson2SmileDecoder;
@@ -74,6 +76,9 @@ class BaseDefaultCodecs implements CodecConfigurer.DefaultCodecs {
 	@Nullable
 	private Encoder<?> jackson2JsonEncoder;
 
+	@Nullable
+	private Integer maxInMemorySize;
+
 	private boolean registerDefaults = true;
 
 
@@ -87,6 +92,16 @@ class BaseDefaultCodecs implements CodecConfigurer.DefaultCodecs {
 		this.jackson2JsonEncoder = encoder;
 	}
 
+	@Override
+	public void maxInMemorySize(int byteCount) {
+		this.maxInMemorySize = byteCount;
+	}
+
+	@Nullable
+	protected Integer maxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
 	/**
 	 * Delegate method used from {@link BaseCodecConfigurer#registerDefaults}.
 	 */
@@ -103,16 +118,36 @@ class BaseDefaultCodecs implements CodecConfigurer.DefaultCodecs {
 			return Collections.emptyList();
 		}
 		List<HttpMessageReader<?>> readers = new ArrayList<>();
-		readers.add(new DecoderHttpMessageReader<>(new ByteArrayDecoder()));
-		readers.add(new DecoderHttpMessageReader<>(new ByteBufferDecoder()));
-		readers.add(new DecoderHttpMessageReader<>(new DataBufferDecoder()));
-		readers.add(new DecoderHttpMessageReader<>(new ResourceDecoder()));
-		readers.add(new DecoderHttpMessageReader<>(StringDecoder.textPlainOnly()));
-		readers.add(new FormHttpMessageReader());
+		readers.add(new DecoderHttpMessageReader<>(init(new ByteArrayDecoder())));
+		readers.add(new DecoderHttpMessageReader<>(init(new ByteBufferDecoder())));
+		readers.add(new DecoderHttpMessageReader<>(init(new DataBufferDecoder())));
+		readers.add(new DecoderHttpMessageReader<>(init(new ResourceDecoder())));
+		readers.add(new DecoderHttpMessageReader<>(init(StringDecoder.textPlainOnly())));
+		FormHttpMessageReader formReader = new FormHttpMessageReader();
+		if (this.maxInMemorySize != null) {
+			formReader.setMaxInMemorySize(this.maxInMemorySize);
+		}
+		readers.add(formReader);
 		extendTypedReaders(readers);
 		return readers;
 	}
 
+	/**
+	 * Apply the {@link #maxInMemorySize(int) configured} limit, if any, to a
+	 * default decoder.
+	 */
+	private <T extends Decoder<?>> T init(T decoder) {
+		if (this.maxInMemorySize != null) {
+			if (decoder instanceof AbstractDataBufferDecoder) {
+				((AbstractDataBufferDecoder<?>) decoder).setMaxInMemorySize(this.maxInMemorySize);
+			}
+			else if (decoder instanceof AbstractJackson2Decoder) {
+				((AbstractJackson2Decoder) decoder).setMaxInMemorySize(this.maxInMemorySize);
+			}
+		}
+		return decoder;
+	}
+
 	/**
 	 * Hook for client or server specific typed readers.
 	 */
@@ -131,7 +166,7 @@ class BaseDefaultCodecs implements CodecConfigurer.DefaultCodecs {
 			readers.add(new DecoderHttpMessageReader<>(getJackson2JsonDecoder()));
 		}
 		if (jackson2SmilePresent) {
-			readers.add(new DecoderHttpMessageReader<>(new Jackson2SmileDecoder()));
+			readers.add(new DecoderHttpMessageReader<>(init(new Jackson2SmileDecoder())));
 		}
 		if (jaxb2Present) {
 			readers.add(new DecoderHttpMessageReader<>(new Jaxb2XmlDecoder()));
@@ -154,7 +189,7 @@ class BaseDefaultCodecs implements CodecConfigurer.DefaultCodecs {
 			return Collections.emptyList();
 		}
 		List<HttpMessageReader<?>> result = new ArrayList<>();
-		result.add(new DecoderHttpMessageReader<>(StringDecoder.allMimeTypes()));
+		result.add(new DecoderHttpMessageReader<>(init(StringDecoder.allMimeTypes())));
 		return result;
 	}
 
@@ -236,7 +271,7 @@ class BaseDefaultCodecs implements CodecConfigurer.DefaultCodecs {
 	// Accessors for use in subclasses...
 
 	protected Decoder<?> getJackson2JsonDecoder() {
-		return (this.jackson2JsonDecoder != null ? this.jackson2JsonDecoder : new Jackson2JsonDecoder());
+		return (this.jackson2JsonDecoder != null ? this.jackson2JsonDecoder : init(new Jackson2JsonDecoder()));
 	}
 
 	protected Encoder<?> getJackson2JsonEncoder() {
@@ -51,6 +51,10 @@ class ServerDefaultCodecsImpl extends BaseDefaultCodecs implements ServerCodecCo
 	protected void extendTypedReaders(List<HttpMessageReader<?>> typedReaders) {
 		if (synchronossMultipartPresent) {
 			SynchronossPartHttpMessageReader partReader = new SynchronossPartHttpMessageReader();
+			Integer maxInMemorySize = maxInMemorySize();
+			if (maxInMemorySize != null) {
+				partReader.setMaxInMemorySize(maxInMemorySize);
+			}
 			typedReaders.add(partReader);
 			typedReaders.add(new MultipartHttpMessageReader(partReader));
 		}
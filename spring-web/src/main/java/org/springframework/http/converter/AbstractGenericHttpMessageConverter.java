@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ package org.springframework.http.converter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpOutputMessage;
@@ -122,4 +124,17 @@ public abstract class AbstractGenericHttpMessageConverter<T> extends AbstractHtt
 	protected abstract void writeInternal(T t, @Nullable Type type, HttpOutputMessage outputMessage)
 			throws IOException, HttpMessageNotWritableException;
 
+
+	/**
+	 * Determine whether the given value is a {@link Stream} or an {@link Iterator}
+	 * that converters may write element by element rather than as a single value.
+	 * <p>Other {@link Iterable} types such as collections or tree models are
+	 * not considered, since they typically come with their own serialized form.
+	 * @param value the value to check (may be {@code null})
+	 * @since 5.0.16
+	 */
+	public static boolean isStreamingValue(@Nullable Object value) {
+		return (value instanceof Stream || value instanceof Iterator);
+	}
+
 }
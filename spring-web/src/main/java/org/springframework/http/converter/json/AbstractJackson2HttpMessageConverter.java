@@ -22,7 +22,9 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -33,7 +35,9 @@ import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
@@ -51,12 +55,20 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.TypeUtils;
 
 /**
  * Abstract base class for Jackson based and content type independent
  * {@link HttpMessageConverter} implementations.
  *
+ * <p>{@link Stream} and {@link Iterator} values are written element by element
+ * rather than as a single value, either as a JSON array or, for
+ * {@code application/stream+json}, as newline-delimited JSON.
+ * The output is flushed every {@link #setStreamingFlushInterval N} elements so
+ * that large results can be served in bounded memory.
+ *
  * <p>Compatible with Jackson 2.9 and higher, as of Spring 5.0.
  *
  * @author Arjen Poutsma
@@ -71,6 +83,8 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 
 	public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
 
+	private static final int CACHE_LIMIT = 256;
+
 
 	protected ObjectMapper objectMapper;
 
@@ -80,6 +94,14 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 	@Nullable
 	private PrettyPrinter ssePrettyPrinter;
 
+	private int streamingFlushInterval = 100;
+
+	private final ConcurrentLruCache<ObjectReaderKey, ObjectReader> objectReaderCache =
+			new ConcurrentLruCache<>(CACHE_LIMIT, this::createObjectReader);
+
+	private final ConcurrentLruCache<ObjectWriterKey, ObjectWriter> objectWriterCache =
+			new ConcurrentLruCache<>(CACHE_LIMIT, this::createObjectWriter);
+
 
 	protected AbstractJackson2HttpMessageConverter(ObjectMapper objectMapper) {
 		this.objectMapper = objectMapper;
@@ -115,6 +137,7 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		Assert.notNull(objectMapper, "ObjectMapper must not be null");
 		this.objectMapper = objectMapper;
 		configurePrettyPrint();
+		clearCaches();
 	}
 
 	/**
@@ -136,6 +159,7 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 	public void setPrettyPrint(boolean prettyPrint) {
 		this.prettyPrint = prettyPrint;
 		configurePrettyPrint();
+		clearCaches();
 	}
 
 	private void configurePrettyPrint() {
@@ -144,6 +168,38 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		}
 	}
 
+	/**
+	 * Clear the cached {@link ObjectReader} and {@link ObjectWriter} instances.
+	 * <p>Readers and writers are derived from the {@code ObjectMapper} and cached
+	 * per target type, JSON view, filters and content type. This method needs to
+	 * be called if the configuration of the {@code ObjectMapper} is changed after
+	 * it has been used by this converter.
+	 * @since 5.0.16
+	 */
+	public void clearCaches() {
+		this.objectReaderCache.clear();
+		this.objectWriterCache.clear();
+	}
+
+	/**
+	 * Set the number of elements after which the output is flushed when writing
+	 * a {@link Stream} or {@link Iterator} element by element.
+	 * <p>Default is 100.
+	 * @since 5.0.16
+	 */
+	public void setStreamingFlushInterval(int streamingFlushInterval) {
+		Assert.isTrue(streamingFlushInterval > 0, "Streaming flush interval must be greater than 0");
+		this.streamingFlushInterval = streamingFlushInterval;
+	}
+
+	/**
+	 * Return the configured number of elements between flushes of streamed output.
+	 * @since 5.0.16
+	 */
+	public int getStreamingFlushInterval() {
+		return this.streamingFlushInterval;
+	}
+
 
 	@Override
 	public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
@@ -169,6 +225,9 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		if (!canWrite(mediaType)) {
 			return false;
 		}
+		if (Stream.class.isAssignableFrom(clazz) || Iterator.class.isAssignableFrom(clazz)) {
+			return true;
+		}
 		AtomicReference<Throwable> causeRef = new AtomicReference<>();
 		if (this.objectMapper.canSerialize(clazz, causeRef)) {
 			return true;
@@ -213,28 +272,27 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
 			throws IOException, HttpMessageNotReadableException {
 
-		JavaType javaType = getJavaType(clazz, null);
-		return readJavaType(javaType, inputMessage);
+		return readJavaType(clazz, null, inputMessage);
 	}
 
 	@Override
 	public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage)
 			throws IOException, HttpMessageNotReadableException {
 
-		JavaType javaType = getJavaType(type, contextClass);
-		return readJavaType(javaType, inputMessage);
+		return readJavaType(type, contextClass, inputMessage);
 	}
 
-	private Object readJavaType(JavaType javaType, HttpInputMessage inputMessage) throws IOException {
+	private Object readJavaType(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage)
+			throws IOException {
+
 		try {
+			Class<?> deserializationView = null;
 			if (inputMessage instanceof MappingJacksonInputMessage) {
-				Class<?> deserializationView = ((MappingJacksonInputMessage) inputMessage).getDeserializationView();
-				if (deserializationView != null) {
-					return this.objectMapper.readerWithView(deserializationView).forType(javaType).
-							readValue(inputMessage.getBody());
-				}
+				deserializationView = ((MappingJacksonInputMessage) inputMessage).getDeserializationView();
 			}
-			return this.objectMapper.readValue(inputMessage.getBody(), javaType);
+			ObjectReader objectReader =
+					this.objectReaderCache.get(new ObjectReaderKey(type, contextClass, deserializationView));
+			return objectReader.readValue(inputMessage.getBody());
 		}
 		catch (InvalidDefinitionException ex) {
 			throw new HttpMessageConversionException("Type definition error: " + ex.getType(), ex);
@@ -244,6 +302,13 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		}
 	}
 
+	private ObjectReader createObjectReader(ObjectReaderKey key) {
+		JavaType javaType = getJavaType(key.type, key.contextClass);
+		return (key.deserializationView != null ?
+				this.objectMapper.readerWithView(key.deserializationView).forType(javaType) :
+				this.objectMapper.readerFor(javaType));
+	}
+
 	@Override
 	protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
 			throws IOException, HttpMessageNotWritableException {
@@ -257,7 +322,6 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 			Object value = object;
 			Class<?> serializationView = null;
 			FilterProvider filters = null;
-			JavaType javaType = null;
 
 			if (object instanceof MappingJacksonValue) {
 				MappingJacksonValue container = (MappingJacksonValue) object;
@@ -265,24 +329,22 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 				serializationView = container.getSerializationView();
 				filters = container.getFilters();
 			}
-			if (type != null && TypeUtils.isAssignable(type, value.getClass())) {
-				javaType = getJavaType(type, null);
-			}
 
-			ObjectWriter objectWriter = (serializationView != null ?
-					this.objectMapper.writerWithView(serializationView) : this.objectMapper.writer());
-			if (filters != null) {
-				objectWriter = objectWriter.with(filters);
-			}
-			if (javaType != null && javaType.isContainerType()) {
-				objectWriter = objectWriter.forType(javaType);
+			boolean lineDelimited = (contentType != null &&
+					contentType.isCompatibleWith(MediaType.APPLICATION_STREAM_JSON));
+			boolean streaming = isStreamingValue(value);
+			Type targetType = (type != null && TypeUtils.isAssignable(type, value.getClass()) ? type : null);
+			ObjectWriterKey writerKey = new ObjectWriterKey(targetType, streaming, serializationView, filters, contentType);
+			// FilterProviders are typically created per request, without equals/hashCode
+			ObjectWriter objectWriter = (filters != null ?
+					createObjectWriter(writerKey) : this.objectWriterCache.get(writerKey));
+
+			if (streaming) {
+				writeElements(generator, objectWriter, value, lineDelimited);
 			}
-			SerializationConfig config = objectWriter.getConfig();
-			if (contentType != null && contentType.isCompatibleWith(MediaType.TEXT_EVENT_STREAM) &&
-					config.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
-				objectWriter = objectWriter.with(this.ssePrettyPrinter);
+			else {
+				objectWriter.writeValue(generator, value);
 			}
-			objectWriter.writeValue(generator, value);
 
 			writeSuffix(generator, object);
 			generator.flush();
@@ -295,6 +357,64 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		}
 	}
 
+	private ObjectWriter createObjectWriter(ObjectWriterKey key) {
+		JavaType javaType = (key.type != null ? getJavaType(key.type, null) : null);
+		if (key.streaming && javaType != null) {
+			// Elements are written individually: configure the writer for the element type
+			javaType = javaType.containedType(0);
+		}
+
+		ObjectWriter objectWriter = (key.serializationView != null ?
+				this.objectMapper.writerWithView(key.serializationView) : this.objectMapper.writer());
+		if (key.filters != null) {
+			objectWriter = objectWriter.with(key.filters);
+		}
+		if (javaType != null && javaType.isContainerType()) {
+			objectWriter = objectWriter.forType(javaType);
+		}
+		SerializationConfig config = objectWriter.getConfig();
+		if (key.contentType != null && key.contentType.isCompatibleWith(MediaType.TEXT_EVENT_STREAM) &&
+				config.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+			objectWriter = objectWriter.with(this.ssePrettyPrinter);
+		}
+		return objectWriter;
+	}
+
+	private void writeElements(JsonGenerator generator, ObjectWriter objectWriter, Object value,
+			boolean lineDelimited) throws IOException {
+
+		// Flush periodically rather than after every single element
+		objectWriter = objectWriter.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		if (lineDelimited) {
+			objectWriter = objectWriter.without(SerializationFeature.INDENT_OUTPUT);
+			generator.setRootValueSeparator(null);
+		}
+
+		Iterator<?> elements = (value instanceof Stream ?
+				((Stream<?>) value).iterator() : (Iterator<?>) value);
+
+		try {
+			SequenceWriter sequenceWriter = (lineDelimited ?
+					objectWriter.writeValues(generator) : objectWriter.writeValuesAsArray(generator));
+			int count = 0;
+			while (elements.hasNext()) {
+				sequenceWriter.write(elements.next());
+				if (lineDelimited) {
+					generator.writeRaw('\n');
+				}
+				if (++count % this.streamingFlushInterval == 0) {
+					generator.flush();
+				}
+			}
+			sequenceWriter.close();
+		}
+		finally {
+			if (value instanceof Stream) {
+				((Stream<?>) value).close();
+			}
+		}
+	}
+
 	/**
 	 * Write a prefix before the main content.
 	 * @param generator the generator to use for writing content.
@@ -357,4 +477,102 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		return super.getContentLength(object, contentType);
 	}
 
+
+
+	/**
+	 * Cache key for {@link ObjectReader} instances.
+	 */
+	private static final class ObjectReaderKey {
+
+		private final Type type;
+
+		@Nullable
+		private final Class<?> contextClass;
+
+		@Nullable
+		private final Class<?> deserializationView;
+
+		public ObjectReaderKey(Type type, @Nullable Class<?> contextClass, @Nullable Class<?> deserializationView) {
+			this.type = type;
+			this.contextClass = contextClass;
+			this.deserializationView = deserializationView;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ObjectReaderKey)) {
+				return false;
+			}
+			ObjectReaderKey otherKey = (ObjectReaderKey) other;
+			return (this.type.equals(otherKey.type) &&
+					ObjectUtils.nullSafeEquals(this.contextClass, otherKey.contextClass) &&
+					ObjectUtils.nullSafeEquals(this.deserializationView, otherKey.deserializationView));
+		}
+
+		@Override
+		public int hashCode() {
+			return (this.type.hashCode() * 29 + ObjectUtils.nullSafeHashCode(this.contextClass)) * 29 +
+					ObjectUtils.nullSafeHashCode(this.deserializationView);
+		}
+	}
+
+
+	/**
+	 * Cache key for {@link ObjectWriter} instances.
+	 */
+	private static final class ObjectWriterKey {
+
+		@Nullable
+		private final Type type;
+
+		private final boolean streaming;
+
+		@Nullable
+		private final Class<?> serializationView;
+
+		@Nullable
+		private final FilterProvider filters;
+
+		@Nullable
+		private final MediaType contentType;
+
+		public ObjectWriterKey(@Nullable Type type, boolean streaming, @Nullable Class<?> serializationView,
+				@Nullable FilterProvider filters, @Nullable MediaType contentType) {
+
+			this.type = type;
+			this.streaming = streaming;
+			this.serializationView = serializationView;
+			this.filters = filters;
+			this.contentType = contentType;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ObjectWriterKey)) {
+				return false;
+			}
+			ObjectWriterKey otherKey = (ObjectWriterKey) other;
+			return (ObjectUtils.nullSafeEquals(this.type, otherKey.type) && this.streaming == otherKey.streaming &&
+					ObjectUtils.nullSafeEquals(this.serializationView, otherKey.serializationView) &&
+					ObjectUtils.nullSafeEquals(this.filters, otherKey.filters) &&
+					ObjectUtils.nullSafeEquals(this.contentType, otherKey.contentType));
+		}
+
+		@Override
+		public int hashCode() {
+			int result = ObjectUtils.nullSafeHashCode(this.type);
+			result = 29 * result + (this.streaming ? 1 : 0);
+			result = 29 * result + ObjectUtils.nullSafeHashCode(this.serializationView);
+			result = 29 * result + ObjectUtils.nullSafeHashCode(this.filters);
+			result = 29 * result + ObjectUtils.nullSafeHashCode(this.contentType);
+			return result;
+		}
+	}
+
 }
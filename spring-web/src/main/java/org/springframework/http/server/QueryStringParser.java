@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.function.BiConsumer;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Hand-written parser for the query string of a URI, splitting it into
+ * name-value pairs without regular expressions and without decoding
+ * values that contain no escaped characters.
+ *
+ * <p>Follows the same rules as the pattern {@code ([^&=]+)(=?)([^&]+)?}
+ * used previously: pairs are separated by {@code '&'}, empty names are
+ * skipped, a name without {@code '='} has a {@code null} value, and a name
+ * followed by {@code '='} and nothing else has an empty value.
+ *
+ * @since 5.0.16
+ */
+public abstract class QueryStringParser {
+
+	/**
+	 * Parse the given raw query into name-value pairs, passing each pair to
+	 * the given consumer as is, without decoding.
+	 * @param query the raw query string, without the leading {@code '?'}
+	 * @param consumer receives each name and its possibly {@code null} value
+	 */
+	public static void parse(String query, BiConsumer<String, String> consumer) {
+		int length = query.length();
+		int start = 0;
+		while (start < length) {
+			int end = query.indexOf('&', start);
+			if (end == -1) {
+				end = length;
+			}
+			int nameStart = start;
+			while (nameStart < end && query.charAt(nameStart) == '=') {
+				nameStart++;
+			}
+			if (nameStart < end) {
+				int eq = query.indexOf('=', nameStart);
+				if (eq == -1 || eq >= end) {
+					consumer.accept(query.substring(nameStart, end), null);
+				}
+				else {
+					consumer.accept(query.substring(nameStart, eq), query.substring(eq + 1, end));
+				}
+			}
+			start = end + 1;
+		}
+	}
+
+	/**
+	 * Parse the given raw query into a map of decoded names and values.
+	 * @param query the raw query string, possibly {@code null}
+	 * @return a mutable map with the query parameters in order of appearance
+	 */
+	public static MultiValueMap<String, String> parse(@Nullable String query) {
+		MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>();
+		if (query != null) {
+			parse(query, (name, value) -> queryParams.add(decode(name), (value != null ? decode(value) : null)));
+		}
+		return queryParams;
+	}
+
+	/**
+	 * Decode the given query parameter name or value as
+	 * {@code application/x-www-form-urlencoded} with UTF-8, returning it as
+	 * is if it contains no escaped characters.
+	 * @param value the raw name or value
+	 * @return the decoded name or value
+	 */
+	public static String decode(String value) {
+		if (value.indexOf('%') == -1 && value.indexOf('+') == -1) {
+			return value;
+		}
+		try {
+			return URLDecoder.decode(value, "UTF-8");
+		}
+		catch (UnsupportedEncodingException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+}
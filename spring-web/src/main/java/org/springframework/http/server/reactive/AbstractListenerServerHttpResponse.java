@@ -24,6 +24,7 @@ import reactor.core.publisher.Mono;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
 
 /**
  * Abstract base class for listener-based server responses, e.g. Servlet 3.1
@@ -41,6 +42,15 @@ public abstract class AbstractListenerServerHttpResponse extends AbstractServerH
 		super(dataBufferFactory);
 	}
 
+	/**
+	 * Constructor with the headers to write to.
+	 * @since 5.0.16
+	 * @see AbstractServerHttpResponse#AbstractServerHttpResponse(DataBufferFactory, HttpHeaders)
+	 */
+	public AbstractListenerServerHttpResponse(DataBufferFactory dataBufferFactory, HttpHeaders headers) {
+		super(dataBufferFactory, headers);
+	}
+
 
 	@Override
 	protected final Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
@@ -16,23 +16,15 @@
 
 package org.springframework.http.server.reactive;
 
-import java.io.UnsupportedEncodingException;
 import java.net.URI;
-import java.net.URLDecoder;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
 
 import org.springframework.http.HttpCookie;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.QueryStringParser;
 import org.springframework.http.server.RequestPath;
 import org.springframework.lang.Nullable;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
-import org.springframework.util.StringUtils;
 
 /**
  * Common base class for {@link ServerHttpRequest} implementations.
@@ -42,11 +34,6 @@ import org.springframework.util.StringUtils;
  */
 public abstract class AbstractServerHttpRequest implements ServerHttpRequest {
 
-	private static final Log logger = LogFactory.getLog(ServerHttpRequest.class);
-
-	private static final Pattern QUERY_PATTERN = Pattern.compile("([^&=]+)(=?)([^&]+)?");
-
-
 	private final URI uri;
 
 	private final RequestPath path;
@@ -72,7 +59,7 @@ public abstract class AbstractServerHttpRequest implements ServerHttpRequest {
 	public AbstractServerHttpRequest(URI uri, @Nullable String contextPath, HttpHeaders headers) {
 		this.uri = uri;
 		this.path = RequestPath.parse(uri, contextPath);
-		this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+		this.headers = HttpHeaders.readOnlyHttpHeadersView(headers);
 	}
 
 
@@ -107,33 +94,7 @@ public abstract class AbstractServerHttpRequest implements ServerHttpRequest {
 	 * parsing is thread-safe nevertheless.
 	 */
 	protected MultiValueMap<String, String> initQueryParams() {
-		MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>();
-		String query = getURI().getRawQuery();
-		if (query != null) {
-			Matcher matcher = QUERY_PATTERN.matcher(query);
-			while (matcher.find()) {
-				String name = decodeQueryParam(matcher.group(1));
-				String eq = matcher.group(2);
-				String value = matcher.group(3);
-				value = (value != null ? decodeQueryParam(value) : (StringUtils.hasLength(eq) ? "" : null));
-				queryParams.add(name, value);
-			}
-		}
-		return queryParams;
-	}
-
-	@SuppressWarnings("deprecation")
-	private String decodeQueryParam(String value) {
-		try {
-			return URLDecoder.decode(value, "UTF-8");
-		}
-		catch (UnsupportedEncodingException ex) {
-			if (logger.isWarnEnabled()) {
-				logger.warn("Could not decode query param [" + value + "] as 'UTF-8'. " +
-						"Falling back on default encoding; exception message: " + ex.getMessage());
-			}
-			return URLDecoder.decode(value);
-		}
+		return QueryStringParser.parse(getURI().getRawQuery());
 	}
 
 	@Override
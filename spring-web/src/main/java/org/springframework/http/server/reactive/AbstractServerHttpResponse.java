@@ -17,7 +17,11 @@
 package org.springframework.http.server.reactive;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -57,6 +61,13 @@ public abstract class AbstractServerHttpResponse implements ServerHttpResponse {
 	 */
 	private enum State {NEW, COMMITTING, COMMITTED}
 
+	/**
+	 * Connection-specific headers which must not be sent on an HTTP/2 stream,
+	 * see RFC 7540, section 8.1.2.2.
+	 */
+	private static final Set<String> HTTP2_EXCLUDED_HEADERS = new HashSet<>(Arrays.asList(
+			"connection", "keep-alive", "proxy-connection", "transfer-encoding", "upgrade"));
+
 
 	private final Log logger = LogFactory.getLog(getClass());
 
@@ -75,9 +86,21 @@ public abstract class AbstractServerHttpResponse implements ServerHttpResponse {
 
 
 	public AbstractServerHttpResponse(DataBufferFactory dataBufferFactory) {
+		this(dataBufferFactory, new HttpHeaders());
+	}
+
+	/**
+	 * Constructor with the headers to write to, e.g. an adapter around the
+	 * native response headers of the underlying server.
+	 * @param dataBufferFactory the buffer factory for the response body
+	 * @param headers the headers for the response
+	 * @since 5.0.16
+	 */
+	public AbstractServerHttpResponse(DataBufferFactory dataBufferFactory, HttpHeaders headers) {
 		Assert.notNull(dataBufferFactory, "DataBufferFactory must not be null");
+		Assert.notNull(headers, "HttpHeaders must not be null");
 		this.dataBufferFactory = dataBufferFactory;
-		this.headers = new HttpHeaders();
+		this.headers = headers;
 		this.cookies = new LinkedMultiValueMap<>();
 	}
 
@@ -130,7 +153,7 @@ public abstract class AbstractServerHttpResponse implements ServerHttpResponse {
 	@Override
 	public HttpHeaders getHeaders() {
 		return (this.state.get() == State.COMMITTED ?
-				HttpHeaders.readOnlyHttpHeaders(this.headers) : this.headers);
+				HttpHeaders.readOnlyHttpHeadersView(this.headers) : this.headers);
 	}
 
 	@Override
@@ -258,4 +281,24 @@ public abstract class AbstractServerHttpResponse implements ServerHttpResponse {
 	 */
 	protected abstract void applyCookies();
 
+
+	/**
+	 * Whether the given header must be left out of an HTTP/2 response since
+	 * it is specific to an HTTP/1.1 connection, e.g. "Transfer-Encoding".
+	 * @since 5.0.16
+	 */
+	static boolean isHttp2ExcludedHeader(String headerName) {
+		return HTTP2_EXCLUDED_HEADERS.contains(headerName.toLowerCase(Locale.ENGLISH));
+	}
+
+	/**
+	 * Remove the headers specific to an HTTP/1.1 connection from the given
+	 * headers, for responses that write to the native headers directly.
+	 * @since 5.0.16
+	 * @see #isHttp2ExcludedHeader(String)
+	 */
+	static void removeHttp2ExcludedHeaders(HttpHeaders headers) {
+		HTTP2_EXCLUDED_HEADERS.forEach(headers::remove);
+	}
+
 }
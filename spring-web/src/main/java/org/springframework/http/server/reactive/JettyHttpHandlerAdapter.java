@@ -17,19 +17,26 @@
 package org.springframework.http.server.reactive;
 
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
 import javax.servlet.AsyncContext;
 import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.eclipse.jetty.server.HttpOutput;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.Assert;
 
 /**
  * {@link ServletHttpHandlerAdapter} extension that uses Jetty APIs for writing
- * to the response with {@link ByteBuffer}.
+ * to the response with {@link ByteBuffer}, and exposes the native request and
+ * response headers without copying them.
  *
  * @author Violeta Georgieva
  * @since 5.0
@@ -42,10 +49,28 @@ public class JettyHttpHandlerAdapter extends ServletHttpHandlerAdapter {
 	}
 
 
+	@Override
+	protected ServerHttpRequest createRequest(HttpServletRequest request, AsyncContext context)
+			throws IOException, URISyntaxException {
+
+		if (request instanceof Request) {
+			String servletPath = getServletPath();
+			Assert.notNull(servletPath, "Servlet path is not initialized");
+			HttpHeaders headers = new HttpHeaders(new JettyHeadersAdapter(((Request) request).getHttpFields()));
+			return new ServletServerHttpRequest(headers, request, context, servletPath,
+					getDataBufferFactory(), getBufferSize());
+		}
+		return super.createRequest(request, context);
+	}
+
 	@Override
 	protected ServerHttpResponse createResponse(HttpServletResponse response,
 			AsyncContext context) throws IOException {
 
+		if (response instanceof Response) {
+			HttpHeaders headers = new HttpHeaders(new JettyHeadersAdapter(((Response) response).getHttpFields()));
+			return new JettyServerHttpResponse(headers, response, context, getDataBufferFactory(), getBufferSize());
+		}
 		return new JettyServerHttpResponse(response, context, getDataBufferFactory(), getBufferSize());
 	}
 
@@ -58,6 +83,12 @@ public class JettyHttpHandlerAdapter extends ServletHttpHandlerAdapter {
 			super(response, context, factory, bufferSize);
 		}
 
+		public JettyServerHttpResponse(HttpHeaders headers, HttpServletResponse response, AsyncContext context,
+				DataBufferFactory factory, int bufferSize) throws IOException {
+
+			super(headers, response, context, factory, bufferSize);
+		}
+
 		@Override
 		protected int writeToOutputStream(DataBuffer dataBuffer) throws IOException {
 			ByteBuffer input = dataBuffer.asByteBuffer();
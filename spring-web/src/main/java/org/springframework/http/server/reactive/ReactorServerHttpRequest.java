@@ -62,9 +62,39 @@ class ReactorServerHttpRequest extends AbstractServerHttpRequest {
 
 	private static URI initUri(HttpServerRequest request) throws URISyntaxException {
 		Assert.notNull(request, "HttpServerRequest must not be null");
+		String host = request.requestHeaders().get(HttpHeaderNames.HOST);
+		if (host != null && isSimpleHost(host)) {
+			// Common case: parse the full URI string once
+			return new URI(getScheme(request) + "://" + host + resolveRequestUri(request));
+		}
 		return new URI(resolveBaseUrl(request).toString() + resolveRequestUri(request));
 	}
 
+	/**
+	 * Whether the given Host header value is a host name or IPv4 address,
+	 * optionally followed by a numeric port, that needs no further checks.
+	 */
+	private static boolean isSimpleHost(String host) {
+		int portIndex = host.indexOf(':');
+		int hostEnd = (portIndex != -1 ? portIndex : host.length());
+		if (hostEnd == 0 || hostEnd == host.length() - 1) {
+			return false;
+		}
+		for (int i = 0; i < host.length(); i++) {
+			char c = host.charAt(i);
+			boolean digit = (c >= '0' && c <= '9');
+			if (i < hostEnd) {
+				if (!digit && !(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && c != '.' && c != '-') {
+					return false;
+				}
+			}
+			else if (i > hostEnd && !digit) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private static URI resolveBaseUrl(HttpServerRequest request) throws URISyntaxException {
 		String scheme = getScheme(request);
 		String header = request.requestHeaders().get(HttpHeaderNames.HOST);
@@ -125,11 +155,7 @@ class ReactorServerHttpRequest extends AbstractServerHttpRequest {
 	}
 
 	private static HttpHeaders initHeaders(HttpServerRequest channel) {
-		HttpHeaders headers = new HttpHeaders();
-		for (String name : channel.requestHeaders().names()) {
-			headers.put(name, channel.requestHeaders().getAll(name));
-		}
-		return headers;
+		return new HttpHeaders(new NettyHeadersAdapter(channel.requestHeaders()));
 	}
 
 
@@ -78,7 +78,20 @@ class ServletServerHttpRequest extends AbstractServerHttpRequest {
 			String servletPath, DataBufferFactory bufferFactory, int bufferSize)
 			throws IOException, URISyntaxException {
 
-		super(initUri(request), request.getContextPath() + servletPath, initHeaders(request));
+		this(initHeaders(request), request, asyncContext, servletPath, bufferFactory, bufferSize);
+	}
+
+	/**
+	 * Constructor with the headers for the request, e.g. an adapter around
+	 * the native request headers of the Servlet container, instead of a copy
+	 * obtained through the Servlet API.
+	 * @since 5.0.16
+	 */
+	public ServletServerHttpRequest(HttpHeaders headers, HttpServletRequest request,
+			AsyncContext asyncContext, String servletPath, DataBufferFactory bufferFactory, int bufferSize)
+			throws IOException, URISyntaxException {
+
+		super(initUri(request), request.getContextPath() + servletPath, headers);
 
 		Assert.notNull(bufferFactory, "'bufferFactory' must not be null");
 		Assert.isTrue(bufferSize > 0, "'bufferSize' must be higher than 0");
@@ -105,7 +118,8 @@ class ServletServerHttpRequest extends AbstractServerHttpRequest {
 		return new URI(url.toString());
 	}
 
-	private static HttpHeaders initHeaders(HttpServletRequest request) {
+	static HttpHeaders initHeaders(HttpServletRequest request) {
+		Assert.notNull(request, "'request' must not be null");
 		HttpHeaders headers = new HttpHeaders();
 		for (Enumeration<?> names = request.getHeaderNames();
 			 names.hasMoreElements(); ) {
@@ -33,6 +33,7 @@ import org.reactivestreams.Publisher;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseCookie;
 import org.springframework.lang.Nullable;
@@ -60,19 +61,44 @@ class ServletServerHttpResponse extends AbstractListenerServerHttpResponse {
 
 	private volatile boolean flushOnNext;
 
+	private final boolean http2;
+
+	private final boolean nativeHeaders;
+
 
 	public ServletServerHttpResponse(HttpServletResponse response, AsyncContext asyncContext,
 			DataBufferFactory bufferFactory, int bufferSize) throws IOException {
 
-		super(bufferFactory);
+		this(new HttpHeaders(), false, response, asyncContext, bufferFactory, bufferSize);
+	}
+
+	/**
+	 * Constructor with the headers of the Servlet container response, e.g.
+	 * an adapter around its native response headers. Header changes are
+	 * written through directly, and only {@code Content-Type} and
+	 * {@code Content-Length} are applied via the Servlet API on commit.
+	 * @since 5.0.16
+	 */
+	public ServletServerHttpResponse(HttpHeaders headers, HttpServletResponse response,
+			AsyncContext asyncContext, DataBufferFactory bufferFactory, int bufferSize) throws IOException {
+
+		this(headers, true, response, asyncContext, bufferFactory, bufferSize);
+	}
+
+	private ServletServerHttpResponse(HttpHeaders headers, boolean nativeHeaders, HttpServletResponse response,
+			AsyncContext asyncContext, DataBufferFactory bufferFactory, int bufferSize) throws IOException {
+
+		super(bufferFactory, headers);
 
 		Assert.notNull(response, "HttpServletResponse must not be null");
 		Assert.notNull(bufferFactory, "DataBufferFactory must not be null");
 		Assert.isTrue(bufferSize > 0, "Buffer size must be greater than 0");
 
 		this.response = response;
+		this.nativeHeaders = nativeHeaders;
 		this.outputStream = response.getOutputStream();
 		this.bufferSize = bufferSize;
+		this.http2 = "HTTP/2.0".equals(asyncContext.getRequest().getProtocol());
 
 		asyncContext.addListener(new ResponseAsyncListener());
 
@@ -97,11 +123,21 @@ class ServletServerHttpResponse extends AbstractListenerServerHttpResponse {
 
 	@Override
 	protected void applyHeaders() {
-		getHeaders().forEach((headerName, headerValues) -> {
-			for (String headerValue : headerValues) {
-				this.response.addHeader(headerName, headerValue);
+		if (this.nativeHeaders) {
+			if (this.http2) {
+				removeHttp2ExcludedHeaders(getHeaders());
 			}
-		});
+		}
+		else {
+			getHeaders().forEach((headerName, headerValues) -> {
+				if (this.http2 && isHttp2ExcludedHeader(headerName)) {
+					return;
+				}
+				for (String headerValue : headerValues) {
+					this.response.addHeader(headerName, headerValue);
+				}
+			});
+		}
 		MediaType contentType = getHeaders().getContentType();
 		if (this.response.getContentType() == null && contentType != null) {
 			this.response.setContentType(contentType.toString());
@@ -110,6 +146,13 @@ class ServletServerHttpResponse extends AbstractListenerServerHttpResponse {
 		if (this.response.getCharacterEncoding() == null && charset != null) {
 			this.response.setCharacterEncoding(charset.name());
 		}
+		if (this.nativeHeaders) {
+			// Let the container know, rather than only seeing a raw header
+			long contentLength = getHeaders().getContentLength();
+			if (contentLength != -1) {
+				this.response.setContentLengthLong(contentLength);
+			}
+		}
 	}
 
 	@Override
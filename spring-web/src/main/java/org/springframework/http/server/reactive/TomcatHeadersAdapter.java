@@ -0,0 +1,302 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server.reactive;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.tomcat.util.http.MimeHeaders;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * {@code MultiValueMap} implementation for wrapping Tomcat HTTP headers,
+ * so that they can be exposed as Spring {@code HttpHeaders} without copying.
+ *
+ * @since 5.0.16
+ */
+class TomcatHeadersAdapter implements MultiValueMap<String, String> {
+
+	private final MimeHeaders headers;
+
+
+	TomcatHeadersAdapter(MimeHeaders headers) {
+		this.headers = headers;
+	}
+
+
+	@Override
+	@Nullable
+	public String getFirst(String key) {
+		return this.headers.getHeader(key);
+	}
+
+	@Override
+	public void add(String key, @Nullable String value) {
+		if (value != null) {
+			this.headers.addValue(key).setString(value);
+		}
+	}
+
+	@Override
+	public void addAll(String key, List<? extends String> values) {
+		values.forEach(value -> add(key, value));
+	}
+
+	@Override
+	public void addAll(MultiValueMap<String, String> values) {
+		values.forEach(this::addAll);
+	}
+
+	@Override
+	public void set(String key, @Nullable String value) {
+		if (value != null) {
+			this.headers.setValue(key).setString(value);
+		}
+		else {
+			this.headers.removeHeader(key);
+		}
+	}
+
+	@Override
+	public void setAll(Map<String, String> values) {
+		values.forEach(this::set);
+	}
+
+	@Override
+	public Map<String, String> toSingleValueMap() {
+		Map<String, String> singleValueMap = new LinkedHashMap<>(this.headers.size());
+		for (String name : keySet()) {
+			singleValueMap.put(name, getFirst(name));
+		}
+		return singleValueMap;
+	}
+
+	@Override
+	public int size() {
+		return getHeaderNames().size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (this.headers.size() == 0);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return (key instanceof String && this.headers.findHeader((String) key, 0) != -1);
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		if (value instanceof String) {
+			for (int i = 0; i < this.headers.size(); i++) {
+				if (value.equals(this.headers.getValue(i).toString())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	@Nullable
+	public List<String> get(Object key) {
+		return (containsKey(key) ? Collections.list(this.headers.values((String) key)) : null);
+	}
+
+	@Override
+	@Nullable
+	public List<String> put(String key, @Nullable List<String> value) {
+		List<String> previousValues = get(key);
+		this.headers.removeHeader(key);
+		if (value != null) {
+			value.forEach(v -> add(key, v));
+		}
+		return previousValues;
+	}
+
+	@Override
+	@Nullable
+	public List<String> remove(Object key) {
+		List<String> previousValues = get(key);
+		if (previousValues != null) {
+			this.headers.removeHeader((String) key);
+		}
+		return previousValues;
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends List<String>> map) {
+		map.forEach(this::put);
+	}
+
+	@Override
+	public void clear() {
+		this.headers.clear();
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return new HeaderNames();
+	}
+
+	@Override
+	public Collection<List<String>> values() {
+		return keySet().stream().map(this::get).collect(Collectors.toList());
+	}
+
+	@Override
+	public Set<Entry<String, List<String>>> entrySet() {
+		return new AbstractSet<Entry<String, List<String>>>() {
+			@Override
+			public Iterator<Entry<String, List<String>>> iterator() {
+				Iterator<String> names = new HeaderNames().iterator();
+				return new Iterator<Entry<String, List<String>>>() {
+					@Override
+					public boolean hasNext() {
+						return names.hasNext();
+					}
+					@Override
+					public Entry<String, List<String>> next() {
+						return new HeaderEntry(names.next());
+					}
+					@Override
+					public void remove() {
+						names.remove();
+					}
+				};
+			}
+			@Override
+			public int size() {
+				return TomcatHeadersAdapter.this.size();
+			}
+		};
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return (this == other || (other instanceof Map && entrySet().equals(((Map<?, ?>) other).entrySet())));
+	}
+
+	@Override
+	public int hashCode() {
+		return entrySet().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return this.headers.toString();
+	}
+
+	private Set<String> getHeaderNames() {
+		Set<String> names = new LinkedHashSet<>(this.headers.size());
+		Enumeration<String> enumeration = this.headers.names();
+		while (enumeration.hasMoreElements()) {
+			names.add(enumeration.nextElement());
+		}
+		return names;
+	}
+
+
+	private class HeaderNames extends AbstractSet<String> {
+
+		@Override
+		public Iterator<String> iterator() {
+			Iterator<String> names = getHeaderNames().iterator();
+			return new Iterator<String>() {
+				@Nullable
+				private String currentName;
+				@Override
+				public boolean hasNext() {
+					return names.hasNext();
+				}
+				@Override
+				public String next() {
+					this.currentName = names.next();
+					return this.currentName;
+				}
+				@Override
+				public void remove() {
+					if (this.currentName == null) {
+						throw new IllegalStateException("No current header name");
+					}
+					headers.removeHeader(this.currentName);
+					this.currentName = null;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return getHeaderNames().size();
+		}
+	}
+
+
+	private class HeaderEntry implements Entry<String, List<String>> {
+
+		private final String key;
+
+		HeaderEntry(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public String getKey() {
+			return this.key;
+		}
+
+		@Override
+		public List<String> getValue() {
+			return Collections.list(headers.values(this.key));
+		}
+
+		@Override
+		public List<String> setValue(List<String> value) {
+			List<String> previousValues = getValue();
+			headers.removeHeader(this.key);
+			value.forEach(v -> add(this.key, v));
+			return previousValues;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Entry)) {
+				return false;
+			}
+			Entry<?, ?> otherEntry = (Entry<?, ?>) other;
+			return (this.key.equals(otherEntry.getKey()) && getValue().equals(otherEntry.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.key.hashCode() ^ getValue().hashCode();
+		}
+	}
+
+}
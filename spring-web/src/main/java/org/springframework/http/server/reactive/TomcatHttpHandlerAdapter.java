@@ -17,6 +17,7 @@
 package org.springframework.http.server.reactive;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
 import javax.servlet.AsyncContext;
@@ -27,15 +28,23 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.apache.catalina.connector.CoyoteInputStream;
 import org.apache.catalina.connector.CoyoteOutputStream;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.RequestFacade;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.connector.ResponseFacade;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * {@link ServletHttpHandlerAdapter} extension that uses Tomcat APIs for reading
- * from the request and writing to the response with {@link ByteBuffer}.
+ * from the request and writing to the response with {@link ByteBuffer}, and
+ * exposes the native request and response headers without copying them.
  *
  * @author Violeta Georgieva
  * @since 5.0
@@ -43,6 +52,13 @@ import org.springframework.util.Assert;
  */
 public class TomcatHttpHandlerAdapter extends ServletHttpHandlerAdapter {
 
+	// Access to the native headers of unwrapped requests and responses, if possible
+	@Nullable
+	private static final Field REQUEST_FIELD = getFacadeField(RequestFacade.class, "request");
+
+	@Nullable
+	private static final Field RESPONSE_FIELD = getFacadeField(ResponseFacade.class, "response");
+
 
 	public TomcatHttpHandlerAdapter(HttpHandler httpHandler) {
 		super(httpHandler);
@@ -62,7 +78,48 @@ public class TomcatHttpHandlerAdapter extends ServletHttpHandlerAdapter {
 	protected ServerHttpResponse createResponse(HttpServletResponse response, AsyncContext cxt)
 			throws IOException {
 
-		return new TomcatServerHttpResponse(response, cxt, getDataBufferFactory(), getBufferSize());
+		HttpHeaders headers = createResponseHeaders(response);
+		return (headers != null ?
+				new TomcatServerHttpResponse(headers, response, cxt, getDataBufferFactory(), getBufferSize()) :
+				new TomcatServerHttpResponse(response, cxt, getDataBufferFactory(), getBufferSize()));
+	}
+
+	/**
+	 * Wrap the native headers of the given request, unless it is not the
+	 * Tomcat request facade itself, in which case they are copied.
+	 */
+	private static HttpHeaders createRequestHeaders(HttpServletRequest request) {
+		if (REQUEST_FIELD != null && request instanceof RequestFacade) {
+			Request connectorRequest = (Request) ReflectionUtils.getField(REQUEST_FIELD, request);
+			if (connectorRequest != null) {
+				return new HttpHeaders(new TomcatHeadersAdapter(connectorRequest.getCoyoteRequest().getMimeHeaders()));
+			}
+		}
+		return ServletServerHttpRequest.initHeaders(request);
+	}
+
+	/**
+	 * Wrap the native headers of the given response, or return {@code null}
+	 * if it is not the Tomcat response facade itself.
+	 */
+	@Nullable
+	private static HttpHeaders createResponseHeaders(HttpServletResponse response) {
+		if (RESPONSE_FIELD != null && response instanceof ResponseFacade) {
+			Response connectorResponse = (Response) ReflectionUtils.getField(RESPONSE_FIELD, response);
+			if (connectorResponse != null) {
+				return new HttpHeaders(new TomcatHeadersAdapter(connectorResponse.getCoyoteResponse().getMimeHeaders()));
+			}
+		}
+		return null;
+	}
+
+	@Nullable
+	private static Field getFacadeField(Class<?> facadeType, String name) {
+		Field field = ReflectionUtils.findField(facadeType, name);
+		if (field != null) {
+			ReflectionUtils.makeAccessible(field);
+		}
+		return field;
 	}
 
 
@@ -72,7 +129,7 @@ public class TomcatHttpHandlerAdapter extends ServletHttpHandlerAdapter {
 				String servletPath, DataBufferFactory factory, int bufferSize)
 				throws IOException, URISyntaxException {
 
-			super(request, context, servletPath, factory, bufferSize);
+			super(createRequestHeaders(request), request, context, servletPath, factory, bufferSize);
 		}
 
 		@Override
@@ -118,6 +175,12 @@ public class TomcatHttpHandlerAdapter extends ServletHttpHandlerAdapter {
 			super(response, context, factory, bufferSize);
 		}
 
+		public TomcatServerHttpResponse(HttpHeaders headers, HttpServletResponse response, AsyncContext context,
+				DataBufferFactory factory, int bufferSize) throws IOException {
+
+			super(headers, response, context, factory, bufferSize);
+		}
+
 		@Override
 		protected int writeToOutputStream(DataBuffer dataBuffer) throws IOException {
 			ByteBuffer input = dataBuffer.asByteBuffer();
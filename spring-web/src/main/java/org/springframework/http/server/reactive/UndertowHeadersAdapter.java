@@ -0,0 +1,294 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server.reactive;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.undertow.util.HeaderMap;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.HttpString;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * {@code MultiValueMap} implementation for wrapping Undertow HTTP headers,
+ * so that they can be exposed as Spring {@code HttpHeaders} without copying.
+ *
+ * @since 5.0.16
+ */
+class UndertowHeadersAdapter implements MultiValueMap<String, String> {
+
+	private final HeaderMap headers;
+
+
+	UndertowHeadersAdapter(HeaderMap headers) {
+		this.headers = headers;
+	}
+
+
+	@Override
+	@Nullable
+	public String getFirst(String key) {
+		return this.headers.getFirst(key);
+	}
+
+	@Override
+	public void add(String key, @Nullable String value) {
+		if (value != null) {
+			this.headers.add(HttpString.tryFromString(key), value);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void addAll(String key, List<? extends String> values) {
+		this.headers.addAll(HttpString.tryFromString(key), (List<String>) values);
+	}
+
+	@Override
+	public void addAll(MultiValueMap<String, String> values) {
+		values.forEach(this::addAll);
+	}
+
+	@Override
+	public void set(String key, @Nullable String value) {
+		if (value != null) {
+			this.headers.put(HttpString.tryFromString(key), value);
+		}
+		else {
+			this.headers.remove(key);
+		}
+	}
+
+	@Override
+	public void setAll(Map<String, String> values) {
+		values.forEach(this::set);
+	}
+
+	@Override
+	public Map<String, String> toSingleValueMap() {
+		Map<String, String> singleValueMap = new LinkedHashMap<>(this.headers.size());
+		for (HeaderValues values : this.headers) {
+			singleValueMap.put(values.getHeaderName().toString(), values.getFirst());
+		}
+		return singleValueMap;
+	}
+
+	@Override
+	public int size() {
+		return this.headers.getHeaderNames().size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (this.headers.size() == 0);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return (key instanceof String && this.headers.contains((String) key));
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		if (value instanceof String) {
+			for (HeaderValues values : this.headers) {
+				if (values.contains(value)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	@Nullable
+	public List<String> get(Object key) {
+		return (key instanceof String ? this.headers.get((String) key) : null);
+	}
+
+	@Override
+	@Nullable
+	public List<String> put(String key, @Nullable List<String> value) {
+		List<String> previousValues = remove(key);
+		if (value != null) {
+			this.headers.putAll(HttpString.tryFromString(key), value);
+		}
+		return previousValues;
+	}
+
+	@Override
+	@Nullable
+	public List<String> remove(Object key) {
+		if (containsKey(key)) {
+			Collection<String> previousValues = this.headers.remove((String) key);
+			return new ArrayList<>(previousValues);
+		}
+		return null;
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends List<String>> map) {
+		map.forEach(this::put);
+	}
+
+	@Override
+	public void clear() {
+		this.headers.clear();
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return new HeaderNames();
+	}
+
+	@Override
+	public Collection<List<String>> values() {
+		List<List<String>> values = new ArrayList<>(size());
+		this.headers.forEach(values::add);
+		return values;
+	}
+
+	@Override
+	public Set<Entry<String, List<String>>> entrySet() {
+		return new AbstractSet<Entry<String, List<String>>>() {
+			@Override
+			public Iterator<Entry<String, List<String>>> iterator() {
+				Iterator<String> names = new HeaderNames().iterator();
+				return new Iterator<Entry<String, List<String>>>() {
+					@Override
+					public boolean hasNext() {
+						return names.hasNext();
+					}
+					@Override
+					public Entry<String, List<String>> next() {
+						return new HeaderEntry(names.next());
+					}
+					@Override
+					public void remove() {
+						names.remove();
+					}
+				};
+			}
+			@Override
+			public int size() {
+				return UndertowHeadersAdapter.this.size();
+			}
+		};
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return (this == other || (other instanceof Map && entrySet().equals(((Map<?, ?>) other).entrySet())));
+	}
+
+	@Override
+	public int hashCode() {
+		return entrySet().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return this.headers.toString();
+	}
+
+
+	private class HeaderNames extends AbstractSet<String> {
+
+		@Override
+		public Iterator<String> iterator() {
+			Iterator<HttpString> names = new ArrayList<>(headers.getHeaderNames()).iterator();
+			return new Iterator<String>() {
+				@Nullable
+				private HttpString currentName;
+				@Override
+				public boolean hasNext() {
+					return names.hasNext();
+				}
+				@Override
+				public String next() {
+					this.currentName = names.next();
+					return this.currentName.toString();
+				}
+				@Override
+				public void remove() {
+					if (this.currentName == null) {
+						throw new IllegalStateException("No current header name");
+					}
+					headers.remove(this.currentName);
+					this.currentName = null;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return headers.getHeaderNames().size();
+		}
+	}
+
+
+	private class HeaderEntry implements Entry<String, List<String>> {
+
+		private final String key;
+
+		HeaderEntry(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public String getKey() {
+			return this.key;
+		}
+
+		@Override
+		public List<String> getValue() {
+			HeaderValues values = headers.get(this.key);
+			return (values != null ? new ArrayList<>(values) : new ArrayList<>());
+		}
+
+		@Override
+		public List<String> setValue(List<String> value) {
+			List<String> previousValues = getValue();
+			headers.putAll(HttpString.tryFromString(this.key), value);
+			return previousValues;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Entry)) {
+				return false;
+			}
+			Entry<?, ?> otherEntry = (Entry<?, ?>) other;
+			return (this.key.equals(otherEntry.getKey()) && getValue().equals(otherEntry.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.key.hashCode() ^ getValue().hashCode();
+		}
+	}
+
+}
@@ -25,7 +25,7 @@ import java.nio.file.StandardOpenOption;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.server.handlers.Cookie;
 import io.undertow.server.handlers.CookieImpl;
-import io.undertow.util.HttpString;
+import io.undertow.util.Protocols;
 import org.reactivestreams.Processor;
 import org.reactivestreams.Publisher;
 import org.xnio.channels.Channels;
@@ -35,6 +35,7 @@ import reactor.core.publisher.Mono;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ZeroCopyHttpOutputMessage;
 import org.springframework.lang.Nullable;
@@ -57,12 +58,17 @@ class UndertowServerHttpResponse extends AbstractListenerServerHttpResponse impl
 
 
 	public UndertowServerHttpResponse(HttpServerExchange exchange, DataBufferFactory bufferFactory) {
-		super(bufferFactory);
-		Assert.notNull(exchange, "HttpServerExchange must not be null");
+		super(bufferFactory, createHeaders(exchange));
 		this.exchange = exchange;
 	}
 
 
+	private static HttpHeaders createHeaders(HttpServerExchange exchange) {
+		Assert.notNull(exchange, "HttpServerExchange must not be null");
+		return new HttpHeaders(new UndertowHeadersAdapter(exchange.getResponseHeaders()));
+	}
+
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T> T getNativeResponse() {
@@ -80,8 +86,10 @@ class UndertowServerHttpResponse extends AbstractListenerServerHttpResponse impl
 
 	@Override
 	protected void applyHeaders() {
-		getHeaders().forEach((headerName, headerValues) ->
-				this.exchange.getResponseHeaders().addAll(HttpString.tryFromString(headerName), headerValues));
+		// Headers were written to the Undertow response directly
+		if (Protocols.HTTP_2_0.equals(this.exchange.getProtocol())) {
+			removeHttp2ExcludedHeaders(getHeaders());
+		}
 	}
 
 	@Override
@@ -0,0 +1,481 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.util.ResponseCompressor;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * {@link javax.servlet.Filter} that compresses response content with the
+ * {@code gzip} or {@code deflate} content coding, as negotiated through the
+ * {@code Accept-Encoding} request header.
+ *
+ * <p>Content is compressed incrementally as it is written, once it exceeds the
+ * {@link #setMinResponseSize minimum response size}; smaller responses are sent
+ * as is. Only {@link #setCompressibleMediaTypes compressible media types} are
+ * compressed, and responses that already have a {@code Content-Encoding} are
+ * left alone. Flushing the response flushes the compressed output as well, so
+ * streaming responses keep working.
+ *
+ * @since 5.0.16
+ * @see org.springframework.web.filter.reactive.CompressionWebFilter
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+
+	private ResponseCompressor responseCompressor = new ResponseCompressor();
+
+
+	/**
+	 * Set the {@link ResponseCompressor} to use, e.g. in order to share
+	 * the {@code Deflater} pool with other filters.
+	 */
+	public void setResponseCompressor(ResponseCompressor responseCompressor) {
+		Assert.notNull(responseCompressor, "ResponseCompressor must not be null");
+		this.responseCompressor = responseCompressor;
+	}
+
+	/**
+	 * Return the configured {@link ResponseCompressor}.
+	 */
+	public ResponseCompressor getResponseCompressor() {
+		return this.responseCompressor;
+	}
+
+	/**
+	 * Set the media types of response content to compress.
+	 * @see ResponseCompressor#setCompressibleMediaTypes
+	 */
+	public void setCompressibleMediaTypes(List<MediaType> compressibleMediaTypes) {
+		this.responseCompressor.setCompressibleMediaTypes(compressibleMediaTypes);
+	}
+
+	/**
+	 * Set the minimum number of bytes a response must have to be compressed.
+	 * <p>Should be configured using an {@code <init-param>} for parameter name
+	 * "minResponseSize" in the filter definition in {@code web.xml}.
+	 * @see ResponseCompressor#setMinResponseSize
+	 */
+	public void setMinResponseSize(int minResponseSize) {
+		this.responseCompressor.setMinResponseSize(minResponseSize);
+	}
+
+	/**
+	 * Set the compression level, from 0 to 9.
+	 * @see ResponseCompressor#setCompressionLevel
+	 */
+	public void setCompressionLevel(int compressionLevel) {
+		this.responseCompressor.setCompressionLevel(compressionLevel);
+	}
+
+
+	/**
+	 * The default value is {@code false} so that the filter may complete the
+	 * compressed response on the last asynchronously dispatched thread.
+	 */
+	@Override
+	protected boolean shouldNotFilterAsyncDispatch() {
+		return false;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+			FilterChain filterChain) throws ServletException, IOException {
+
+		HttpServletResponse responseToUse = response;
+		if (!isAsyncDispatch(request) && !HttpMethod.HEAD.matches(request.getMethod()) &&
+				WebUtils.getNativeResponse(response, CompressingResponseWrapper.class) == null) {
+			String contentCoding =
+					this.responseCompressor.resolveContentCoding(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+			if (contentCoding != null) {
+				responseToUse = new CompressingResponseWrapper(response, contentCoding);
+			}
+		}
+
+		boolean completed = false;
+		try {
+			filterChain.doFilter(request, responseToUse);
+			completed = true;
+		}
+		finally {
+			if (!isAsyncStarted(request)) {
+				CompressingResponseWrapper wrapper =
+						WebUtils.getNativeResponse(responseToUse, CompressingResponseWrapper.class);
+				if (wrapper != null) {
+					wrapper.complete(completed);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Response wrapper that holds back content up to the minimum response
+	 * size and then compresses it, or sends it as is, on the fly.
+	 */
+	private class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+		private final String contentCoding;
+
+		@Nullable
+		private byte[] pending;
+
+		private int pendingCount;
+
+		private boolean decided;
+
+		@Nullable
+		private ResponseCompressor.Compression compression;
+
+		@Nullable
+		private OutputStream rawOutputStream;
+
+		@Nullable
+		private Long contentLength;
+
+		@Nullable
+		private ServletOutputStream outputStream;
+
+		@Nullable
+		private CompressingPrintWriter writer;
+
+		public CompressingResponseWrapper(HttpServletResponse response, String contentCoding) {
+			super(response);
+			this.contentCoding = contentCoding;
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (this.outputStream == null) {
+				this.outputStream = new CompressingServletOutputStream(getResponse().getOutputStream());
+			}
+			return this.outputStream;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (this.writer == null) {
+				String characterEncoding = getCharacterEncoding();
+				this.writer = new CompressingPrintWriter(
+						characterEncoding != null ? characterEncoding : WebUtils.DEFAULT_CHARACTER_ENCODING);
+			}
+			return this.writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (this.writer != null) {
+				this.writer.flush();
+			}
+			else if (this.outputStream != null) {
+				this.outputStream.flush();
+			}
+			else {
+				super.flushBuffer();
+			}
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			setContentLengthLong(len);
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			if (!this.decided) {
+				this.contentLength = len;
+			}
+			else if (this.compression == null) {
+				super.setContentLengthLong(len);
+			}
+		}
+
+		@Override
+		public void setHeader(String name, String value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				setContentLengthLong(Long.parseLong(value));
+			}
+			else {
+				super.setHeader(name, value);
+			}
+		}
+
+		@Override
+		public void addHeader(String name, String value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				setContentLengthLong(Long.parseLong(value));
+			}
+			else {
+				super.addHeader(name, value);
+			}
+		}
+
+		@Override
+		public void setIntHeader(String name, int value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				setContentLengthLong(value);
+			}
+			else {
+				super.setIntHeader(name, value);
+			}
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			discardPending();
+			super.sendError(sc);
+		}
+
+		@Override
+		@SuppressWarnings("deprecation")
+		public void sendError(int sc, String msg) throws IOException {
+			discardPending();
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			discardPending();
+			super.sendRedirect(location);
+		}
+
+		@Override
+		public void resetBuffer() {
+			super.resetBuffer();
+			this.pendingCount = 0;
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			this.pendingCount = 0;
+			this.contentLength = null;
+		}
+
+		private void discardPending() {
+			if (!this.decided) {
+				this.decided = true;
+				this.pendingCount = 0;
+				this.contentLength = null;
+			}
+		}
+
+		private void write(byte[] b, int off, int len) throws IOException {
+			if (!this.decided) {
+				int minResponseSize = responseCompressor.getMinResponseSize();
+				if (this.pendingCount + len <= minResponseSize) {
+					if (this.pending == null) {
+						this.pending = new byte[minResponseSize];
+					}
+					System.arraycopy(b, off, this.pending, this.pendingCount, len);
+					this.pendingCount += len;
+					return;
+				}
+				decide(true);
+			}
+			if (this.compression != null) {
+				this.compression.write(b, off, len, getRawOutputStream());
+			}
+			else {
+				getRawOutputStream().write(b, off, len);
+			}
+		}
+
+		private void flush() throws IOException {
+			if (!this.decided) {
+				decide(true);
+			}
+			if (this.compression != null) {
+				this.compression.flush(getRawOutputStream());
+			}
+			getRawOutputStream().flush();
+		}
+
+		private void decide(boolean compress) throws IOException {
+			this.decided = true;
+			if (compress && isCompressible()) {
+				this.compression = responseCompressor.obtainCompression(this.contentCoding);
+				super.setHeader(HttpHeaders.CONTENT_ENCODING, this.compression.getContentCoding());
+				super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			}
+			else if (this.contentLength != null) {
+				super.setContentLengthLong(this.contentLength);
+			}
+			else if (!compress) {
+				super.setContentLength(this.pendingCount);
+			}
+			this.contentLength = null;
+			if (this.pendingCount > 0 && this.pending != null) {
+				int count = this.pendingCount;
+				this.pendingCount = 0;
+				if (this.compression != null) {
+					this.compression.write(this.pending, 0, count, getRawOutputStream());
+				}
+				else {
+					getRawOutputStream().write(this.pending, 0, count);
+				}
+			}
+		}
+
+		private boolean isCompressible() {
+			int status = getStatus();
+			if (isCommitted() || status == HttpServletResponse.SC_NO_CONTENT ||
+					status == HttpServletResponse.SC_NOT_MODIFIED || status == HttpServletResponse.SC_PARTIAL_CONTENT ||
+					getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+				return false;
+			}
+			String contentType = getContentType();
+			try {
+				return (contentType != null &&
+						responseCompressor.isCompressible(MediaType.parseMediaType(contentType)));
+			}
+			catch (InvalidMediaTypeException ex) {
+				return false;
+			}
+		}
+
+		private OutputStream getRawOutputStream() throws IOException {
+			if (this.rawOutputStream == null) {
+				this.rawOutputStream = getResponse().getOutputStream();
+			}
+			return this.rawOutputStream;
+		}
+
+		public void complete(boolean success) throws IOException {
+			try {
+				if (success) {
+					if (this.writer != null) {
+						this.writer.flushContent();
+					}
+					if (!this.decided) {
+						decide(false);
+					}
+					if (this.compression != null) {
+						this.compression.finish(getRawOutputStream());
+					}
+				}
+			}
+			finally {
+				if (this.compression != null) {
+					this.compression.release();
+					this.compression = null;
+				}
+			}
+		}
+
+
+		private class CompressingServletOutputStream extends ServletOutputStream {
+
+			private final ServletOutputStream os;
+
+			private final byte[] singleByte = new byte[1];
+
+			public CompressingServletOutputStream(ServletOutputStream os) {
+				this.os = os;
+			}
+
+			@Override
+			public void write(int b) throws IOException {
+				this.singleByte[0] = (byte) b;
+				CompressingResponseWrapper.this.write(this.singleByte, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				CompressingResponseWrapper.this.write(b, off, len);
+			}
+
+			@Override
+			public void flush() throws IOException {
+				CompressingResponseWrapper.this.flush();
+			}
+
+			@Override
+			public boolean isReady() {
+				return this.os.isReady();
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+				this.os.setWriteListener(writeListener);
+			}
+		}
+
+
+		private class CompressingPrintWriter extends PrintWriter {
+
+			public CompressingPrintWriter(String characterEncoding) throws UnsupportedEncodingException {
+				super(new OutputStreamWriter(new ContentOutputStream(), characterEncoding));
+			}
+
+			/**
+			 * Pass buffered characters on without flushing the response.
+			 */
+			public void flushContent() {
+				super.flush();
+			}
+
+			@Override
+			public void flush() {
+				super.flush();
+				try {
+					CompressingResponseWrapper.this.flush();
+				}
+				catch (IOException ex) {
+					setError();
+				}
+			}
+		}
+
+
+		private class ContentOutputStream extends OutputStream {
+
+			private final byte[] singleByte = new byte[1];
+
+			@Override
+			public void write(int b) throws IOException {
+				this.singleByte[0] = (byte) b;
+				CompressingResponseWrapper.this.write(this.singleByte, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				CompressingResponseWrapper.this.write(b, off, len);
+			}
+		}
+	}
+
+}
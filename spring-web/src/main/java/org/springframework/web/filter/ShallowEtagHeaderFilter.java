@@ -16,19 +16,31 @@
 
 package org.springframework.web.filter;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletRequest;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 
 import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.DigestUtils;
+import org.springframework.util.FastByteArrayOutputStream;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 import org.springframework.web.util.WebUtils;
 
@@ -41,6 +53,18 @@ import org.springframework.web.util.WebUtils;
  * <p>Since the ETag is based on the response content, the response
  * (e.g. a {@link org.springframework.web.servlet.View}) is still rendered.
  * As such, this filter only saves bandwidth, not server performance.
+ * Handlers that are able to provide a version of the content up front should
+ * rather set an {@code ETag} themselves, e.g. through
+ * {@link org.springframework.web.context.request.WebRequest#checkNotModified(String)}
+ * or {@link org.springframework.http.ResponseEntity.HeadersBuilder#eTag(String)}:
+ * such "deep" ETags are left untouched, and if set before the body is written,
+ * the body is not buffered at all when a {@link #setSpillThreshold spill
+ * threshold} is configured.
+ *
+ * <p>By default the entire response body is buffered in memory and hashed once
+ * complete. With a {@link #setSpillThreshold spill threshold}, the MD5 digest
+ * is instead computed incrementally as the content is written, and content
+ * beyond the threshold is moved to a temporary file rather than held in memory.
  *
  * <p><b>NOTE:</b> As of Spring Framework 5.0, this filter uses request/response
  * decorators built on the Servlet 3.1 API.
@@ -64,8 +88,14 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 	private static final String STREAMING_ATTRIBUTE = ShallowEtagHeaderFilter.class.getName() + ".STREAMING";
 
 
+	private static final char[] HEX_CHARS =
+			{'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+
 	private boolean writeWeakETag = false;
 
+	private int spillThreshold = -1;
+
 
 	/**
 	 * Set whether the ETag value written to the response should be weak, as per RFC 7232.
@@ -86,6 +116,29 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		return this.writeWeakETag;
 	}
 
+	/**
+	 * Set the number of bytes of response content to keep in memory, beyond
+	 * which the content is spilled to a temporary file until the response is
+	 * complete. Setting a threshold also switches to computing the MD5 digest
+	 * incrementally while the content is written, rather than through
+	 * {@link #generateETagHeaderValue(InputStream, boolean)} after the fact.
+	 * <p>By default this is set to -1, buffering the entire response body in
+	 * memory through a {@link ContentCachingResponseWrapper}.
+	 * @since 5.0.16
+	 */
+	public void setSpillThreshold(int spillThreshold) {
+		this.spillThreshold = spillThreshold;
+	}
+
+	/**
+	 * Return the number of bytes of response content to keep in memory before
+	 * spilling to a temporary file, or -1 if not limited.
+	 * @since 5.0.16
+	 */
+	public int getSpillThreshold() {
+		return this.spillThreshold;
+	}
+
 
 	/**
 	 * The default value is {@code false} so that the filter may delay the generation
@@ -101,14 +154,40 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 			throws ServletException, IOException {
 
 		HttpServletResponse responseToUse = response;
-		if (!isAsyncDispatch(request) && !(response instanceof ContentCachingResponseWrapper)) {
-			responseToUse = new HttpStreamingAwareContentCachingResponseWrapper(response, request);
+		if (!isAsyncDispatch(request) && !(response instanceof ContentCachingResponseWrapper) &&
+				!(response instanceof DigestingResponseWrapper)) {
+			responseToUse = (this.spillThreshold >= 0 ?
+					new DigestingResponseWrapper(response, request, this.spillThreshold) :
+					new HttpStreamingAwareContentCachingResponseWrapper(response, request));
 		}
 
-		filterChain.doFilter(request, responseToUse);
+		DigestingResponseWrapper digestingWrapper =
+				WebUtils.getNativeResponse(responseToUse, DigestingResponseWrapper.class);
+		if (digestingWrapper == null) {
+			filterChain.doFilter(request, responseToUse);
+			if (!isAsyncStarted(request) && !isContentCachingDisabled(request)) {
+				updateResponse(request, responseToUse);
+			}
+			return;
+		}
 
-		if (!isAsyncStarted(request) && !isContentCachingDisabled(request)) {
-			updateResponse(request, responseToUse);
+		try {
+			filterChain.doFilter(request, responseToUse);
+			if (!isAsyncStarted(request)) {
+				if (isContentCachingDisabled(request)) {
+					// Caching disabled after content has been written: send what we have
+					digestingWrapper.copyBodyToResponse();
+				}
+				else {
+					updateResponse(request, digestingWrapper);
+				}
+			}
+		}
+		finally {
+			// Delete any spilled content, also if the handler failed
+			if (!isAsyncStarted(request)) {
+				digestingWrapper.discardContent();
+			}
 		}
 	}
 
@@ -124,20 +203,33 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		}
 		else if (isEligibleForEtag(request, responseWrapper, statusCode, responseWrapper.getContentInputStream())) {
 			String responseETag = generateETagHeaderValue(responseWrapper.getContentInputStream(), this.writeWeakETag);
-			rawResponse.setHeader(HEADER_ETAG, responseETag);
-			String requestETag = request.getHeader(HEADER_IF_NONE_MATCH);
-			if (requestETag != null && ("*".equals(requestETag) || responseETag.equals(requestETag) ||
-					responseETag.replaceFirst("^W/", "").equals(requestETag.replaceFirst("^W/", "")))) {
-				if (logger.isTraceEnabled()) {
-					logger.trace("ETag [" + responseETag + "] equal to If-None-Match, sending 304");
-				}
-				rawResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			if (!applyETag(request, rawResponse, responseETag)) {
+				responseWrapper.copyBodyToResponse();
 			}
-			else {
-				if (logger.isTraceEnabled()) {
-					logger.trace("ETag [" + responseETag + "] not equal to If-None-Match [" + requestETag +
-							"], sending normal response");
-				}
+		}
+		else {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Response with status code [" + statusCode + "] not eligible for ETag");
+			}
+			responseWrapper.copyBodyToResponse();
+		}
+	}
+
+	private void updateResponse(HttpServletRequest request, DigestingResponseWrapper responseWrapper)
+			throws IOException {
+
+		HttpServletResponse rawResponse = (HttpServletResponse) responseWrapper.getResponse();
+		int statusCode = responseWrapper.getStatusCode();
+
+		boolean eligible = false;
+		if (!rawResponse.isCommitted() && !responseWrapper.isRawResponseUsed()) {
+			try (InputStream inputStream = responseWrapper.getContentInputStream()) {
+				eligible = isEligibleForEtag(request, responseWrapper, statusCode, inputStream);
+			}
+		}
+		if (eligible) {
+			String responseETag = generateETagHeaderValue(responseWrapper.getContentDigest(), this.writeWeakETag);
+			if (!applyETag(request, rawResponse, responseETag)) {
 				responseWrapper.copyBodyToResponse();
 			}
 		}
@@ -149,6 +241,30 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		}
 	}
 
+	/**
+	 * Set the given ETag on the response and check it against the
+	 * {@code If-None-Match} request header.
+	 * @return {@code true} if the response was turned into a 304 "Not Modified",
+	 * {@code false} if the body needs to be sent
+	 */
+	private boolean applyETag(HttpServletRequest request, HttpServletResponse rawResponse, String responseETag) {
+		rawResponse.setHeader(HEADER_ETAG, responseETag);
+		String requestETag = request.getHeader(HEADER_IF_NONE_MATCH);
+		if (requestETag != null && ("*".equals(requestETag) || responseETag.equals(requestETag) ||
+				responseETag.replaceFirst("^W/", "").equals(requestETag.replaceFirst("^W/", "")))) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("ETag [" + responseETag + "] equal to If-None-Match, sending 304");
+			}
+			rawResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return true;
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("ETag [" + responseETag + "] not equal to If-None-Match [" + requestETag +
+					"], sending normal response");
+		}
+		return false;
+	}
+
 	/**
 	 * Indicates whether the given request and response are eligible for ETag generation.
 	 * <p>The default implementation returns {@code true} if all conditions match:
@@ -156,6 +272,7 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 	 * <li>response status codes in the {@code 2xx} series</li>
 	 * <li>request method is a GET</li>
 	 * <li>response Cache-Control header is not set or does not contain a "no-store" directive</li>
+	 * <li>response ETag header has not been set by the handler already</li>
 	 * </ul>
 	 * @param request the HTTP request
 	 * @param response the HTTP response
@@ -169,7 +286,8 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		String method = request.getMethod();
 		if (responseStatusCode >= 200 && responseStatusCode < 300 && HttpMethod.GET.matches(method)) {
 			String cacheControl = response.getHeader(HEADER_CACHE_CONTROL);
-			return (cacheControl == null || !cacheControl.contains(DIRECTIVE_NO_STORE));
+			return ((cacheControl == null || !cacheControl.contains(DIRECTIVE_NO_STORE)) &&
+					response.getHeader(HEADER_ETAG) == null);
 		}
 		return false;
 	}
@@ -194,6 +312,19 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		return builder.toString();
 	}
 
+	private static String generateETagHeaderValue(byte[] md5Digest, boolean isWeak) {
+		StringBuilder builder = new StringBuilder(37);
+		if (isWeak) {
+			builder.append("W/");
+		}
+		builder.append("\"0");
+		for (byte b : md5Digest) {
+			builder.append(HEX_CHARS[(b >> 4) & 0xf]).append(HEX_CHARS[b & 0xf]);
+		}
+		builder.append('"');
+		return builder.toString();
+	}
+
 
 	/**
 	 * This method can be used to disable the content caching response wrapper
@@ -236,4 +367,355 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		}
 	}
 
+
+
+	/**
+	 * Response wrapper that computes the MD5 digest of the content as it is
+	 * written, keeping up to a threshold of content in memory and spilling
+	 * the rest to a temporary file. Writes go straight to the raw response if
+	 * content caching has been disabled or if the handler has set its own ETag
+	 * before starting to write the body.
+	 */
+	private static class DigestingResponseWrapper extends HttpServletResponseWrapper {
+
+		private final HttpServletRequest request;
+
+		private final int spillThreshold;
+
+		private final MessageDigest digest;
+
+		private final FastByteArrayOutputStream content = new FastByteArrayOutputStream(1024);
+
+		@Nullable
+		private Path spillFile;
+
+		@Nullable
+		private OutputStream spillStream;
+
+		private long contentSize;
+
+		@Nullable
+		private ServletOutputStream outputStream;
+
+		@Nullable
+		private PrintWriter writer;
+
+		private boolean rawResponseUsed;
+
+		private int statusCode = HttpServletResponse.SC_OK;
+
+		@Nullable
+		private Long contentLength;
+
+		public DigestingResponseWrapper(HttpServletResponse response, HttpServletRequest request, int spillThreshold) {
+			super(response);
+			this.request = request;
+			this.spillThreshold = spillThreshold;
+			try {
+				this.digest = MessageDigest.getInstance("MD5");
+			}
+			catch (NoSuchAlgorithmException ex) {
+				throw new IllegalStateException("Could not find MessageDigest with algorithm \"MD5\"", ex);
+			}
+		}
+
+		@Override
+		public void setStatus(int sc) {
+			super.setStatus(sc);
+			this.statusCode = sc;
+		}
+
+		@SuppressWarnings("deprecation")
+		@Override
+		public void setStatus(int sc, String sm) {
+			super.setStatus(sc, sm);
+			this.statusCode = sc;
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			copyBodyToResponse(false);
+			try {
+				super.sendError(sc);
+			}
+			catch (IllegalStateException ex) {
+				// Possibly on Tomcat when called too late: fall back to silent setStatus
+				super.setStatus(sc);
+			}
+			this.statusCode = sc;
+		}
+
+		@Override
+		@SuppressWarnings("deprecation")
+		public void sendError(int sc, String msg) throws IOException {
+			copyBodyToResponse(false);
+			try {
+				super.sendError(sc, msg);
+			}
+			catch (IllegalStateException ex) {
+				// Possibly on Tomcat when called too late: fall back to silent setStatus
+				super.setStatus(sc, msg);
+			}
+			this.statusCode = sc;
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			copyBodyToResponse(false);
+			super.sendRedirect(location);
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (useRawResponse()) {
+				return getResponse().getOutputStream();
+			}
+			if (this.outputStream == null) {
+				this.outputStream = new DigestingServletOutputStream(getResponse().getOutputStream());
+			}
+			return this.outputStream;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (useRawResponse()) {
+				return getResponse().getWriter();
+			}
+			if (this.writer == null) {
+				String characterEncoding = getCharacterEncoding();
+				this.writer = new DigestingPrintWriter(characterEncoding != null ?
+						characterEncoding : WebUtils.DEFAULT_CHARACTER_ENCODING);
+			}
+			return this.writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (this.rawResponseUsed) {
+				super.flushBuffer();
+			}
+			// otherwise do not flush the underlying response as the content has not been copied to it yet
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			setContentLengthLong(len);
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			if (useRawResponse()) {
+				super.setContentLengthLong(len);
+			}
+			else {
+				this.contentLength = len;
+			}
+		}
+
+		@Override
+		public void resetBuffer() {
+			super.resetBuffer();
+			resetContent();
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			resetContent();
+		}
+
+		/**
+		 * Whether content goes straight to the raw response, either because
+		 * content caching has been disabled or because the handler has set its
+		 * own ETag before writing any content.
+		 */
+		private boolean useRawResponse() {
+			if (!this.rawResponseUsed && this.contentSize == 0 && (isContentCachingDisabled(this.request) ||
+					getHeader(HEADER_ETAG) != null)) {
+				this.rawResponseUsed = true;
+			}
+			return this.rawResponseUsed;
+		}
+
+		public boolean isRawResponseUsed() {
+			return this.rawResponseUsed;
+		}
+
+		public int getStatusCode() {
+			return this.statusCode;
+		}
+
+		public byte[] getContentDigest() {
+			return this.digest.digest();
+		}
+
+		public InputStream getContentInputStream() throws IOException {
+			if (this.spillStream != null && this.spillFile != null) {
+				this.spillStream.flush();
+				return Files.newInputStream(this.spillFile);
+			}
+			return this.content.getInputStream();
+		}
+
+		private void writeContent(int b) throws IOException {
+			this.digest.update((byte) b);
+			if (this.spillStream != null) {
+				this.spillStream.write(b);
+			}
+			else {
+				this.content.write(b);
+				if (this.content.size() > this.spillThreshold) {
+					spillContent();
+				}
+			}
+			this.contentSize++;
+		}
+
+		private void writeContent(byte[] b, int off, int len) throws IOException {
+			this.digest.update(b, off, len);
+			if (this.spillStream != null) {
+				this.spillStream.write(b, off, len);
+			}
+			else {
+				this.content.write(b, off, len);
+				if (this.content.size() > this.spillThreshold) {
+					spillContent();
+				}
+			}
+			this.contentSize += len;
+		}
+
+		private void spillContent() throws IOException {
+			this.spillFile = Files.createTempFile("etag", ".tmp");
+			this.spillStream = new BufferedOutputStream(Files.newOutputStream(this.spillFile));
+			this.content.writeTo(this.spillStream);
+			this.content.reset();
+		}
+
+		public void copyBodyToResponse() throws IOException {
+			copyBodyToResponse(true);
+		}
+
+		private void copyBodyToResponse(boolean complete) throws IOException {
+			if (this.contentSize > 0) {
+				HttpServletResponse rawResponse = (HttpServletResponse) getResponse();
+				if ((complete || this.contentLength != null) && !rawResponse.isCommitted()) {
+					rawResponse.setContentLengthLong(complete ? this.contentSize : this.contentLength);
+					this.contentLength = null;
+				}
+				OutputStream outputStream = rawResponse.getOutputStream();
+				if (this.spillStream != null && this.spillFile != null) {
+					this.spillStream.close();
+					this.spillStream = null;
+					Files.copy(this.spillFile, outputStream);
+				}
+				else {
+					this.content.writeTo(outputStream);
+				}
+				resetContent();
+				if (complete) {
+					super.flushBuffer();
+				}
+			}
+		}
+
+		private void resetContent() {
+			this.content.reset();
+			this.digest.reset();
+			this.contentSize = 0;
+			discardContent();
+		}
+
+		public void discardContent() {
+			if (this.spillStream != null) {
+				try {
+					this.spillStream.close();
+				}
+				catch (IOException ex) {
+					// ignore
+				}
+				this.spillStream = null;
+			}
+			if (this.spillFile != null) {
+				try {
+					Files.deleteIfExists(this.spillFile);
+				}
+				catch (IOException ex) {
+					// ignore
+				}
+				this.spillFile = null;
+			}
+		}
+
+
+		private class DigestingServletOutputStream extends ServletOutputStream {
+
+			private final ServletOutputStream os;
+
+			public DigestingServletOutputStream(ServletOutputStream os) {
+				this.os = os;
+			}
+
+			@Override
+			public void write(int b) throws IOException {
+				writeContent(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				writeContent(b, off, len);
+			}
+
+			@Override
+			public boolean isReady() {
+				return this.os.isReady();
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+				this.os.setWriteListener(writeListener);
+			}
+		}
+
+
+		private class DigestingPrintWriter extends PrintWriter {
+
+			public DigestingPrintWriter(String characterEncoding) throws UnsupportedEncodingException {
+				super(new OutputStreamWriter(new ContentOutputStream(), characterEncoding));
+			}
+
+			@Override
+			public void write(char[] buf, int off, int len) {
+				super.write(buf, off, len);
+				super.flush();
+			}
+
+			@Override
+			public void write(String s, int off, int len) {
+				super.write(s, off, len);
+				super.flush();
+			}
+
+			@Override
+			public void write(int c) {
+				super.write(c);
+				super.flush();
+			}
+		}
+
+
+		private class ContentOutputStream extends OutputStream {
+
+			@Override
+			public void write(int b) throws IOException {
+				writeContent(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				writeContent(b, off, len);
+			}
+		}
+	}
+
 }
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.ResponseCompressor;
+
+/**
+ * Reactive {@link WebFilter} that compresses response content with the
+ * {@code gzip} or {@code deflate} content coding, as negotiated through the
+ * {@code Accept-Encoding} request header.
+ *
+ * <p>Each {@link DataBuffer} of the response body is compressed as it passes
+ * through, so streaming responses are not aggregated. For a streaming
+ * {@link ServerHttpResponse#writeAndFlushWith write-and-flush} the compressed
+ * output is flushed together with each inner publisher. Responses are left
+ * uncompressed if their content type is not
+ * {@link #setCompressibleMediaTypes compressible}, if they already have a
+ * {@code Content-Encoding}, or if they are known to be smaller than the
+ * {@link #setMinResponseSize minimum response size}.
+ *
+ * @since 5.0.16
+ * @see org.springframework.web.filter.CompressionFilter
+ */
+public class CompressionWebFilter implements WebFilter {
+
+	private ResponseCompressor responseCompressor = new ResponseCompressor();
+
+
+	/**
+	 * Set the {@link ResponseCompressor} to use, e.g. in order to share
+	 * the {@code Deflater} pool with other filters.
+	 */
+	public void setResponseCompressor(ResponseCompressor responseCompressor) {
+		Assert.notNull(responseCompressor, "ResponseCompressor must not be null");
+		this.responseCompressor = responseCompressor;
+	}
+
+	/**
+	 * Return the configured {@link ResponseCompressor}.
+	 */
+	public ResponseCompressor getResponseCompressor() {
+		return this.responseCompressor;
+	}
+
+	/**
+	 * Set the media types of response content to compress.
+	 * @see ResponseCompressor#setCompressibleMediaTypes
+	 */
+	public void setCompressibleMediaTypes(List<MediaType> compressibleMediaTypes) {
+		this.responseCompressor.setCompressibleMediaTypes(compressibleMediaTypes);
+	}
+
+	/**
+	 * Set the minimum number of bytes a response must have to be compressed.
+	 * @see ResponseCompressor#setMinResponseSize
+	 */
+	public void setMinResponseSize(int minResponseSize) {
+		this.responseCompressor.setMinResponseSize(minResponseSize);
+	}
+
+	/**
+	 * Set the compression level, from 0 to 9.
+	 * @see ResponseCompressor#setCompressionLevel
+	 */
+	public void setCompressionLevel(int compressionLevel) {
+		this.responseCompressor.setCompressionLevel(compressionLevel);
+	}
+
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		if (exchange.getRequest().getMethod() == HttpMethod.HEAD) {
+			return chain.filter(exchange);
+		}
+		List<String> acceptEncoding = exchange.getRequest().getHeaders().get(HttpHeaders.ACCEPT_ENCODING);
+		String contentCoding = (acceptEncoding != null ?
+				this.responseCompressor.resolveContentCoding(StringUtils.collectionToCommaDelimitedString(acceptEncoding)) :
+				null);
+		if (contentCoding == null) {
+			return chain.filter(exchange);
+		}
+		ServerHttpResponse response = new CompressingResponse(exchange.getResponse(), contentCoding);
+		return chain.filter(exchange.mutate().response(response).build());
+	}
+
+
+	private class CompressingResponse extends ServerHttpResponseDecorator {
+
+		private final String contentCoding;
+
+		public CompressingResponse(ServerHttpResponse delegate, String contentCoding) {
+			super(delegate);
+			this.contentCoding = contentCoding;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			if (!isCompressible()) {
+				return super.writeWith(body);
+			}
+			if (body instanceof Mono) {
+				// Decide per buffer, writing to the delegate exactly once (also for an empty body)
+				return ((Mono<DataBuffer>) body)
+						.<Publisher<DataBuffer>>map(buffer ->
+								buffer.readableByteCount() < responseCompressor.getMinResponseSize() ?
+										Mono.just(buffer) : compress(Flux.just(buffer)))
+						.defaultIfEmpty(Mono.empty())
+						.flatMap(publisher -> super.writeWith(publisher));
+			}
+			long contentLength = getHeaders().getContentLength();
+			if (contentLength != -1 && contentLength < responseCompressor.getMinResponseSize()) {
+				return super.writeWith(body);
+			}
+			return super.writeWith(compress(Flux.from(body)));
+		}
+
+		@Override
+		public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+			if (!isCompressible()) {
+				return super.writeAndFlushWith(body);
+			}
+			return Mono.defer(() -> {
+				ResponseCompressor.Compression compression = obtainCompression();
+				Flux<Flux<DataBuffer>> compressed = Flux.from(body)
+						.map(publisher -> compress(compression, Flux.from(publisher), true))
+						.concatWith(Mono.fromCallable(() -> Flux.just(finish(compression))));
+				return super.writeAndFlushWith(compressed).doFinally(signal -> compression.release());
+			});
+		}
+
+		private boolean isCompressible() {
+			HttpStatus status = getStatusCode();
+			HttpHeaders headers = getHeaders();
+			return (status != HttpStatus.NO_CONTENT && status != HttpStatus.NOT_MODIFIED &&
+					status != HttpStatus.PARTIAL_CONTENT && !headers.containsKey(HttpHeaders.CONTENT_ENCODING) &&
+					responseCompressor.isCompressible(headers.getContentType()));
+		}
+
+		private ResponseCompressor.Compression obtainCompression() {
+			ResponseCompressor.Compression compression = responseCompressor.obtainCompression(this.contentCoding);
+			HttpHeaders headers = getHeaders();
+			headers.set(HttpHeaders.CONTENT_ENCODING, compression.getContentCoding());
+			headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			headers.remove(HttpHeaders.CONTENT_LENGTH);
+			return compression;
+		}
+
+		private Flux<DataBuffer> compress(Flux<? extends DataBuffer> body) {
+			return Flux.using(this::obtainCompression,
+					compression -> compress(compression, body, false)
+							.concatWith(Mono.fromCallable(() -> finish(compression))),
+					ResponseCompressor.Compression::release);
+		}
+
+		private Flux<DataBuffer> compress(ResponseCompressor.Compression compression,
+				Flux<? extends DataBuffer> body, boolean flush) {
+
+			Flux<DataBuffer> compressed = body
+					.map(buffer -> {
+						DataBuffer output = bufferFactory().allocateBuffer();
+						try {
+							ByteBuffer input = buffer.asByteBuffer();
+							if (input.hasArray()) {
+								compression.write(input.array(), input.arrayOffset() + input.position(),
+										input.remaining(), output.asOutputStream());
+							}
+							else {
+								byte[] bytes = new byte[buffer.readableByteCount()];
+								buffer.read(bytes);
+								compression.write(bytes, 0, bytes.length, output.asOutputStream());
+							}
+						}
+						catch (IOException ex) {
+							DataBufferUtils.release(output);
+							throw new UncheckedIOException(ex);
+						}
+						finally {
+							DataBufferUtils.release(buffer);
+						}
+						return output;
+					})
+					.filter(this::releaseIfEmpty);
+			if (flush) {
+				compressed = compressed.concatWith(Mono.fromCallable(() -> {
+					DataBuffer output = bufferFactory().allocateBuffer();
+					compression.flush(output.asOutputStream());
+					return output;
+				}).filter(this::releaseIfEmpty));
+			}
+			return compressed;
+		}
+
+		private DataBuffer finish(ResponseCompressor.Compression compression) throws IOException {
+			DataBuffer output = bufferFactory().allocateBuffer();
+			compression.finish(output.asOutputStream());
+			return output;
+		}
+
+		private boolean releaseIfEmpty(DataBuffer buffer) {
+			if (buffer.readableByteCount() > 0) {
+				return true;
+			}
+			DataBufferUtils.release(buffer);
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,407 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Helper for compressing HTTP response bodies with the {@code gzip} or
+ * {@code deflate} content coding, shared by the Servlet
+ * {@link org.springframework.web.filter.CompressionFilter} and the reactive
+ * {@link org.springframework.web.filter.reactive.CompressionWebFilter}.
+ *
+ * <p>Negotiates the content coding from the {@code Accept-Encoding} request
+ * header, decides whether a content type is worth compressing, and hands out
+ * {@link Compression} instances that compress incrementally and are pooled
+ * together with their {@link Deflater} for reuse across responses.
+ *
+ * @since 5.0.16
+ */
+public class ResponseCompressor {
+
+	/** The {@code gzip} content coding */
+	public static final String GZIP = "gzip";
+
+	/** The {@code deflate} content coding */
+	public static final String DEFLATE = "deflate";
+
+	private static final List<MediaType> DEFAULT_COMPRESSIBLE_MEDIA_TYPES = Collections.unmodifiableList(
+			Arrays.asList(
+					new MediaType("text", "*"),
+					MediaType.APPLICATION_JSON,
+					new MediaType("application", "*+json"),
+					MediaType.APPLICATION_XML,
+					new MediaType("application", "*+xml"),
+					new MediaType("application", "javascript")));
+
+	private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+	private static final int BUFFER_SIZE = 8192;
+
+
+	private List<MediaType> compressibleMediaTypes = DEFAULT_COMPRESSIBLE_MEDIA_TYPES;
+
+	private int minResponseSize = 2048;
+
+	private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+	private int deflaterPoolSize = 64;
+
+	private volatile Queue<Compression> gzipPool = new ArrayBlockingQueue<>(this.deflaterPoolSize);
+
+	private volatile Queue<Compression> deflatePool = new ArrayBlockingQueue<>(this.deflaterPoolSize);
+
+
+	/**
+	 * Set the media types of response content to compress.
+	 * <p>By default this is {@code text/*}, {@code application/json},
+	 * {@code application/*+json}, {@code application/xml},
+	 * {@code application/*+xml} and {@code application/javascript}.
+	 */
+	public void setCompressibleMediaTypes(List<MediaType> compressibleMediaTypes) {
+		Assert.notNull(compressibleMediaTypes, "'compressibleMediaTypes' must not be null");
+		this.compressibleMediaTypes = Collections.unmodifiableList(new ArrayList<>(compressibleMediaTypes));
+	}
+
+	/**
+	 * Return the configured media types of response content to compress.
+	 */
+	public List<MediaType> getCompressibleMediaTypes() {
+		return this.compressibleMediaTypes;
+	}
+
+	/**
+	 * Set the minimum number of bytes a response must have to be compressed.
+	 * <p>By default this is set to 2048.
+	 */
+	public void setMinResponseSize(int minResponseSize) {
+		Assert.isTrue(minResponseSize >= 0, "'minResponseSize' must not be negative");
+		this.minResponseSize = minResponseSize;
+	}
+
+	/**
+	 * Return the minimum number of bytes a response must have to be compressed.
+	 */
+	public int getMinResponseSize() {
+		return this.minResponseSize;
+	}
+
+	/**
+	 * Set the compression level, from 0 to 9.
+	 * <p>By default this is {@link Deflater#DEFAULT_COMPRESSION}.
+	 */
+	public void setCompressionLevel(int compressionLevel) {
+		Assert.isTrue(compressionLevel == Deflater.DEFAULT_COMPRESSION ||
+				(compressionLevel >= Deflater.NO_COMPRESSION && compressionLevel <= Deflater.BEST_COMPRESSION),
+				"Invalid compression level: " + compressionLevel);
+		this.compressionLevel = compressionLevel;
+		resetPools();
+	}
+
+	/**
+	 * Return the configured compression level.
+	 */
+	public int getCompressionLevel() {
+		return this.compressionLevel;
+	}
+
+	/**
+	 * Set the maximum number of idle {@link Deflater} instances to keep per
+	 * content coding for reuse.
+	 * <p>By default this is set to 64.
+	 */
+	public void setDeflaterPoolSize(int deflaterPoolSize) {
+		Assert.isTrue(deflaterPoolSize > 0, "'deflaterPoolSize' must be greater than 0");
+		this.deflaterPoolSize = deflaterPoolSize;
+		resetPools();
+	}
+
+	/**
+	 * Return the maximum number of idle {@link Deflater} instances to keep
+	 * per content coding.
+	 */
+	public int getDeflaterPoolSize() {
+		return this.deflaterPoolSize;
+	}
+
+	private void resetPools() {
+		Queue<Compression> oldGzipPool = this.gzipPool;
+		Queue<Compression> oldDeflatePool = this.deflatePool;
+		this.gzipPool = new ArrayBlockingQueue<>(this.deflaterPoolSize);
+		this.deflatePool = new ArrayBlockingQueue<>(this.deflaterPoolSize);
+		endAll(oldGzipPool);
+		endAll(oldDeflatePool);
+	}
+
+	private static void endAll(Queue<Compression> pool) {
+		Compression compression;
+		while ((compression = pool.poll()) != null) {
+			compression.deflater.end();
+		}
+	}
+
+
+	/**
+	 * Select the content coding to use based on the given
+	 * {@code Accept-Encoding} request header value, preferring {@code gzip}
+	 * over {@code deflate} for equal quality values.
+	 * @param acceptEncoding the {@code Accept-Encoding} header value
+	 * @return {@link #GZIP}, {@link #DEFLATE}, or {@code null} if the client
+	 * does not accept either of them
+	 */
+	@Nullable
+	public String resolveContentCoding(@Nullable String acceptEncoding) {
+		if (!StringUtils.hasText(acceptEncoding)) {
+			return null;
+		}
+		float gzipQuality = -1;
+		float deflateQuality = -1;
+		float wildcardQuality = -1;
+		for (String token : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+			int index = token.indexOf(';');
+			String coding = (index != -1 ? token.substring(0, index) : token).trim().toLowerCase(Locale.ENGLISH);
+			float quality = (index != -1 ? parseQuality(token.substring(index + 1)) : 1);
+			if (GZIP.equals(coding) || "x-gzip".equals(coding)) {
+				gzipQuality = Math.max(gzipQuality, quality);
+			}
+			else if (DEFLATE.equals(coding)) {
+				deflateQuality = Math.max(deflateQuality, quality);
+			}
+			else if ("*".equals(coding)) {
+				wildcardQuality = quality;
+			}
+		}
+		if (gzipQuality < 0) {
+			gzipQuality = wildcardQuality;
+		}
+		if (deflateQuality < 0) {
+			deflateQuality = wildcardQuality;
+		}
+		if (gzipQuality > 0 && gzipQuality >= deflateQuality) {
+			return GZIP;
+		}
+		return (deflateQuality > 0 ? DEFLATE : null);
+	}
+
+	/**
+	 * Determine the quality value that the given {@code Accept-Encoding} header
+	 * assigns to the given content coding, matching whole coding tokens only and
+	 * falling back on a "*" entry if the coding is not listed.
+	 * @param acceptEncoding the {@code Accept-Encoding} header value
+	 * @param contentCoding the content coding to check, e.g. "gzip" or "br"
+	 * @return the quality value, or 0 if the coding is not acceptable
+	 */
+	public static float getQuality(@Nullable String acceptEncoding, String contentCoding) {
+		if (!StringUtils.hasText(acceptEncoding)) {
+			return 0;
+		}
+		float quality = -1;
+		float wildcardQuality = 0;
+		for (String token : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+			int index = token.indexOf(';');
+			String coding = (index != -1 ? token.substring(0, index) : token).trim();
+			float tokenQuality = (index != -1 ? parseQuality(token.substring(index + 1)) : 1);
+			if (coding.equalsIgnoreCase(contentCoding)) {
+				quality = Math.max(quality, tokenQuality);
+			}
+			else if ("*".equals(coding)) {
+				wildcardQuality = tokenQuality;
+			}
+		}
+		return (quality >= 0 ? quality : wildcardQuality);
+	}
+
+	private static float parseQuality(String parameters) {
+		for (String parameter : StringUtils.tokenizeToStringArray(parameters, ";")) {
+			if (parameter.startsWith("q=")) {
+				try {
+					return Float.parseFloat(parameter.substring(2));
+				}
+				catch (NumberFormatException ex) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	/**
+	 * Whether content of the given type should be compressed.
+	 * @param contentType the content type of the response, if known
+	 */
+	public boolean isCompressible(@Nullable MediaType contentType) {
+		if (contentType == null) {
+			return false;
+		}
+		for (MediaType mediaType : this.compressibleMediaTypes) {
+			if (mediaType.includes(contentType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Obtain a {@link Compression} for the given content coding, either from
+	 * the pool or newly created. The returned instance must be
+	 * {@linkplain Compression#release() released} when no longer needed.
+	 * @param contentCoding {@link #GZIP} or {@link #DEFLATE}
+	 */
+	public Compression obtainCompression(String contentCoding) {
+		boolean gzip = GZIP.equals(contentCoding);
+		Assert.isTrue(gzip || DEFLATE.equals(contentCoding), "Unsupported content coding: " + contentCoding);
+		Queue<Compression> pool = (gzip ? this.gzipPool : this.deflatePool);
+		Compression compression = pool.poll();
+		return (compression != null ? compression : new Compression(gzip, this.compressionLevel, pool));
+	}
+
+
+	/**
+	 * Incremental compression of a single response body. Not thread-safe.
+	 */
+	public final class Compression {
+
+		private final boolean gzip;
+
+		private final Deflater deflater;
+
+		/** The pool this instance was created for, replaced on a configuration change */
+		private final Queue<Compression> pool;
+
+		private final CRC32 crc = new CRC32();
+
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+
+		private boolean headerWritten;
+
+		private Compression(boolean gzip, int compressionLevel, Queue<Compression> pool) {
+			this.gzip = gzip;
+			this.deflater = new Deflater(compressionLevel, gzip);
+			this.pool = pool;
+		}
+
+		/**
+		 * Return the content coding produced, i.e. {@link #GZIP} or {@link #DEFLATE}.
+		 */
+		public String getContentCoding() {
+			return (this.gzip ? GZIP : DEFLATE);
+		}
+
+		/**
+		 * Compress the given bytes, writing whatever compressed output is
+		 * available to the given stream.
+		 */
+		public void write(byte[] b, int off, int len, OutputStream out) throws IOException {
+			writeHeaderIfNecessary(out);
+			if (len == 0) {
+				return;
+			}
+			if (this.gzip) {
+				this.crc.update(b, off, len);
+			}
+			this.deflater.setInput(b, off, len);
+			while (!this.deflater.needsInput()) {
+				int count = this.deflater.deflate(this.buffer, 0, this.buffer.length, Deflater.NO_FLUSH);
+				if (count > 0) {
+					out.write(this.buffer, 0, count);
+				}
+			}
+		}
+
+		/**
+		 * Flush all pending compressed output to the given stream so that the
+		 * client can decompress everything written so far.
+		 */
+		public void flush(OutputStream out) throws IOException {
+			writeHeaderIfNecessary(out);
+			int count;
+			while ((count = this.deflater.deflate(this.buffer, 0, this.buffer.length, Deflater.SYNC_FLUSH)) > 0) {
+				out.write(this.buffer, 0, count);
+				if (count < this.buffer.length) {
+					break;
+				}
+			}
+		}
+
+		/**
+		 * Complete the compressed stream, writing the remaining output
+		 * (and the {@code gzip} trailer) to the given stream.
+		 */
+		public void finish(OutputStream out) throws IOException {
+			writeHeaderIfNecessary(out);
+			this.deflater.finish();
+			while (!this.deflater.finished()) {
+				int count = this.deflater.deflate(this.buffer, 0, this.buffer.length);
+				if (count > 0) {
+					out.write(this.buffer, 0, count);
+				}
+			}
+			if (this.gzip) {
+				writeInt((int) this.crc.getValue(), out);
+				writeInt((int) this.deflater.getBytesRead(), out);
+			}
+		}
+
+		private void writeHeaderIfNecessary(OutputStream out) throws IOException {
+			if (this.gzip && !this.headerWritten) {
+				out.write(GZIP_HEADER);
+				this.headerWritten = true;
+			}
+		}
+
+		private void writeInt(int value, OutputStream out) throws IOException {
+			out.write(value & 0xff);
+			out.write((value >> 8) & 0xff);
+			out.write((value >> 16) & 0xff);
+			out.write((value >> 24) & 0xff);
+		}
+
+		/**
+		 * Reset this instance and return it to the pool, or release its
+		 * native resources if the pool is full or has been replaced since,
+		 * e.g. because of a different compression level.
+		 */
+		public void release() {
+			this.deflater.reset();
+			this.crc.reset();
+			this.headerWritten = false;
+			if (!this.pool.offer(this)) {
+				this.deflater.end();
+			}
+			else if (this.pool != (this.gzip ? gzipPool : deflatePool)) {
+				// Pool replaced in the meantime: drain it, including this instance
+				endAll(this.pool);
+			}
+		}
+	}
+
+}
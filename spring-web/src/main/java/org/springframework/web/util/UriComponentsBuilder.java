@@ -29,6 +29,7 @@ import java.util.regex.Pattern;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
+import org.springframework.http.server.QueryStringParser;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.LinkedMultiValueMap;
@@ -65,10 +66,6 @@ import org.springframework.web.util.UriComponents.UriTemplateVariables;
  */
 public class UriComponentsBuilder implements UriBuilder, Cloneable {
 
-	private static final Pattern QUERY_PARAM_PATTERN = Pattern.compile("([^&=]+)(=?)([^&]+)?");
-
-	private static final String SCHEME_PATTERN = "([^:/?#]+):";
-
 	private static final String HTTP_PATTERN = "(?i)(http|https):";
 
 	private static final String USERINFO_PATTERN = "([^@\\[/?#]*)";
@@ -83,15 +80,8 @@ public class UriComponentsBuilder implements UriBuilder, Cloneable {
 
 	private static final String PATH_PATTERN = "([^?#]*)";
 
-	private static final String QUERY_PATTERN = "([^#]*)";
-
 	private static final String LAST_PATTERN = "(.*)";
 
-	// Regex patterns that matches URIs. See RFC 3986, appendix B
-	private static final Pattern URI_PATTERN = Pattern.compile(
-			"^(" + SCHEME_PATTERN + ")?" + "(//(" + USERINFO_PATTERN + "@)?" + HOST_PATTERN + "(:" + PORT_PATTERN +
-					")?" + ")?" + PATH_PATTERN + "(\\?" + QUERY_PATTERN + ")?" + "(#" + LAST_PATTERN + ")?");
-
 	private static final Pattern HTTP_URL_PATTERN = Pattern.compile(
 			"^" + HTTP_PATTERN + "(//(" + USERINFO_PATTERN + "@)?" + HOST_PATTERN + "(:" + PORT_PATTERN + ")?" + ")?" +
 					PATH_PATTERN + "(\\?" + LAST_PATTERN + ")?");
@@ -207,16 +197,11 @@ public class UriComponentsBuilder implements UriBuilder, Cloneable {
 	 */
 	public static UriComponentsBuilder fromUriString(String uri) {
 		Assert.notNull(uri, "URI must not be null");
-		Matcher matcher = URI_PATTERN.matcher(uri);
-		if (matcher.matches()) {
+		UriParts parts = UriParts.parse(uri);
+		if (parts != null) {
 			UriComponentsBuilder builder = new UriComponentsBuilder();
-			String scheme = matcher.group(2);
-			String userInfo = matcher.group(5);
-			String host = matcher.group(6);
-			String port = matcher.group(8);
-			String path = matcher.group(9);
-			String query = matcher.group(11);
-			String fragment = matcher.group(13);
+			String scheme = parts.scheme;
+			String fragment = parts.fragment;
 			boolean opaque = false;
 			if (StringUtils.hasLength(scheme)) {
 				String rest = uri.substring(scheme.length());
@@ -233,13 +218,13 @@ public class UriComponentsBuilder implements UriBuilder, Cloneable {
 				builder.schemeSpecificPart(ssp);
 			}
 			else {
-				builder.userInfo(userInfo);
-				builder.host(host);
-				if (StringUtils.hasLength(port)) {
-					builder.port(port);
+				builder.userInfo(parts.userInfo);
+				builder.host(parts.host);
+				if (StringUtils.hasLength(parts.port)) {
+					builder.port(parts.port);
 				}
-				builder.path(path);
-				builder.query(query);
+				builder.path(parts.path);
+				builder.query(parts.query);
 			}
 			if (StringUtils.hasText(fragment)) {
 				builder.fragment(fragment);
@@ -310,12 +295,12 @@ public class UriComponentsBuilder implements UriBuilder, Cloneable {
 	 * @see <a href="https://tools.ietf.org/html/rfc6454">RFC 6454</a>
 	 */
 	public static UriComponentsBuilder fromOriginHeader(String origin) {
-		Matcher matcher = URI_PATTERN.matcher(origin);
-		if (matcher.matches()) {
+		UriParts parts = UriParts.parse(origin);
+		if (parts != null) {
 			UriComponentsBuilder builder = new UriComponentsBuilder();
-			String scheme = matcher.group(2);
-			String host = matcher.group(6);
-			String port = matcher.group(8);
+			String scheme = parts.scheme;
+			String host = parts.host;
+			String port = parts.port;
 			if (StringUtils.hasLength(scheme)) {
 				builder.scheme(scheme);
 			}
@@ -641,13 +626,7 @@ public class UriComponentsBuilder implements UriBuilder, Cloneable {
 	@Override
 	public UriComponentsBuilder query(@Nullable String query) {
 		if (query != null) {
-			Matcher matcher = QUERY_PARAM_PATTERN.matcher(query);
-			while (matcher.find()) {
-				String name = matcher.group(1);
-				String eq = matcher.group(2);
-				String value = matcher.group(3);
-				queryParam(name, (value != null ? value : (StringUtils.hasLength(eq) ? "" : null)));
-			}
+			QueryStringParser.parse(query, (name, value) -> queryParam(name, value));
 		}
 		else {
 			this.queryParams.clear();
@@ -1036,4 +1015,129 @@ public class UriComponentsBuilder implements UriBuilder, Cloneable {
 		}
 	}
 
+
+	/**
+	 * The components of a URI string, split by hand following the regular
+	 * expression in RFC 3986, appendix B, and allowing IPv6 hosts as well as
+	 * URI variables in the port.
+	 */
+	private static final class UriParts {
+
+		@Nullable
+		String scheme;
+
+		@Nullable
+		String userInfo;
+
+		@Nullable
+		String host;
+
+		@Nullable
+		String port;
+
+		String path = "";
+
+		@Nullable
+		String query;
+
+		@Nullable
+		String fragment;
+
+		@Nullable
+		static UriParts parse(String uri) {
+			UriParts parts = new UriParts();
+			int length = uri.length();
+			int pos = 0;
+
+			int index = indexOfAny(uri, ":/?#", 0);
+			if (index > 0 && index < length && uri.charAt(index) == ':') {
+				parts.scheme = uri.substring(0, index);
+				pos = index + 1;
+			}
+
+			if (uri.startsWith("//", pos)) {
+				pos += 2;
+				index = indexOfAny(uri, "@[/?#", pos);
+				if (index < length && uri.charAt(index) == '@') {
+					parts.userInfo = uri.substring(pos, index);
+					pos = index + 1;
+				}
+				int hostEnd;
+				if (pos < length && uri.charAt(pos) == '[') {
+					index = pos + 1;
+					while (index < length && isIpv6Char(uri.charAt(index))) {
+						index++;
+					}
+					while (index < length && isZoneIdChar(uri.charAt(index))) {
+						index++;
+					}
+					hostEnd = (index < length && uri.charAt(index) == ']' ? index + 1 : pos);
+				}
+				else {
+					hostEnd = indexOfAny(uri, "[/?#:", pos);
+				}
+				parts.host = uri.substring(pos, hostEnd);
+				pos = hostEnd;
+				if (pos < length && uri.charAt(pos) == ':') {
+					index = pos + 1;
+					while (index < length && isDigit(uri.charAt(index))) {
+						index++;
+					}
+					if (index + 1 < length && uri.charAt(index) == '{' && uri.charAt(index + 1) != '/') {
+						int end = indexOfAny(uri, "}/", index + 2);
+						if (end < length && uri.charAt(end) == '}') {
+							index = end + 1;
+						}
+					}
+					parts.port = uri.substring(pos + 1, index);
+					pos = index;
+				}
+			}
+
+			index = indexOfAny(uri, "?#", pos);
+			parts.path = uri.substring(pos, index);
+			pos = index;
+			if (pos < length && uri.charAt(pos) == '?') {
+				index = uri.indexOf('#', pos + 1);
+				index = (index != -1 ? index : length);
+				parts.query = uri.substring(pos + 1, index);
+				pos = index;
+			}
+			if (pos < length) {
+				String fragment = uri.substring(pos + 1);
+				if (indexOfAny(fragment, "\n\r\u0085\u2028\u2029", 0) < fragment.length()) {
+					// Not matched by '.' in a regular expression
+					return null;
+				}
+				parts.fragment = fragment;
+			}
+			return parts;
+		}
+
+		private static int indexOfAny(String value, String chars, int fromIndex) {
+			for (int i = fromIndex; i < value.length(); i++) {
+				if (chars.indexOf(value.charAt(i)) != -1) {
+					return i;
+				}
+			}
+			return value.length();
+		}
+
+		private static boolean isDigit(char c) {
+			return (c >= '0' && c <= '9');
+		}
+
+		private static boolean isAlpha(char c) {
+			return ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'));
+		}
+
+		private static boolean isIpv6Char(char c) {
+			return (isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == ':' || c == '.');
+		}
+
+		private static boolean isZoneIdChar(char c) {
+			return (isDigit(c) || isAlpha(c) || c == '%');
+		}
+	}
+
 }
@@ -37,6 +37,9 @@ import java.util.TimeZone;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
 import static java.time.format.DateTimeFormatter.*;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
@@ -529,4 +532,38 @@ public class HttpHeadersTests {
 		assertTrue(headers.getFirstZonedDateTime(HttpHeaders.DATE).isEqual(date));
 	}
 
+	@Test
+	public void readOnlyHttpHeadersView() {
+		headers.setContentType(MediaType.TEXT_PLAIN);
+		HttpHeaders view = HttpHeaders.readOnlyHttpHeadersView(headers);
+		assertSame(view, HttpHeaders.readOnlyHttpHeadersView(view));
+		assertEquals(MediaType.TEXT_PLAIN, view.getContentType());
+
+		headers.add("X-Custom", "1");
+		assertEquals("1", view.getFirst("x-custom"));
+		assertEquals(headers, view);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void readOnlyHttpHeadersViewIsReadOnly() {
+		HttpHeaders.readOnlyHttpHeadersView(headers).add("X-Custom", "1");
+	}
+
+	@Test
+	public void readOnlyHttpHeadersViewAcceptIsSortable() {
+		headers.setAccept(Arrays.asList(MediaType.TEXT_PLAIN, MediaType.APPLICATION_JSON));
+		HttpHeaders view = HttpHeaders.readOnlyHttpHeadersView(headers);
+		List<MediaType> accept = view.getAccept();
+		Collections.reverse(accept);
+		assertEquals(Arrays.asList(MediaType.TEXT_PLAIN, MediaType.APPLICATION_JSON), view.getAccept());
+	}
+
+	@Test
+	public void headersFromMultiValueMapAreNotCopied() {
+		MultiValueMap<String, String> map = new LinkedMultiValueMap<>();
+		HttpHeaders wrapper = new HttpHeaders(map);
+		wrapper.add("X-Custom", "1");
+		assertEquals(Collections.singletonList("1"), map.get("X-Custom"));
+	}
+
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.ipc.netty.NettyContext;
+import reactor.ipc.netty.http.server.HttpServer;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ReactorConnectionPool}.
+ */
+public class ReactorConnectionPoolTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+
+	private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+	private final ReactorConnectionPool pool = new ReactorConnectionPool("test");
+
+	private NettyContext server;
+
+	private URI uri;
+
+
+	@Before
+	public void startServer() {
+		this.server = HttpServer.create("localhost", 0)
+				.newHandler((request, response) -> {
+					this.clientPorts.add(request.remoteAddress().getPort());
+					return response.sendString(Mono.just("Hello World")).then();
+				})
+				.block(TIMEOUT);
+		this.uri = URI.create("http://localhost:" + this.server.address().getPort() + "/");
+	}
+
+	@After
+	public void stop() {
+		this.server.dispose();
+		this.pool.dispose();
+	}
+
+
+	@Test
+	public void reuseConnection() throws Exception {
+		ReactorClientHttpConnector connector = new ReactorClientHttpConnector(this.pool);
+		exchange(connector);
+		exchange(connector);
+
+		assertEquals(1, this.clientPorts.size());
+		assertEquals(1, this.pool.getOpenConnections());
+		assertEquals(0, this.pool.getActiveConnections());
+		assertEquals(1, this.pool.getIdleConnections());
+		assertEquals(0, this.pool.getPendingAcquires());
+	}
+
+	@Test
+	public void evictIdleConnection() throws Exception {
+		this.pool.setMaxIdleTime(Duration.ofMillis(10));
+		ReactorClientHttpConnector connector = new ReactorClientHttpConnector(this.pool);
+		exchange(connector);
+		Thread.sleep(50);
+		exchange(connector);
+
+		assertEquals(2, this.clientPorts.size());
+		assertEquals(1, this.pool.getEvictedConnections());
+	}
+
+	@Test
+	public void activeConnection() throws Exception {
+		ReactorClientHttpConnector connector = new ReactorClientHttpConnector(this.pool);
+		ClientHttpResponse response = connector.connect(HttpMethod.GET, this.uri, ClientHttpRequest::setComplete)
+				.block(TIMEOUT);
+		assertNotNull(response);
+		assertEquals(1, this.pool.getActiveConnections());
+		assertEquals(0, this.pool.getIdleConnections());
+
+		response.getBody().map(DataBufferUtils::release).blockLast(TIMEOUT);
+		awaitReleased();
+		assertEquals(0, this.pool.getActiveConnections());
+	}
+
+	@Test
+	public void sameMeteredPoolPerAddress() throws Exception {
+		ReactorClientHttpConnector connector = new ReactorClientHttpConnector(this.pool);
+		exchange(connector);
+		exchange(connector);
+
+		Map<?, ?> meteredPools = (Map<?, ?>) new DirectFieldAccessor(this.pool).getPropertyValue("meteredPools");
+		assertEquals(1, meteredPools.size());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void configureAfterUse() throws Exception {
+		exchange(new ReactorClientHttpConnector(this.pool));
+		this.pool.setMaxConnections(1);
+	}
+
+
+	private void exchange(ClientHttpConnector connector) throws InterruptedException {
+		connector.connect(HttpMethod.GET, this.uri, ClientHttpRequest::setComplete)
+				.flatMapMany(ClientHttpResponse::getBody)
+				.map(DataBufferUtils::release)
+				.blockLast(TIMEOUT);
+		awaitReleased();
+	}
+
+	private void awaitReleased() throws InterruptedException {
+		// The connection is returned to the pool asynchronously after the body is consumed
+		long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+		while (this.pool.getActiveConnections() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+	}
+
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CachingClientHttpRequestInterceptor}.
+ */
+public class CachingClientHttpRequestInterceptorTests {
+
+	private static final URI URL = URI.create("http://example.com/data");
+
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private final HttpResponseCache cache = new HttpResponseCache(1024 * 1024);
+
+	private final CachingClientHttpRequestInterceptor interceptor = new CachingClientHttpRequestInterceptor(this.cache);
+
+	private final List<HttpHeaders> sentRequests = new ArrayList<>();
+
+
+	@Test
+	public void freshResponseServedFromCache() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		ClientHttpRequestExecution execution = execution(new TestResponse(200, headers, "foo"));
+
+		assertEquals("foo", exchange(HttpMethod.GET, execution));
+		assertEquals("foo", exchange(HttpMethod.GET, execution));
+		assertEquals(1, this.sentRequests.size());
+		assertEquals(1, this.cache.getHitCount());
+	}
+
+	@Test
+	public void staleResponseRevalidated() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("no-cache");
+		headers.setETag("\"v1\"");
+		exchange(HttpMethod.GET, execution(new TestResponse(200, headers, "foo")));
+
+		HttpHeaders notModifiedHeaders = new HttpHeaders();
+		notModifiedHeaders.setETag("\"v1\"");
+		notModifiedHeaders.set("X-Revalidated", "true");
+		ClientHttpRequestExecution execution = execution(new TestResponse(304, notModifiedHeaders, ""));
+		ClientHttpResponse response = this.interceptor.intercept(request(HttpMethod.GET), new byte[0], execution);
+
+		assertEquals(200, response.getRawStatusCode());
+		assertEquals("true", response.getHeaders().getFirst("X-Revalidated"));
+		assertEquals("foo", StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+		assertEquals(2, this.sentRequests.size());
+		assertEquals("\"v1\"", this.sentRequests.get(1).getIfNoneMatch().get(0));
+		assertEquals(1, this.cache.getRevalidationCount());
+	}
+
+	@Test
+	public void noStore() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("no-store, max-age=60");
+		ClientHttpRequestExecution execution = execution(new TestResponse(200, headers, "foo"));
+
+		exchange(HttpMethod.GET, execution);
+		exchange(HttpMethod.GET, execution);
+		assertEquals(2, this.sentRequests.size());
+		assertEquals(0, this.cache.getSize());
+	}
+
+	@Test
+	public void requestMaxAgeZero() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		ClientHttpRequestExecution execution = execution(new TestResponse(200, headers, "foo"));
+		exchange(HttpMethod.GET, execution);
+
+		HttpRequest request = request(HttpMethod.GET);
+		request.getHeaders().setCacheControl("max-age=0");
+		this.interceptor.intercept(request, new byte[0], execution);
+		assertEquals(2, this.sentRequests.size());
+	}
+
+	@Test
+	public void vary() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		headers.setVary(Collections.singletonList("Accept-Language"));
+		ClientHttpRequestExecution execution = execution(new TestResponse(200, headers, "foo"));
+
+		HttpRequest request = request(HttpMethod.GET);
+		request.getHeaders().set(HttpHeaders.ACCEPT_LANGUAGE, "en");
+		this.interceptor.intercept(request, new byte[0], execution);
+		request = request(HttpMethod.GET);
+		request.getHeaders().set(HttpHeaders.ACCEPT_LANGUAGE, "en");
+		this.interceptor.intercept(request, new byte[0], execution);
+		assertEquals(1, this.sentRequests.size());
+
+		request = request(HttpMethod.GET);
+		request.getHeaders().set(HttpHeaders.ACCEPT_LANGUAGE, "fr");
+		this.interceptor.intercept(request, new byte[0], execution);
+		assertEquals(2, this.sentRequests.size());
+	}
+
+	@Test
+	public void unsafeMethodInvalidates() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		ClientHttpRequestExecution execution = execution(new TestResponse(200, headers, "foo"));
+
+		exchange(HttpMethod.GET, execution);
+		exchange(HttpMethod.PUT, execution);
+		exchange(HttpMethod.GET, execution);
+		assertEquals(3, this.sentRequests.size());
+	}
+
+	@Test
+	public void expiredResponseNotServed() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setDate(System.currentTimeMillis());
+		headers.setExpires(System.currentTimeMillis() - 1000);
+		headers.setLastModified(System.currentTimeMillis() - 60 * 60 * 1000);
+		ClientHttpRequestExecution execution = execution(new TestResponse(200, headers, "foo"));
+
+		exchange(HttpMethod.GET, execution);
+		exchange(HttpMethod.GET, execution);
+		assertEquals(2, this.sentRequests.size());
+		assertNotNull(this.sentRequests.get(1).getFirst(HttpHeaders.IF_MODIFIED_SINCE));
+	}
+
+	@Test
+	public void tooLargeResponseNotCached() throws Exception {
+		this.cache.setMaxEntrySize(2);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		headers.setContentLength(3);
+		ClientHttpRequestExecution execution = execution(new TestResponse(200, headers, "foo"));
+
+		assertEquals("foo", exchange(HttpMethod.GET, execution));
+		assertEquals("foo", exchange(HttpMethod.GET, execution));
+		assertEquals(2, this.sentRequests.size());
+	}
+
+	@Test
+	public void tooLargeResponseWithoutContentLengthNotCached() throws Exception {
+		this.cache.setMaxEntrySize(2);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		ClientHttpRequestExecution execution = execution(new TestResponse(200, headers, "foobar"));
+
+		assertEquals("foobar", exchange(HttpMethod.GET, execution));
+		assertEquals("foobar", exchange(HttpMethod.GET, execution));
+		assertEquals(2, this.sentRequests.size());
+		assertNull(this.cache.get(URL, new HttpHeaders()));
+	}
+
+	@Test
+	public void directory() throws Exception {
+		this.cache.setDirectory(this.folder.getRoot());
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		exchange(HttpMethod.GET, execution(new TestResponse(200, headers, "foo")));
+		assertEquals(1, this.folder.getRoot().listFiles().length);
+
+		HttpResponseCache otherCache = new HttpResponseCache(1024);
+		otherCache.setDirectory(this.folder.getRoot());
+		HttpResponseCache.CachedResponse cached = otherCache.get(URL, new HttpHeaders());
+		assertNotNull(cached);
+		assertEquals("foo", new String(cached.getBody(), StandardCharsets.UTF_8));
+		assertEquals("max-age=60", cached.getHeaders().getCacheControl());
+	}
+
+	@Test
+	public void directoryWithVary() throws Exception {
+		this.cache.setDirectory(this.folder.getRoot());
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		headers.setVary(Collections.singletonList("Accept-Language"));
+		exchange(HttpMethod.GET, execution(new TestResponse(200, headers, "foo")));
+
+		HttpResponseCache otherCache = new HttpResponseCache(1024);
+		otherCache.setDirectory(this.folder.getRoot());
+		HttpHeaders requestHeaders = new HttpHeaders();
+		requestHeaders.set("Accept-Language", "de");
+		assertNull(otherCache.get(URL, requestHeaders));
+		assertNotNull(otherCache.get(URL, new HttpHeaders()));
+	}
+
+	@Test
+	public void invalidFileInDirectoryIgnored() throws Exception {
+		File file = new File(this.folder.getRoot(),
+				DigestUtils.md5DigestAsHex(URL.toString().getBytes(StandardCharsets.UTF_8)));
+		FileCopyUtils.copy(new byte[] {0, 0, 0, 1, 0, 100, 'h', 't'}, file);
+		this.cache.setDirectory(this.folder.getRoot());
+
+		assertNull(this.cache.get(URL, new HttpHeaders()));
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() throws Exception {
+		HttpResponseCache cache = new HttpResponseCache(200);
+		cache.setMaxEntrySize(100);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		byte[] body = new byte[60];
+		cache.put(URI.create("http://example.com/1"), new HttpHeaders(), 200, headers, body, 0, 0);
+		cache.put(URI.create("http://example.com/2"), new HttpHeaders(), 200, headers, body, 0, 0);
+		cache.get(URI.create("http://example.com/1"), new HttpHeaders());
+		cache.put(URI.create("http://example.com/3"), new HttpHeaders(), 200, headers, body, 0, 0);
+
+		assertNotNull(cache.get(URI.create("http://example.com/1"), new HttpHeaders()));
+		assertNull(cache.get(URI.create("http://example.com/2"), new HttpHeaders()));
+		assertNotNull(cache.get(URI.create("http://example.com/3"), new HttpHeaders()));
+	}
+
+
+	private String exchange(HttpMethod method, ClientHttpRequestExecution execution) throws IOException {
+		ClientHttpResponse response = this.interceptor.intercept(request(method), new byte[0], execution);
+		try {
+			return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+		}
+		finally {
+			response.close();
+		}
+	}
+
+	private HttpRequest request(HttpMethod method) throws IOException {
+		return new SimpleClientHttpRequestFactory().createRequest(URL, method);
+	}
+
+	private ClientHttpRequestExecution execution(TestResponse response) {
+		return (request, body) -> {
+			HttpHeaders headers = new HttpHeaders();
+			headers.putAll(request.getHeaders());
+			this.sentRequests.add(headers);
+			return response;
+		};
+	}
+
+
+	private static class TestResponse extends AbstractClientHttpResponse {
+
+		private final int status;
+
+		private final HttpHeaders headers;
+
+		private final byte[] body;
+
+		@Nullable
+		private InputStream stream;
+
+		TestResponse(int status, HttpHeaders headers, String body) {
+			this.status = status;
+			this.headers = headers;
+			this.body = body.getBytes(StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public int getRawStatusCode() {
+			return this.status;
+		}
+
+		@Override
+		public String getStatusText() {
+			return "";
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		@Override
+		public InputStream getBody() {
+			// One stream until closed, so that the response can be reused
+			if (this.stream == null) {
+				this.stream = new ByteArrayInputStream(this.body);
+			}
+			return this.stream;
+		}
+
+		@Override
+		public void close() {
+			this.stream = null;
+		}
+	}
+
+}
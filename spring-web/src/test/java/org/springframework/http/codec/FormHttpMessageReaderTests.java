@@ -20,8 +20,10 @@ import java.util.List;
 import java.util.Map;
 
 import org.junit.Test;
+import reactor.test.StepVerifier;
 
 import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
@@ -96,6 +98,15 @@ public class FormHttpMessageReaderTests {
 		assertNull("Invalid result", result.getFirst("name 3"));
 	}
 
+	@Test
+	public void readFormWithLimit() {
+		String body = "name+1=value+1&name+2=value+2%2B1&name+2=value+2%2B2&name+3";
+		this.reader.setMaxInMemorySize(10);
+
+		StepVerifier.create(this.reader.readMono(null, request(body), null))
+				.verifyError(DataBufferLimitException.class);
+	}
+
 
 	private MockServerHttpRequest request(String body) {
 		return MockServerHttpRequest
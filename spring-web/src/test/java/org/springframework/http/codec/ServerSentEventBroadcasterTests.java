@@ -0,0 +1,67 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec;
+
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpResponse;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ServerSentEventBroadcaster}.
+ */
+public class ServerSentEventBroadcasterTests extends AbstractDataBufferAllocatingTestCase {
+
+	@Test
+	public void broadcast() {
+		ServerSentEventBroadcaster broadcaster = new ServerSentEventBroadcaster(
+				new ServerSentEventHttpMessageWriter(new Jackson2JsonEncoder()), this.bufferFactory);
+
+		MockServerHttpResponse first = new MockServerHttpResponse();
+		MockServerHttpResponse second = new MockServerHttpResponse();
+		Mono<Void> firstResult = broadcaster.connect(first);
+		Mono<Void> secondResult = broadcaster.connect(second);
+		firstResult.subscribe();
+		secondResult.subscribe();
+		assertEquals(2, broadcaster.getSubscriberCount());
+
+		StepVerifier.create(broadcaster.broadcast(ServerSentEvent.builder("foo").id("1").build()))
+				.expectNext(2).verifyComplete();
+		StepVerifier.create(broadcaster.broadcast(ServerSentEvent.builder(new Pojo("a", "b")).build()))
+				.expectNext(2).verifyComplete();
+		broadcaster.complete();
+
+		String expected = "id:1\ndata:foo\n\ndata:{\"foo\":\"a\",\"bar\":\"b\"}\n\n";
+		StepVerifier.create(first.getBodyAsString()).expectNext(expected).verifyComplete();
+		StepVerifier.create(second.getBodyAsString()).expectNext(expected).verifyComplete();
+		assertTrue(MediaType.TEXT_EVENT_STREAM.isCompatibleWith(first.getHeaders().getContentType()));
+	}
+
+	@Test
+	public void broadcastWithoutSubscribers() {
+		ServerSentEventBroadcaster broadcaster = new ServerSentEventBroadcaster();
+		StepVerifier.create(broadcaster.broadcast(ServerSentEvent.builder("foo").build()))
+				.expectNext(0).verifyComplete();
+	}
+
+}
@@ -34,13 +34,16 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.CodecException;
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.codec.Pojo;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.MimeType;
 
 import static java.util.Arrays.asList;
@@ -163,6 +166,34 @@ public class Jackson2JsonDecoderTests extends AbstractDataBufferAllocatingTestCa
 				.verifyComplete();
 	}
 
+	@Test
+	public void decodeArrayToFluxWithMaxInMemorySize() throws Exception {
+		Flux<DataBuffer> source = Flux.just(stringBuffer(
+				"[{\"bar\":\"b1\",\"foo\":\"f1\"},{\"bar\":\"b2\",\"foo\":\"f2\"}]"));
+
+		Jackson2JsonDecoder decoder = new Jackson2JsonDecoder();
+		decoder.setMaxInMemorySize(30);
+		Flux<Object> flux = decoder.decode(source, forClass(Pojo.class), null, emptyMap());
+
+		StepVerifier.create(flux)
+				.expectNext(new Pojo("f1", "b1"))
+				.expectNext(new Pojo("f2", "b2"))
+				.verifyComplete();
+	}
+
+	@Test
+	public void decodeToListExceedingMaxInMemorySize() throws Exception {
+		Flux<DataBuffer> source = Flux.just(stringBuffer(
+				"[{\"bar\":\"b1\",\"foo\":\"f1\"},{\"bar\":\"b2\",\"foo\":\"f2\"}]"));
+
+		Jackson2JsonDecoder decoder = new Jackson2JsonDecoder();
+		decoder.setMaxInMemorySize(30);
+		ResolvableType elementType = ResolvableType.forClassWithGenerics(List.class, Pojo.class);
+		Mono<Object> mono = decoder.decodeToMono(source, elementType, null, emptyMap());
+
+		StepVerifier.create(mono).verifyError(DataBufferLimitException.class);
+	}
+
 	@Test
 	public void decodeEmptyArrayToFlux() throws Exception {
 		Flux<DataBuffer> source = Flux.just(stringBuffer("[]"));
@@ -192,6 +223,36 @@ public class Jackson2JsonDecoderTests extends AbstractDataBufferAllocatingTestCa
 				.verifyComplete();
 	}
 
+	@Test
+	public void objectReaderCachedPerJsonView() throws Exception {
+		Jackson2JsonDecoder decoder = new Jackson2JsonDecoder();
+		ResolvableType elementType = forClass(JacksonViewBean.class);
+		String json = "{\"withView1\" : \"with\", \"withView2\" : \"with\", \"withoutView\" : \"without\"}";
+
+		for (int i = 0; i < 2; i++) {
+			StepVerifier.create(decoder.decode(Flux.just(stringBuffer(json)), elementType, null,
+							singletonMap(JSON_VIEW_HINT, MyJacksonView1.class)).cast(JacksonViewBean.class))
+					.consumeNextWith(b -> {
+						assertEquals("with", b.getWithView1());
+						assertNull(b.getWithoutView());
+					})
+					.verifyComplete();
+			StepVerifier.create(decoder.decode(Flux.just(stringBuffer(json)), elementType, null,
+							singletonMap(JSON_VIEW_HINT, MyJacksonView3.class)).cast(JacksonViewBean.class))
+					.consumeNextWith(b -> {
+						assertNull(b.getWithView1());
+						assertEquals("without", b.getWithoutView());
+					})
+					.verifyComplete();
+		}
+
+		ConcurrentLruCache<?, ?> cache = (ConcurrentLruCache<?, ?>)
+				new DirectFieldAccessor(decoder).getPropertyValue("objectReaderCache");
+		assertEquals(2, cache.size());
+		assertEquals(2, cache.missCount());
+		assertEquals(2, cache.hitCount());
+	}
+
 	@Test
 	public void classLevelJsonView() throws Exception {
 		Flux<DataBuffer> source = Flux.just(stringBuffer(
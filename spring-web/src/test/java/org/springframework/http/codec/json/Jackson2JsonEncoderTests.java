@@ -30,11 +30,13 @@ import static org.junit.Assert.assertEquals;
 import static org.springframework.http.MediaType.*;
 import static org.springframework.http.codec.json.Jackson2JsonEncoder.*;
 import static org.springframework.http.codec.json.JacksonViewBean.*;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.MimeType;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
 import org.springframework.core.io.buffer.DataBuffer;
@@ -192,6 +194,45 @@ public class Jackson2JsonEncoderTests extends AbstractDataBufferAllocatingTestCa
 	}
 
 
+	@Test
+	public void objectWriterCachedPerJsonView() throws Exception {
+		JacksonViewBean bean = new JacksonViewBean();
+		bean.setWithView1("with");
+		bean.setWithoutView("without");
+		ResolvableType type = ResolvableType.forClass(JacksonViewBean.class);
+		Map<String, Object> view1 = singletonMap(JSON_VIEW_HINT, MyJacksonView1.class);
+		Map<String, Object> view3 = singletonMap(JSON_VIEW_HINT, MyJacksonView3.class);
+
+		for (int i = 0; i < 2; i++) {
+			StepVerifier.create(this.encoder.encode(Mono.just(bean), this.bufferFactory, type, null, view1))
+					.consumeNextWith(stringConsumer("{\"withView1\":\"with\"}"))
+					.verifyComplete();
+			StepVerifier.create(this.encoder.encode(Mono.just(bean), this.bufferFactory, type, null, view3))
+					.consumeNextWith(stringConsumer("{\"withoutView\":\"without\"}"))
+					.verifyComplete();
+		}
+
+		ConcurrentLruCache<?, ?> cache = (ConcurrentLruCache<?, ?>)
+				new DirectFieldAccessor(this.encoder).getPropertyValue("objectWriterCache");
+		assertEquals(2, cache.size());
+		assertEquals(2, cache.missCount());
+		assertEquals(2, cache.hitCount());
+	}
+
+	@Test
+	public void objectWriterNotCachedForAdditionalHints() throws Exception {
+		Map<String, Object> hints = Collections.singletonMap("custom", "value");
+		ResolvableType type = ResolvableType.forClass(Pojo.class);
+		StepVerifier.create(this.encoder.encode(Mono.just(new Pojo("foo", "bar")), this.bufferFactory, type, null, hints))
+				.consumeNextWith(stringConsumer("{\"foo\":\"foo\",\"bar\":\"bar\"}"))
+				.verifyComplete();
+
+		ConcurrentLruCache<?, ?> cache = (ConcurrentLruCache<?, ?>)
+				new DirectFieldAccessor(this.encoder).getPropertyValue("objectWriterCache");
+		assertEquals(0, cache.size());
+	}
+
+
 	@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
 	private static class ParentClass {
 	}
@@ -18,6 +18,7 @@ package org.springframework.http.codec.json;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 
@@ -35,9 +36,11 @@ import reactor.test.StepVerifier;
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 
 import static java.util.Arrays.*;
 import static java.util.Collections.*;
+import static org.junit.Assert.*;
 
 /**
  * @author Arjen Poutsma
@@ -186,6 +189,57 @@ public class Jackson2TokenizerTests extends AbstractDataBufferAllocatingTestCase
 	}
 
 
+	@Test
+	public void tokenizeArrayElementsWithinLimit() {
+		Flux<DataBuffer> source = Flux.just("[{\"foo\":\"foofoo\"},", "{\"foo\":\"barbar\"}]").map(this::stringBuffer);
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(source, this.jsonFactory, true, 20, -1);
+
+		StepVerifier.create(tokens).expectNextCount(2).verifyComplete();
+	}
+
+	@Test
+	public void tokenizeArrayElementExceedsLimit() {
+		Flux<DataBuffer> source = Flux.just("[{\"foo\":\"foofoo\"},", "{\"foo\":\"barbarbarbar", "barbar\"}]")
+				.map(this::stringBuffer);
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(source, this.jsonFactory, true, 20, -1);
+
+		StepVerifier.create(tokens)
+				.expectNextCount(1)
+				.expectError(DataBufferLimitException.class)
+				.verify();
+	}
+
+	@Test
+	public void tokenizeExceedsTotalLimit() {
+		Flux<DataBuffer> source = Flux.just("[{\"foo\":\"foofoo\"},", "{\"foo\":\"barbar\"}]").map(this::stringBuffer);
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(source, this.jsonFactory, true, -1, 25);
+
+		StepVerifier.create(tokens)
+				.expectNextCount(1)
+				.expectError(DataBufferLimitException.class)
+				.verify();
+	}
+
+	@Test
+	public void tokenizeRequestsInputOnDemand() {
+		List<String> requested = new ArrayList<>();
+		Flux<DataBuffer> source = Flux.just("[{\"foo\":1},", "{\"foo\":2},", "{\"foo\":3}]")
+				.doOnNext(requested::add)
+				.map(this::stringBuffer);
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(source, this.jsonFactory, true);
+
+		StepVerifier.create(tokens, 1)
+				.expectNextCount(1)
+				.then(() -> assertEquals(2, requested.size()))
+				.thenRequest(1)
+				.expectNextCount(1)
+				.then(() -> assertEquals(3, requested.size()))
+				.thenRequest(1)
+				.expectNextCount(1)
+				.verifyComplete();
+	}
+
+
 	private void testTokenize(List<String> source, List<String> expected, boolean tokenizeArrayElements) {
 
 		Flux<TokenBuffer> tokenBufferFlux = Jackson2Tokenizer.tokenize(
@@ -20,27 +20,36 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonView;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.ser.FilterProvider;
 import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
 import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import org.junit.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 
+import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.http.MockHttpInputMessage;
 import org.springframework.http.MockHttpOutputMessage;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConversionException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentLruCache;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
@@ -308,6 +317,22 @@ public class MappingJackson2HttpMessageConverterTests {
 				"  \"name\" : \"Jason\"" + NEWLINE_SYSTEM_PROPERTY + "}", result);
 	}
 
+	@Test
+	public void prettyPrintAfterWrite() throws Exception {
+		PrettyPrintBean bean = new PrettyPrintBean();
+		bean.setName("Jason");
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		this.converter.writeInternal(bean, null, outputMessage);
+		assertEquals("{\"name\":\"Jason\"}", outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+
+		outputMessage = new MockHttpOutputMessage();
+		this.converter.setPrettyPrint(true);
+		this.converter.writeInternal(bean, null, outputMessage);
+		assertEquals("{" + NEWLINE_SYSTEM_PROPERTY +
+				"  \"name\" : \"Jason\"" + NEWLINE_SYSTEM_PROPERTY + "}",
+				outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+	}
+
 	@Test
 	public void prettyPrintWithSse() throws Exception {
 		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
@@ -394,6 +419,25 @@ public class MappingJackson2HttpMessageConverterTests {
 		assertThat(result, not(containsString("\"property2\":\"value\"")));
 	}
 
+	@Test
+	public void filtersNotCached() throws Exception {
+		JacksonFilteredBean bean = new JacksonFilteredBean();
+		bean.setProperty1("value");
+		bean.setProperty2("value");
+		for (String excluded : new String[] {"property1", "property2"}) {
+			MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+			MappingJacksonValue jacksonValue = new MappingJacksonValue(bean);
+			jacksonValue.setFilters(new SimpleFilterProvider().addFilter("myJacksonFilter",
+					SimpleBeanPropertyFilter.serializeAllExcept(excluded)));
+			this.converter.writeInternal(jacksonValue, null, outputMessage);
+			assertThat(outputMessage.getBodyAsString(StandardCharsets.UTF_8), not(containsString(excluded)));
+		}
+
+		ConcurrentLruCache<?, ?> cache = (ConcurrentLruCache<?, ?>)
+				new DirectFieldAccessor(this.converter).getPropertyValue("objectWriterCache");
+		assertEquals(0, cache.size());
+	}
+
 	@Test
 	public void jsonp() throws Exception {
 		MappingJacksonValue jacksonValue = new MappingJacksonValue("foo");
@@ -465,6 +509,69 @@ public class MappingJackson2HttpMessageConverterTests {
 		assertTrue(result.contains("\"number\":123"));
 	}
 
+	@Test
+	public void canWriteStream() {
+		assertTrue(converter.canWrite(Stream.class, MediaType.APPLICATION_JSON));
+		assertTrue(converter.canWrite(Iterator.class, MediaType.APPLICATION_STREAM_JSON));
+		assertFalse(converter.canWrite(Stream.class, MediaType.TEXT_PLAIN));
+	}
+
+	@Test
+	public void writeStream() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		AtomicBoolean closed = new AtomicBoolean();
+		Stream<MyBean> beans = Stream.of("Foo", "Bar", "Baz").map(name -> {
+			MyBean bean = new MyBean();
+			bean.setString(name);
+			return bean;
+		}).onClose(() -> closed.set(true));
+		ParameterizedTypeReference<Stream<MyBean>> typeReference =
+				new ParameterizedTypeReference<Stream<MyBean>>() {};
+
+		this.converter.setStreamingFlushInterval(2);
+		this.converter.write(beans, typeReference.getType(), MediaType.APPLICATION_JSON, outputMessage);
+
+		String result = outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+		JSONAssert.assertEquals("[{\"string\":\"Foo\"},{\"string\":\"Bar\"},{\"string\":\"Baz\"}]", result, false);
+		assertTrue(closed.get());
+	}
+
+	@Test
+	public void writeIteratorAsStreamJson() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		Map<String, Object> foo = Collections.singletonMap("foo", 1);
+		Map<String, Object> bar = Collections.singletonMap("bar", 2);
+
+		this.converter.setPrettyPrint(true);
+		this.converter.write(Arrays.asList(foo, bar).iterator(), null, MediaType.APPLICATION_STREAM_JSON, outputMessage);
+
+		assertEquals("{\"foo\":1}\n{\"bar\":2}\n", outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void writeListAsStreamJson() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		List<String> values = Arrays.asList("foo", "bar");
+
+		this.converter.write(values, null, MediaType.APPLICATION_STREAM_JSON, outputMessage);
+
+		assertEquals("[\"foo\",\"bar\"]", outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void writeJsonNodeNotStreamed() throws Exception {
+		ObjectNode node = new ObjectMapper().createObjectNode().put("foo", "bar");
+		assertFalse(AbstractGenericHttpMessageConverter.isStreamingValue(node));
+
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		this.converter.write(node, null, MediaType.APPLICATION_JSON, outputMessage);
+		assertEquals("{\"foo\":\"bar\"}", outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+
+		outputMessage = new MockHttpOutputMessage();
+		this.converter.write(node, null, MediaType.APPLICATION_STREAM_JSON, outputMessage);
+		assertEquals("{\"foo\":\"bar\"}", outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+	}
+
 	@Test
 	public void readWithNoDefaultConstructor() throws Exception {
 		String body = "{\"property1\":\"foo\",\"property2\":\"bar\"}";
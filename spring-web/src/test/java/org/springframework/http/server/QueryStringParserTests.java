@@ -0,0 +1,84 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link QueryStringParser}.
+ */
+public class QueryStringParserTests {
+
+	private static final Pattern QUERY_PATTERN = Pattern.compile("([^&=]+)(=?)([^&]+)?");
+
+
+	@Test
+	public void parse() {
+		MultiValueMap<String, String> params = QueryStringParser.parse("a=1&b=2&a=3");
+		assertEquals(Arrays.asList("1", "3"), params.get("a"));
+		assertEquals(Collections.singletonList("2"), params.get("b"));
+	}
+
+	@Test
+	public void parseDecoded() {
+		MultiValueMap<String, String> params = QueryStringParser.parse("na%20me=a+b%26c");
+		assertEquals(Collections.singletonList("a b&c"), params.get("na me"));
+	}
+
+	@Test
+	public void parseEmptyAndMissingValues() {
+		MultiValueMap<String, String> params = QueryStringParser.parse("a=&b&=c&&d==e");
+		assertEquals(Collections.singletonList(""), params.get("a"));
+		assertEquals(Collections.singletonList(null), params.get("b"));
+		assertEquals(Collections.singletonList(null), params.get("c"));
+		assertEquals(Collections.singletonList("=e"), params.get("d"));
+	}
+
+	@Test
+	public void parseNull() {
+		assertTrue(QueryStringParser.parse(null).isEmpty());
+	}
+
+	@Test
+	public void sameAsRegex() {
+		String[] queries = {"", "&", "=", "==", "a", "a=", "a==", "=a", "=a=b", "a=b=c", "a&&b", "&a=1&", "a=1&=&b=",
+				"%41=%42", "x=y&x&x=", "a b=c d"};
+		for (String query : queries) {
+			MultiValueMap<String, String> expected = new LinkedMultiValueMap<>();
+			Matcher matcher = QUERY_PATTERN.matcher(query);
+			while (matcher.find()) {
+				String value = matcher.group(3);
+				expected.add(matcher.group(1), (value != null ? value : (StringUtils.hasLength(matcher.group(2)) ? "" : null)));
+			}
+			MultiValueMap<String, String> actual = new LinkedMultiValueMap<>();
+			QueryStringParser.parse(query, actual::add);
+			assertEquals("Query [" + query + "]", expected, actual);
+		}
+	}
+
+}
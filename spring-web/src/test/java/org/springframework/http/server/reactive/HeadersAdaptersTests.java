@@ -0,0 +1,193 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server.reactive;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.undertow.util.HeaderMap;
+import org.apache.tomcat.util.http.MimeHeaders;
+import org.eclipse.jetty.http.HttpFields;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@code MultiValueMap} adapters around native server headers.
+ */
+@RunWith(Parameterized.class)
+public class HeadersAdaptersTests {
+
+	@Parameterized.Parameter(0)
+	public String name;
+
+	@Parameterized.Parameter(1)
+	public MultiValueMap<String, String> headers;
+
+
+	@Parameterized.Parameters(name = "headers [{0}]")
+	public static Object[][] arguments() {
+		return new Object[][] {
+				{"netty", new NettyHeadersAdapter(new DefaultHttpHeaders())},
+				{"tomcat", new TomcatHeadersAdapter(new MimeHeaders())},
+				{"jetty", new JettyHeadersAdapter(new HttpFields())},
+				{"undertow", new UndertowHeadersAdapter(new HeaderMap())}
+		};
+	}
+
+
+	@After
+	public void tearDown() {
+		this.headers.clear();
+	}
+
+
+	@Test
+	public void getWithUnknownHeaderShouldReturnNull() {
+		assertNull(this.headers.get("Unknown"));
+		assertNull(this.headers.getFirst("Unknown"));
+		assertFalse(this.headers.containsKey("Unknown"));
+	}
+
+	@Test
+	public void addShouldKeepOrdering() {
+		this.headers.add("TestHeader", "first");
+		this.headers.add("TestHeader", "second");
+		assertEquals("first", this.headers.getFirst("TestHeader"));
+		assertEquals(Arrays.asList("first", "second"), this.headers.get("TestHeader"));
+	}
+
+	@Test
+	public void headerNamesShouldBeCaseInsensitive() {
+		this.headers.add("TestHeader", "first");
+		assertTrue(this.headers.containsKey("testheader"));
+		assertEquals("first", this.headers.getFirst("TESTHEADER"));
+		assertEquals(1, this.headers.size());
+	}
+
+	@Test
+	public void putShouldOverrideExisting() {
+		this.headers.add("TestHeader", "first");
+		this.headers.put("TestHeader", Collections.singletonList("override"));
+		assertEquals(Collections.singletonList("override"), this.headers.get("TestHeader"));
+	}
+
+	@Test
+	public void setAndRemove() {
+		this.headers.add("TestHeader", "first");
+		this.headers.set("TestHeader", "second");
+		assertEquals(Collections.singletonList("second"), this.headers.get("TestHeader"));
+		assertEquals(Collections.singletonList("second"), this.headers.remove("TestHeader"));
+		assertNull(this.headers.remove("TestHeader"));
+		assertTrue(this.headers.isEmpty());
+	}
+
+	@Test
+	public void keySetAndEntrySet() {
+		this.headers.add("TestHeader", "first");
+		this.headers.add("TestHeader", "second");
+		this.headers.add("OtherHeader", "value");
+
+		assertEquals(2, this.headers.keySet().size());
+		assertEquals(2, this.headers.entrySet().size());
+
+		MultiValueMap<String, String> copy = new LinkedMultiValueMap<>();
+		for (Map.Entry<String, List<String>> entry : this.headers.entrySet()) {
+			copy.put(entry.getKey(), entry.getValue());
+		}
+		assertEquals(Arrays.asList("first", "second"), copy.get("TestHeader"));
+		assertEquals(Collections.singletonList("value"), copy.get("OtherHeader"));
+	}
+
+	@Test
+	public void keySetIteratorRemove() {
+		this.headers.add("TestHeader", "first");
+		this.headers.add("OtherHeader", "value");
+		Iterator<String> names = this.headers.keySet().iterator();
+		while (names.hasNext()) {
+			if (names.next().equalsIgnoreCase("TestHeader")) {
+				names.remove();
+			}
+		}
+		assertFalse(this.headers.containsKey("TestHeader"));
+		assertTrue(this.headers.containsKey("OtherHeader"));
+	}
+
+	@Test
+	public void httpHeadersWriteThrough() {
+		HttpHeaders httpHeaders = new HttpHeaders(this.headers);
+		httpHeaders.setContentType(MediaType.TEXT_PLAIN);
+		httpHeaders.setContentLength(42);
+		assertEquals("text/plain", this.headers.getFirst("Content-Type"));
+		assertEquals("42", this.headers.getFirst("Content-Length"));
+		assertEquals(MediaType.TEXT_PLAIN, HttpHeaders.readOnlyHttpHeadersView(httpHeaders).getContentType());
+	}
+
+	@Test
+	public void httpHeadersAddWriteThrough() {
+		HttpHeaders httpHeaders = new HttpHeaders(this.headers);
+		httpHeaders.add("TestHeader", "first");
+		httpHeaders.add("TestHeader", "second");
+		assertEquals(Arrays.asList("first", "second"), this.headers.get("TestHeader"));
+		assertEquals(Arrays.asList("first", "second"), httpHeaders.get("testheader"));
+	}
+
+	@Test
+	public void httpHeadersAddAllWriteThrough() {
+		HttpHeaders httpHeaders = new HttpHeaders(this.headers);
+		httpHeaders.addAll("TestHeader", Arrays.asList("first", "second"));
+		httpHeaders.addAll("TestHeader", Collections.singletonList("third"));
+		assertEquals(Arrays.asList("first", "second", "third"), this.headers.get("TestHeader"));
+
+		MultiValueMap<String, String> values = new LinkedMultiValueMap<>();
+		values.add("TestHeader", "fourth");
+		values.add("OtherHeader", "value");
+		httpHeaders.addAll(values);
+		assertEquals(Arrays.asList("first", "second", "third", "fourth"), this.headers.get("TestHeader"));
+		assertEquals(Collections.singletonList("value"), this.headers.get("OtherHeader"));
+	}
+
+	@Test
+	public void httpHeadersAddToExistingHeader() {
+		this.headers.add("TestHeader", "first");
+		HttpHeaders httpHeaders = new HttpHeaders(this.headers);
+		httpHeaders.add("TestHeader", "second");
+		assertEquals(Arrays.asList("first", "second"), this.headers.get("TestHeader"));
+	}
+
+	@Test
+	public void removeHttp2ExcludedHeaders() {
+		this.headers.add("Transfer-Encoding", "chunked");
+		this.headers.add("Connection", "keep-alive");
+		this.headers.add("Content-Type", "text/plain");
+		AbstractServerHttpResponse.removeHttp2ExcludedHeaders(new HttpHeaders(this.headers));
+		assertEquals(Collections.singleton("Content-Type"), this.headers.keySet());
+	}
+
+}
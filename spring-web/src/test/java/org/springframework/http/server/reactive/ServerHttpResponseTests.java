@@ -20,6 +20,9 @@ import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Test;
 import org.reactivestreams.Publisher;
@@ -30,11 +33,19 @@ import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DefaultDataBuffer;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.ResponseCookie;
+import org.springframework.mock.web.test.MockAsyncContext;
+import org.springframework.mock.web.test.MockHttpServletRequest;
 
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 /**
  * @author Rossen Stoyanchev
@@ -130,7 +141,39 @@ public class ServerHttpResponseTests {
 		assertSame(cookie, response.getCookies().getFirst("ID"));
 	}
 
+	@Test
+	public void http2ExcludedHeaders() throws Exception {
+		HttpServletResponse servletResponse = createServletResponse("HTTP/2.0",
+				"Connection", "keep-alive", "Transfer-Encoding", "chunked", "Cache-Control", "no-cache");
+
+		verify(servletResponse, never()).addHeader(eq("Connection"), any());
+		verify(servletResponse, never()).addHeader(eq("Transfer-Encoding"), any());
+		verify(servletResponse).addHeader("Cache-Control", "no-cache");
+	}
+
+	@Test
+	public void http11ConnectionHeaders() throws Exception {
+		HttpServletResponse servletResponse = createServletResponse("HTTP/1.1", "Connection", "close");
+
+		verify(servletResponse).addHeader("Connection", "close");
+	}
+
+
+	private HttpServletResponse createServletResponse(String protocol, String... headers) throws Exception {
+		MockHttpServletRequest servletRequest = new MockHttpServletRequest();
+		servletRequest.setProtocol(protocol);
+		HttpServletResponse servletResponse = mock(HttpServletResponse.class);
+		given(servletResponse.getOutputStream()).willReturn(mock(ServletOutputStream.class));
+		AsyncContext asyncContext = new MockAsyncContext(servletRequest, servletResponse);
 
+		ServletServerHttpResponse response = new ServletServerHttpResponse(
+				servletResponse, asyncContext, new DefaultDataBufferFactory(), 1024);
+		for (int i = 0; i < headers.length; i += 2) {
+			response.getHeaders().add(headers[i], headers[i + 1]);
+		}
+		response.setComplete().block();
+		return servletResponse;
+	}
 
 	private DefaultDataBuffer wrap(String a) {
 		return new DefaultDataBufferFactory().wrap(ByteBuffer.wrap(a.getBytes(StandardCharsets.UTF_8)));
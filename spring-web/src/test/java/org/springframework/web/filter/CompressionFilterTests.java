@@ -0,0 +1,176 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.servlet.FilterChain;
+
+import org.junit.Test;
+
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.mock.web.test.MockHttpServletResponse;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.ResponseCompressor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CompressionFilter}.
+ */
+public class CompressionFilterTests {
+
+	private static final String CONTENT = repeat("Hello World! ", 500);
+
+
+	private final CompressionFilter filter = new CompressionFilter();
+
+	private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+
+	private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+
+	@Test
+	public void gzip() throws Exception {
+		this.request.addHeader("Accept-Encoding", "gzip, deflate");
+		this.filter.doFilter(this.request, this.response, chain("text/plain", CONTENT));
+
+		assertEquals("gzip", this.response.getHeader("Content-Encoding"));
+		assertEquals("Accept-Encoding", this.response.getHeader("Vary"));
+		assertNull(this.response.getHeader("Content-Length"));
+		byte[] body = this.response.getContentAsByteArray();
+		assertTrue(body.length < CONTENT.length());
+		assertEquals(CONTENT, decompress(new GZIPInputStream(new ByteArrayInputStream(body))));
+	}
+
+	@Test
+	public void deflate() throws Exception {
+		this.request.addHeader("Accept-Encoding", "gzip;q=0.5, deflate");
+		this.filter.doFilter(this.request, this.response, chain("application/json", CONTENT));
+
+		assertEquals("deflate", this.response.getHeader("Content-Encoding"));
+		byte[] body = this.response.getContentAsByteArray();
+		assertEquals(CONTENT, decompress(new InflaterInputStream(new ByteArrayInputStream(body))));
+	}
+
+	@Test
+	public void writer() throws Exception {
+		this.request.addHeader("Accept-Encoding", "gzip");
+		this.filter.doFilter(this.request, this.response, (request, response) -> {
+			response.setContentType("text/html");
+			response.getWriter().write(CONTENT);
+		});
+
+		assertEquals("gzip", this.response.getHeader("Content-Encoding"));
+		byte[] body = this.response.getContentAsByteArray();
+		assertEquals(CONTENT, decompress(new GZIPInputStream(new ByteArrayInputStream(body))));
+	}
+
+	@Test
+	public void flushedContent() throws Exception {
+		this.request.addHeader("Accept-Encoding", "gzip");
+		this.filter.doFilter(this.request, this.response, (request, response) -> {
+			response.setContentType("text/plain");
+			response.getOutputStream().write("Hello".getBytes(StandardCharsets.UTF_8));
+			response.flushBuffer();
+			response.getOutputStream().write(" World".getBytes(StandardCharsets.UTF_8));
+		});
+
+		assertEquals("gzip", this.response.getHeader("Content-Encoding"));
+		byte[] body = this.response.getContentAsByteArray();
+		assertEquals("Hello World", decompress(new GZIPInputStream(new ByteArrayInputStream(body))));
+	}
+
+	@Test
+	public void belowMinResponseSize() throws Exception {
+		this.request.addHeader("Accept-Encoding", "gzip");
+		this.filter.doFilter(this.request, this.response, chain("text/plain", "Hello World"));
+
+		assertNull(this.response.getHeader("Content-Encoding"));
+		assertEquals("Hello World", this.response.getContentAsString());
+	}
+
+	@Test
+	public void notCompressibleContentType() throws Exception {
+		this.request.addHeader("Accept-Encoding", "gzip");
+		this.filter.doFilter(this.request, this.response, chain("image/png", CONTENT));
+
+		assertNull(this.response.getHeader("Content-Encoding"));
+		assertEquals(CONTENT, this.response.getContentAsString());
+	}
+
+	@Test
+	public void noAcceptEncoding() throws Exception {
+		this.filter.doFilter(this.request, this.response, chain("text/plain", CONTENT));
+
+		assertNull(this.response.getHeader("Content-Encoding"));
+		assertEquals(CONTENT, this.response.getContentAsString());
+	}
+
+	@Test
+	public void compressionPooledUntilLevelChanged() {
+		ResponseCompressor responseCompressor = new ResponseCompressor();
+		ResponseCompressor.Compression compression = responseCompressor.obtainCompression(ResponseCompressor.GZIP);
+		compression.release();
+		assertSame(compression, responseCompressor.obtainCompression(ResponseCompressor.GZIP));
+
+		responseCompressor.setCompressionLevel(1);
+		compression.release();
+		assertNotSame(compression, responseCompressor.obtainCompression(ResponseCompressor.GZIP));
+	}
+
+	@Test
+	public void resolveContentCoding() {
+		ResponseCompressor compressor = new ResponseCompressor();
+		assertEquals("gzip", compressor.resolveContentCoding("deflate, gzip"));
+		assertEquals("gzip", compressor.resolveContentCoding("x-gzip"));
+		assertEquals("deflate", compressor.resolveContentCoding("gzip;q=0.2, deflate;q=0.8"));
+		assertEquals("gzip", compressor.resolveContentCoding("*"));
+		assertEquals("deflate", compressor.resolveContentCoding("gzip;q=0, *"));
+		assertNull(compressor.resolveContentCoding("br, identity"));
+		assertNull(compressor.resolveContentCoding("*;q=0"));
+		assertNull(compressor.resolveContentCoding(""));
+	}
+
+
+	private static FilterChain chain(String contentType, String content) {
+		return (request, response) -> {
+			response.setContentType(contentType);
+			byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+			response.setContentLength(bytes.length);
+			FileCopyUtils.copy(bytes, response.getOutputStream());
+		};
+	}
+
+	private static String decompress(InputStream inputStream) throws Exception {
+		return StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+	}
+
+	private static String repeat(String value, int count) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			builder.append(value);
+		}
+		return builder.toString();
+	}
+
+}
@@ -16,11 +16,16 @@
 
 package org.springframework.web.filter;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Test;
 
+import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.mock.web.test.MockHttpServletRequest;
 import org.springframework.mock.web.test.MockHttpServletResponse;
 import org.springframework.util.FileCopyUtils;
@@ -243,6 +248,127 @@ public class ShallowEtagHeaderFilterTests {
 		assertEquals("Invalid redirect URL", "http://www.google.com", response.getRedirectedUrl());
 	}
 
+	@Test
+	public void filterWithHandlerETag() throws Exception {
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		final byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			((HttpServletResponse) filterResponse).setHeader("ETag", "\"v1\"");
+			FileCopyUtils.copy(responseBody, filterResponse.getOutputStream());
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertEquals("Invalid status", 200, response.getStatus());
+		assertEquals("Invalid ETag header", "\"v1\"", response.getHeader("ETag"));
+		assertArrayEquals("Invalid content", responseBody, response.getContentAsByteArray());
+	}
+
+	@Test
+	public void filterNoMatchWithSpillThreshold() throws Exception {
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		final byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			((HttpServletResponse) filterResponse).setStatus(HttpServletResponse.SC_OK);
+			filterResponse.getOutputStream().write(responseBody[0]);
+			filterResponse.getOutputStream().write(responseBody, 1, responseBody.length - 1);
+			filterResponse.flushBuffer();
+		};
+		filter.setSpillThreshold(4);
+		filter.doFilter(request, response, filterChain);
+
+		assertEquals("Invalid status", 200, response.getStatus());
+		assertEquals("Invalid ETag header", "\"0b10a8db164e0754105b7a99be72e3fe5\"", response.getHeader("ETag"));
+		assertEquals("Invalid Content-Length header", responseBody.length, response.getContentLength());
+		assertArrayEquals("Invalid content", responseBody, response.getContentAsByteArray());
+	}
+
+	@Test
+	public void filterMatchWithSpillThreshold() throws Exception {
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		String etag = "\"0b10a8db164e0754105b7a99be72e3fe5\"";
+		request.addHeader("If-None-Match", etag);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.setContentType("text/plain");
+			filterResponse.setCharacterEncoding("UTF-8");
+			filterResponse.getWriter().write("Hello World");
+		};
+		filter.setSpillThreshold(1024);
+		filter.doFilter(request, response, filterChain);
+
+		assertEquals("Invalid status", 304, response.getStatus());
+		assertEquals("Invalid ETag header", etag, response.getHeader("ETag"));
+		assertEquals("Invalid content", 0, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	public void filterWithHandlerETagAndSpillThreshold() throws Exception {
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		final byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			((HttpServletResponse) filterResponse).setHeader("ETag", "\"v1\"");
+			filterResponse.getOutputStream().write(responseBody);
+			assertTrue(response.isCommitted() || response.getContentAsByteArray().length > 0);
+		};
+		filter.setSpillThreshold(4);
+		filter.doFilter(request, response, filterChain);
+
+		assertEquals("Invalid ETag header", "\"v1\"", response.getHeader("ETag"));
+		assertArrayEquals("Invalid content", responseBody, response.getContentAsByteArray());
+	}
+
+	@Test
+	public void spillFileDeletedOnHandlerException() throws Exception {
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		AtomicReference<Path> spillFile = new AtomicReference<>();
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.getOutputStream().write("Hello World".getBytes(StandardCharsets.UTF_8));
+			spillFile.set((Path) new DirectFieldAccessor(filterResponse).getPropertyValue("spillFile"));
+			throw new ServletException("handler failure");
+		};
+		filter.setSpillThreshold(4);
+		try {
+			filter.doFilter(request, response, filterChain);
+			fail("Should have thrown ServletException");
+		}
+		catch (ServletException ex) {
+			assertEquals("handler failure", ex.getMessage());
+		}
+
+		assertNotNull(spillFile.get());
+		assertFalse(Files.exists(spillFile.get()));
+	}
+
+	@Test
+	public void filterWithCachingDisabledAfterWriteAndSpillThreshold() throws Exception {
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		AtomicReference<Path> spillFile = new AtomicReference<>();
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.getOutputStream().write("Hello ".getBytes(StandardCharsets.UTF_8));
+			ShallowEtagHeaderFilter.disableContentCaching(filterRequest);
+			filterResponse.getOutputStream().write("World".getBytes(StandardCharsets.UTF_8));
+			spillFile.set((Path) new DirectFieldAccessor(filterResponse).getPropertyValue("spillFile"));
+		};
+		filter.setSpillThreshold(4);
+		filter.doFilter(request, response, filterChain);
+
+		assertNull(response.getHeader("ETag"));
+		assertEquals("Hello World", response.getContentAsString());
+		assertNotNull(spillFile.get());
+		assertFalse(Files.exists(spillFile.get()));
+	}
+
 	// SPR-13717
 	@Test
 	public void filterFlushResponse() throws Exception {
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpResponse;
+import org.springframework.mock.web.test.server.MockServerWebExchange;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CompressionWebFilter}.
+ */
+public class CompressionWebFilterTests {
+
+	private static final String CONTENT = repeat("Hello World! ", 500);
+
+
+	private final CompressionWebFilter filter = new CompressionWebFilter();
+
+
+	@Test
+	public void gzipFlux() throws Exception {
+		MockServerWebExchange exchange = exchange("gzip");
+		this.filter.filter(exchange, e -> write(e.getResponse(), MediaType.TEXT_PLAIN,
+				Flux.just(CONTENT.substring(0, 100), CONTENT.substring(100)))).block(Duration.ofSeconds(5));
+
+		HttpHeaders headers = exchange.getResponse().getHeaders();
+		assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals("Accept-Encoding", headers.getFirst(HttpHeaders.VARY));
+		assertEquals(CONTENT, gunzip(exchange.getResponse()));
+	}
+
+	@Test
+	public void gzipMono() throws Exception {
+		MockServerWebExchange exchange = exchange("gzip");
+		this.filter.filter(exchange, e -> {
+			ServerHttpResponse response = e.getResponse();
+			response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+			return response.writeWith(Mono.just(buffer(CONTENT)));
+		}).block(Duration.ofSeconds(5));
+
+		assertEquals("gzip", exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(CONTENT, gunzip(exchange.getResponse()));
+	}
+
+	@Test
+	public void gzipWriteAndFlush() throws Exception {
+		MockServerWebExchange exchange = exchange("gzip");
+		this.filter.filter(exchange, e -> {
+			ServerHttpResponse response = e.getResponse();
+			response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+			return response.writeAndFlushWith(Flux.just("Hello", " World").map(s -> Mono.just(buffer(s))));
+		}).block(Duration.ofSeconds(5));
+
+		assertEquals("gzip", exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals("Hello World", gunzip(exchange.getResponse()));
+	}
+
+	@Test
+	public void belowMinResponseSize() {
+		MockServerWebExchange exchange = exchange("gzip");
+		this.filter.filter(exchange, e -> {
+			ServerHttpResponse response = e.getResponse();
+			response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+			return response.writeWith(Mono.just(buffer("Hello World")));
+		}).block(Duration.ofSeconds(5));
+
+		assertFalse(exchange.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING));
+		assertEquals("Hello World", exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5)));
+	}
+
+	@Test
+	public void monoWrittenOnce() {
+		assertEquals(1, countWrites(Mono.just(CONTENT)));
+		assertEquals(1, countWrites(Mono.just("Hello World")));
+		assertEquals(1, countWrites(Mono.empty()));
+	}
+
+	private int countWrites(Mono<String> content) {
+		AtomicInteger writes = new AtomicInteger();
+		MockServerWebExchange mockExchange = exchange("gzip");
+		ServerWebExchange exchange = mockExchange.mutate().response(
+				new ServerHttpResponseDecorator(mockExchange.getResponse()) {
+					@Override
+					public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+						writes.incrementAndGet();
+						return super.writeWith(body);
+					}
+				}).build();
+		this.filter.filter(exchange, e -> {
+			ServerHttpResponse response = e.getResponse();
+			response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+			return response.writeWith(content.map(CompressionWebFilterTests::buffer));
+		}).block(Duration.ofSeconds(5));
+		return writes.get();
+	}
+
+	@Test
+	public void notCompressibleContentType() {
+		MockServerWebExchange exchange = exchange("gzip");
+		this.filter.filter(exchange, e -> write(e.getResponse(), MediaType.IMAGE_PNG, Flux.just(CONTENT)))
+				.block(Duration.ofSeconds(5));
+
+		assertFalse(exchange.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(CONTENT, exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5)));
+	}
+
+	@Test
+	public void noAcceptEncoding() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+		this.filter.filter(exchange, e -> write(e.getResponse(), MediaType.TEXT_PLAIN, Flux.just(CONTENT)))
+				.block(Duration.ofSeconds(5));
+
+		assertFalse(exchange.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(CONTENT, exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5)));
+	}
+
+
+	private static MockServerWebExchange exchange(String acceptEncoding) {
+		return MockServerWebExchange.from(
+				MockServerHttpRequest.get("/").header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+	}
+
+	private static Mono<Void> write(ServerHttpResponse response, MediaType contentType, Flux<String> content) {
+		response.getHeaders().setContentType(contentType);
+		return response.writeWith(content.map(CompressionWebFilterTests::buffer));
+	}
+
+	private static DataBuffer buffer(String value) {
+		return new DefaultDataBufferFactory().wrap(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String gunzip(MockServerHttpResponse response) throws Exception {
+		DataBuffer joined = DataBufferUtils.join(response.getBody()).block(Duration.ofSeconds(5));
+		assertNotNull(joined);
+		byte[] bytes = new byte[joined.readableByteCount()];
+		joined.read(bytes);
+		DataBufferUtils.release(joined);
+		return StreamUtils.copyToString(new GZIPInputStream(new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8);
+	}
+
+	private static String repeat(String value, int count) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			builder.append(value);
+		}
+		return builder.toString();
+	}
+
+}
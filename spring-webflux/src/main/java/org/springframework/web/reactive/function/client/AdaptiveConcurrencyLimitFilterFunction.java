@@ -0,0 +1,137 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link ExchangeFilterFunction} that limits the number of concurrent
+ * requests, adjusting the limit from observed round-trip times in the
+ * manner of a gradient-based congestion control algorithm.
+ *
+ * <p>The lowest round-trip time observed approximates the latency of an
+ * unloaded server. When round-trip times grow beyond it, requests are
+ * queueing up on the server side and the limit is reduced proportionally;
+ * otherwise the limit grows by roughly its square root. Errors reduce the
+ * limit multiplicatively. Requests above the current limit are rejected
+ * immediately with a {@link ConcurrencyLimitExceededException}.
+ *
+ * <p>The round-trip time is measured until the response status and headers
+ * are received, which is also when a request stops counting towards the limit.
+ *
+ * @since 5.0.16
+ * @see ExchangeFilterFunctions#adaptiveConcurrencyLimit(int, int)
+ */
+public class AdaptiveConcurrencyLimitFilterFunction implements ExchangeFilterFunction {
+
+	private static final double SMOOTHING = 0.2;
+
+	private static final double BACKOFF_RATIO = 0.9;
+
+	private static final int MIN_RTT_RESET_SAMPLES = 1000;
+
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private volatile double limit;
+
+	private long minRttNanos = Long.MAX_VALUE;
+
+	private int samples;
+
+
+	/**
+	 * Create a new instance with the given bounds.
+	 * @param initialLimit the limit to start with
+	 * @param minLimit the lower bound for the limit
+	 * @param maxLimit the upper bound for the limit
+	 */
+	public AdaptiveConcurrencyLimitFilterFunction(int initialLimit, int minLimit, int maxLimit) {
+		Assert.isTrue(minLimit > 0, "Min limit must be greater than 0");
+		Assert.isTrue(minLimit <= initialLimit && initialLimit <= maxLimit,
+				"Initial limit must be between min and max limit");
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.limit = initialLimit;
+	}
+
+
+	/**
+	 * Return the current concurrency limit.
+	 */
+	public int getLimit() {
+		return (int) this.limit;
+	}
+
+	/**
+	 * Return the number of requests currently awaiting a response.
+	 */
+	public int getInFlight() {
+		return this.inFlight.get();
+	}
+
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		return Mono.defer(() -> {
+			int currentLimit = getLimit();
+			int inFlight = this.inFlight.incrementAndGet();
+			if (inFlight > currentLimit) {
+				this.inFlight.decrementAndGet();
+				return Mono.error(new ConcurrencyLimitExceededException(
+						"Concurrency limit of " + currentLimit + " reached for " + request.url(), currentLimit));
+			}
+			long start = System.nanoTime();
+			return next.exchange(request)
+					.doOnSuccess(response -> onSample(System.nanoTime() - start, inFlight))
+					.doOnError(ex -> onError())
+					.doFinally(signalType -> this.inFlight.decrementAndGet());
+		});
+	}
+
+	private synchronized void onSample(long rttNanos, int inFlight) {
+		if (++this.samples % MIN_RTT_RESET_SAMPLES == 0) {
+			// Periodically forget the minimum so the baseline can follow server changes
+			this.minRttNanos = rttNanos;
+		}
+		else if (rttNanos < this.minRttNanos) {
+			this.minRttNanos = rttNanos;
+		}
+		double currentLimit = this.limit;
+		if (inFlight * 2 < currentLimit) {
+			// Too few requests to tell whether a higher limit would be sustainable
+			return;
+		}
+		double gradient = Math.max(0.5, Math.min(1.0, (double) this.minRttNanos / rttNanos));
+		double newLimit = currentLimit * gradient + Math.sqrt(currentLimit);
+		newLimit = currentLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+		this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, newLimit));
+	}
+
+	private synchronized void onError() {
+		this.limit = Math.max(this.minLimit, this.limit * BACKOFF_RATIO);
+	}
+
+}
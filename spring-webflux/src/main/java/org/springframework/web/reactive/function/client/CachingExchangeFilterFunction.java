@@ -0,0 +1,197 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.support.HttpResponseCache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.BodyExtractors;
+
+/**
+ * {@link ExchangeFilterFunction} that serves {@code GET} requests from an
+ * {@link HttpResponseCache} while the stored response is fresh, and
+ * revalidates stale responses with a conditional request. This is the
+ * {@code WebClient} equivalent of the
+ * {@link org.springframework.http.client.support.CachingClientHttpRequestInterceptor
+ * CachingClientHttpRequestInterceptor}, and both may share the same cache.
+ *
+ * <p>Cacheable response bodies are streamed to the caller and stored once they
+ * have been read completely, unless their {@code Content-Length} exceeds the
+ * {@link HttpResponseCache#setMaxEntrySize max entry size}. A copy of the body
+ * is kept up to the max entry size only: once a response without
+ * {@code Content-Length} turns out to be larger, it is passed through uncached.
+ * Successful {@code POST}, {@code PUT}, {@code PATCH} and {@code DELETE}
+ * requests invalidate the response stored for the same URI.
+ *
+ * @since 5.0.16
+ * @see ExchangeFilterFunctions#cache(HttpResponseCache)
+ */
+public class CachingExchangeFilterFunction implements ExchangeFilterFunction {
+
+	private static final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+
+	private final HttpResponseCache cache;
+
+	private final ExchangeStrategies strategies;
+
+
+	/**
+	 * Create a new filter using the given cache, and the
+	 * {@link ExchangeStrategies#withDefaults() default strategies} for reading
+	 * the body of responses served from the cache.
+	 */
+	public CachingExchangeFilterFunction(HttpResponseCache cache) {
+		this(cache, ExchangeStrategies.withDefaults());
+	}
+
+	/**
+	 * Create a new filter using the given cache, and the given strategies for
+	 * reading the body of responses served from the cache. These should match
+	 * the strategies the {@code WebClient} is configured with.
+	 */
+	public CachingExchangeFilterFunction(HttpResponseCache cache, ExchangeStrategies strategies) {
+		Assert.notNull(cache, "HttpResponseCache must not be null");
+		Assert.notNull(strategies, "ExchangeStrategies must not be null");
+		this.cache = cache;
+		this.strategies = strategies;
+	}
+
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		if (!this.cache.isCacheableRequest(request.method(), request.headers())) {
+			Mono<ClientResponse> result = next.exchange(request);
+			if (this.cache.isInvalidatingRequest(request.method())) {
+				result = result.doOnNext(response -> {
+					if (!response.statusCode().isError()) {
+						this.cache.invalidate(request.url());
+					}
+				});
+			}
+			return result;
+		}
+		return Mono.defer(() -> {
+			URI uri = request.url();
+			long requestTime = System.currentTimeMillis();
+			HttpResponseCache.CachedResponse cached = this.cache.get(uri, request.headers());
+			if (cached != null && cached.isFresh(request.headers(), requestTime)) {
+				this.cache.hit();
+				return Mono.just(createResponse(cached, this.strategies));
+			}
+			if (cached != null && cached.isRevalidatable()) {
+				ClientRequest conditionalRequest = ClientRequest.from(request)
+						.headers(cached::applyConditionalHeaders)
+						.build();
+				return next.exchange(conditionalRequest).flatMap(response -> {
+					if (response.statusCode() != HttpStatus.NOT_MODIFIED) {
+						return store(request, response, requestTime);
+					}
+					HttpResponseCache.CachedResponse revalidated = this.cache.revalidated(uri, request.headers(),
+							cached, response.headers().asHttpHeaders(), requestTime, System.currentTimeMillis());
+					return response.body(BodyExtractors.toDataBuffers())
+							.doOnNext(DataBufferUtils::release)
+							.then(Mono.fromCallable(() -> createResponse(revalidated, response.strategies())));
+				});
+			}
+			return next.exchange(request).flatMap(response -> store(request, response, requestTime));
+		});
+	}
+
+	private Mono<ClientResponse> store(ClientRequest request, ClientResponse response, long requestTime) {
+		long responseTime = System.currentTimeMillis();
+		HttpHeaders headers = response.headers().asHttpHeaders();
+		int statusCode = response.statusCode().value();
+		if (!this.cache.isCacheableResponse(statusCode, headers)) {
+			return Mono.just(response);
+		}
+		BodyCopy copy = new BodyCopy(this.cache.getMaxEntrySize());
+		Flux<DataBuffer> body = response.body(BodyExtractors.toDataBuffers())
+				.doOnNext(copy::append)
+				.doOnComplete(() -> {
+					byte[] bytes = copy.getBytes();
+					if (bytes != null) {
+						this.cache.put(request.url(), request.headers(), statusCode, headers,
+								bytes, requestTime, responseTime);
+					}
+				});
+		return Mono.just(ClientResponse.from(response).body(body).build());
+	}
+
+	private static ClientResponse createResponse(HttpResponseCache.CachedResponse cached,
+			ExchangeStrategies strategies) {
+
+		HttpStatus status = HttpStatus.valueOf(cached.getStatusCode());
+		byte[] body = cached.getBody();
+		return ClientResponse.create(status, strategies)
+				.headers(headers -> headers.putAll(cached.getHeaders()))
+				.body(Flux.defer(() -> body.length > 0 ?
+						Flux.<DataBuffer>just(bufferFactory.wrap(body)) : Flux.empty()))
+				.build();
+	}
+
+
+	/**
+	 * Copy of a response body as it is read, up to a maximum size.
+	 */
+	private static class BodyCopy {
+
+		private final long maxSize;
+
+		@Nullable
+		private ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+		BodyCopy(long maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		void append(DataBuffer buffer) {
+			if (this.content == null) {
+				return;
+			}
+			if (this.content.size() + buffer.readableByteCount() > this.maxSize) {
+				this.content = null;
+				return;
+			}
+			ByteBuffer byteBuffer = buffer.asByteBuffer();
+			byte[] bytes = new byte[byteBuffer.remaining()];
+			byteBuffer.get(bytes);
+			this.content.write(bytes, 0, bytes.length);
+		}
+
+		/**
+		 * Return the copied body, or {@code null} if it exceeded the maximum size.
+		 */
+		@Nullable
+		byte[] getBytes() {
+			return (this.content != null ? this.content.toByteArray() : null);
+		}
+	}
+
+}
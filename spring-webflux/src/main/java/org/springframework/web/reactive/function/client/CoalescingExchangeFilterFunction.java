@@ -0,0 +1,215 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.BodyExtractors;
+
+/**
+ * {@link ExchangeFilterFunction} that coalesces concurrent identical
+ * {@code GET} and {@code HEAD} requests into a single exchange, so that a
+ * burst of requests for the same resource results in one upstream call.
+ *
+ * <p>Requests are considered identical if they have the same method, URL,
+ * credentials and values for the configured request headers, e.g.
+ * {@code Accept}. Credentials, i.e. the {@code Authorization} and
+ * {@code Cookie} headers as well as the request cookies, are always compared
+ * so that a response for one user is never shared with another. The body of the shared response is aggregated into
+ * a single buffer, which every coalesced caller receives its own
+ * {@linkplain DataBuffer#slice slice} of, retained for pooled buffers.
+ * Each caller must consume or release the body as usual.
+ *
+ * <p>Only requests that are in flight at the same time are coalesced; a
+ * request issued after the shared response was received results in a new
+ * exchange.
+ *
+ * @since 5.0.16
+ * @see ExchangeFilterFunctions#coalesce(String...)
+ */
+public class CoalescingExchangeFilterFunction implements ExchangeFilterFunction {
+
+	private static final List<String> CREDENTIAL_HEADER_NAMES =
+			Arrays.asList(HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE);
+
+
+	private final List<String> headerNames;
+
+	private final Map<List<Object>, SharedExchange> inFlight = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Create a new filter that distinguishes requests by method, URL,
+	 * credentials and the values of the given request headers.
+	 * @param headerNames the names of further request headers to compare
+	 */
+	public CoalescingExchangeFilterFunction(String... headerNames) {
+		this.headerNames = Arrays.asList(headerNames);
+	}
+
+
+	/**
+	 * Return the number of distinct exchanges currently in flight.
+	 */
+	public int getInFlightCount() {
+		return this.inFlight.size();
+	}
+
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		if (request.method() != HttpMethod.GET && request.method() != HttpMethod.HEAD) {
+			return next.exchange(request);
+		}
+		return Mono.defer(() -> {
+			List<Object> key = getKey(request);
+			SharedExchange exchange = this.inFlight.computeIfAbsent(key, k -> new SharedExchange(k, request, next));
+			if (!exchange.join()) {
+				// Completed in the meantime
+				return next.exchange(request);
+			}
+			AtomicBoolean served = new AtomicBoolean();
+			return exchange.response
+					.map(response -> {
+						served.set(true);
+						return exchange.share(response);
+					})
+					.doFinally(signalType -> {
+						if (!served.get()) {
+							exchange.leave();
+						}
+					});
+		});
+	}
+
+	private List<Object> getKey(ClientRequest request) {
+		List<Object> key = new ArrayList<>(this.headerNames.size() + 5);
+		key.add(request.method());
+		key.add(request.url());
+		key.add(request.cookies());
+		addHeaderValues(key, request, CREDENTIAL_HEADER_NAMES);
+		addHeaderValues(key, request, this.headerNames);
+		return key;
+	}
+
+	private static void addHeaderValues(List<Object> key, ClientRequest request, List<String> headerNames) {
+		for (String headerName : headerNames) {
+			List<String> values = request.headers().get(headerName);
+			key.add(values != null ? values : Collections.emptyList());
+		}
+	}
+
+
+	/**
+	 * An exchange in flight, shared by all callers that joined it before it
+	 * completed. The aggregated body buffer is released once every caller
+	 * received its own retained slice, or cancelled.
+	 */
+	private final class SharedExchange {
+
+		private final Mono<SharedResponse> response;
+
+		private int subscribers;
+
+		private boolean completed;
+
+		@Nullable
+		private DataBuffer body;
+
+		SharedExchange(List<Object> key, ClientRequest request, ExchangeFunction next) {
+			this.response = next.exchange(request)
+					.flatMap(response -> DataBufferUtils.join(response.body(BodyExtractors.toDataBuffers()))
+							.map(buffer -> new SharedResponse(response, buffer))
+							.defaultIfEmpty(new SharedResponse(response, null)))
+					.doOnNext(response -> setBody(response.body))
+					.doFinally(signalType -> {
+						inFlight.remove(key, this);
+						complete();
+					})
+					.cache();
+		}
+
+		synchronized boolean join() {
+			if (this.completed) {
+				return false;
+			}
+			this.subscribers++;
+			return true;
+		}
+
+		synchronized void leave() {
+			this.subscribers--;
+			releaseIfDone();
+		}
+
+		synchronized ClientResponse share(SharedResponse response) {
+			Flux<DataBuffer> body = Flux.empty();
+			if (response.body != null) {
+				DataBuffer buffer = DataBufferUtils.retain(response.body);
+				body = Flux.just(buffer.slice(0, buffer.readableByteCount()));
+			}
+			this.subscribers--;
+			releaseIfDone();
+			return ClientResponse.from(response.response).body(body).build();
+		}
+
+		private synchronized void setBody(@Nullable DataBuffer body) {
+			this.body = body;
+		}
+
+		private synchronized void complete() {
+			this.completed = true;
+			releaseIfDone();
+		}
+
+		private void releaseIfDone() {
+			if (this.completed && this.subscribers == 0 && this.body != null) {
+				DataBufferUtils.release(this.body);
+				this.body = null;
+			}
+		}
+	}
+
+
+	private static final class SharedResponse {
+
+		final ClientResponse response;
+
+		@Nullable
+		final DataBuffer body;
+
+		SharedResponse(ClientResponse response, @Nullable DataBuffer body) {
+			this.response = response;
+			this.body = body;
+		}
+	}
+
+}
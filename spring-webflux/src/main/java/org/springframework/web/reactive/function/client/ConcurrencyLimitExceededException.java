@@ -0,0 +1,52 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+/**
+ * Exception published when a request is rejected without being sent, because
+ * a limit on the number of concurrent requests has been reached.
+ *
+ * @since 5.0.16
+ * @see ExchangeFilterFunctions#bulkhead(int)
+ * @see AdaptiveConcurrencyLimitFilterFunction
+ */
+public class ConcurrencyLimitExceededException extends WebClientException {
+
+	private static final long serialVersionUID = -2170917962839437442L;
+
+	private final int limit;
+
+
+	/**
+	 * Create a new instance with the given message and the limit in effect.
+	 * @param msg the message
+	 * @param limit the concurrency limit that was reached
+	 */
+	public ConcurrencyLimitExceededException(String msg, int limit) {
+		super(msg);
+		this.limit = limit;
+	}
+
+
+	/**
+	 * Return the concurrency limit that was reached.
+	 */
+	public int getLimit() {
+		return this.limit;
+	}
+
+}
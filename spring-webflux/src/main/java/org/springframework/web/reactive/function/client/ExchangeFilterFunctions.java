@@ -18,22 +18,32 @@ package org.springframework.web.reactive.function.client;
 
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
 import reactor.core.publisher.Mono;
 
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.client.support.HttpResponseCache;
 import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.BodyExtractors;
 
 /**
  * Static factory methods providing access to built-in implementations of
- * {@link ExchangeFilterFunction} for basic authentication, error handling, etc.
+ * {@link ExchangeFilterFunction} for basic authentication, error handling,
+ * hedging, concurrency limits, caching, request coalescing, etc.
  *
  * @author Rob Winch
  * @author Arjen Poutsma
@@ -130,6 +140,140 @@ public abstract class ExchangeFilterFunctions {
 	}
 
 
+	/**
+	 * Return a filter that hedges {@code GET}, {@code HEAD} and
+	 * {@code OPTIONS} requests: if no response has been received within the
+	 * given delay, a second, identical request is sent, and whichever
+	 * response arrives first is used while the other request is cancelled.
+	 * <p>The delay is typically set to a high percentile, e.g. p95, of the
+	 * observed latency, which caps tail latency at the cost of a few percent
+	 * of additional requests. Other HTTP methods are passed through as is.
+	 * @param delay how long to wait for a response before sending a backup request
+	 * @return the hedging filter
+	 * @since 5.0.16
+	 */
+	public static ExchangeFilterFunction hedge(Duration delay) {
+		Assert.notNull(delay, "Delay must not be null");
+		return (request, next) -> (isHedgeable(request) ?
+				Mono.defer(() -> hedgedExchange(request, next, delay)) :
+				next.exchange(request));
+	}
+
+	/**
+	 * Variant of {@link #hedge(Duration)} with a delay derived from recent
+	 * latency, i.e. the given percentile of the response times of the last
+	 * 128 hedged requests.
+	 * @param percentile the percentile of recent latency to use as delay,
+	 * between 0 (exclusive) and 1 (inclusive), e.g. 0.95
+	 * @param initialDelay the delay to use until enough latency samples exist
+	 * @return the hedging filter
+	 * @since 5.0.16
+	 */
+	public static ExchangeFilterFunction hedge(double percentile, Duration initialDelay) {
+		Assert.isTrue(percentile > 0 && percentile <= 1, "Percentile must be between 0 and 1");
+		Assert.notNull(initialDelay, "Initial delay must not be null");
+		LatencyWindow window = new LatencyWindow();
+		return (request, next) -> {
+			if (!isHedgeable(request)) {
+				return next.exchange(request);
+			}
+			return Mono.defer(() -> {
+				long start = System.nanoTime();
+				Duration delay = window.percentile(percentile, initialDelay);
+				return hedgedExchange(request, next, delay)
+						.doOnSuccess(response -> window.record(System.nanoTime() - start));
+			});
+		};
+	}
+
+	private static boolean isHedgeable(ClientRequest request) {
+		HttpMethod method = request.method();
+		return (HttpMethod.GET == method || HttpMethod.HEAD == method || HttpMethod.OPTIONS == method);
+	}
+
+	private static Mono<ClientResponse> hedgedExchange(ClientRequest request, ExchangeFunction next, Duration delay) {
+		// Only the first response is passed on: a response that loses the race
+		// (after both exchanges emitted) has its body drained to free the connection
+		AtomicBoolean claimed = new AtomicBoolean();
+		Function<ClientResponse, Mono<ClientResponse>> claim = response -> {
+			if (claimed.compareAndSet(false, true)) {
+				return Mono.just(response);
+			}
+			response.body(BodyExtractors.toDataBuffers()).doOnNext(DataBufferUtils::release).subscribe();
+			return Mono.never();
+		};
+		return Mono.first(next.exchange(request).flatMap(claim),
+				Mono.delay(delay).then(Mono.defer(() -> next.exchange(request))).flatMap(claim));
+	}
+
+	/**
+	 * Return a filter that limits the number of concurrent requests to each
+	 * host, so that one slow downstream service cannot tie up all connections
+	 * and threads of the caller. Requests above the limit are rejected
+	 * immediately with a {@link ConcurrencyLimitExceededException}.
+	 * <p>A request counts towards the limit until its response status and
+	 * headers are received.
+	 * @param maxConcurrentRequestsPerHost the maximum number of requests per
+	 * host (and port) awaiting a response
+	 * @return the bulkhead filter
+	 * @since 5.0.16
+	 */
+	public static ExchangeFilterFunction bulkhead(int maxConcurrentRequestsPerHost) {
+		Assert.isTrue(maxConcurrentRequestsPerHost > 0, "Max concurrent requests must be greater than 0");
+		Map<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+		return (request, next) -> Mono.defer(() -> {
+			String host = request.url().getHost() + ":" + request.url().getPort();
+			AtomicInteger counter = counters.computeIfAbsent(host, key -> new AtomicInteger());
+			if (counter.incrementAndGet() > maxConcurrentRequestsPerHost) {
+				counter.decrementAndGet();
+				return Mono.error(new ConcurrencyLimitExceededException("Concurrency limit of " +
+						maxConcurrentRequestsPerHost + " reached for host " + request.url().getHost(),
+						maxConcurrentRequestsPerHost));
+			}
+			return next.exchange(request).doFinally(signalType -> counter.decrementAndGet());
+		});
+	}
+
+	/**
+	 * Return a filter that limits the number of concurrent requests with a
+	 * limit that adapts to observed round-trip times.
+	 * @param initialLimit the limit to start with
+	 * @param maxLimit the upper bound for the limit
+	 * @return the concurrency limiting filter
+	 * @since 5.0.16
+	 * @see AdaptiveConcurrencyLimitFilterFunction
+	 */
+	public static AdaptiveConcurrencyLimitFilterFunction adaptiveConcurrencyLimit(int initialLimit, int maxLimit) {
+		return new AdaptiveConcurrencyLimitFilterFunction(initialLimit, 1, maxLimit);
+	}
+
+	/**
+	 * Return a filter that serves {@code GET} requests from the given HTTP
+	 * response cache while stored responses are fresh, and revalidates them
+	 * with conditional requests once stale.
+	 * @param cache the cache to use, possibly shared with a {@code RestTemplate}
+	 * @return the caching filter
+	 * @since 5.0.16
+	 * @see CachingExchangeFilterFunction
+	 */
+	public static ExchangeFilterFunction cache(HttpResponseCache cache) {
+		return new CachingExchangeFilterFunction(cache);
+	}
+
+	/**
+	 * Return a filter that coalesces concurrent identical {@code GET} and
+	 * {@code HEAD} requests into a single exchange, sharing its response.
+	 * @param headerNames the request headers that, in addition to the method,
+	 * URL and credentials, must be equal for requests to be coalesced
+	 * @return the coalescing filter
+	 * @since 5.0.16
+	 * @see CoalescingExchangeFilterFunction
+	 */
+	public static ExchangeFilterFunction coalesce(String... headerNames) {
+		return new CoalescingExchangeFilterFunction(headerNames);
+	}
+
+
 	/**
 	 * Stores user and password for HTTP basic authentication.
 	 * @see #basicAuthentication()
@@ -188,4 +332,37 @@ public abstract class ExchangeFilterFunctions {
 		}
 	}
 
+
+	/**
+	 * Ring buffer of recent latency samples for percentile-based hedging.
+	 */
+	private static final class LatencyWindow {
+
+		static final int SIZE = 128;
+
+		private static final int MIN_SAMPLES = 16;
+
+		private final long[] samples = new long[SIZE];
+
+		private long count;
+
+		synchronized void record(long nanos) {
+			this.samples[(int) (this.count % SIZE)] = nanos;
+			this.count++;
+		}
+
+		Duration percentile(double percentile, Duration defaultDelay) {
+			long[] sorted;
+			synchronized (this) {
+				if (this.count < MIN_SAMPLES) {
+					return defaultDelay;
+				}
+				sorted = Arrays.copyOf(this.samples, (int) Math.min(this.count, SIZE));
+			}
+			Arrays.sort(sorted);
+			int index = (int) Math.ceil(percentile * sorted.length) - 1;
+			return Duration.ofNanos(sorted[Math.max(0, index)]);
+		}
+	}
+
 }
@@ -0,0 +1,489 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.ResponseCompressor;
+
+/**
+ * A {@link ResourceResolver} that keeps the content of small resources in
+ * memory, so that repeated requests are served from a wrapped byte array
+ * without going through the rest of the resolver chain or reading the
+ * underlying file again.
+ *
+ * <p>For each cached resource the {@code ETag} (an MD5 hash of the content),
+ * the last-modified timestamp and the content length are computed once.
+ * A {@code gzip} variant is precomputed for compressible content types unless
+ * a ".gz" file exists next to the resource, in which case that file is used.
+ * Likewise a ".br" file is picked up as {@code br} variant, since Brotli can
+ * only be served precompressed. Precompressed files older than the resource
+ * itself are ignored. The variant is selected per request from the coding
+ * tokens and quality values of the "Accept-Encoding" header, which makes
+ * {@link GzipResourceResolver} unnecessary in the same chain.
+ *
+ * <p>The cache is bounded by the {@link #setMaxFileSize size per resource}
+ * and the {@link #setMaxCacheSize total size}, evicting the least recently
+ * used resources first. Cached entries are re-validated against the
+ * last-modified timestamps of the underlying resource and of its precompressed
+ * variants at most once per
+ * {@link #setCheckIntervalMillis check interval}, so that changed files are
+ * picked up without a restart.
+ *
+ * <p>This resolver should be placed first in the chain, or right after a
+ * {@link CachingResourceResolver}.
+ *
+ * @since 5.0.16
+ */
+public class ContentCachingResourceResolver extends AbstractResourceResolver {
+
+	private final Map<String, CachedContent> cache = new ConcurrentHashMap<>(64);
+
+	private final AtomicLong cacheSize = new AtomicLong();
+
+	private final ResponseCompressor compressor = new ResponseCompressor();
+
+	private int maxFileSize = 64 * 1024;
+
+	private long maxCacheSize = 16 * 1024 * 1024;
+
+	private long checkIntervalMillis = 1000;
+
+
+	/**
+	 * Set the maximum size in bytes of a resource to keep in memory.
+	 * Larger resources are passed through uncached.
+	 * <p>By default this is set to 64K.
+	 */
+	public void setMaxFileSize(int maxFileSize) {
+		Assert.isTrue(maxFileSize > 0, "'maxFileSize' must be greater than 0");
+		this.maxFileSize = maxFileSize;
+	}
+
+	/**
+	 * Return the maximum size in bytes of a resource to keep in memory.
+	 */
+	public int getMaxFileSize() {
+		return this.maxFileSize;
+	}
+
+	/**
+	 * Set the maximum number of bytes to keep in memory for all cached
+	 * resources, including their compressed variants.
+	 * <p>By default this is set to 16M.
+	 */
+	public void setMaxCacheSize(long maxCacheSize) {
+		Assert.isTrue(maxCacheSize > 0, "'maxCacheSize' must be greater than 0");
+		this.maxCacheSize = maxCacheSize;
+	}
+
+	/**
+	 * Return the maximum number of bytes to keep in memory.
+	 */
+	public long getMaxCacheSize() {
+		return this.maxCacheSize;
+	}
+
+	/**
+	 * Set the minimum number of milliseconds between checks of the
+	 * last-modified timestamp of a cached resource.
+	 * <p>By default this is set to 1000. A value of 0 checks on every request,
+	 * while a negative value never checks, e.g. for immutable deployments.
+	 */
+	public void setCheckIntervalMillis(long checkIntervalMillis) {
+		this.checkIntervalMillis = checkIntervalMillis;
+	}
+
+	/**
+	 * Return the minimum number of milliseconds between last-modified checks.
+	 */
+	public long getCheckIntervalMillis() {
+		return this.checkIntervalMillis;
+	}
+
+	/**
+	 * Return the number of bytes currently held in memory.
+	 */
+	public long getCacheSize() {
+		return this.cacheSize.get();
+	}
+
+	/**
+	 * Remove all cached content.
+	 */
+	public void clearCache() {
+		for (Map.Entry<String, CachedContent> entry : this.cache.entrySet()) {
+			evict(entry.getKey(), entry.getValue());
+		}
+	}
+
+
+	@Override
+	protected Mono<Resource> resolveResourceInternal(@Nullable ServerWebExchange exchange,
+			String requestPath, List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		String acceptEncoding = (exchange != null ?
+				exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING) : null);
+
+		CachedContent content = this.cache.get(requestPath);
+		if (content != null) {
+			if (!isStale(content)) {
+				content.lastAccess = System.nanoTime();
+				return Mono.just(content.createResource(acceptEncoding));
+			}
+			if (logger.isTraceEnabled()) {
+				logger.trace("Evicting modified resource from cache: " + content.original);
+			}
+			evict(requestPath, content);
+		}
+
+		return chain.resolveResource(exchange, requestPath, locations)
+				.map(resource -> {
+					CachedContent loaded = loadContent(resource);
+					if (loaded == null) {
+						return resource;
+					}
+					if (logger.isTraceEnabled()) {
+						logger.trace("Putting resource content in cache: " + resource);
+					}
+					CachedContent previous = this.cache.put(requestPath, loaded);
+					this.cacheSize.addAndGet(loaded.size - (previous != null ? previous.size : 0));
+					evictIfNecessary();
+					return loaded.createResource(acceptEncoding);
+				});
+	}
+
+	@Override
+	protected Mono<String> resolveUrlPathInternal(String resourceUrlPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		return chain.resolveUrlPath(resourceUrlPath, locations);
+	}
+
+	private boolean isStale(CachedContent content) {
+		if (this.checkIntervalMillis < 0) {
+			return false;
+		}
+		long now = System.currentTimeMillis();
+		if (now - content.lastChecked < this.checkIntervalMillis) {
+			return false;
+		}
+		content.lastChecked = now;
+		try {
+			for (Map.Entry<Resource, Long> entry : content.timestamps.entrySet()) {
+				if (entry.getKey().lastModified() != entry.getValue()) {
+					return true;
+				}
+			}
+			return false;
+		}
+		catch (IOException ex) {
+			return true;
+		}
+	}
+
+	@Nullable
+	private CachedContent loadContent(Resource resource) {
+		if (resource instanceof HttpResource &&
+				((HttpResource) resource).getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+			return null;
+		}
+		try {
+			if (!resource.isReadable() || resource.contentLength() > this.maxFileSize) {
+				return null;
+			}
+			long lastModified = resource.lastModified();
+			byte[] content = readContent(resource);
+			if (content == null) {
+				return null;
+			}
+			Map<Resource, Long> timestamps = new LinkedHashMap<>(4);
+			timestamps.put(resource, lastModified);
+			byte[] gzipped = readVariant(resource, ".gz", timestamps);
+			if (gzipped == null && this.compressor.isCompressible(MediaTypeFactory.getMediaType(resource).orElse(null))) {
+				gzipped = compress(content);
+			}
+			byte[] brotli = readVariant(resource, ".br", timestamps);
+			return new CachedContent(resource, timestamps, content, gzipped, brotli);
+		}
+		catch (IOException ex) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Failed to cache content of " + resource, ex);
+			}
+			return null;
+		}
+	}
+
+	@Nullable
+	private byte[] readVariant(Resource resource, String extension, Map<Resource, Long> timestamps) {
+		try {
+			Resource variant = resource.createRelative(resource.getFilename() + extension);
+			if (!variant.isReadable() || variant.contentLength() > this.maxFileSize) {
+				return null;
+			}
+			long lastModified = variant.lastModified();
+			if (lastModified < timestamps.get(resource)) {
+				if (logger.isTraceEnabled()) {
+					logger.trace("Ignoring outdated " + extension + " resource for [" + resource.getFilename() + "]");
+				}
+				return null;
+			}
+			byte[] content = readContent(variant);
+			if (content != null) {
+				timestamps.put(variant, lastModified);
+			}
+			return content;
+		}
+		catch (IOException ex) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("No " + extension + " resource for [" + resource.getFilename() + "]", ex);
+			}
+			return null;
+		}
+	}
+
+	@Nullable
+	private byte[] readContent(Resource resource) throws IOException {
+		try (InputStream inputStream = resource.getInputStream()) {
+			byte[] content = StreamUtils.copyToByteArray(inputStream);
+			return (content.length <= this.maxFileSize ? content : null);
+		}
+	}
+
+	@Nullable
+	private byte[] compress(byte[] content) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2);
+		ResponseCompressor.Compression compression = this.compressor.obtainCompression(ResponseCompressor.GZIP);
+		try {
+			compression.write(content, 0, content.length, out);
+			compression.finish(out);
+		}
+		finally {
+			compression.release();
+		}
+		return (out.size() < content.length ? out.toByteArray() : null);
+	}
+
+	private void evictIfNecessary() {
+		while (this.cacheSize.get() > this.maxCacheSize) {
+			Map.Entry<String, CachedContent> leastUsed = null;
+			for (Map.Entry<String, CachedContent> entry : this.cache.entrySet()) {
+				if (leastUsed == null || entry.getValue().lastAccess - leastUsed.getValue().lastAccess < 0) {
+					leastUsed = entry;
+				}
+			}
+			if (leastUsed == null) {
+				return;
+			}
+			evict(leastUsed.getKey(), leastUsed.getValue());
+		}
+	}
+
+	private void evict(String key, CachedContent content) {
+		if (this.cache.remove(key, content)) {
+			this.cacheSize.addAndGet(-content.size);
+		}
+	}
+
+
+	/**
+	 * The in-memory content of a resource, with its precomputed variants.
+	 */
+	private static final class CachedContent {
+
+		final Resource original;
+
+		final long lastModified;
+
+		final Map<Resource, Long> timestamps;
+
+		final byte[] content;
+
+		@Nullable
+		final byte[] gzipped;
+
+		@Nullable
+		final byte[] brotli;
+
+		final String eTag;
+
+		final HttpHeaders headers;
+
+		final long size;
+
+		volatile long lastAccess = System.nanoTime();
+
+		volatile long lastChecked = System.currentTimeMillis();
+
+		CachedContent(Resource original, Map<Resource, Long> timestamps, byte[] content,
+				@Nullable byte[] gzipped, @Nullable byte[] brotli) {
+
+			this.original = original;
+			this.lastModified = timestamps.get(original);
+			this.timestamps = timestamps;
+			this.content = content;
+			this.gzipped = gzipped;
+			this.brotli = brotli;
+			this.eTag = DigestUtils.md5DigestAsHex(content);
+			this.headers = (original instanceof HttpResource ?
+					((HttpResource) original).getResponseHeaders() : new HttpHeaders());
+			this.size = content.length + (gzipped != null ? gzipped.length : 0) + (brotli != null ? brotli.length : 0);
+		}
+
+		CachedResource createResource(@Nullable String acceptEncoding) {
+			float brotliQuality = (this.brotli != null ? ResponseCompressor.getQuality(acceptEncoding, "br") : 0);
+			float gzipQuality = (this.gzipped != null ?
+					ResponseCompressor.getQuality(acceptEncoding, ResponseCompressor.GZIP) : 0);
+			if (brotliQuality > 0 && brotliQuality >= gzipQuality) {
+				return new CachedResource(this, this.brotli, "br");
+			}
+			if (gzipQuality > 0) {
+				return new CachedResource(this, this.gzipped, ResponseCompressor.GZIP);
+			}
+			return new CachedResource(this, this.content, null);
+		}
+	}
+
+
+	/**
+	 * An {@link HttpResource} for a representation of cached content.
+	 */
+	static final class CachedResource extends AbstractResource implements HttpResource {
+
+		private final CachedContent content;
+
+		private final byte[] bytes;
+
+		@Nullable
+		private final String contentEncoding;
+
+		CachedResource(CachedContent content, byte[] bytes, @Nullable String contentEncoding) {
+			this.content = content;
+			this.bytes = bytes;
+			this.contentEncoding = contentEncoding;
+		}
+
+		/**
+		 * Return the content of this representation, not to be modified.
+		 */
+		byte[] getByteArray() {
+			return this.bytes;
+		}
+
+		/**
+		 * Return the quoted ETag of this representation, unless the
+		 * original resource provides its own.
+		 */
+		String getETag() {
+			String eTag = this.content.headers.getETag();
+			if (eTag != null) {
+				return eTag;
+			}
+			return (this.contentEncoding != null ?
+					"\"" + this.content.eTag + "-" + this.contentEncoding + "\"" : "\"" + this.content.eTag + "\"");
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return new ByteArrayInputStream(this.bytes);
+		}
+
+		@Override
+		public boolean exists() {
+			return true;
+		}
+
+		@Override
+		public boolean isReadable() {
+			return true;
+		}
+
+		@Override
+		public URL getURL() throws IOException {
+			return this.content.original.getURL();
+		}
+
+		@Override
+		public URI getURI() throws IOException {
+			return this.content.original.getURI();
+		}
+
+		@Override
+		public long contentLength() {
+			return this.bytes.length;
+		}
+
+		@Override
+		public long lastModified() {
+			return this.content.lastModified;
+		}
+
+		@Override
+		public Resource createRelative(String relativePath) throws IOException {
+			return this.content.original.createRelative(relativePath);
+		}
+
+		@Override
+		@Nullable
+		public String getFilename() {
+			return this.content.original.getFilename();
+		}
+
+		@Override
+		public String getDescription() {
+			return "cached content of " + this.content.original.getDescription() +
+					(this.contentEncoding != null ? " (" + this.contentEncoding + ")" : "");
+		}
+
+		@Override
+		public HttpHeaders getResponseHeaders() {
+			HttpHeaders headers = new HttpHeaders();
+			this.content.headers.forEach((name, values) -> headers.put(name, new ArrayList<>(values)));
+			headers.setETag(getETag());
+			if (this.contentEncoding != null) {
+				headers.set(HttpHeaders.CONTENT_ENCODING, this.contentEncoding);
+			}
+			if (this.content.gzipped != null || this.content.brotli != null) {
+				headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			}
+			return headers;
+		}
+	}
+
+}
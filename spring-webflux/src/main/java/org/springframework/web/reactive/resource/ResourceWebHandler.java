@@ -41,6 +41,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.codec.ResourceHttpMessageWriter;
 import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
@@ -277,7 +278,9 @@ public class ResourceWebHandler implements WebHandler, InitializingBean {
 						}
 
 						// Header phase
-						if (exchange.checkNotModified(Instant.ofEpochMilli(resource.lastModified()))) {
+						String eTag = (resource instanceof ContentCachingResourceResolver.CachedResource ?
+								((ContentCachingResourceResolver.CachedResource) resource).getETag() : null);
+						if (exchange.checkNotModified(eTag, Instant.ofEpochMilli(resource.lastModified()))) {
 							logger.trace("Resource not modified - returning 304");
 							return Mono.empty();
 						}
@@ -313,6 +316,14 @@ public class ResourceWebHandler implements WebHandler, InitializingBean {
 						}
 
 						setHeaders(exchange, resource, mediaType);
+						if (resource instanceof ContentCachingResourceResolver.CachedResource &&
+								exchange.getRequest().getHeaders().getRange().isEmpty()) {
+							// Serve in-memory content directly, wrapped without copying
+							ServerHttpResponse response = exchange.getResponse();
+							response.getHeaders().set(HttpHeaders.ACCEPT_RANGES, "bytes");
+							byte[] content = ((ContentCachingResourceResolver.CachedResource) resource).getByteArray();
+							return response.writeWith(Mono.just(response.bufferFactory().wrap(content)));
+						}
 						ResourceHttpMessageWriter writer = getResourceHttpMessageWriter();
 						Assert.state(writer != null, "No ResourceHttpMessageWriter");
 						return writer.write(Mono.just(resource),
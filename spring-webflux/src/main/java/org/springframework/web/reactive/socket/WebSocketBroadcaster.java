@@ -0,0 +1,159 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.socket;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferBroadcaster;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Broadcasts WebSocket messages to any number of sessions, encoding each
+ * message once into a single data buffer that is shared by all sessions with
+ * reference counting.
+ *
+ * <p>Sessions are connected from a {@link WebSocketHandler}, either through
+ * {@link #connect(WebSocketSession)}, or by sending {@link #messages()}
+ * merged with other outbound messages of the session.
+ *
+ * <p>Sessions that do not keep up are handled according to the
+ * {@linkplain #setOverflowStrategy overflow strategy}.
+ *
+ * @since 5.0.16
+ * @see DataBufferBroadcaster
+ */
+public class WebSocketBroadcaster {
+
+	private final DataBufferFactory bufferFactory;
+
+	private final DataBufferBroadcaster<WebSocketMessage> broadcaster = new DataBufferBroadcaster<>(
+			message -> new WebSocketMessage(message.getType(), DataBufferBroadcaster.retainedSlice(message.getPayload())),
+			WebSocketMessage::release);
+
+
+	/**
+	 * Create a broadcaster that encodes messages with a
+	 * {@link DefaultDataBufferFactory}.
+	 */
+	public WebSocketBroadcaster() {
+		this(new DefaultDataBufferFactory());
+	}
+
+	/**
+	 * Create a broadcaster that encodes messages with the given buffer
+	 * factory, e.g. for pooled buffers.
+	 */
+	public WebSocketBroadcaster(DataBufferFactory bufferFactory) {
+		Assert.notNull(bufferFactory, "DataBufferFactory must not be null");
+		this.bufferFactory = bufferFactory;
+	}
+
+
+	/**
+	 * Set the strategy for sessions that do not keep up.
+	 * @see DataBufferBroadcaster#setOverflowStrategy
+	 */
+	public void setOverflowStrategy(DataBufferBroadcaster.OverflowStrategy overflowStrategy) {
+		this.broadcaster.setOverflowStrategy(overflowStrategy);
+	}
+
+	/**
+	 * Set the maximum number of messages to buffer for a session.
+	 * @see DataBufferBroadcaster#setBufferSize
+	 */
+	public void setBufferSize(int bufferSize) {
+		this.broadcaster.setBufferSize(bufferSize);
+	}
+
+	/**
+	 * Return the number of connected sessions.
+	 */
+	public int getSubscriberCount() {
+		return this.broadcaster.getSubscriberCount();
+	}
+
+	/**
+	 * Return the number of messages dropped for slow sessions so far.
+	 */
+	public long getDroppedCount() {
+		return this.broadcaster.getDroppedCount();
+	}
+
+
+	/**
+	 * Return the messages broadcast from now on, until {@link #complete()}
+	 * is called, for sending to a session.
+	 */
+	public Flux<WebSocketMessage> messages() {
+		return this.broadcaster.connect();
+	}
+
+	/**
+	 * Send all messages broadcast from now on to the given session.
+	 * @param session the session to send to
+	 * @return completes when the broadcaster is completed or the session
+	 * is closed
+	 */
+	public Mono<Void> connect(WebSocketSession session) {
+		return session.send(messages());
+	}
+
+	/**
+	 * Encode the given text message once and send it to all sessions.
+	 * @param text the message payload
+	 * @return the number of sessions the message was sent to
+	 */
+	public int broadcastText(String text) {
+		return broadcast(WebSocketMessage.Type.TEXT, factory -> {
+			byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+			return factory.allocateBuffer(bytes.length).write(bytes);
+		});
+	}
+
+	/**
+	 * Send the given binary message to all sessions.
+	 * @param payloadFactory function to create the message payload once
+	 * @return the number of sessions the message was sent to
+	 */
+	public int broadcastBinary(Function<DataBufferFactory, DataBuffer> payloadFactory) {
+		return broadcast(WebSocketMessage.Type.BINARY, payloadFactory);
+	}
+
+	private int broadcast(WebSocketMessage.Type type, Function<DataBufferFactory, DataBuffer> payloadFactory) {
+		if (this.broadcaster.getSubscriberCount() == 0) {
+			return 0;
+		}
+		DataBuffer payload = payloadFactory.apply(this.bufferFactory);
+		return this.broadcaster.broadcast(new WebSocketMessage(type, payload));
+	}
+
+	/**
+	 * Complete the broadcast messages of all sessions, once the messages
+	 * buffered for them have been sent.
+	 */
+	public void complete() {
+		this.broadcaster.complete();
+	}
+
+}
@@ -87,7 +87,7 @@ public class JettyWebSocketSession extends AbstractListenerWebSocketSession<Sess
 		ByteBuffer buffer = message.getPayload().asByteBuffer();
 		if (WebSocketMessage.Type.TEXT.equals(message.getType())) {
 			getSendProcessor().setReadyToSend(false);
-			String text = new String(buffer.array(), StandardCharsets.UTF_8);
+			String text = StandardCharsets.UTF_8.decode(buffer).toString();
 			getDelegate().getRemote().sendString(text, new SendProcessorCallback());
 		}
 		else if (WebSocketMessage.Type.BINARY.equals(message.getType())) {
@@ -76,7 +76,7 @@ public class StandardWebSocketSession extends AbstractListenerWebSocketSession<S
 		ByteBuffer buffer = message.getPayload().asByteBuffer();
 		if (WebSocketMessage.Type.TEXT.equals(message.getType())) {
 			getSendProcessor().setReadyToSend(false);
-			String text = new String(buffer.array(), StandardCharsets.UTF_8);
+			String text = StandardCharsets.UTF_8.decode(buffer).toString();
 			getDelegate().getAsyncRemote().sendText(text, new SendProcessorCallback());
 		}
 		else if (WebSocketMessage.Type.BINARY.equals(message.getType())) {
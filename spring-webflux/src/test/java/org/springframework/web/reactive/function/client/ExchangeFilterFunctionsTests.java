@@ -17,17 +17,30 @@
 package org.springframework.web.reactive.function.client;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import io.netty.buffer.PooledByteBufAllocator;
 import org.junit.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.Operators;
 import reactor.test.StepVerifier;
 
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.client.support.HttpResponseCache;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
 import static org.springframework.web.reactive.function.client.ExchangeFilterFunctions.Credentials.basicAuthenticationCredentials;
 
 /**
@@ -179,6 +192,283 @@ public class ExchangeFilterFunctionsTests {
 				.verify();
 	}
 
+	@Test
+	public void hedge() {
+		ClientRequest request = ClientRequest.create(GET, URI.create("http://example.com")).build();
+		ClientResponse slow = mock(ClientResponse.class);
+		ClientResponse fast = mock(ClientResponse.class);
+		AtomicInteger count = new AtomicInteger();
+		ExchangeFunction exchange = r -> Mono.defer(() -> (count.incrementAndGet() == 1 ?
+				Mono.delay(Duration.ofSeconds(5)).then(Mono.just(slow)) : Mono.just(fast)));
+
+		ClientResponse result = ExchangeFilterFunctions.hedge(Duration.ofMillis(20))
+				.filter(request, exchange).block(Duration.ofSeconds(1));
+
+		assertSame(fast, result);
+		assertEquals(2, count.get());
+	}
+
+	@Test
+	public void hedgeReleasesLosingResponse() {
+		ClientRequest request = ClientRequest.create(GET, URI.create("http://example.com")).build();
+		ClientResponse slow = mock(ClientResponse.class);
+		ClientResponse fast = mock(ClientResponse.class);
+		when(slow.body(any())).thenReturn(Flux.empty());
+		AtomicInteger count = new AtomicInteger();
+		// The slow response is emitted even though its exchange was cancelled, as in a race
+		Mono<ClientResponse> slowExchange = Mono.from(subscriber -> {
+			subscriber.onSubscribe(Operators.emptySubscription());
+			Mono.delay(Duration.ofMillis(100)).subscribe(tick -> subscriber.onNext(slow));
+		});
+		ExchangeFunction exchange = r -> Mono.defer(() -> (count.incrementAndGet() == 1 ? slowExchange : Mono.just(fast)));
+
+		ClientResponse result = ExchangeFilterFunctions.hedge(Duration.ofMillis(20))
+				.filter(request, exchange).block(Duration.ofSeconds(1));
+
+		assertSame(fast, result);
+		verify(slow, timeout(1000)).body(any());
+		verify(fast, never()).body(any());
+	}
+
+	@Test
+	public void hedgeNotNeeded() {
+		ClientRequest request = ClientRequest.create(GET, URI.create("http://example.com")).build();
+		ClientResponse response = mock(ClientResponse.class);
+		AtomicInteger count = new AtomicInteger();
+		ExchangeFunction exchange = r -> Mono.fromSupplier(() -> {
+			count.incrementAndGet();
+			return response;
+		});
+
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.hedge(0.95, Duration.ofMillis(50));
+		for (int i = 0; i < 20; i++) {
+			assertSame(response, filter.filter(request, exchange).block(Duration.ofSeconds(1)));
+		}
+		assertEquals(20, count.get());
+	}
+
+	@Test
+	public void hedgeSkippedForPost() {
+		ClientRequest request = ClientRequest.create(POST, URI.create("http://example.com")).build();
+		AtomicInteger count = new AtomicInteger();
+		ExchangeFunction exchange = r -> Mono.defer(() -> {
+			count.incrementAndGet();
+			return Mono.delay(Duration.ofMillis(100)).then(Mono.just(mock(ClientResponse.class)));
+		});
+
+		ExchangeFilterFunctions.hedge(Duration.ofMillis(10)).filter(request, exchange).block(Duration.ofSeconds(1));
+		assertEquals(1, count.get());
+	}
+
+	@Test
+	public void bulkhead() {
+		ClientRequest request = ClientRequest.create(GET, URI.create("http://example.com")).build();
+		ClientRequest otherRequest = ClientRequest.create(GET, URI.create("http://example.org")).build();
+		ClientResponse response = mock(ClientResponse.class);
+		ExchangeFunction exchange = r -> (r == request ? Mono.never() : Mono.just(response));
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.bulkhead(1);
+
+		Disposable pending = filter.filter(request, exchange).subscribe();
+		StepVerifier.create(filter.filter(request, exchange))
+				.expectError(ConcurrencyLimitExceededException.class)
+				.verify();
+		StepVerifier.create(filter.filter(otherRequest, exchange))
+				.expectNext(response)
+				.verifyComplete();
+
+		pending.dispose();
+		StepVerifier.create(filter.filter(request, r -> Mono.just(response)))
+				.expectNext(response)
+				.verifyComplete();
+	}
+
+	@Test
+	public void adaptiveConcurrencyLimit() {
+		ClientRequest request = ClientRequest.create(GET, URI.create("http://example.com")).build();
+		AdaptiveConcurrencyLimitFilterFunction filter = ExchangeFilterFunctions.adaptiveConcurrencyLimit(2, 10);
+
+		Disposable pending1 = filter.filter(request, r -> Mono.never()).subscribe();
+		Disposable pending2 = filter.filter(request, r -> Mono.never()).subscribe();
+		assertEquals(2, filter.getInFlight());
+		StepVerifier.create(filter.filter(request, r -> Mono.never()))
+				.expectErrorSatisfies(ex -> assertEquals(2, ((ConcurrencyLimitExceededException) ex).getLimit()))
+				.verify();
+		pending1.dispose();
+		pending2.dispose();
+		assertEquals(0, filter.getInFlight());
+	}
+
+	@Test
+	public void adaptiveConcurrencyLimitAdapts() {
+		ClientRequest request = ClientRequest.create(GET, URI.create("http://example.com")).build();
+		ClientResponse response = mock(ClientResponse.class);
+		AdaptiveConcurrencyLimitFilterFunction filter = new AdaptiveConcurrencyLimitFilterFunction(4, 1, 100);
+
+		// Fully utilized with stable latency: the limit grows
+		for (int i = 0; i < 20; i++) {
+			Flux.range(0, filter.getLimit())
+					.flatMap(j -> filter.filter(request, r -> Mono.delay(Duration.ofMillis(5)).then(Mono.just(response)))
+							.onErrorResume(ConcurrencyLimitExceededException.class, ex -> Mono.empty()))
+					.blockLast(Duration.ofSeconds(1));
+		}
+		int limit = filter.getLimit();
+		assertTrue(limit > 4);
+
+		// Errors: the limit backs off
+		for (int i = 0; i < 10; i++) {
+			filter.filter(request, r -> Mono.error(new IllegalStateException())).onErrorResume(ex -> Mono.empty()).block();
+		}
+		assertTrue(filter.getLimit() < limit);
+	}
+
+	@Test
+	public void cache() {
+		ClientRequest request = ClientRequest.create(GET, URI.create("http://example.com")).build();
+		HttpResponseCache cache = new HttpResponseCache(1024);
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.cache(cache);
+		AtomicInteger exchanges = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			exchanges.incrementAndGet();
+			return Mono.just(ClientResponse.create(HttpStatus.OK)
+					.header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+					.body("foo")
+					.build());
+		};
+
+		for (int i = 0; i < 2; i++) {
+			StepVerifier.create(filter.filter(request, exchange).flatMap(response -> response.bodyToMono(String.class)))
+					.expectNext("foo")
+					.verifyComplete();
+		}
+		assertEquals(1, exchanges.get());
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void cacheSkippedForLargeBodyWithoutContentLength() {
+		ClientRequest request = ClientRequest.create(GET, URI.create("http://example.com")).build();
+		HttpResponseCache cache = new HttpResponseCache(1024);
+		cache.setMaxEntrySize(4);
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.cache(cache);
+		NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+		ExchangeFunction exchange = r -> Mono.just(ClientResponse.create(HttpStatus.OK)
+				.header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+				.body(Flux.just("foo", "bar", "baz").map(value ->
+						bufferFactory.wrap(value.getBytes(StandardCharsets.UTF_8))))
+				.build());
+
+		StepVerifier.create(filter.filter(request, exchange).flatMap(response -> response.bodyToMono(String.class)))
+				.expectNext("foobarbaz")
+				.verifyComplete();
+		assertNull(cache.get(request.url(), request.headers()));
+	}
+
+	@Test
+	public void cacheRevalidation() {
+		ClientRequest request = ClientRequest.create(GET, URI.create("http://example.com")).build();
+		HttpResponseCache cache = new HttpResponseCache(1024);
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.cache(cache);
+		ExchangeFunction exchange = r -> Mono.just(ClientResponse.create(HttpStatus.OK)
+				.header(HttpHeaders.CACHE_CONTROL, "no-cache")
+				.header(HttpHeaders.ETAG, "\"v1\"")
+				.body("foo")
+				.build());
+		filter.filter(request, exchange).flatMap(response -> response.bodyToMono(String.class)).block();
+
+		exchange = r -> {
+			assertEquals("\"v1\"", r.headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+			return Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+		};
+		StepVerifier.create(filter.filter(request, exchange))
+				.consumeNextWith(response -> {
+					assertEquals(HttpStatus.OK, response.statusCode());
+					assertEquals("foo", response.bodyToMono(String.class).block());
+				})
+				.verifyComplete();
+		assertEquals(1, cache.getRevalidationCount());
+	}
+
+	@Test
+	public void coalesce() {
+		ClientRequest request = ClientRequest.create(GET, URI.create("http://example.com")).build();
+		CoalescingExchangeFilterFunction filter = new CoalescingExchangeFilterFunction(HttpHeaders.ACCEPT);
+		AtomicInteger exchanges = new AtomicInteger();
+		MonoProcessor<ClientResponse> upstream = MonoProcessor.create();
+		ExchangeFunction exchange = r -> {
+			exchanges.incrementAndGet();
+			return upstream;
+		};
+
+		Mono<String> result1 = filter.filter(request, exchange).flatMap(response -> response.bodyToMono(String.class));
+		Mono<String> result2 = filter.filter(request, exchange).flatMap(response -> response.bodyToMono(String.class));
+		MonoProcessor<String> processor1 = result1.toProcessor();
+		MonoProcessor<String> processor2 = result2.toProcessor();
+		assertEquals(1, filter.getInFlightCount());
+
+		NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+		DataBuffer buffer = bufferFactory.wrap("foo".getBytes(StandardCharsets.UTF_8));
+		upstream.onNext(ClientResponse.create(HttpStatus.OK).body(Flux.just(buffer)).build());
+
+		assertEquals("foo", processor1.block());
+		assertEquals("foo", processor2.block());
+		assertEquals(1, exchanges.get());
+		assertEquals(0, filter.getInFlightCount());
+		assertEquals(0, ((NettyDataBuffer) buffer).getNativeBuffer().refCnt());
+
+		// Not in flight anymore: new exchange
+		filter.filter(request, r -> {
+			exchanges.incrementAndGet();
+			return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+		}).block();
+		assertEquals(2, exchanges.get());
+	}
+
+	@Test
+	public void coalesceDistinctHeaders() {
+		CoalescingExchangeFilterFunction filter = new CoalescingExchangeFilterFunction(HttpHeaders.ACCEPT);
+		AtomicInteger exchanges = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			exchanges.incrementAndGet();
+			return Mono.never();
+		};
+
+		ClientRequest request1 = ClientRequest.create(GET, URI.create("http://example.com"))
+				.header(HttpHeaders.ACCEPT, "text/plain").build();
+		ClientRequest request2 = ClientRequest.create(GET, URI.create("http://example.com"))
+				.header(HttpHeaders.ACCEPT, "application/json").build();
+		Disposable pending1 = filter.filter(request1, exchange).subscribe();
+		Disposable pending2 = filter.filter(request2, exchange).subscribe();
+		assertEquals(2, exchanges.get());
+		assertEquals(2, filter.getInFlightCount());
+		pending1.dispose();
+		pending2.dispose();
+	}
+
+	@Test
+	public void coalesceDistinctCredentials() {
+		CoalescingExchangeFilterFunction filter = new CoalescingExchangeFilterFunction();
+		AtomicInteger exchanges = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			exchanges.incrementAndGet();
+			return Mono.never();
+		};
+
+		ClientRequest request1 = ClientRequest.create(GET, URI.create("http://example.com"))
+				.header(HttpHeaders.AUTHORIZATION, "Bearer user1").build();
+		ClientRequest request2 = ClientRequest.create(GET, URI.create("http://example.com"))
+				.header(HttpHeaders.AUTHORIZATION, "Bearer user2").build();
+		ClientRequest request3 = ClientRequest.create(GET, URI.create("http://example.com"))
+				.header(HttpHeaders.AUTHORIZATION, "Bearer user2").cookie("SESSION", "1").build();
+		Disposable pending1 = filter.filter(request1, exchange).subscribe();
+		Disposable pending2 = filter.filter(request2, exchange).subscribe();
+		Disposable pending3 = filter.filter(request3, exchange).subscribe();
+		assertEquals(3, exchanges.get());
+		assertEquals(3, filter.getInFlightCount());
+		pending1.dispose();
+		pending2.dispose();
+		pending3.dispose();
+	}
+
 	@SuppressWarnings("serial")
 	private static class MyException extends Exception {
 
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
+import org.springframework.mock.web.test.server.MockServerWebExchange;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.reactive.HandlerMapping;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ContentCachingResourceResolver}.
+ */
+public class ContentCachingResourceResolverTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private static final String CSS = "body { color: red; }\n" + String.join("", Collections.nCopies(100, "p { margin: 0; }\n"));
+
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private final ContentCachingResourceResolver resolver = new ContentCachingResourceResolver();
+
+	private List<Resource> locations;
+
+
+	@Before
+	public void setup() throws IOException {
+		this.locations = Collections.singletonList(new FileSystemResource(this.folder.getRoot().getPath() + "/"));
+		FileCopyUtils.copy(CSS.getBytes(StandardCharsets.UTF_8), this.folder.newFile("foo.css"));
+	}
+
+
+	@Test
+	public void resolveFromCache() throws IOException {
+		ResourceResolverChain chain = new DefaultResourceResolverChain(
+				Arrays.asList(this.resolver, new PathResourceResolver()));
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("").header("Accept-Encoding", "gzip"));
+		chain.resolveResource(exchange, "foo.css", this.locations).block(TIMEOUT);
+
+		ResourceResolverChain emptyChain = new DefaultResourceResolverChain(Collections.singletonList(this.resolver));
+		Resource resource = emptyChain.resolveResource(exchange, "foo.css", this.locations).block(TIMEOUT);
+
+		assertTrue(resource instanceof ContentCachingResourceResolver.CachedResource);
+		HttpHeaders headers = ((HttpResource) resource).getResponseHeaders();
+		assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(HttpHeaders.ACCEPT_ENCODING, headers.getFirst(HttpHeaders.VARY));
+		assertEquals(CSS, StreamUtils.copyToString(
+				new GZIPInputStream(resource.getInputStream()), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void handle() throws Exception {
+		ResourceWebHandler handler = new ResourceWebHandler();
+		handler.setLocations(this.locations);
+		handler.setResourceResolvers(Arrays.asList(this.resolver, new PathResourceResolver()));
+		handler.afterPropertiesSet();
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(""));
+		exchange.getAttributes().put(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, PathContainer.parsePath("foo.css"));
+		handler.handle(exchange).block(TIMEOUT);
+
+		HttpHeaders headers = exchange.getResponse().getHeaders();
+		assertEquals(CSS.length(), headers.getContentLength());
+		assertEquals("bytes", headers.getFirst(HttpHeaders.ACCEPT_RANGES));
+		assertEquals(CSS, exchange.getResponse().getBodyAsString().block(TIMEOUT));
+		String eTag = headers.getETag();
+		assertNotNull(eTag);
+
+		exchange = MockServerWebExchange.from(MockServerHttpRequest.get("").ifNoneMatch(eTag));
+		exchange.getAttributes().put(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, PathContainer.parsePath("foo.css"));
+		handler.handle(exchange).block(TIMEOUT);
+
+		assertEquals(HttpStatus.NOT_MODIFIED, exchange.getResponse().getStatusCode());
+	}
+
+	@Test
+	public void resolveVariantByQuality() throws IOException {
+		FileCopyUtils.copy("brotli".getBytes(StandardCharsets.UTF_8), this.folder.newFile("foo.css.br"));
+		assertNull(resolveContentEncoding("gzip;q=0, deflate"));
+		assertNull(resolveContentEncoding("x-gzip, brotli"));
+		assertEquals("gzip", resolveContentEncoding("br;q=0.5, gzip"));
+		assertEquals("br", resolveContentEncoding("gzip;q=0.8, br"));
+	}
+
+	@Test
+	public void ignoreOutdatedPrecompressedVariant() throws IOException {
+		File file = this.folder.newFile("foo.css.br");
+		FileCopyUtils.copy("brotli".getBytes(StandardCharsets.UTF_8), file);
+		assertTrue(file.setLastModified(new File(this.folder.getRoot(), "foo.css").lastModified() - 10000));
+		assertNull(resolveContentEncoding("br"));
+	}
+
+	@Nullable
+	private String resolveContentEncoding(String acceptEncoding) {
+		ResourceResolverChain chain = new DefaultResourceResolverChain(
+				Arrays.asList(this.resolver, new PathResourceResolver()));
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("").header("Accept-Encoding", acceptEncoding));
+		Resource resource = chain.resolveResource(exchange, "foo.css", this.locations).block(TIMEOUT);
+		return ((HttpResource) resource).getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+	}
+
+	@Test
+	public void gzipContent() throws Exception {
+		Resource resource = this.resolver.resolveResource(
+				MockServerWebExchange.from(MockServerHttpRequest.get("").header("Accept-Encoding", "gzip")),
+				"foo.css", this.locations,
+				new DefaultResourceResolverChain(Collections.singletonList(new PathResourceResolver()))).block(TIMEOUT);
+
+		byte[] content = ((ContentCachingResourceResolver.CachedResource) resource).getByteArray();
+		assertEquals(CSS, StreamUtils.copyToString(
+				new GZIPInputStream(new ByteArrayInputStream(content)), StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.socket;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link WebSocketBroadcaster}.
+ */
+public class WebSocketBroadcasterTests {
+
+	private final WebSocketBroadcaster broadcaster = new WebSocketBroadcaster();
+
+
+	@Test
+	public void broadcastText() {
+		Flux<String> first = this.broadcaster.messages().map(this::payloadAsText);
+		Flux<String> second = this.broadcaster.messages().map(this::payloadAsText);
+
+		StepVerifier.create(first.mergeWith(second))
+				.then(() -> {
+					assertEquals(2, this.broadcaster.getSubscriberCount());
+					assertEquals(2, this.broadcaster.broadcastText("foo"));
+					assertEquals(2, this.broadcaster.broadcastText("bar"));
+					this.broadcaster.complete();
+				})
+				.expectNext("foo", "foo", "bar", "bar")
+				.verifyComplete();
+	}
+
+	@Test
+	public void broadcastBinary() {
+		StepVerifier.create(this.broadcaster.messages())
+				.then(() -> this.broadcaster.broadcastBinary(factory -> factory.wrap(new byte[] {1, 2, 3})))
+				.consumeNextWith(message -> {
+					assertEquals(WebSocketMessage.Type.BINARY, message.getType());
+					assertEquals(3, message.getPayload().readableByteCount());
+				})
+				.then(this.broadcaster::complete)
+				.verifyComplete();
+	}
+
+	@Test
+	public void broadcastWithoutSessions() {
+		assertEquals(0, this.broadcaster.broadcastText("foo"));
+	}
+
+
+	private String payloadAsText(WebSocketMessage message) {
+		String text = message.getPayloadAsText();
+		message.release();
+		return text;
+	}
+
+}
@@ -452,7 +452,9 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		checkRequest(request);
 
 		// Header phase
-		if (new ServletWebRequest(request, response).checkNotModified(resource.lastModified())) {
+		String eTag = (resource instanceof ContentCachingResourceResolver.CachedResource ?
+				((ContentCachingResourceResolver.CachedResource) resource).getETag() : null);
+		if (new ServletWebRequest(request, response).checkNotModified(eTag, resource.lastModified())) {
 			logger.trace("Resource not modified - returning 304");
 			return;
 		}
@@ -484,6 +486,12 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		if (request.getHeader(HttpHeaders.RANGE) == null) {
 			Assert.state(this.resourceHttpMessageConverter != null, "Not initialized");
 			setHeaders(response, resource, mediaType);
+			if (resource instanceof ContentCachingResourceResolver.CachedResource) {
+				// Serve in-memory content directly, without stream copying
+				outputMessage.getBody().write(((ContentCachingResourceResolver.CachedResource) resource).getByteArray());
+				outputMessage.flush();
+				return;
+			}
 			this.resourceHttpMessageConverter.write(resource, mediaType, outputMessage);
 		}
 		else {
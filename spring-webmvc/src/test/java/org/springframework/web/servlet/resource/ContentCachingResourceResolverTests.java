@@ -0,0 +1,275 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.mock.web.test.MockHttpServletResponse;
+import org.springframework.mock.web.test.MockServletContext;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ContentCachingResourceResolver}.
+ */
+public class ContentCachingResourceResolverTests {
+
+	private static final String CSS = "body { color: red; }\n" + String.join("", Collections.nCopies(100, "p { margin: 0; }\n"));
+
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private final ContentCachingResourceResolver resolver = new ContentCachingResourceResolver();
+
+	private final CountingResourceResolver countingResolver = new CountingResourceResolver();
+
+	private ResourceResolverChain chain;
+
+	private List<Resource> locations;
+
+
+	@Before
+	public void setup() throws IOException {
+		this.chain = new DefaultResourceResolverChain(
+				Arrays.asList(this.resolver, this.countingResolver, new PathResourceResolver()));
+		this.locations = Collections.singletonList(new FileSystemResource(this.folder.getRoot().getPath() + "/"));
+		write("foo.css", CSS);
+	}
+
+
+	@Test
+	public void resolveFromCache() throws IOException {
+		Resource first = this.chain.resolveResource(new MockHttpServletRequest(), "foo.css", this.locations);
+		Resource second = this.chain.resolveResource(new MockHttpServletRequest(), "foo.css", this.locations);
+
+		assertEquals(1, this.countingResolver.count);
+		assertTrue(second instanceof ContentCachingResourceResolver.CachedResource);
+		assertEquals(CSS, StreamUtils.copyToString(second.getInputStream(), StandardCharsets.UTF_8));
+		assertEquals(CSS.length(), second.contentLength());
+		assertEquals(first.lastModified(), second.lastModified());
+
+		HttpHeaders headers = ((HttpResource) second).getResponseHeaders();
+		assertNotNull(headers.getETag());
+		assertNull(headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(HttpHeaders.ACCEPT_ENCODING, headers.getFirst(HttpHeaders.VARY));
+	}
+
+	@Test
+	public void resolveGzipVariant() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "gzip, deflate");
+		Resource resource = this.chain.resolveResource(request, "foo.css", this.locations);
+
+		HttpHeaders headers = ((HttpResource) resource).getResponseHeaders();
+		assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertTrue(headers.getETag().endsWith("-gzip\""));
+		assertTrue(resource.contentLength() < CSS.length());
+		byte[] content = ((ContentCachingResourceResolver.CachedResource) resource).getByteArray();
+		assertEquals(CSS, StreamUtils.copyToString(
+				new GZIPInputStream(new ByteArrayInputStream(content)), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void resolvePrecompressedBrotliVariant() throws IOException {
+		write("foo.css.br", "brotli");
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "gzip, br");
+		Resource resource = this.chain.resolveResource(request, "foo.css", this.locations);
+
+		assertEquals("br", ((HttpResource) resource).getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals("brotli", StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void resolveVariantByQuality() throws IOException {
+		write("foo.css.br", "brotli");
+		assertNull(resolveContentEncoding("gzip;q=0, deflate"));
+		assertNull(resolveContentEncoding("x-gzip, brotli"));
+		assertEquals("gzip", resolveContentEncoding("br;q=0.5, gzip"));
+		assertEquals("br", resolveContentEncoding("gzip;q=0.8, br"));
+		assertEquals("br", resolveContentEncoding("*"));
+		assertEquals("gzip", resolveContentEncoding("br;q=0, *;q=0.5"));
+	}
+
+	@Nullable
+	private String resolveContentEncoding(String acceptEncoding) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", acceptEncoding);
+		Resource resource = this.chain.resolveResource(request, "foo.css", this.locations);
+		return ((HttpResource) resource).getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+	}
+
+	@Test
+	public void ignoreOutdatedPrecompressedVariant() throws IOException {
+		File file = write("foo.css.br", "brotli");
+		assertTrue(file.setLastModified(new File(this.folder.getRoot(), "foo.css").lastModified() - 10000));
+		assertNull(resolveContentEncoding("br"));
+	}
+
+	@Test
+	public void evictModifiedPrecompressedVariant() throws IOException {
+		this.resolver.setCheckIntervalMillis(0);
+		File file = write("foo.css.br", "brotli");
+		assertEquals("br", resolveContentEncoding("br"));
+
+		write("foo.css.br", "brotli2");
+		assertTrue(file.setLastModified(file.lastModified() + 10000));
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "br");
+		Resource resource = this.chain.resolveResource(request, "foo.css", this.locations);
+
+		assertEquals(2, this.countingResolver.count);
+		assertEquals("brotli2", StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void noGzipVariantForIncompressibleType() throws IOException {
+		write("foo.png", CSS);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "gzip");
+		Resource resource = this.chain.resolveResource(request, "foo.png", this.locations);
+
+		HttpHeaders headers = ((HttpResource) resource).getResponseHeaders();
+		assertNull(headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertNull(headers.getFirst(HttpHeaders.VARY));
+		assertEquals(CSS.length(), resource.contentLength());
+	}
+
+	@Test
+	public void skipLargeResource() throws IOException {
+		this.resolver.setMaxFileSize(100);
+		Resource resource = this.chain.resolveResource(new MockHttpServletRequest(), "foo.css", this.locations);
+		this.chain.resolveResource(new MockHttpServletRequest(), "foo.css", this.locations);
+
+		assertFalse(resource instanceof ContentCachingResourceResolver.CachedResource);
+		assertEquals(2, this.countingResolver.count);
+		assertEquals(0, this.resolver.getCacheSize());
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() throws IOException {
+		write("bar.txt", "bar");
+		write("baz.txt", "baz");
+		this.resolver.setMaxCacheSize(6);
+		this.chain.resolveResource(null, "bar.txt", this.locations);
+		this.chain.resolveResource(null, "baz.txt", this.locations);
+		this.chain.resolveResource(null, "bar.txt", this.locations);
+		assertEquals(2, this.countingResolver.count);
+
+		write("qux.txt", "qux");
+		this.chain.resolveResource(null, "qux.txt", this.locations);
+		this.chain.resolveResource(null, "bar.txt", this.locations);
+		assertEquals(3, this.countingResolver.count);
+		this.chain.resolveResource(null, "baz.txt", this.locations);
+		assertEquals(4, this.countingResolver.count);
+		assertEquals(6, this.resolver.getCacheSize());
+	}
+
+	@Test
+	public void evictModifiedResource() throws IOException {
+		this.resolver.setCheckIntervalMillis(0);
+		this.chain.resolveResource(null, "foo.css", this.locations);
+
+		File file = write("foo.css", "p { }");
+		assertTrue(file.setLastModified(file.lastModified() - 10000));
+		Resource resource = this.chain.resolveResource(null, "foo.css", this.locations);
+
+		assertEquals(2, this.countingResolver.count);
+		assertEquals("p { }", StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void handleRequest() throws Exception {
+		ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+		handler.setLocations(this.locations);
+		handler.setResourceResolvers(Arrays.asList(this.resolver, new PathResourceResolver()));
+		handler.setServletContext(new MockServletContext());
+		handler.afterPropertiesSet();
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "");
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+
+		assertEquals(200, response.getStatus());
+		assertEquals("text/css", response.getContentType());
+		assertEquals(CSS.length(), response.getContentLength());
+		assertEquals(CSS, response.getContentAsString());
+		String eTag = response.getHeader("ETag");
+		assertNotNull(eTag);
+
+		request = new MockHttpServletRequest("GET", "");
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		request.addHeader("If-None-Match", eTag);
+		response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+
+		assertEquals(304, response.getStatus());
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+
+
+	private File write(String name, String content) throws IOException {
+		File file = new File(this.folder.getRoot(), name);
+		FileCopyUtils.copy(content.getBytes(StandardCharsets.UTF_8), file);
+		return file;
+	}
+
+
+	private static class CountingResourceResolver extends AbstractResourceResolver {
+
+		int count;
+
+		@Override
+		protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+				List<? extends Resource> locations, ResourceResolverChain chain) {
+
+			this.count++;
+			return chain.resolveResource(request, requestPath, locations);
+		}
+
+		@Override
+		protected String resolveUrlPathInternal(String resourceUrlPath,
+				List<? extends Resource> locations, ResourceResolverChain chain) {
+
+			return chain.resolveUrlPath(resourceUrlPath, locations);
+		}
+	}
+
+}